@@ -0,0 +1,237 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes blocks of bytes to a channel on a dedicated writer thread.
+ * A fixed set of blocks circulates between the producer and the writer thread: the producer
+ * takes an empty block, fills it and submits it, and the writer thread writes submitted blocks
+ * in order and hands them back. With two blocks this is double buffering, so the producer
+ * fills one block while the other is being written. When every block is waiting to be
+ * written, {@link #takeBlock()} blocks, which bounds memory use and slows a producer that
+ * is faster than the disk.
+ * 
+ * <p>If a write fails, the failure is reported to the producer by the next call to
+ * {@link #submit(byte[], int)}, {@link #takeBlock()} or {@link #close()}; blocks submitted
+ * after the failure are discarded. Unchecked exceptions and errors thrown by the channel
+ * are reported the same way, wrapped in an IOException, so the writer thread keeps
+ * returning blocks and the producer never waits for a block that will not come back.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class AsyncBlockWriter implements Closeable {
+    
+    /** Default number of blocks, one being filled while the other is written */
+    public static final int DEFAULT_BLOCK_COUNT = 2;
+    
+    /** Channel the blocks are written to */
+    private final WritableByteChannel channel;
+    
+    /** Size of each block in bytes */
+    private final int blockSize;
+    
+    /** Blocks ready to be filled by the producer */
+    private final BlockingQueue<byte[]> freeBlocks;
+    
+    /** Blocks waiting to be written, in submission order */
+    private final BlockingQueue<Block> fullBlocks;
+    
+    /** Thread that writes the submitted blocks */
+    private final Thread writerThread;
+    
+    /** First write failure of the writer thread, or null */
+    private volatile IOException failure;
+    
+    /** Whether {@link #close()} has been called */
+    private boolean closed;
+    
+    /**
+     * Opens a file for writing, replacing any existing content, and starts the writer thread.
+     * 
+     * @param outputPath the path of the file to write
+     * @param blockSize the size of each block in bytes
+     * @param blockCount the number of blocks, at least 2
+     * @throws IOException if the file cannot be opened
+     * @throws IllegalArgumentException if blockSize is less than 1 or blockCount is less than 2
+     */
+    public AsyncBlockWriter(Path outputPath, int blockSize, int blockCount) throws IOException {
+        this(FileChannel.open(outputPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE), blockSize, blockCount);
+    }
+    
+    /**
+     * Constructs a new AsyncBlockWriter and starts its writer thread.
+     * 
+     * @param channel the channel to write to, closed by {@link #close()}
+     * @param blockSize the size of each block in bytes
+     * @param blockCount the number of blocks, at least 2
+     * @throws IllegalArgumentException if blockSize is less than 1 or blockCount is less than 2
+     */
+    public AsyncBlockWriter(WritableByteChannel channel, int blockSize, int blockCount) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1 byte");
+        }
+        if (blockCount < 2) {
+            throw new IllegalArgumentException("Block count must be at least 2");
+        }
+        this.channel = channel;
+        this.blockSize = blockSize;
+        this.freeBlocks = new ArrayBlockingQueue<>(blockCount);
+        this.fullBlocks = new ArrayBlockingQueue<>(blockCount + 1);
+        for (int i = 0; i < blockCount; i++) {
+            freeBlocks.add(new byte[blockSize]);
+        }
+        
+        this.writerThread = new Thread(this::writeBlocks, "etl-block-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+    
+    /**
+     * Takes an empty block to fill, waiting while every block is queued for writing.
+     * 
+     * @return an empty block of {@link #getBlockSize()} bytes
+     * @throws IOException if an earlier write failed or the wait is interrupted
+     */
+    public byte[] takeBlock() throws IOException {
+        checkFailure();
+        try {
+            return freeBlocks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a free output block");
+        }
+    }
+    
+    /**
+     * Queues a filled block for writing. The block must not be used again until it is
+     * returned by {@link #takeBlock()}.
+     * 
+     * @param block a block taken from this writer
+     * @param length the number of bytes of the block to write
+     * @throws IOException if an earlier write failed or the wait is interrupted
+     */
+    public void submit(byte[] block, int length) throws IOException {
+        checkFailure();
+        try {
+            fullBlocks.put(new Block(block, length));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while queueing an output block");
+        }
+    }
+    
+    /**
+     * Waits until every submitted block has been written, stops the writer thread and
+     * closes the channel.
+     * 
+     * @throws IOException if a write failed, closing the channel fails, or the wait is interrupted
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        
+        try {
+            fullBlocks.put(Block.END);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writerThread.interrupt();
+            channel.close();
+            throw new InterruptedIOException("Interrupted while waiting for output blocks to be written");
+        }
+        
+        channel.close();
+        checkFailure();
+    }
+    
+    /**
+     * Gets the size of each block.
+     * 
+     * @return the block size in bytes
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+    
+    /**
+     * Runs on the writer thread: writes submitted blocks in order and returns them to the
+     * free blocks, until the end marker is taken.
+     */
+    private void writeBlocks() {
+        try {
+            while (true) {
+                Block block = fullBlocks.take();
+                if (block == Block.END) {
+                    return;
+                }
+                if (failure == null) {
+                    try {
+                        ByteBuffer bytes = ByteBuffer.wrap(block.data, 0, block.length);
+                        while (bytes.hasRemaining()) {
+                            channel.write(bytes);
+                        }
+                    } catch (IOException e) {
+                        failure = e;
+                    } catch (RuntimeException | Error e) {
+                        failure = new IOException("Failed writing output block: " + e, e);
+                    }
+                }
+                freeBlocks.put(block.data);
+            }
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("Block writer interrupted");
+        }
+    }
+    
+    /**
+     * Rethrows the failure of the writer thread, if any.
+     * 
+     * @throws IOException if a write failed
+     */
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * A block queued for writing.
+     */
+    private static final class Block {
+        
+        /** Marker that tells the writer thread to stop */
+        private static final Block END = new Block(new byte[0], 0);
+        
+        /** The block's bytes */
+        private final byte[] data;
+        
+        /** Number of bytes to write */
+        private final int length;
+        
+        /**
+         * Constructs a new Block.
+         * 
+         * @param data the block's bytes
+         * @param length the number of bytes to write
+         */
+        private Block(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+}
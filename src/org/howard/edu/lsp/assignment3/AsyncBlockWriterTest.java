@@ -0,0 +1,103 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for AsyncBlockWriter.
+ * Verifies that blocks are written in order and that write failures reach the producer.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class AsyncBlockWriterTest {
+    
+    @Test
+    @DisplayName("Test blocks are written in submission order")
+    public void testBlocksWrittenInOrder() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        
+        try (AsyncBlockWriter writer = new AsyncBlockWriter(Channels.newChannel(output), 16, 2)) {
+            for (int i = 0; i < 1000; i++) {
+                byte[] block = writer.takeBlock();
+                int length = i % 16 + 1;
+                for (int j = 0; j < length; j++) {
+                    block[j] = (byte) (i + j);
+                }
+                expected.write(block, 0, length);
+                writer.submit(block, length);
+            }
+        }
+        
+        assertArrayEquals(expected.toByteArray(), output.toByteArray());
+    }
+    
+    @Test
+    @DisplayName("Test a failed write is reported to the producer")
+    public void testFailureReported() throws IOException {
+        WritableByteChannel failing = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                throw new IOException("disk full");
+            }
+            
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+            
+            @Override
+            public void close() {
+            }
+        };
+        
+        CsvRowEncoder encoder = new CsvRowEncoder(new AsyncBlockWriter(failing, 64, 2));
+        IOException e = assertThrows(IOException.class, () -> {
+            for (int i = 0; i < 1000; i++) {
+                encoder.writeString("row " + i);
+                encoder.endRow();
+            }
+            encoder.close();
+        });
+        assertEquals("disk full", e.getMessage());
+    }
+    
+    @Test
+    @DisplayName("Test an unchecked exception from the channel is reported without blocking the producer")
+    public void testUncheckedFailureReported() throws IOException {
+        WritableByteChannel failing = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) {
+                throw new IllegalStateException("channel broken");
+            }
+            
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+            
+            @Override
+            public void close() {
+            }
+        };
+        
+        CsvRowEncoder encoder = new CsvRowEncoder(new AsyncBlockWriter(failing, 64, 2));
+        IOException e = assertThrows(IOException.class, () -> {
+            for (int i = 0; i < 1000; i++) {
+                encoder.writeString("row " + i);
+                encoder.endRow();
+            }
+            encoder.close();
+        });
+        assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+    }
+}
@@ -0,0 +1,347 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the pipeline on many input files in one JVM, so that JVM startup and JIT warmup
+ * are paid once for the whole batch instead of once per file. Files are processed by a
+ * fixed number of worker threads, each file by its own {@link ETLPipeline} with the same
+ * options, and the counters of every file are reported together with their totals.
+ * 
+ * <p>Jobs are given as input and output pairs or as a glob over the file names of one
+ * directory, in which case each output is written to an output directory and named after
+ * its input with a {@value #OUTPUT_PREFIX} prefix. Note that the extract and transform
+ * thread options apply to every file, so each worker may use that many threads itself.</p>
+ * 
+ * <p>Usage: {@code BatchRunner [pipeline options] [--parallelism <n>]
+ * [--pair <input> <output>]... [--glob <directory/pattern> --output-dir <directory>]},
+ * where the pipeline options are those of {@link PipelineOptions#getUsage()}.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class BatchRunner {
+    
+    /** Prefix of the output file names of files matched by a glob */
+    public static final String OUTPUT_PREFIX = "transformed_";
+    
+    /** Options every pipeline of the batch runs with */
+    private final PipelineOptions options;
+    
+    /** Largest number of files processed at the same time */
+    private final int parallelism;
+    
+    /**
+     * Constructs a new BatchRunner.
+     * 
+     * @param options the options every pipeline of the batch runs with
+     * @param parallelism the largest number of files processed at the same time, at least 1
+     * @throws IllegalArgumentException if parallelism is less than 1
+     */
+    public BatchRunner(PipelineOptions options, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.options = options;
+        this.parallelism = parallelism;
+    }
+    
+    /**
+     * Runs the pipeline on every input file of the batch.
+     * 
+     * @param jobs the output path of each input path, in the order to report them
+     * @return the result of each file, in the order of the jobs
+     * @throws IllegalArgumentException if two jobs write the same output file or a job
+     *         writes its own input file
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public List<FileResult> run(Map<Path, Path> jobs) throws InterruptedException {
+        checkJobs(jobs);
+        if (jobs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, jobs.size()));
+        try {
+            List<Future<FileResult>> pending = new ArrayList<>();
+            for (Map.Entry<Path, Path> job : jobs.entrySet()) {
+                pending.add(executor.submit(() -> runFile(options, job.getKey(), job.getValue(), new DataLoader())));
+            }
+            List<FileResult> results = new ArrayList<>();
+            for (Future<FileResult> future : pending) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    // runFile reports failures in its result, so only an Error ends up here
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException("Batch task failed", cause);
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Runs the pipeline on one file without printing its summary. An unexpected error
+     * is reported in the result instead of being thrown.
+     * 
+     * @param options the options the pipeline runs with
+     * @param inputPath the path to the input CSV file
+     * @param outputPath the path to the output CSV file
+     * @param loader the loader that writes the output file
+     * @return the result of the file
+     */
+    static FileResult runFile(PipelineOptions options, Path inputPath, Path outputPath, DataLoader loader) {
+        ETLPipeline pipeline = new ETLPipeline(options, inputPath, outputPath, loader);
+        pipeline.setPrintSummary(false);
+        long start = System.nanoTime();
+        boolean successful;
+        String error = null;
+        try {
+            successful = pipeline.execute();
+        } catch (RuntimeException e) {
+            successful = false;
+            error = e.toString();
+        }
+        return new FileResult(inputPath, outputPath, pipeline.getStatistics().snapshot(), successful,
+            System.nanoTime() - start, error);
+    }
+    
+    /**
+     * Checks that no two jobs write the same output file and no job writes its own input.
+     * 
+     * @param jobs the output path of each input path
+     * @throws IllegalArgumentException if the jobs conflict
+     */
+    private static void checkJobs(Map<Path, Path> jobs) {
+        Map<Path, Path> inputsByOutput = new LinkedHashMap<>();
+        for (Map.Entry<Path, Path> job : jobs.entrySet()) {
+            Path input = job.getKey().toAbsolutePath().normalize();
+            Path output = job.getValue().toAbsolutePath().normalize();
+            if (input.equals(output)) {
+                throw new IllegalArgumentException("Output file is the input file: " + job.getKey());
+            }
+            Path other = inputsByOutput.put(output, job.getKey());
+            if (other != null) {
+                throw new IllegalArgumentException("Output file " + job.getValue() + " is written for both "
+                    + other + " and " + job.getKey());
+            }
+        }
+    }
+    
+    /**
+     * Creates the jobs for the files of one directory whose names match a glob pattern,
+     * sorted by name. The output of each file is written to the output directory and
+     * named after the file with the {@value #OUTPUT_PREFIX} prefix.
+     * 
+     * @param glob the directory followed by a glob pattern for the file names, such as {@code regions/*.csv}
+     * @param outputDirectory the directory to write the outputs to
+     * @return the output path of each matched input path
+     * @throws IOException if the directory cannot be read
+     */
+    public static Map<Path, Path> globJobs(String glob, Path outputDirectory) throws IOException {
+        Path pattern = Paths.get(glob);
+        Path directory = pattern.getParent() != null ? pattern.getParent() : Paths.get(".");
+        List<Path> inputs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, pattern.getFileName().toString())) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file)) {
+                    inputs.add(file);
+                }
+            }
+        }
+        Collections.sort(inputs);
+        
+        Map<Path, Path> jobs = new LinkedHashMap<>();
+        for (Path input : inputs) {
+            jobs.put(input, outputDirectory.resolve(OUTPUT_PREFIX + input.getFileName()));
+        }
+        return jobs;
+    }
+    
+    /**
+     * Adds the counters of every file into one collector. The write status of the total
+     * is successful only if every file succeeded.
+     * 
+     * @param results the results of the files
+     * @return the totals
+     */
+    public static StatisticsCollector aggregate(List<FileResult> results) {
+        StatisticsCollector total = new StatisticsCollector();
+        boolean allSuccessful = true;
+        for (FileResult result : results) {
+            total.merge(result.getCounts());
+            allSuccessful &= result.isSuccessful();
+        }
+        total.setWriteSuccessful(allSuccessful);
+        return total;
+    }
+    
+    /**
+     * Prints the counters of every file and their totals as a table.
+     * 
+     * @param results the results of the files
+     * @param wallNanos the wall time of the whole batch in nanoseconds
+     * @param out the stream to print to
+     */
+    public static void printReport(List<FileResult> results, long wallNanos, PrintStream out) {
+        String format = "%-40s %10s %12s %10s %8s %10s";
+        out.println("---- Batch Summary ----");
+        out.println(String.format(Locale.ROOT, format, "Input", "Rows read", "Transformed", "Skipped", "Status", "Time (ms)"));
+        for (FileResult result : results) {
+            StatisticsSnapshot counts = result.getCounts();
+            out.println(String.format(Locale.ROOT, format, result.getInputPath(), counts.getRowsRead(),
+                counts.getTransformed(), counts.getSkipped(), result.isSuccessful() ? "ok" : "FAILED",
+                String.format(Locale.ROOT, "%.1f", result.getWallNanos() / 1e6)));
+            if (result.getError() != null) {
+                out.println("    Error: " + result.getError());
+            }
+        }
+        
+        StatisticsCollector total = aggregate(results);
+        long failed = 0;
+        for (FileResult result : results) {
+            if (!result.isSuccessful()) {
+                failed++;
+            }
+        }
+        out.println(String.format(Locale.ROOT, format, "Total (" + results.size() + " files)", total.getRowsRead(),
+            total.getTransformed(), total.getSkipped(), failed == 0 ? "ok" : failed + " FAILED",
+            String.format(Locale.ROOT, "%.1f", wallNanos / 1e6)));
+        out.println(String.format(Locale.ROOT, "Rows per second:         %.0f",
+            total.getRowsRead() / (Math.max(wallNanos, 1) / 1e9)));
+    }
+    
+    /**
+     * Gets a usage message describing the supported command line options.
+     * 
+     * @return the usage message
+     */
+    public static String getUsage() {
+        return "Usage: BatchRunner [pipeline options] [--parallelism <n>] [--pair <input> <output>]... "
+            + "[--glob <directory/pattern> --output-dir <directory>]\n"
+            + "Pipeline options: " + PipelineOptions.getUsage().replaceFirst("^Usage: ETLPipeline ", "");
+    }
+    
+    /**
+     * Adds a job, refusing an input file that already has one.
+     * 
+     * @param jobs the jobs so far, keyed by input path
+     * @param inputs the normalized absolute paths of the inputs of the jobs so far
+     * @param input the path to the input CSV file
+     * @param output the path to the output file
+     * @throws IllegalArgumentException if the input file is already in the jobs
+     */
+    static void addJob(Map<Path, Path> jobs, Set<Path> inputs, Path input, Path output) {
+        if (!inputs.add(input.toAbsolutePath().normalize())) {
+            throw new IllegalArgumentException("Input file is given twice: " + input);
+        }
+        jobs.put(input, output);
+    }
+    
+    /**
+     * Entry point of the batch runner.
+     * 
+     * @param args the options described in the class documentation
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        Map<Path, Path> jobs = new LinkedHashMap<>();
+        Set<Path> inputs = new HashSet<>();
+        PipelineOptions options;
+        try {
+            String glob = null;
+            Path outputDirectory = null;
+            List<String> pipelineArgs = new ArrayList<>();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if ("--parallelism".equals(arg)) {
+                    parallelism = Integer.parseInt(valueOf(args, ++i, arg));
+                } else if ("--pair".equals(arg)) {
+                    Path input = Paths.get(valueOf(args, ++i, arg));
+                    addJob(jobs, inputs, input, Paths.get(valueOf(args, ++i, arg)));
+                } else if ("--glob".equals(arg)) {
+                    glob = valueOf(args, ++i, arg);
+                } else if ("--output-dir".equals(arg)) {
+                    outputDirectory = Paths.get(valueOf(args, ++i, arg));
+                } else {
+                    pipelineArgs.add(arg);
+                }
+            }
+            options = PipelineOptions.fromArgs(pipelineArgs.toArray(new String[0]));
+            if (glob != null) {
+                if (outputDirectory == null) {
+                    throw new IllegalArgumentException("Option --glob requires --output-dir");
+                }
+                for (Map.Entry<Path, Path> job : globJobs(glob, outputDirectory).entrySet()) {
+                    addJob(jobs, inputs, job.getKey(), job.getValue());
+                }
+            }
+            if (jobs.isEmpty()) {
+                throw new IllegalArgumentException("No input files given or matched");
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println(getUsage());
+            System.exit(1);
+            return;
+        }
+        
+        long start = System.nanoTime();
+        List<FileResult> results;
+        try {
+            results = new BatchRunner(options, parallelism).run(jobs);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        printReport(results, System.nanoTime() - start, System.out);
+        
+        if (aggregate(results).isWriteSuccessful()) {
+            System.out.println("Batch completed successfully.");
+        } else {
+            System.err.println("Batch completed with errors.");
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Gets the value that follows an option on the command line.
+     * 
+     * @param args the command line arguments
+     * @param index the index of the value
+     * @param option the option the value belongs to
+     * @return the option value
+     * @throws IllegalArgumentException if the value is missing
+     */
+    private static String valueOf(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + option);
+        }
+        return args[index];
+    }
+}
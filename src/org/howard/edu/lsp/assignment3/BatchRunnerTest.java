@@ -0,0 +1,82 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for BatchRunner.
+ * Verifies that files matched by a glob are processed in one run with per-file and total counters.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class BatchRunnerTest {
+    
+    @Test
+    @DisplayName("Test a glob batch writes every output and adds up the counters")
+    public void testGlobBatch() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("batch-test");
+        Path outputDirectory = directory.resolve("out");
+        Path east = directory.resolve("east.csv");
+        Path west = directory.resolve("west.csv");
+        Path notes = directory.resolve("notes.txt");
+        try {
+            Files.write(east, Arrays.asList("ProductID,Name,Price,Category",
+                "1,Laptop,1200.00,Electronics", "bad,row"), StandardCharsets.UTF_8);
+            Files.write(west, Arrays.asList("ProductID,Name,Price,Category",
+                "2,Chair,150.00,Furniture", "3,Mug,9.99,Kitchen"), StandardCharsets.UTF_8);
+            Files.write(notes, Arrays.asList("not an input"), StandardCharsets.UTF_8);
+            
+            Map<Path, Path> jobs = BatchRunner.globJobs(directory.resolve("*.csv").toString(), outputDirectory);
+            assertEquals(Arrays.asList(east, west), Arrays.asList(jobs.keySet().toArray()));
+            
+            List<FileResult> results = new BatchRunner(new PipelineOptions(), 2).run(jobs);
+            assertEquals(2, results.size());
+            assertEquals(2, results.get(0).getCounts().getRowsRead());
+            assertEquals(1, results.get(0).getCounts().getSkipped());
+            assertEquals(2, results.get(1).getCounts().getTransformed());
+            
+            StatisticsCollector total = BatchRunner.aggregate(results);
+            assertEquals(4, total.getRowsRead());
+            assertEquals(3, total.getTransformed());
+            assertEquals(1, total.getSkipped());
+            assertTrue(total.isWriteSuccessful());
+            assertEquals(2, Files.readAllLines(outputDirectory.resolve("transformed_east.csv")).size());
+            assertEquals(3, Files.readAllLines(outputDirectory.resolve("transformed_west.csv")).size());
+        } finally {
+            for (Path path : Arrays.asList(outputDirectory.resolve("transformed_east.csv"),
+                    outputDirectory.resolve("transformed_west.csv"), outputDirectory, east, west, notes, directory)) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Test bare output file names and inputs given twice")
+    public void testBareNamesAndDuplicateInputs() {
+        assertTrue(new DataLoader().validateOutputDirectory(Paths.get("transformed.csv")));
+        
+        Map<Path, Path> jobs = new LinkedHashMap<>();
+        Set<Path> inputs = new HashSet<>();
+        BatchRunner.addJob(jobs, inputs, Paths.get("in.csv.gz"), Paths.get("out.csv"));
+        BatchRunner.addJob(jobs, inputs, Paths.get("other.csv"), Paths.get("other-out.csv"));
+        assertThrows(IllegalArgumentException.class,
+            () -> BatchRunner.addJob(jobs, inputs, Paths.get(".", "in.csv.gz"), Paths.get("again.csv")));
+        assertEquals(Paths.get("out.csv"), jobs.get(Paths.get("in.csv.gz")));
+        assertEquals(2, jobs.size());
+    }
+}
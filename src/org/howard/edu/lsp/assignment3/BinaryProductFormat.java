@@ -0,0 +1,105 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Describes the binary columnar file format written by {@link BinaryProductWriter} and
+ * read by {@link BinaryProductReader}. Output files whose name ends in {@value #EXTENSION}
+ * are written in this format instead of CSV.
+ * 
+ * <p>All numbers are little-endian. A file consists of:</p>
+ * <ul>
+ *   <li>a header of {@value #HEADER_SIZE} bytes: the magic number and the format version;</li>
+ *   <li>row groups of up to {@link ProductBatch#DEFAULT_CAPACITY} rows, each stored column
+ *       by column and padded to a multiple of 8 bytes: the prices as int64 cents, the ids as
+ *       int32, the end offset of each name in the group's name bytes as int32, the category
+ *       codes as unsigned integers of 1, 2 or 4 bytes, the price range codes as int8 with -1
+ *       for rows without a price range, the UTF-8 bytes of all names, and finally the prices
+ *       too large for cents as length-prefixed decimal strings, in row order; such rows hold
+ *       {@link #DECIMAL_PRICE} in the cents column;</li>
+ *   <li>a footer holding the index of the row groups (offset, row count, number of name
+ *       bytes, category code width and number of decimal price bytes of each), the
+ *       category dictionary and the price range dictionary as length-prefixed UTF-8
+ *       strings in code order, and the total number of rows;</li>
+ *   <li>a trailer of {@value #TRAILER_SIZE} bytes: the offset of the footer, the format
+ *       version and the magic number.</li>
+ * </ul>
+ * 
+ * <p>A reader finds everything through the trailer, so it can map the column it needs
+ * without parsing the rows before it. Prices hold exactly the two decimal places of the
+ * CSV output.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public final class BinaryProductFormat {
+    
+    /** File name extension of binary product files */
+    public static final String EXTENSION = ".etlb";
+    
+    /** Magic number at the start and end of every file, the bytes "ETLB" */
+    static final int MAGIC = 0x424C5445;
+    
+    /** Version of the format */
+    static final int VERSION = 1;
+    
+    /** Size of the header in bytes */
+    static final int HEADER_SIZE = 8;
+    
+    /** Size of the trailer in bytes */
+    static final int TRAILER_SIZE = 16;
+    
+    /** Size of one entry of the row group index in bytes */
+    static final int INDEX_ENTRY_SIZE = 24;
+    
+    /** Value of the cents column for a price that is stored as a decimal string */
+    static final long DECIMAL_PRICE = FixedPointPrice.NOT_REPRESENTABLE;
+    
+    /** Price range code of a row without a price range */
+    static final byte NO_PRICE_RANGE = -1;
+    
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private BinaryProductFormat() {
+    }
+    
+    /**
+     * Checks whether a file is a binary product file, judging by its name.
+     * 
+     * @param path the path of the file
+     * @return true if the file name ends in {@value #EXTENSION}, false otherwise
+     */
+    public static boolean isBinary(Path path) {
+        Path name = path.getFileName();
+        return name != null && name.toString().toLowerCase(Locale.ROOT).endsWith(EXTENSION);
+    }
+    
+    /**
+     * Gets the number of bytes used to store each category code of a row group.
+     * 
+     * @param categoryCount the number of categories in the dictionary
+     * @return 1, 2 or 4
+     */
+    static int categoryWidth(int categoryCount) {
+        if (categoryCount <= 0x100) {
+            return 1;
+        }
+        return categoryCount <= 0x10000 ? 2 : 4;
+    }
+    
+    /**
+     * Gets the size of a row group without its padding.
+     * 
+     * @param rows the number of rows
+     * @param nameBytes the number of name bytes
+     * @param categoryWidth the number of bytes of each category code
+     * @param decimalBytes the number of bytes of the decimal prices
+     * @return the size in bytes
+     */
+    static long rowGroupSize(int rows, int nameBytes, int categoryWidth, int decimalBytes) {
+        return (long) rows * (Long.BYTES + Integer.BYTES + Integer.BYTES + categoryWidth + 1) + nameBytes
+            + decimalBytes;
+    }
+}
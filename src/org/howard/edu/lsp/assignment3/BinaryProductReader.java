@@ -0,0 +1,367 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file written by {@link BinaryProductWriter}. The footer is read when the file
+ * is opened; each row group is then memory-mapped on its own and its columns are copied
+ * straight from the mapped bytes into a {@link ProductBatch}, without parsing any text.
+ * Names stay UTF-8 bytes, prices stay cents and categories stay dictionary codes, so
+ * reading a row group creates no objects per row, except for the rare prices too large
+ * to be held as cents.
+ * 
+ * <p>The reader is also a {@link ProductSource} and a {@link ProductBatchSource}, so
+ * a binary file can be passed wherever the pipeline expects a source of products,
+ * for example to convert it to CSV with {@link DataLoader#loadBatches}.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class BinaryProductReader implements ProductSource, ProductBatchSource, Closeable {
+    
+    /** Channel of the file */
+    private final FileChannel channel;
+    
+    /** Dictionary holding the categories of the file, with the codes used in the file */
+    private final CategoryDictionary categories = new CategoryDictionary();
+    
+    /** Price bands the price ranges of the file are read as */
+    private final PriceBands priceBands;
+    
+    /** Index in {@link #priceBands} of each price range code of the file */
+    private final int[] priceRanges;
+    
+    /** Offset of each row group */
+    private final long[] groupOffsets;
+    
+    /** Number of rows of each row group */
+    private final int[] groupRows;
+    
+    /** Number of name bytes of each row group */
+    private final int[] groupNameBytes;
+    
+    /** Width of the category codes of each row group */
+    private final int[] groupCategoryWidths;
+    
+    /** Number of decimal price bytes of each row group */
+    private final int[] groupDecimalBytes;
+    
+    /** Total number of rows */
+    private final long rowCount;
+    
+    /** Largest number of rows of a row group */
+    private final int maxGroupRows;
+    
+    /**
+     * Opens a binary product file and reads its footer.
+     * 
+     * @param path the path of the file
+     * @throws IOException if the file cannot be read or is not a valid binary product file
+     */
+    public BinaryProductReader(Path path) throws IOException {
+        this(path, PriceRangeCalculator.getBands());
+    }
+    
+    /**
+     * Opens a binary product file whose price ranges are bands of the given price bands
+     * and reads its footer.
+     * 
+     * @param path the path of the file
+     * @param priceBands the price bands the file was written with
+     * @throws IOException if the file cannot be read, is not a valid binary product file or
+     *         has a price range the price bands do not name
+     */
+    public BinaryProductReader(Path path, PriceBands priceBands) throws IOException {
+        this.priceBands = priceBands;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < BinaryProductFormat.HEADER_SIZE + BinaryProductFormat.TRAILER_SIZE) {
+                throw invalid(path, "file is too short");
+            }
+            ByteBuffer header = read(0, BinaryProductFormat.HEADER_SIZE);
+            ByteBuffer trailer = read(size - BinaryProductFormat.TRAILER_SIZE, BinaryProductFormat.TRAILER_SIZE);
+            long footerOffset = trailer.getLong();
+            int version = trailer.getInt();
+            if (header.getInt() != BinaryProductFormat.MAGIC || trailer.getInt() != BinaryProductFormat.MAGIC) {
+                throw invalid(path, "bad magic number");
+            }
+            if (header.getInt() != BinaryProductFormat.VERSION || version != BinaryProductFormat.VERSION) {
+                throw invalid(path, "unsupported version " + version);
+            }
+            long footerSize = size - BinaryProductFormat.TRAILER_SIZE - footerOffset;
+            if (footerOffset < BinaryProductFormat.HEADER_SIZE || footerSize > Integer.MAX_VALUE) {
+                throw invalid(path, "bad footer offset " + footerOffset);
+            }
+            
+            MappedByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, footerOffset, footerSize);
+            footer.order(ByteOrder.LITTLE_ENDIAN);
+            int groupCount = footer.getInt();
+            if (groupCount < 0 || groupCount > footerSize / BinaryProductFormat.INDEX_ENTRY_SIZE) {
+                throw invalid(path, "bad row group count " + groupCount);
+            }
+            groupOffsets = new long[groupCount];
+            groupRows = new int[groupCount];
+            groupNameBytes = new int[groupCount];
+            groupCategoryWidths = new int[groupCount];
+            groupDecimalBytes = new int[groupCount];
+            int largest = 0;
+            for (int group = 0; group < groupCount; group++) {
+                groupOffsets[group] = footer.getLong();
+                groupRows[group] = footer.getInt();
+                groupNameBytes[group] = footer.getInt();
+                groupCategoryWidths[group] = footer.getInt();
+                groupDecimalBytes[group] = footer.getInt();
+                int width = groupCategoryWidths[group];
+                long groupSize = BinaryProductFormat.rowGroupSize(groupRows[group], groupNameBytes[group], width,
+                    groupDecimalBytes[group]);
+                if (groupOffsets[group] < BinaryProductFormat.HEADER_SIZE || groupRows[group] < 1
+                        || groupNameBytes[group] < 0 || groupDecimalBytes[group] < 0
+                        || (width != 1 && width != 2 && width != 4)
+                        || groupSize > Integer.MAX_VALUE || groupOffsets[group] + groupSize > footerOffset) {
+                    throw invalid(path, "bad index entry for row group " + group);
+                }
+                largest = Math.max(largest, groupRows[group]);
+            }
+            maxGroupRows = largest;
+            
+            int categoryCount = footer.getInt();
+            for (int code = 0; code < categoryCount; code++) {
+                categories.intern(getString(footer));
+            }
+            priceRanges = new int[footer.getInt()];
+            for (int code = 0; code < priceRanges.length; code++) {
+                String name = getString(footer);
+                priceRanges[code] = priceBands.indexOfName(name);
+                if (priceRanges[code] == ProductBatch.NO_PRICE_RANGE) {
+                    throw invalid(path, "unknown price range " + name);
+                }
+            }
+            rowCount = footer.getLong();
+        } catch (BufferUnderflowException e) {
+            channel.close();
+            throw invalid(path, "footer is truncated");
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Reads a range of the file into a new little-endian buffer.
+     * 
+     * @param position the offset of the first byte
+     * @param length the number of bytes
+     * @return the buffer, ready to be read
+     * @throws IOException if the bytes cannot be read
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, position + bytes.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        bytes.flip();
+        return bytes;
+    }
+    
+    /**
+     * Reads a length-prefixed UTF-8 string of the footer.
+     * 
+     * @param footer the footer, positioned at the string
+     * @return the string
+     */
+    private static String getString(ByteBuffer footer) {
+        byte[] bytes = new byte[footer.getInt()];
+        footer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Creates the exception reported for a file that is not a valid binary product file.
+     * 
+     * @param path the path of the file
+     * @param reason what is wrong with the file
+     * @return the exception
+     */
+    private static IOException invalid(Path path, String reason) {
+        return new IOException("Not a valid binary product file: " + path + " (" + reason + ")");
+    }
+    
+    /**
+     * Gets the dictionary of the categories of the file. Batches created with this
+     * dictionary receive the category codes of the file unchanged.
+     * 
+     * @return the category dictionary
+     */
+    public CategoryDictionary getCategories() {
+        return categories;
+    }
+    
+    /**
+     * Gets the total number of rows of the file.
+     * 
+     * @return the number of rows
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+    
+    /**
+     * Gets the number of row groups of the file.
+     * 
+     * @return the number of row groups
+     */
+    public int getRowGroupCount() {
+        return groupRows.length;
+    }
+    
+    /**
+     * Gets the number of rows of a row group.
+     * 
+     * @param group the index of the row group
+     * @return the number of rows
+     */
+    public int getRowGroupSize(int group) {
+        return groupRows[group];
+    }
+    
+    /**
+     * Reads a row group into a batch, replacing its rows and its price bands. If the batch
+     * does not use the dictionary of this reader, the categories are added to the batch's
+     * dictionary.
+     * 
+     * @param group the index of the row group
+     * @param batch the batch to fill, which is cleared first
+     * @throws IOException if the row group cannot be read or is corrupt
+     * @throws IllegalArgumentException if the row group has more rows than the batch can hold
+     */
+    public void readRowGroup(int group, ProductBatch batch) throws IOException {
+        int count = groupRows[group];
+        if (count > batch.getCapacity()) {
+            throw new IllegalArgumentException("Row group of " + count + " rows does not fit in a batch of "
+                + batch.getCapacity());
+        }
+        int categoryWidth = groupCategoryWidths[group];
+        int nameBytes = groupNameBytes[group];
+        MappedByteBuffer columns = channel.map(FileChannel.MapMode.READ_ONLY, groupOffsets[group],
+            BinaryProductFormat.rowGroupSize(count, nameBytes, categoryWidth, groupDecimalBytes[group]));
+        columns.order(ByteOrder.LITTLE_ENDIAN);
+        int idsAt = count * Long.BYTES;
+        int nameEndsAt = idsAt + count * Integer.BYTES;
+        int categoriesAt = nameEndsAt + count * Integer.BYTES;
+        int priceRangesAt = categoriesAt + count * categoryWidth;
+        int namesAt = priceRangesAt + count;
+        int decimalAt = namesAt + nameBytes;
+        CategoryDictionary target = batch.getCategories();
+        
+        batch.clear();
+        batch.setPriceBands(priceBands);
+        int nameStart = 0;
+        for (int i = 0; i < count; i++) {
+            int nameEnd = columns.getInt(nameEndsAt + i * Integer.BYTES);
+            int code;
+            if (categoryWidth == 1) {
+                code = columns.get(categoriesAt + i) & 0xFF;
+            } else if (categoryWidth == 2) {
+                code = columns.getShort(categoriesAt + i * 2) & 0xFFFF;
+            } else {
+                code = columns.getInt(categoriesAt + i * 4);
+            }
+            byte priceRange = columns.get(priceRangesAt + i);
+            if (nameEnd < nameStart || nameEnd > nameBytes || code < 0 || code >= categories.size()
+                    || priceRange < BinaryProductFormat.NO_PRICE_RANGE || priceRange >= priceRanges.length) {
+                throw new IOException("Corrupt row group " + group + " at row " + i);
+            }
+            if (target != categories) {
+                code = target.intern(categories.get(code));
+            }
+            int row = batch.add(columns.getInt(idsAt + i * Integer.BYTES), columns, namesAt + nameStart,
+                namesAt + nameEnd, code);
+            long cents = columns.getLong(i * Long.BYTES);
+            if (cents == BinaryProductFormat.DECIMAL_PRICE) {
+                batch.setPrice(row, getDecimal(columns, decimalAt, group));
+                decimalAt += Integer.BYTES + columns.getInt(decimalAt);
+            } else {
+                batch.setPriceCents(row, cents);
+            }
+            batch.setPriceRangeIndex(row, priceRange == BinaryProductFormat.NO_PRICE_RANGE
+                ? ProductBatch.NO_PRICE_RANGE : priceRanges[priceRange]);
+            nameStart = nameEnd;
+        }
+    }
+    
+    /**
+     * Reads a length-prefixed decimal price of a row group.
+     * 
+     * @param columns the mapped row group
+     * @param offset the offset of the length of the price
+     * @param group the index of the row group
+     * @return the price
+     * @throws IOException if the price is corrupt
+     */
+    private static BigDecimal getDecimal(ByteBuffer columns, int offset, int group) throws IOException {
+        try {
+            byte[] bytes = new byte[columns.getInt(offset)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = columns.get(offset + Integer.BYTES + i);
+            }
+            return new BigDecimal(new String(bytes, StandardCharsets.US_ASCII));
+        } catch (IndexOutOfBoundsException | NegativeArraySizeException | NumberFormatException e) {
+            throw new IOException("Corrupt decimal price in row group " + group, e);
+        }
+    }
+    
+    /**
+     * Reads every row group in file order into one batch that uses this reader's
+     * dictionary, handing the batch to the sink after each group.
+     * 
+     * @param sink the sink that receives each filled batch
+     * @throws IOException if the file cannot be read or the sink fails
+     */
+    @Override
+    public void forEach(ProductBatchSink sink) throws IOException {
+        ProductBatch batch = new ProductBatch(categories, Math.max(maxGroupRows, 1));
+        for (int group = 0; group < groupRows.length; group++) {
+            readRowGroup(group, batch);
+            sink.accept(batch);
+        }
+        batch.clear();
+    }
+    
+    /**
+     * Reads every row in file order, handing each to the sink as a {@link Product}.
+     * 
+     * @param sink the sink that receives each product
+     * @throws IOException if the file cannot be read or the sink fails
+     */
+    @Override
+    public void forEach(ProductSink sink) throws IOException {
+        forEach((ProductBatchSink) batch -> {
+            for (int row = 0; row < batch.size(); row++) {
+                sink.accept(batch.toProduct(row));
+            }
+        });
+    }
+    
+    /**
+     * Closes the file. Row groups already read into batches stay valid.
+     * 
+     * @throws IOException if an error occurs while closing
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,477 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes transformed products to a file in the binary columnar format described by
+ * {@link BinaryProductFormat}. Rows are collected into a {@link ProductBatch} until a
+ * row group is full, and the group is then written column by column with one write.
+ * The footer, with the row group index and the dictionaries, is written on {@link #close()}.
+ * 
+ * <p>Products must have a name, a price and a category, and any price range must be a
+ * band of the writer's {@link PriceBands}, whose names make up the price range dictionary.
+ * Like the CSV writers, the writer remembers whether any of its own I/O operations failed.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class BinaryProductWriter implements ProductSink, ProductBatchSink {
+    
+    /** Channel the file is written to */
+    private final WritableByteChannel channel;
+    
+    /** Dictionary the category codes of the file refer to */
+    private final CategoryDictionary categories = new CategoryDictionary();
+    
+    /** Rows of the row group being collected */
+    private final ProductBatch rows;
+    
+    /** Prices in cents of the row group being written */
+    private final long[] prices;
+    
+    /** Decimal strings of the prices of the row group being written that do not fit in cents */
+    private final List<byte[]> decimalPrices = new ArrayList<>();
+    
+    /** Buffer each row group and the footer are encoded into */
+    private ByteBuffer buffer;
+    
+    /** Dictionary of the last batch whose category codes were translated */
+    private CategoryDictionary remapSource;
+    
+    /** Code in {@link #categories} of each code of {@link #remapSource}, or -1 if not known yet */
+    private int[] remap = new int[0];
+    
+    /** Offset of each row group written */
+    private long[] groupOffsets = new long[16];
+    
+    /** Number of rows of each row group written */
+    private int[] groupRows = new int[16];
+    
+    /** Number of name bytes of each row group written */
+    private int[] groupNameBytes = new int[16];
+    
+    /** Width of the category codes of each row group written */
+    private int[] groupCategoryWidths = new int[16];
+    
+    /** Number of decimal price bytes of each row group written */
+    private int[] groupDecimalBytes = new int[16];
+    
+    /** Number of row groups written */
+    private int groupCount;
+    
+    /** Total number of rows written */
+    private long rowCount;
+    
+    /** Number of bytes written to the channel */
+    private long bytesWritten;
+    
+    /** Whether any write, flush or close operation has failed */
+    private boolean failed;
+    
+    /** Whether the file has been closed */
+    private boolean closed;
+    
+    /**
+     * Opens the output file, replacing any existing content, and writes the header.
+     * 
+     * @param outputPath the path to the output file
+     * @throws IOException if the file cannot be opened or the header cannot be written
+     */
+    public BinaryProductWriter(Path outputPath) throws IOException {
+        this(outputPath, PriceRangeCalculator.getBands());
+    }
+    
+    /**
+     * Opens the output file for products classified into the given price bands, replacing
+     * any existing content, and writes the header.
+     * 
+     * @param outputPath the path to the output file
+     * @param priceBands the price bands of the price ranges of the products
+     * @throws IOException if the file cannot be opened or the header cannot be written
+     */
+    public BinaryProductWriter(Path outputPath, PriceBands priceBands) throws IOException {
+        this(FileChannel.open(outputPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE), ProductBatch.DEFAULT_CAPACITY, priceBands);
+    }
+    
+    /**
+     * Writes the header to the given channel, which the writer then owns.
+     * 
+     * @param channel the channel to write to
+     * @param rowGroupSize the maximum number of rows of a row group
+     * @throws IOException if the header cannot be written
+     * @throws IllegalArgumentException if rowGroupSize is less than 1
+     */
+    public BinaryProductWriter(WritableByteChannel channel, int rowGroupSize) throws IOException {
+        this(channel, rowGroupSize, PriceRangeCalculator.getBands());
+    }
+    
+    /**
+     * Writes the header to the given channel, which the writer then owns, for products
+     * classified into the given price bands.
+     * 
+     * @param channel the channel to write to
+     * @param rowGroupSize the maximum number of rows of a row group
+     * @param priceBands the price bands of the price ranges of the products
+     * @throws IOException if the header cannot be written
+     * @throws IllegalArgumentException if rowGroupSize is less than 1
+     */
+    public BinaryProductWriter(WritableByteChannel channel, int rowGroupSize, PriceBands priceBands)
+            throws IOException {
+        this.channel = channel;
+        this.rows = new ProductBatch(categories, rowGroupSize);
+        this.rows.setPriceBands(priceBands);
+        this.prices = new long[rowGroupSize];
+        this.buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            buffer.putInt(BinaryProductFormat.MAGIC);
+            buffer.putInt(BinaryProductFormat.VERSION);
+            writeBuffer();
+        } catch (IOException e) {
+            failed = true;
+            closeQuietly();
+            throw e;
+        }
+    }
+    
+    /**
+     * Adds a product to the current row group, writing the group when it is full.
+     * 
+     * @param product the product to write
+     * @throws IOException if an error occurs while writing
+     */
+    @Override
+    public void accept(Product product) throws IOException {
+        rows.add(product);
+        if (rows.isFull()) {
+            writeRowGroup();
+        }
+    }
+    
+    /**
+     * Adds every row of a batch to the current row group, writing each group when it is full.
+     * 
+     * @param batch the batch to write
+     * @throws IOException if an error occurs while writing
+     * @throws IllegalArgumentException if a price range of the batch is not one of the
+     *         writer's price bands
+     */
+    @Override
+    public void accept(ProductBatch batch) throws IOException {
+        ByteBuffer names = ByteBuffer.wrap(batch.getNameBytes());
+        boolean sameBands = batch.getPriceBands().equals(rows.getPriceBands());
+        for (int row = 0; row < batch.size(); row++) {
+            int offset = batch.getNameOffset(row);
+            int target = rows.add(batch.getProductId(row), names, offset, offset + batch.getNameLength(row),
+                categoryCode(batch, row));
+            if (batch.hasFixedPointPrice(row)) {
+                rows.setPriceCents(target, batch.getPriceCents(row));
+            } else {
+                rows.setPrice(target, batch.getPrice(row));
+            }
+            rows.setPriceRangeIndex(target, sameBands ? batch.getPriceRangeIndex(row) : priceRangeIndex(batch, row));
+            if (rows.isFull()) {
+                writeRowGroup();
+            }
+        }
+    }
+    
+    /**
+     * Gets the index in this writer's price bands of the price range of a row of a batch
+     * whose price bands are different.
+     * 
+     * @param batch the batch holding the row
+     * @param row the index of the row
+     * @return the price range index, or {@link ProductBatch#NO_PRICE_RANGE}
+     * @throws IllegalArgumentException if the price range is not one of the writer's bands
+     */
+    private int priceRangeIndex(ProductBatch batch, int row) {
+        String priceRange = batch.getPriceRange(row);
+        if (priceRange == null) {
+            return ProductBatch.NO_PRICE_RANGE;
+        }
+        int index = rows.getPriceBands().indexOfName(priceRange);
+        if (index == ProductBatch.NO_PRICE_RANGE) {
+            throw new IllegalArgumentException("Unknown price range: " + priceRange);
+        }
+        return index;
+    }
+    
+    /**
+     * Gets the code in this file's dictionary of the category of a row of a batch.
+     * 
+     * @param batch the batch holding the row
+     * @param row the index of the row
+     * @return the category code
+     */
+    private int categoryCode(ProductBatch batch, int row) {
+        int code = batch.getCategoryCode(row);
+        CategoryDictionary source = batch.getCategories();
+        if (source == categories) {
+            return code;
+        }
+        if (source != remapSource) {
+            remapSource = source;
+            Arrays.fill(remap, -1);
+        }
+        if (code >= remap.length) {
+            int oldLength = remap.length;
+            remap = Arrays.copyOf(remap, Math.max(code + 1, 2 * oldLength));
+            Arrays.fill(remap, oldLength, remap.length, -1);
+        }
+        if (remap[code] < 0) {
+            remap[code] = categories.intern(source.get(code));
+        }
+        return remap[code];
+    }
+    
+    /**
+     * Writes the collected rows as one row group and clears them.
+     * 
+     * @throws IOException if the row group is too large or an error occurs while writing
+     */
+    private void writeRowGroup() throws IOException {
+        int count = rows.size();
+        if (count == 0) {
+            return;
+        }
+        int categoryWidth = BinaryProductFormat.categoryWidth(categories.size());
+        int nameBytes = 0;
+        long decimalBytes = 0;
+        decimalPrices.clear();
+        for (int row = 0; row < count; row++) {
+            nameBytes += rows.getNameLength(row);
+            prices[row] = priceCents(row);
+            if (prices[row] == BinaryProductFormat.DECIMAL_PRICE) {
+                byte[] decimal = rows.getPrice(row).setScale(FixedPointPrice.SCALE, RoundingMode.HALF_UP)
+                    .toPlainString().getBytes(StandardCharsets.US_ASCII);
+                decimalPrices.add(decimal);
+                decimalBytes += Integer.BYTES + decimal.length;
+            }
+        }
+        long size = BinaryProductFormat.rowGroupSize(count, nameBytes, categoryWidth, 0) + decimalBytes;
+        long paddedSize = (size + 7) & ~7L;
+        if (paddedSize > Integer.MAX_VALUE) {
+            failed = true;
+            throw new IOException("Row group of " + count + " rows is too large");
+        }
+        ensureCapacity((int) paddedSize);
+        
+        for (int row = 0; row < count; row++) {
+            buffer.putLong(prices[row]);
+        }
+        for (int row = 0; row < count; row++) {
+            buffer.putInt(rows.getProductId(row));
+        }
+        int nameEnd = 0;
+        for (int row = 0; row < count; row++) {
+            nameEnd += rows.getNameLength(row);
+            buffer.putInt(nameEnd);
+        }
+        for (int row = 0; row < count; row++) {
+            int code = rows.getCategoryCode(row);
+            if (categoryWidth == 1) {
+                buffer.put((byte) code);
+            } else if (categoryWidth == 2) {
+                buffer.putShort((short) code);
+            } else {
+                buffer.putInt(code);
+            }
+        }
+        for (int row = 0; row < count; row++) {
+            buffer.put((byte) rows.getPriceRangeIndex(row));
+        }
+        byte[] names = rows.getNameBytes();
+        for (int row = 0; row < count; row++) {
+            buffer.put(names, rows.getNameOffset(row), rows.getNameLength(row));
+        }
+        for (byte[] decimal : decimalPrices) {
+            buffer.putInt(decimal.length);
+            buffer.put(decimal);
+        }
+        while (buffer.position() < paddedSize) {
+            buffer.put((byte) 0);
+        }
+        
+        if (groupCount == groupOffsets.length) {
+            groupOffsets = Arrays.copyOf(groupOffsets, 2 * groupCount);
+            groupRows = Arrays.copyOf(groupRows, 2 * groupCount);
+            groupNameBytes = Arrays.copyOf(groupNameBytes, 2 * groupCount);
+            groupCategoryWidths = Arrays.copyOf(groupCategoryWidths, 2 * groupCount);
+            groupDecimalBytes = Arrays.copyOf(groupDecimalBytes, 2 * groupCount);
+        }
+        groupOffsets[groupCount] = bytesWritten;
+        groupRows[groupCount] = count;
+        groupNameBytes[groupCount] = nameBytes;
+        groupCategoryWidths[groupCount] = categoryWidth;
+        groupDecimalBytes[groupCount] = (int) decimalBytes;
+        groupCount++;
+        rowCount += count;
+        writeBuffer();
+        rows.clear();
+    }
+    
+    /**
+     * Gets the price of a collected row in cents, rounded to two decimal places as in the CSV output.
+     * 
+     * @param row the index of the row
+     * @return the price in cents, or {@link BinaryProductFormat#DECIMAL_PRICE} if it does not fit in a long
+     */
+    private long priceCents(int row) {
+        if (rows.hasFixedPointPrice(row)) {
+            return rows.getPriceCents(row);
+        }
+        return FixedPointPrice.fromBigDecimal(rows.getPrice(row).setScale(FixedPointPrice.SCALE,
+            RoundingMode.HALF_UP));
+    }
+    
+    /**
+     * Writes the footer with the row group index and the dictionaries, and the trailer.
+     * 
+     * @throws IOException if an error occurs while writing
+     */
+    private void writeFooter() throws IOException {
+        PriceBands priceBands = rows.getPriceBands();
+        int rangeCount = priceBands.size();
+        byte[][] categoryBytes = new byte[categories.size()][];
+        byte[][] rangeBytes = new byte[rangeCount][];
+        long size = Integer.BYTES + (long) groupCount * BinaryProductFormat.INDEX_ENTRY_SIZE
+            + 2 * Integer.BYTES + Long.BYTES + BinaryProductFormat.TRAILER_SIZE;
+        for (int code = 0; code < categoryBytes.length; code++) {
+            categoryBytes[code] = categories.getBytes(code);
+            size += Integer.BYTES + categoryBytes[code].length;
+        }
+        for (int index = 0; index < rangeCount; index++) {
+            rangeBytes[index] = priceBands.getNameBytes(index);
+            size += Integer.BYTES + rangeBytes[index].length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Footer of " + groupCount + " row groups is too large");
+        }
+        ensureCapacity((int) size);
+        
+        long footerOffset = bytesWritten;
+        buffer.putInt(groupCount);
+        for (int group = 0; group < groupCount; group++) {
+            buffer.putLong(groupOffsets[group]);
+            buffer.putInt(groupRows[group]);
+            buffer.putInt(groupNameBytes[group]);
+            buffer.putInt(groupCategoryWidths[group]);
+            buffer.putInt(groupDecimalBytes[group]);
+        }
+        putStrings(categoryBytes);
+        putStrings(rangeBytes);
+        buffer.putLong(rowCount);
+        
+        buffer.putLong(footerOffset);
+        buffer.putInt(BinaryProductFormat.VERSION);
+        buffer.putInt(BinaryProductFormat.MAGIC);
+        writeBuffer();
+    }
+    
+    /**
+     * Puts a count followed by length-prefixed strings into the buffer.
+     * 
+     * @param strings the UTF-8 bytes of the strings
+     */
+    private void putStrings(byte[][] strings) {
+        buffer.putInt(strings.length);
+        for (byte[] string : strings) {
+            buffer.putInt(string.length);
+            buffer.put(string);
+        }
+    }
+    
+    /**
+     * Clears the buffer, growing it first if it is smaller than the given size.
+     * 
+     * @param size the number of bytes about to be put into the buffer
+     */
+    private void ensureCapacity(int size) {
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, 2 * buffer.capacity())).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        buffer.clear();
+    }
+    
+    /**
+     * Writes the contents of the buffer to the channel and clears it.
+     * 
+     * @throws IOException if an error occurs while writing
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                bytesWritten += channel.write(buffer);
+            }
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+        buffer.clear();
+    }
+    
+    /**
+     * Gets the number of bytes written to the file so far.
+     * 
+     * @return the number of bytes written
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+    
+    /**
+     * Writes the last row group, the footer and the trailer, and closes the file.
+     * 
+     * @throws IOException if an error occurs while writing or closing
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            writeRowGroup();
+            writeFooter();
+            closed = true;
+            channel.close();
+        } catch (IOException e) {
+            failed = true;
+            closeQuietly();
+            throw e;
+        }
+    }
+    
+    /**
+     * Closes the file, ignoring any error. Used when the run is already failing.
+     */
+    public void closeQuietly() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // The run is already failing; the original error is reported instead
+        }
+    }
+    
+    /**
+     * Checks whether any I/O operation of this writer has failed.
+     * 
+     * @return true if a write, flush or close operation failed, false otherwise
+     */
+    public boolean hasFailed() {
+        return failed;
+    }
+}
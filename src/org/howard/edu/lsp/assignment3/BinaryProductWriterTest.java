@@ -0,0 +1,117 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for BinaryProductWriter and BinaryProductReader.
+ * Verifies that binary output reads back to the same rows as the CSV output.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class BinaryProductWriterTest {
+    
+    @Test
+    @DisplayName("Test binary output of the pipeline converts back to the CSV output")
+    public void testPipelineRoundTrip() throws IOException {
+        Path directory = Files.createTempDirectory("binary-test");
+        Path input = directory.resolve("products.csv");
+        Path csv = directory.resolve("transformed.csv");
+        Path binary = directory.resolve("transformed.etlb");
+        Path converted = directory.resolve("converted.csv");
+        try {
+            Files.write(input, Arrays.asList("ProductID,Name,Price,Category",
+                "1,Laptop,1200.00,Electronics", "bad,row", "2,Chair,150.00,Furniture",
+                "3,Café Mug,9.999,Kitchen", "4,Headphones,80.5,Electronics"), StandardCharsets.UTF_8);
+            for (String[] args : Arrays.asList(new String[0], new String[] {"--columnar", "--fixed-point"})) {
+                ETLPipeline plain = new ETLPipeline(PipelineOptions.fromArgs(args), input, csv);
+                plain.setPrintSummary(false);
+                assertTrue(plain.execute());
+                ETLPipeline binaryRun = new ETLPipeline(PipelineOptions.fromArgs(args), input, binary);
+                binaryRun.setPrintSummary(false);
+                assertTrue(binaryRun.execute());
+                
+                try (BinaryProductReader reader = new BinaryProductReader(binary)) {
+                    assertEquals(4, reader.getRowCount());
+                    assertEquals(1, reader.getRowGroupCount());
+                    assertTrue(new DataLoader().loadBatches(reader, converted, new StatisticsCollector()));
+                }
+                assertArrayEquals(Files.readAllBytes(csv), Files.readAllBytes(converted));
+            }
+        } finally {
+            for (Path path : Arrays.asList(input, csv, binary, converted, directory)) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Test products split over several row groups read back in order")
+    public void testRowGroups() throws IOException {
+        Path file = Files.createTempFile("row-groups", BinaryProductFormat.EXTENSION);
+        try {
+            List<Product> products = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                BigDecimal price = i == 5 ? new BigDecimal("92233720368547758070.125")
+                    : new BigDecimal("1.005").add(BigDecimal.valueOf(i));
+                Product product = new Product(i, "Item " + i, price, i % 3 == 0 ? "Electronics" : "Toys");
+                product.setPriceRange(i % 2 == 0 ? null : PriceRangeCalculator.getPriceRangeName(0));
+                products.add(product);
+            }
+            try (BinaryProductWriter writer = new BinaryProductWriter(FileChannel.open(file,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), 4)) {
+                for (Product product : products) {
+                    writer.accept(product);
+                }
+            }
+            
+            List<Product> read = new ArrayList<>();
+            try (BinaryProductReader reader = new BinaryProductReader(file)) {
+                assertEquals(3, reader.getRowGroupCount());
+                assertEquals(2, reader.getRowGroupSize(2));
+                reader.forEach((ProductSink) read::add);
+            }
+            assertEquals(products.size(), read.size());
+            for (int i = 0; i < products.size(); i++) {
+                Product expected = products.get(i);
+                Product actual = read.get(i);
+                assertEquals(expected.getProductId(), actual.getProductId());
+                assertEquals(expected.getName(), actual.getName());
+                assertEquals(expected.getPrice().setScale(2, RoundingMode.HALF_UP), actual.getPrice());
+                assertEquals(expected.getCategory(), actual.getCategory());
+                assertEquals(expected.getPriceRange(), actual.getPriceRange());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test a file that is not in the binary format is rejected")
+    public void testInvalidFile() throws IOException {
+        Path file = Files.createTempFile("not-binary", BinaryProductFormat.EXTENSION);
+        try {
+            Files.write(file, "ProductID,Name,Price,Category\n1,Laptop,1200.00,Electronics\n"
+                .getBytes(StandardCharsets.UTF_8));
+            IOException e = assertThrows(IOException.class, () -> new BinaryProductReader(file));
+            assertTrue(e.getMessage().contains("Not a valid binary product file"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Interns category values to small integer codes.
+ * Each distinct category string is stored once, together with its UTF-8 bytes, and is
+ * identified by a code assigned in order of first appearance. Values can be looked up
+ * either as Strings or directly as byte ranges of an input buffer, so the extractor only
+ * decodes a category the first time it is seen.
+ * 
+ * <p>Lookups are lock-free and safe to call from several threads; new values are added
+ * under a lock. Values are appended to arrays with spare room and made visible by
+ * publishing the new size, and the arrays are only copied when they double, so adding
+ * n distinct values takes time proportional to n.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class CategoryDictionary {
+    
+    /** Code returned by lookups for values that are not in the dictionary */
+    public static final int NOT_FOUND = -1;
+    
+    /** The current table of values, replaced by a larger copy when it is full */
+    private volatile Table table = new Table(8);
+    
+    /**
+     * Gets the code of a value, adding the value if it is not in the dictionary yet.
+     * 
+     * @param value the category value
+     * @return the code of the value
+     */
+    public int intern(String value) {
+        int code = lookup(value);
+        if (code != NOT_FOUND) {
+            return code;
+        }
+        
+        synchronized (this) {
+            code = lookup(value);
+            if (code == NOT_FOUND) {
+                Table current = table;
+                if (current.isFull()) {
+                    current = current.grow();
+                    table = current;
+                }
+                code = current.add(value);
+            }
+            return code;
+        }
+    }
+    
+    /**
+     * Gets the code of a value.
+     * 
+     * @param value the category value
+     * @return the code of the value, or {@link #NOT_FOUND}
+     */
+    public int lookup(String value) {
+        Table current = table;
+        int size = current.size;
+        int mask = current.stringSlots.length - 1;
+        for (int slot = mix(value.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int entry = current.stringSlots[slot];
+            if (entry == 0) {
+                return NOT_FOUND;
+            }
+            if (entry <= size && current.values[entry - 1].equals(value)) {
+                return entry - 1;
+            }
+        }
+    }
+    
+    /**
+     * Gets the code of the value whose UTF-8 bytes are the given range of a buffer.
+     * 
+     * @param buffer the buffer holding the bytes
+     * @param start the offset of the first byte
+     * @param end the offset just past the last byte
+     * @return the code of the value, or {@link #NOT_FOUND}
+     */
+    public int lookup(ByteBuffer buffer, int start, int end) {
+        Table current = table;
+        int size = current.size;
+        int mask = current.byteSlots.length - 1;
+        for (int slot = mix(hash(buffer, start, end)) & mask; ; slot = (slot + 1) & mask) {
+            int entry = current.byteSlots[slot];
+            if (entry == 0) {
+                return NOT_FOUND;
+            }
+            if (entry <= size && equalBytes(current.bytes[entry - 1], buffer, start, end)) {
+                return entry - 1;
+            }
+        }
+    }
+    
+    /**
+     * Gets the value with the given code.
+     * 
+     * @param code the code of the value
+     * @return the category value
+     * @throws ArrayIndexOutOfBoundsException if the code is not in the dictionary
+     */
+    public String get(int code) {
+        Table current = table;
+        return current.values[current.checkCode(code)];
+    }
+    
+    /**
+     * Gets the UTF-8 bytes of the value with the given code.
+     * The returned array is shared and must not be modified.
+     * 
+     * @param code the code of the value
+     * @return the UTF-8 bytes of the category value
+     * @throws ArrayIndexOutOfBoundsException if the code is not in the dictionary
+     */
+    public byte[] getBytes(int code) {
+        Table current = table;
+        return current.bytes[current.checkCode(code)];
+    }
+    
+    /**
+     * Checks whether a value is the instance held by the dictionary for a code.
+     * This is an identity check, so it is cheap and tells whether a code stored next to
+     * a value, for example in a {@link Product}, was assigned by this dictionary.
+     * 
+     * @param value the value to check
+     * @param code the code to check
+     * @return true if the dictionary holds exactly this value instance for the code
+     */
+    public boolean isInterned(String value, int code) {
+        Table current = table;
+        return code >= 0 && code < current.size && current.values[code] == value;
+    }
+    
+    /**
+     * Gets the number of values in the dictionary. Codes range from 0 to size - 1.
+     * 
+     * @return the number of values
+     */
+    public int size() {
+        return table.size;
+    }
+    
+    /**
+     * Hashes a byte range.
+     * 
+     * @param buffer the buffer holding the bytes
+     * @param start the offset of the first byte
+     * @param end the offset just past the last byte
+     * @return the hash of the bytes
+     */
+    private static int hash(ByteBuffer buffer, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + buffer.get(i);
+        }
+        return h;
+    }
+    
+    /**
+     * Hashes a byte array with the same function as {@link #hash(ByteBuffer, int, int)}.
+     * 
+     * @param bytes the bytes to hash
+     * @return the hash of the bytes
+     */
+    private static int hash(byte[] bytes) {
+        return hash(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+    
+    /**
+     * Spreads the bits of a hash so that similar values use different slots.
+     * 
+     * @param h the hash to spread
+     * @return the spread hash
+     */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * Compares a byte array with a byte range of a buffer.
+     * 
+     * @param bytes the byte array
+     * @param buffer the buffer holding the range
+     * @param start the offset of the first byte of the range
+     * @param end the offset just past the last byte of the range
+     * @return true if the bytes are equal, false otherwise
+     */
+    private static boolean equalBytes(byte[] bytes, ByteBuffer buffer, int start, int end) {
+        if (bytes.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * The values of the dictionary with open-addressing slot tables. Slots hold the code
+     * plus one, so that zero marks an empty slot. Values and slots are only written under
+     * the dictionary's lock, before the size that makes them visible; readers skip slots
+     * whose code is not below the size they read.
+     */
+    private static final class Table {
+        
+        /** Values by code, with room for more */
+        private final String[] values;
+        
+        /** UTF-8 bytes of the values by code, with room for more */
+        private final byte[][] bytes;
+        
+        /** Slots indexed by the String hash of a value */
+        private final int[] stringSlots;
+        
+        /** Slots indexed by the byte hash of a value */
+        private final int[] byteSlots;
+        
+        /** Number of values that readers may see */
+        private volatile int size;
+        
+        /**
+         * Builds an empty table.
+         * 
+         * @param capacity the number of values the table can hold, a power of two
+         */
+        private Table(int capacity) {
+            this.values = new String[capacity];
+            this.bytes = new byte[capacity][];
+            this.stringSlots = new int[capacity * 2];
+            this.byteSlots = new int[capacity * 2];
+        }
+        
+        /**
+         * Checks whether the table has room for another value.
+         * 
+         * @return true if the table is full, false otherwise
+         */
+        private boolean isFull() {
+            return size == values.length;
+        }
+        
+        /**
+         * Creates a table of twice the capacity holding all values of this table.
+         * 
+         * @return the new table
+         */
+        private Table grow() {
+            Table grown = new Table(values.length * 2);
+            int count = size;
+            System.arraycopy(values, 0, grown.values, 0, count);
+            System.arraycopy(bytes, 0, grown.bytes, 0, count);
+            for (int code = 0; code < count; code++) {
+                insert(grown.stringSlots, mix(values[code].hashCode()), code);
+                insert(grown.byteSlots, mix(hash(bytes[code])), code);
+            }
+            grown.size = count;
+            return grown;
+        }
+        
+        /**
+         * Appends a value to a table that is not full.
+         * 
+         * @param value the value to add
+         * @return the code of the value
+         */
+        private int add(String value) {
+            int code = size;
+            values[code] = value;
+            bytes[code] = value.getBytes(StandardCharsets.UTF_8);
+            insert(stringSlots, mix(value.hashCode()), code);
+            insert(byteSlots, mix(hash(bytes[code])), code);
+            size = code + 1;
+            return code;
+        }
+        
+        /**
+         * Checks that a code is in the table.
+         * 
+         * @param code the code to check
+         * @return the code
+         * @throws ArrayIndexOutOfBoundsException if the code is not in the table
+         */
+        private int checkCode(int code) {
+            if (code < 0 || code >= size) {
+                throw new ArrayIndexOutOfBoundsException(code);
+            }
+            return code;
+        }
+        
+        /**
+         * Stores a code in the first free slot for a hash.
+         * 
+         * @param slots the slot table
+         * @param hash the spread hash of the value
+         * @param code the code of the value
+         */
+        private static void insert(int[] slots, int hash, int code) {
+            int mask = slots.length - 1;
+            int slot = hash & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = code + 1;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for CategoryDictionary.
+ * Verifies interning, byte lookups and the code-based Electronics check of DataTransformer.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class CategoryDictionaryTest {
+    
+    @Test
+    @DisplayName("Test intern() assigns codes in order of first appearance")
+    public void testInternAssignsCodes() {
+        CategoryDictionary dictionary = new CategoryDictionary();
+        
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, dictionary.intern("Category " + i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, dictionary.intern("Category " + i));
+            assertEquals("Category " + i, dictionary.get(i));
+        }
+        assertEquals(1000, dictionary.size());
+        assertEquals(CategoryDictionary.NOT_FOUND, dictionary.lookup("Missing"));
+    }
+    
+    @Test
+    @DisplayName("Test interning many distinct categories takes linear time")
+    public void testManyDistinctCategories() {
+        CategoryDictionary dictionary = new CategoryDictionary();
+        int count = 300000;
+        
+        // Copying the table for every new value took minutes for this many categories
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, dictionary.intern("Category " + i));
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(20), "interning took too long");
+        assertEquals(count, dictionary.size());
+        for (int i = 0; i < count; i += 997) {
+            byte[] bytes = ("Category " + i).getBytes(StandardCharsets.UTF_8);
+            assertEquals(i, dictionary.lookup(ByteBuffer.wrap(bytes), 0, bytes.length));
+            assertEquals("Category " + i, dictionary.get(i));
+        }
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> dictionary.get(count));
+    }
+    
+    @Test
+    @DisplayName("Test threads interning the same categories get the same codes")
+    public void testConcurrentIntern() throws Exception {
+        CategoryDictionary dictionary = new CategoryDictionary();
+        int threads = 4;
+        int count = 20000;
+        int[][] codes = new int[threads][count];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < count; i++) {
+                        // Each thread starts at a different value
+                        int value = (i + thread * count / threads) % count;
+                        codes[thread][value] = dictionary.intern("Category " + value);
+                        assertEquals("Category " + value, dictionary.get(codes[thread][value]));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        assertEquals(count, dictionary.size());
+        for (int t = 1; t < threads; t++) {
+            assertArrayEquals(codes[0], codes[t]);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test lookup() finds values by their UTF-8 bytes")
+    public void testLookupByBytes() {
+        CategoryDictionary dictionary = new CategoryDictionary();
+        int code = dictionary.intern("Électronique");
+        byte[] bytes = "x,Électronique,y".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int start = 2;
+        int end = start + "Électronique".getBytes(StandardCharsets.UTF_8).length;
+        
+        assertEquals(code, dictionary.lookup(buffer, start, end));
+        assertEquals(CategoryDictionary.NOT_FOUND, dictionary.lookup(buffer, start, end - 1));
+        assertArrayEquals("Électronique".getBytes(StandardCharsets.UTF_8), dictionary.getBytes(code));
+    }
+    
+    @Test
+    @DisplayName("Test isInterned() only accepts the dictionary's own instance")
+    public void testIsInterned() {
+        CategoryDictionary dictionary = new CategoryDictionary();
+        int code = dictionary.intern("Books");
+        
+        assertTrue(dictionary.isInterned(dictionary.get(code), code));
+        assertFalse(dictionary.isInterned(new String("Books"), code));
+        assertFalse(dictionary.isInterned(dictionary.get(code), code + 1));
+        assertFalse(dictionary.isInterned(dictionary.get(code), CategoryDictionary.NOT_FOUND));
+    }
+    
+    @Test
+    @DisplayName("Test interned and plain categories transform the same way")
+    public void testTransformWithCodes() {
+        CategoryDictionary dictionary = new CategoryDictionary();
+        DataTransformer transformer = new DataTransformer(dictionary);
+        String[] categories = {"Electronics", "ELECTRONICS", "electronics", "Books", "Electronic"};
+        
+        for (String category : categories) {
+            Product plain = new Product(1, "Laptop", new BigDecimal("999.99"), category);
+            Product interned = new Product(1, "Laptop", new BigDecimal("999.99"), category);
+            interned.setCategory(dictionary, dictionary.intern(category));
+            
+            Product expected = transformer.transform(plain, new StatisticsCollector());
+            Product actual = transformer.transform(interned, new StatisticsCollector());
+            
+            assertEquals(expected.getCategory(), actual.getCategory());
+            assertEquals(expected.getPrice(), actual.getPrice());
+            assertEquals(expected.getPriceRange(), actual.getPriceRange());
+        }
+    }
+}
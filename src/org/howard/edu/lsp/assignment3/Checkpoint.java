@@ -0,0 +1,212 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+
+/**
+ * Records how far a checkpointed run has got: the offset in the input file up to which
+ * every row has been processed, the length of the output file holding exactly the rows
+ * written for them, and the counters at that point. The size and modification time of
+ * the input file and the fingerprint of the business rules are recorded as well, so a
+ * checkpoint is only used to resume the run it was taken from.
+ * 
+ * <p>A checkpoint is saved as a small properties file. It is written to a temporary
+ * file, forced to the storage device and then moved over the previous checkpoint, so
+ * a crash while saving leaves the previous checkpoint intact.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public final class Checkpoint {
+    
+    /** Version of the checkpoint file format */
+    private static final int VERSION = 1;
+    
+    /** Prefix of the properties holding the number of rows skipped for each reject reason */
+    private static final String SKIPPED_PREFIX = "skipped.";
+    
+    /** Size of the input file in bytes */
+    private final long inputSize;
+    
+    /** Modification time of the input file in milliseconds since the epoch */
+    private final long inputModified;
+    
+    /** Fingerprint of the business rules the output rows were produced with */
+    private final long rulesFingerprint;
+    
+    /** Offset of the first input row not yet processed, always the start of a line */
+    private final long inputOffset;
+    
+    /** Length of the output file holding the header and the rows written so far */
+    private final long outputLength;
+    
+    /** Counters of the rows processed so far */
+    private final StatisticsSnapshot counts;
+    
+    /**
+     * Constructs a new Checkpoint.
+     * 
+     * @param inputSize the size of the input file in bytes
+     * @param inputModified the modification time of the input file in milliseconds
+     * @param rulesFingerprint the fingerprint of the business rules
+     * @param inputOffset the offset of the first input row not yet processed
+     * @param outputLength the length of the output file written so far
+     * @param counts the counters of the rows processed so far
+     */
+    public Checkpoint(long inputSize, long inputModified, long rulesFingerprint,
+                      long inputOffset, long outputLength, StatisticsSnapshot counts) {
+        this.inputSize = inputSize;
+        this.inputModified = inputModified;
+        this.rulesFingerprint = rulesFingerprint;
+        this.inputOffset = inputOffset;
+        this.outputLength = outputLength;
+        this.counts = counts;
+    }
+    
+    /**
+     * Gets the size of the input file the checkpoint was taken from.
+     * 
+     * @return the input size in bytes
+     */
+    public long getInputSize() {
+        return inputSize;
+    }
+    
+    /**
+     * Gets the modification time of the input file the checkpoint was taken from.
+     * 
+     * @return the modification time in milliseconds since the epoch
+     */
+    public long getInputModified() {
+        return inputModified;
+    }
+    
+    /**
+     * Gets the fingerprint of the business rules the output rows were produced with.
+     * 
+     * @return the rules fingerprint
+     */
+    public long getRulesFingerprint() {
+        return rulesFingerprint;
+    }
+    
+    /**
+     * Gets the offset of the first input row not yet processed.
+     * 
+     * @return the input offset in bytes
+     */
+    public long getInputOffset() {
+        return inputOffset;
+    }
+    
+    /**
+     * Gets the length of the output file holding the header and the rows written so far.
+     * 
+     * @return the output length in bytes
+     */
+    public long getOutputLength() {
+        return outputLength;
+    }
+    
+    /**
+     * Gets the counters of the rows processed so far. The write status is always false.
+     * 
+     * @return the counters
+     */
+    public StatisticsSnapshot getCounts() {
+        return counts;
+    }
+    
+    /**
+     * Saves the checkpoint, replacing any previous checkpoint at the same path.
+     * 
+     * @param path the path of the checkpoint file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("version", Integer.toString(VERSION));
+        properties.setProperty("inputSize", Long.toString(inputSize));
+        properties.setProperty("inputModified", Long.toString(inputModified));
+        properties.setProperty("rulesFingerprint", Long.toString(rulesFingerprint));
+        properties.setProperty("inputOffset", Long.toString(inputOffset));
+        properties.setProperty("outputLength", Long.toString(outputLength));
+        properties.setProperty("rowsRead", Long.toString(counts.getRowsRead()));
+        properties.setProperty("transformed", Long.toString(counts.getTransformed()));
+        properties.setProperty("skipped", Long.toString(counts.getSkipped()));
+        for (RejectReason reason : RejectReason.values()) {
+            properties.setProperty(SKIPPED_PREFIX + reason.name(), Long.toString(counts.getSkipped(reason)));
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        properties.store(content, "ETL pipeline checkpoint");
+        
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * Reads a checkpoint written by {@link #save(Path)}.
+     * 
+     * @param path the path of the checkpoint file
+     * @return the checkpoint
+     * @throws IOException if the file cannot be read or is not a checkpoint of this version
+     */
+    public static Checkpoint load(Path path) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(Files.readAllBytes(path)));
+        if (readLong(properties, "version", path) != VERSION) {
+            throw new IOException("Unsupported checkpoint file: " + path);
+        }
+        long[] skippedByReason = new long[RejectReason.values().length];
+        for (RejectReason reason : RejectReason.values()) {
+            String key = SKIPPED_PREFIX + reason.name();
+            // Checkpoints saved before rows were counted by reason have no such counts
+            skippedByReason[reason.ordinal()] = properties.containsKey(key) ? readLong(properties, key, path) : 0;
+        }
+        StatisticsSnapshot counts = new StatisticsSnapshot(readLong(properties, "rowsRead", path),
+            readLong(properties, "transformed", path), readLong(properties, "skipped", path), skippedByReason,
+            false);
+        return new Checkpoint(readLong(properties, "inputSize", path), readLong(properties, "inputModified", path),
+            readLong(properties, "rulesFingerprint", path), readLong(properties, "inputOffset", path),
+            readLong(properties, "outputLength", path), counts);
+    }
+    
+    /**
+     * Reads a long property of a checkpoint file.
+     * 
+     * @param properties the properties of the file
+     * @param key the property to read
+     * @param path the path of the file, for the error message
+     * @return the value
+     * @throws IOException if the property is missing or not a number
+     */
+    private static long readLong(Properties properties, String key, Path path) throws IOException {
+        String value = properties.getProperty(key);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt checkpoint file " + path + ": bad " + key + " " + value);
+        }
+    }
+}
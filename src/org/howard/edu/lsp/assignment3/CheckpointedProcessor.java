@@ -0,0 +1,239 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Runs the pipeline with periodic checkpoints, so that an interrupted run can be resumed
+ * instead of started over. The input file is processed in segments of about the
+ * checkpoint interval that always end on a line boundary. After each segment the output
+ * rows are forced to the storage device and a {@link Checkpoint} is saved holding the
+ * input offset reached, the output length and the counters.
+ * 
+ * <p>A resumed run truncates the output to the length of the last checkpoint, dropping
+ * any rows written after it, restores the counters and continues extracting at the input
+ * offset of the checkpoint, appending to the output. The output and the counters are
+ * therefore exactly those of an uninterrupted run. A checkpoint is ignored, and the run
+ * starts over, when the input file or the business rules changed since it was taken or
+ * the output is shorter than it records. The checkpoint is deleted once the run succeeds.</p>
+ * 
+ * <p>Rows are read by a {@link MappedDataExtractor} with the price settings and category
+ * dictionary of the given extractor, transformed one at a time and written synchronously.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class CheckpointedProcessor {
+    
+    /** Default number of input bytes processed between checkpoints */
+    public static final long DEFAULT_INTERVAL = 64L * 1024 * 1024;
+    
+    /** Extractor that parses and validates the rows of each segment */
+    private final MappedDataExtractor extractor;
+    
+    /** Transformer that applies the business rules */
+    private final DataTransformer transformer;
+    
+    /** Number of input bytes processed between checkpoints */
+    private final long interval;
+    
+    /** Number of checkpoints saved by the last run */
+    private long checkpointsSaved;
+    
+    /** Input offset the last run resumed from, or 0 if it started from the beginning */
+    private long resumedFrom;
+    
+    /**
+     * Constructs a new CheckpointedProcessor.
+     * 
+     * @param extractor the extractor whose price settings and category dictionary are used
+     * @param transformer the transformer that applies the business rules
+     * @param interval the number of input bytes processed between checkpoints
+     * @throws IllegalArgumentException if interval is less than 1
+     */
+    public CheckpointedProcessor(DataExtractor extractor, DataTransformer transformer, long interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1 byte");
+        }
+        this.extractor = new MappedDataExtractor();
+        this.extractor.setFixedPointPrices(extractor.isFixedPointPrices());
+        this.extractor.setCategories(extractor.getCategories());
+        this.transformer = transformer;
+        this.interval = interval;
+    }
+    
+    /**
+     * Processes the input file with periodic checkpoints. Write failures, including
+     * failures to save a checkpoint, are reported the same way as by {@link DataLoader};
+     * read failures are rethrown. In both cases the output and the last checkpoint are
+     * left in place, so the run can be resumed. Checkpoints record byte offsets, so
+     * neither file may be compressed and the output must be a CSV file.
+     * 
+     * @param inputPaththe path to the input CSV file
+     * @param outputPath the path to the output CSV file
+     * @param checkpointPath the path to the checkpoint file
+     * @param resume whether to resume from the checkpoint file if it is usable
+     * @param statistics the statistics collector to update
+     * @return true if the output was written successfully, false otherwise
+     * @throws IOException if an error occurs while reading the input file
+     * @throws IllegalArgumentException if the input or output file is compressed or the output is binary
+     */
+    public boolean process(Path inputPath, Path outputPath, Path checkpointPath, boolean resume,
+                           StatisticsCollector statistics) throws IOException {
+        if (CompressedFiles.isGzip(inputPath) || CompressedFiles.isGzip(outputPath)
+                || BinaryProductFormat.isBinary(outputPath)) {
+            throw new IllegalArgumentException("Checkpointed runs need uncompressed input and CSV output files");
+        }
+        checkpointsSaved = 0;
+        resumedFrom = 0;
+        
+        long inputSize = Files.size(inputPath);
+        long inputModified = Files.getLastModifiedTime(inputPath).toMillis();
+        long rulesFingerprint = IncrementalProcessor.rulesFingerprint(transformer.getRules());
+        Checkpoint checkpoint = resume
+            ? loadCheckpoint(checkpointPath, outputPath, inputSize, inputModified, rulesFingerprint) : null;
+        
+        CsvProductWriter writer;
+        long outputBase;
+        try {
+            if (checkpoint == null) {
+                Files.deleteIfExists(checkpointPath);
+                outputBase = 0;
+                writer = new CsvProductWriter(new CsvRowEncoder(outputPath));
+            } else {
+                outputBase = checkpoint.getOutputLength();
+                writer = new CsvProductWriter(openAppending(outputPath, outputBase), false);
+                statistics.merge(checkpoint.getCounts());
+                resumedFrom = checkpoint.getInputOffset();
+            }
+        } catch (IOException e) {
+            return writeFailed(e, statistics);
+        }
+        
+        try (FileChannel input = FileChannel.open(inputPath, StandardOpenOption.READ)) {
+            long size = input.size();
+            long start = resumedFrom;
+            while (start < size) {
+                long end = ParallelDataExtractor.nextLineStart(input, Math.min(start + interval, size), size);
+                extractor.extractRange(input, start, end, start == 0, statistics,
+                    product -> writer.accept(transformer.transform(product, statistics)));
+                start = end;
+                if (start < size) {
+                    writer.sync();
+                    try {
+                        new Checkpoint(inputSize, inputModified, rulesFingerprint, start,
+                            outputBase + writer.getBytesWritten(), statistics.snapshot()).save(checkpointPath);
+                    } catch (IOException e) {
+                        writer.closeQuietly();
+                        return writeFailed(e, statistics);
+                    }
+                    checkpointsSaved++;
+                }
+            }
+            writer.close();
+        } catch (IOException e) {
+            writer.closeQuietly();
+            if (!writer.hasFailed()) {
+                throw e;
+            }
+            return writeFailed(e, statistics);
+        }
+        
+        try {
+            Files.deleteIfExists(checkpointPath);
+        } catch (IOException e) {
+            return writeFailed(e, statistics);
+        }
+        statistics.setWriteSuccessful(true);
+        return true;
+    }
+    
+    /**
+     * Opens the output file for appending after truncating it to the given length.
+     * 
+     * @param outputPath the path to the output CSV file
+     * @param length the length to keep
+     * @return the row encoder positioned at the end of the kept bytes
+     * @throws IOException if the file cannot be opened or truncated
+     */
+    private static CsvRowEncoder openAppending(Path outputPath, long length) throws IOException {
+        FileChannel channel = FileChannel.open(outputPath, StandardOpenOption.WRITE);
+        try {
+            channel.truncate(length);
+            channel.position(length);
+            return new CsvRowEncoder(channel, CsvRowEncoder.DEFAULT_BUFFER_SIZE);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Reports a failure to write the output file or the checkpoint.
+     * 
+     * @param e the error that occurred
+     * @param statistics the statistics collector to update with write status
+     * @return false
+     */
+    private static boolean writeFailed(IOException e, StatisticsCollector statistics) {
+        System.err.println("Error: Failed writing output file: " + e.getMessage());
+        statistics.setWriteSuccessful(false);
+        return false;
+    }
+    
+    /**
+     * Loads the checkpoint to resume from, or returns null if there is no usable one.
+     * 
+     * @param checkpointPath the path to the checkpoint file
+     * @param outputPath the path to the partial output file
+     * @param inputSize the size of the input file
+     * @param inputModified the modification time of the input file
+     * @param rulesFingerprint the fingerprint of the current business rules
+     * @return the checkpoint, or null
+     */
+    private static Checkpoint loadCheckpoint(Path checkpointPath, Path outputPath, long inputSize,
+                                             long inputModified, long rulesFingerprint) {
+        if (!Files.exists(checkpointPath)) {
+            return null;
+        }
+        try {
+            Checkpoint checkpoint = Checkpoint.load(checkpointPath);
+            if (checkpoint.getInputSize() != inputSize || checkpoint.getInputModified() != inputModified
+                    || checkpoint.getRulesFingerprint() != rulesFingerprint) {
+                System.err.println("Warning: Ignoring checkpoint " + checkpointPath
+                    + ": the input file or the business rules changed");
+                return null;
+            }
+            if (!Files.exists(outputPath) || Files.size(outputPath) < checkpoint.getOutputLength()) {
+                System.err.println("Warning: Ignoring checkpoint " + checkpointPath
+                    + ": the output file is shorter than the checkpoint");
+                return null;
+            }
+            return checkpoint;
+        } catch (IOException e) {
+            System.err.println("Warning: Ignoring unreadable checkpoint " + checkpointPath + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Gets the number of checkpoints saved by the last run.
+     * 
+     * @return the number of checkpoints
+     */
+    public long getCheckpointsSaved() {
+        return checkpointsSaved;
+    }
+    
+    /**
+     * Gets the input offset the last run resumed from.
+     * 
+     * @return the input offset in bytes, or 0 if the run started from the beginning
+     */
+    public long getResumedFrom() {
+        return resumedFrom;
+    }
+}
@@ -0,0 +1,86 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for CheckpointedProcessor.
+ * Verifies that a resumed run produces the output and counters of an uninterrupted run.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class CheckpointedProcessorTest {
+    
+    @Test
+    @DisplayName("Test a run interrupted after a checkpoint and resumed matches an uninterrupted run")
+    public void testResumedRunMatchesUninterruptedRun() throws IOException {
+        Path directory = Files.createTempDirectory("checkpoint-test");
+        Path input = directory.resolve("products.csv");
+        Path output = directory.resolve("transformed_products.csv");
+        Path checkpoint = directory.resolve("transformed_products.checkpoint");
+        Path fullOutput = directory.resolve("full.csv");
+        try {
+            List<String> lines = new ArrayList<>();
+            lines.add("ProductID,Name,Price,Category");
+            for (int i = 1; i <= 200; i++) {
+                lines.add(i % 17 == 0 ? "bad,row" : i + ",Product " + i + "," + (i * 7) + ".25,"
+                    + (i % 3 == 0 ? "Electronics" : "Books"));
+            }
+            Files.write(input, lines, StandardCharsets.UTF_8);
+            
+            // Fail after 120 rows, with a checkpoint every 256 bytes of input
+            DataExtractor extractor = new DataExtractor();
+            DataTransformer failing = new DataTransformer(extractor.getCategories()) {
+                private int remaining = 120;
+                
+                @Override
+                public Product transform(Product product, StatisticsCollector statistics) {
+                    if (remaining-- == 0) {
+                        throw new IllegalStateException("Simulated crash");
+                    }
+                    return super.transform(product, statistics);
+                }
+            };
+            CheckpointedProcessor interrupted = new CheckpointedProcessor(extractor, failing, 256);
+            assertThrows(IllegalStateException.class,
+                () -> interrupted.process(input, output, checkpoint, false, new StatisticsCollector()));
+            assertTrue(interrupted.getCheckpointsSaved() > 0);
+            assertTrue(Files.exists(checkpoint));
+            
+            // Rows written after the last checkpoint are dropped when resuming
+            Files.write(output, "999,Partial".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            
+            DataExtractor resumeExtractor = new DataExtractor();
+            CheckpointedProcessor resumed = new CheckpointedProcessor(resumeExtractor,
+                new DataTransformer(resumeExtractor.getCategories()), 256);
+            StatisticsCollector statistics = new StatisticsCollector();
+            assertTrue(resumed.process(input, output, checkpoint, true, statistics));
+            assertTrue(resumed.getResumedFrom() > 0);
+            assertFalse(Files.exists(checkpoint));
+            
+            StatisticsCollector full = new StatisticsCollector();
+            DataExtractor fullExtractor = new DataExtractor();
+            DataTransformer transformer = new DataTransformer(fullExtractor.getCategories());
+            new DataLoader().load(transformer.transform(fullExtractor.extract(input, full), full), fullOutput, full);
+            
+            assertArrayEquals(Files.readAllBytes(fullOutput), Files.readAllBytes(output));
+            assertEquals(full.getSummary(), statistics.getSummary());
+        } finally {
+            for (Path path : Arrays.asList(input, output, checkpoint, fullOutput, directory)) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
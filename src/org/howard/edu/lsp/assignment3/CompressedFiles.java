@@ -0,0 +1,159 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Opens input and output files, compressed with gzip when their name ends in
+ * {@value #GZIP_EXTENSION}, so that compressed exports are read and written directly
+ * instead of being decompressed to disk first and compressed again afterwards.
+ * The inflater and deflater work on large buffers, so they are called once per
+ * block of rows rather than once per row.
+ * 
+ * <p>Compressed output is written either as one gzip stream on the calling thread or,
+ * with more than one compression thread, by a {@link ParallelGzipChannel}.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public final class CompressedFiles {
+    
+    /** File name extension of gzip-compressed files */
+    public static final String GZIP_EXTENSION = ".gz";
+    
+    /** Size of the buffers of the inflater, the deflater and the reader */
+    static final int BUFFER_SIZE = 256 * 1024;
+    
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private CompressedFiles() {
+    }
+    
+    /**
+     * Checks whether a file is gzip-compressed, judging by its name.
+     * 
+     * @param path the path of the file
+     * @return true if the file name ends in {@value #GZIP_EXTENSION}, false otherwise
+     */
+    public static boolean isGzip(Path path) {
+        Path name = path.getFileName();
+        return name != null && name.toString().toLowerCase(Locale.ROOT).endsWith(GZIP_EXTENSION);
+    }
+    
+    /**
+     * Opens a file for reading as UTF-8 text, decompressing it if it is gzip-compressed.
+     * Malformed input is reported as an error, as by {@link Files#newBufferedReader(Path)}.
+     * 
+     * @param path the path of the file
+     * @return a reader of the text of the file
+     * @throws IOException if the file cannot be opened or is not in gzip format
+     */
+    public static BufferedReader newReader(Path path) throws IOException {
+        if (!isGzip(path)) {
+            return Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        }
+        InputStream in = Files.newInputStream(path);
+        try {
+            return new BufferedReader(new InputStreamReader(new GZIPInputStream(in, BUFFER_SIZE),
+                StandardCharsets.UTF_8.newDecoder()), BUFFER_SIZE);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Opens a file for writing, replacing any existing content, compressing what is
+     * written if the file is gzip-compressed.
+     * 
+     * @param path the path of the file
+     * @param compressThreads the number of threads compressing the output, at least 1
+     * @return a channel writing the file
+     * @throws IOException if the file cannot be opened
+     */
+    public static WritableByteChannel newWritableChannel(Path path, int compressThreads) throws IOException {
+        if (!isGzip(path)) {
+            return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        }
+        if (compressThreads > 1) {
+            return new ParallelGzipChannel(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE),
+                compressThreads, ParallelGzipChannel.DEFAULT_BLOCK_SIZE);
+        }
+        OutputStream out = Files.newOutputStream(path);
+        try {
+            return new StreamChannel(new GZIPOutputStream(out, BUFFER_SIZE));
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Writes to an output stream, passing the array of a heap buffer straight to the
+     * stream instead of copying it in small chunks.
+     */
+    private static final class StreamChannel implements WritableByteChannel {
+        
+        /** Stream the bytes are written to */
+        private final OutputStream out;
+        
+        /** Whether the channel is open */
+        private boolean open = true;
+        
+        /**
+         * Constructs a new StreamChannel.
+         * 
+         * @param out the stream to write to, closed with the channel
+         */
+        StreamChannel(OutputStream out) {
+            this.out = out;
+        }
+        
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            int length = src.remaining();
+            if (src.hasArray()) {
+                out.write(src.array(), src.arrayOffset() + src.position(), length);
+                src.position(src.limit());
+            } else {
+                byte[] bytes = new byte[length];
+                src.get(bytes);
+                out.write(bytes);
+            }
+            return length;
+        }
+        
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (open) {
+                open = false;
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for CompressedFiles and ParallelGzipChannel.
+ * Verifies that gzip input and output give the same rows as uncompressed files.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class CompressedFilesTest {
+    
+    @Test
+    @DisplayName("Test a gzip input and a parallel gzip output give the uncompressed output")
+    public void testGzipPipeline() throws IOException {
+        Path directory = Files.createTempDirectory("gzip-test");
+        Path input = directory.resolve("products.csv");
+        Path compressedInput = directory.resolve("products.csv.gz");
+        Path output = directory.resolve("transformed.csv");
+        Path compressedOutput = directory.resolve("transformed.csv.gz");
+        try {
+            Files.write(input, Arrays.asList("ProductID,Name,Price,Category",
+                "1,Laptop,1200.00,Electronics", "bad,row", "2,Chair,150.00,Furniture",
+                "3,Mug,9.99,Kitchen"), StandardCharsets.UTF_8);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressedInput))) {
+                out.write(Files.readAllBytes(input));
+            }
+            
+            ETLPipeline plain = new ETLPipeline(new PipelineOptions(), input, output);
+            plain.setPrintSummary(false);
+            assertTrue(plain.execute());
+            PipelineOptions options = PipelineOptions.fromArgs(new String[] {"--mmap", "--compress-threads", "2"});
+            ETLPipeline compressed = new ETLPipeline(options, compressedInput, compressedOutput);
+            compressed.setPrintSummary(false);
+            assertTrue(compressed.execute());
+            
+            assertArrayEquals(Files.readAllBytes(output), gunzip(compressedOutput));
+        } finally {
+            for (Path path : Arrays.asList(input, compressedInput, output, compressedOutput, directory)) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Test parallel compression writes blocks as consecutive gzip members in order")
+    public void testParallelGzipChannel() throws IOException {
+        Path file = Files.createTempFile("parallel-gzip", ".gz");
+        try {
+            byte[] data = new byte[100_000];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (byte) ('a' + i % 7 + i / 1000 % 5);
+            }
+            try (ParallelGzipChannel channel = new ParallelGzipChannel(FileChannel.open(file,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), 3, 4096)) {
+                channel.write(ByteBuffer.wrap(data, 0, 10));
+                channel.write(ByteBuffer.wrap(data, 10, data.length - 10));
+            }
+            assertArrayEquals(data, gunzip(file));
+            
+            new ParallelGzipChannel(FileChannel.open(file, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE), 2, 4096).close();
+            assertEquals(0, gunzip(file).length);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    /**
+     * Reads and decompresses a gzip file.
+     * 
+     * @param path the path of the file
+     * @return the decompressed bytes
+     * @throws IOException if the file cannot be read
+     */
+    private static byte[] gunzip(Path path) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, read);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,227 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A statistics collector that many threads can update at once without locking.
+ * Each counter is a striped {@link LongAdder}, so threads that count at the same time
+ * mostly update different cells instead of contending on one field, and counts are
+ * longs that do not overflow past {@link Integer#MAX_VALUE} rows.
+ * 
+ * <p>Each counter is exact on its own: no update is lost, and once counting has stopped
+ * every read returns the exact total. The counters are not consistent with each other
+ * while rows are being counted, however. {@link #snapshot()} reads them one after another,
+ * so a row may already be counted as read but not yet as transformed, and a snapshot
+ * taken during a run is not the state at any single moment.</p>
+ * 
+ * <p>The snapshot reads the counters in the reverse of the order in which a row updates
+ * them: the counts by reject reason first, then skipped and transformed, and rows read
+ * last. Since every row is counted as read before it is counted as transformed or
+ * skipped, and as skipped before it is counted by reason, a snapshot never reports more
+ * rows transformed or skipped than read, or more rows skipped by reason than skipped.</p>
+ * 
+ * <p>{@link #reset()} does not clear the adders, which would lose updates made while
+ * they are being cleared. It records the current counts as a baseline that later
+ * reads subtract instead, so every update is counted either before or after the reset.
+ * The ordering guarantee of snapshots holds for rows counted entirely after the reset.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ConcurrentStatisticsCollector extends StatisticsCollector {
+    
+    /** Number of rows read from input file (excluding header), since construction */
+    private final LongAdder rowsRead = new LongAdder();
+    
+    /** Number of products successfully transformed, since construction */
+    private final LongAdder transformed = new LongAdder();
+    
+    /** Number of products skipped due to validation errors, since construction */
+    private final LongAdder skipped = new LongAdder();
+    
+    /** Number of products skipped for each reject reason, indexed by ordinal, since construction */
+    private final LongAdder[] skippedByReason = newAdders(RejectReason.values().length);
+    
+    /** Whether the write operation was successful */
+    private volatile boolean writeSuccessful;
+    
+    /** Counts at the last reset, subtracted from the adder sums */
+    private volatile StatisticsSnapshot baseline = new StatisticsSnapshot(0, 0, 0, false);
+    
+    /**
+     * Increments the rows read counter.
+     */
+    @Override
+    public void incrementRowsRead() {
+        rowsRead.increment();
+    }
+    
+    /**
+     * Increments the transformed counter.
+     */
+    @Override
+    public void incrementTransformed() {
+        transformed.increment();
+    }
+    
+    /**
+     * Increments the skipped counter.
+     */
+    @Override
+    public void incrementSkipped() {
+        skipped.increment();
+    }
+    
+    /**
+     * Increments the skipped counter and the counter of the reason the row was rejected.
+     * 
+     * @param reason the reason the row was rejected
+     */
+    @Override
+    public void incrementSkipped(RejectReason reason) {
+        skipped.increment();
+        skippedByReason[reason.ordinal()].increment();
+    }
+    
+    /**
+     * Sets the write operation success status.
+     * 
+     * @param successful true if write was successful, false otherwise
+     */
+    @Override
+    public void setWriteSuccessful(boolean successful) {
+        this.writeSuccessful = successful;
+    }
+    
+    /**
+     * Gets the number of rows read.
+     * 
+     * @return the number of rows read
+     */
+    @Override
+    public long getRowsRead() {
+        return rowsRead.sum() - baseline.getRowsRead();
+    }
+    
+    /**
+     * Gets the number of products transformed.
+     * 
+     * @return the number of products transformed
+     */
+    @Override
+    public long getTransformed() {
+        return transformed.sum() - baseline.getTransformed();
+    }
+    
+    /**
+     * Gets the number of products skipped.
+     * 
+     * @return the number of products skipped
+     */
+    @Override
+    public long getSkipped() {
+        return skipped.sum() - baseline.getSkipped();
+    }
+    
+    /**
+     * Gets the number of products skipped for the given reason.
+     * 
+     * @param reason the reject reason
+     * @return the number of products skipped for this reason
+     */
+    @Override
+    public long getSkipped(RejectReason reason) {
+        return skippedByReason[reason.ordinal()].sum() - baseline.getSkipped(reason);
+    }
+    
+    /**
+     * Gets the write operation success status.
+     * 
+     * @return true if write was successful, false otherwise
+     */
+    @Override
+    public boolean isWriteSuccessful() {
+        return writeSuccessful;
+    }
+    
+    /**
+     * Adds the counters of a snapshot to this one. Merging another collector adds the
+     * counts of its snapshot, so that collector may still be updated while it is merged.
+     * The write status is not affected.
+     * 
+     * @param counts the snapshot whose counters should be added
+     */
+    @Override
+    public void merge(StatisticsSnapshot counts) {
+        rowsRead.add(counts.getRowsRead());
+        transformed.add(counts.getTransformed());
+        skipped.add(counts.getSkipped());
+        for (RejectReason reason : RejectReason.values()) {
+            skippedByReason[reason.ordinal()].add(counts.getSkipped(reason));
+        }
+    }
+    
+    /**
+     * Takes an immutable copy of the counters and the write status, reading the
+     * counters so that rows transformed plus rows skipped never exceed rows read.
+     * 
+     * @return the snapshot
+     */
+    @Override
+    public StatisticsSnapshot snapshot() {
+        StatisticsSnapshot base = baseline;
+        StatisticsSnapshot totals = readTotals();
+        long[] byReason = new long[skippedByReason.length];
+        for (RejectReason reason : RejectReason.values()) {
+            byReason[reason.ordinal()] = totals.getSkipped(reason) - base.getSkipped(reason);
+        }
+        return new StatisticsSnapshot(
+            totals.getRowsRead() - base.getRowsRead(),
+            totals.getTransformed() - base.getTransformed(),
+            totals.getSkipped() - base.getSkipped(),
+            byReason,
+            writeSuccessful);
+    }
+    
+    /**
+     * Resets all counters and metrics to zero. Counter updates made while the reset runs are counted
+     * either before or after it and are never lost.
+     */
+    @Override
+    public synchronized void reset() {
+        baseline = readTotals();
+        writeSuccessful = false;
+        getMetrics().reset();
+    }
+    
+    /**
+     * Reads the adder sums since construction, in the reverse of the order in which
+     * a row updates them.
+     * 
+     * @return the totals, without a write status
+     */
+    private StatisticsSnapshot readTotals() {
+        long[] byReasonTotals = new long[skippedByReason.length];
+        for (int i = 0; i < byReasonTotals.length; i++) {
+            byReasonTotals[i] = skippedByReason[i].sum();
+        }
+        long skippedTotal = skipped.sum();
+        long transformedTotal = transformed.sum();
+        long rowsReadTotal = rowsRead.sum();
+        return new StatisticsSnapshot(rowsReadTotal, transformedTotal, skippedTotal, byReasonTotals, false);
+    }
+    
+    /**
+     * Creates an array of adders.
+     * 
+     * @param count the number of adders
+     * @return the adders
+     */
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,106 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ConcurrentStatisticsCollector.
+ * Verifies exact counts under concurrent updates, snapshot ordering and reset.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ConcurrentStatisticsCollectorTest {
+    
+    @Test
+    @DisplayName("Test concurrent updates are all counted and snapshots stay ordered")
+    public void testConcurrentUpdates() throws InterruptedException {
+        ConcurrentStatisticsCollector statistics = new ConcurrentStatisticsCollector();
+        int threads = 4;
+        int rowsPerThread = 100000;
+        AtomicBoolean violated = new AtomicBoolean();
+        
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < rowsPerThread; i++) {
+                    statistics.incrementRowsRead();
+                    if (i % 10 == 0) {
+                        statistics.incrementSkipped();
+                    } else {
+                        statistics.incrementTransformed();
+                    }
+                }
+            }));
+        }
+        Thread reader = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                StatisticsSnapshot snapshot = statistics.snapshot();
+                if (snapshot.getTransformed() + snapshot.getSkipped() > snapshot.getRowsRead()) {
+                    violated.set(true);
+                }
+            }
+        });
+        
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        reader.start();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        reader.join();
+        
+        assertFalse(violated.get());
+        assertEquals((long) threads * rowsPerThread, statistics.getRowsRead());
+        assertEquals((long) threads * rowsPerThread / 10, statistics.getSkipped());
+        assertEquals((long) threads * rowsPerThread * 9 / 10, statistics.getTransformed());
+    }
+    
+    @Test
+    @DisplayName("Test reset() zeroes the counts and later updates are counted from zero")
+    public void testReset() {
+        ConcurrentStatisticsCollector statistics = new ConcurrentStatisticsCollector();
+        statistics.incrementRowsRead();
+        statistics.incrementRowsRead();
+        statistics.incrementTransformed();
+        statistics.setWriteSuccessful(true);
+        
+        statistics.reset();
+        assertEquals("Rows read: 0, Transformed: 0, Skipped: 0, Write successful: false",
+            statistics.getSummary());
+        
+        statistics.incrementRowsRead();
+        statistics.incrementSkipped();
+        StatisticsSnapshot snapshot = statistics.snapshot();
+        assertEquals(1, snapshot.getRowsRead());
+        assertEquals(0, snapshot.getTransformed());
+        assertEquals(1, snapshot.getSkipped());
+    }
+    
+    @Test
+    @DisplayName("Test merge() combines plain and concurrent collectors")
+    public void testMerge() {
+        StatisticsCollector shard = new StatisticsCollector();
+        shard.incrementRowsRead();
+        shard.incrementTransformed();
+        
+        ConcurrentStatisticsCollector statistics = new ConcurrentStatisticsCollector();
+        statistics.merge(shard);
+        statistics.merge(shard);
+        assertEquals(2, statistics.getRowsRead());
+        assertEquals(2, statistics.getTransformed());
+        
+        StatisticsCollector total = new StatisticsCollector();
+        total.merge(statistics);
+        assertEquals(2, total.getRowsRead());
+        assertEquals(2, total.getTransformed());
+        assertEquals(0, total.getSkipped());
+    }
+}
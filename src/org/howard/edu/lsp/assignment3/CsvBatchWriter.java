@@ -0,0 +1,139 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+
+/**
+ * Writes columnar batches of transformed products to a CSV file.
+ * Rows are encoded straight from the batch columns by a {@link CsvRowEncoder}: names are
+ * copied as the UTF-8 bytes held by the batch, categories as the bytes held by the
+ * dictionary and price ranges as the bytes held by the batch's {@link PriceBands}. The
+ * output is byte for byte the same as that of {@link CsvProductWriter}.
+ * Like that writer, it remembers whether any of its own I/O operations failed.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class CsvBatchWriter implements ProductBatchSink {
+    
+    /** The encoder that buffers rows and writes them to the file */
+    private final CsvRowEncoder encoder;
+    
+    /** Whether any write, flush or close operation has failed */
+    private boolean failed;
+    
+    /**
+     * Opens the output file and writes the CSV header.
+     * 
+     * @param outputPath the path to the output CSV file
+     * @throws IOException if the file cannot be opened or the header cannot be written
+     */
+    public CsvBatchWriter(Path outputPath) throws IOException {
+        this(new CsvRowEncoder(outputPath));
+    }
+    
+    /**
+     * Writes the CSV header through the given encoder, which the writer then owns.
+     * 
+     * @param encoder the encoder for the output file
+     * @throws IOException if the header cannot be written
+     */
+    public CsvBatchWriter(CsvRowEncoder encoder) throws IOException {
+        this.encoder = encoder;
+        try {
+            encoder.writeString(DataLoader.getCsvHeader());
+            encoder.endRow();
+        } catch (IOException e) {
+            failed = true;
+            closeQuietly();
+            throw e;
+        }
+    }
+    
+    /**
+     * Writes every row of a batch as a CSV row.
+     * 
+     * @param batch the batch to write
+     * @throws IOException if an error occurs while writing
+     */
+    @Override
+    public void accept(ProductBatch batch) throws IOException {
+        try {
+            for (int row = 0; row < batch.size(); row++) {
+                writeRow(batch, row);
+            }
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+    }
+    
+    /**
+     * Writes one row of a batch.
+     * 
+     * @param batch the batch holding the row
+     * @param row the index of the row
+     * @throws IOException if an error occurs while writing
+     */
+    private void writeRow(ProductBatch batch, int row) throws IOException {
+        encoder.writeInt(batch.getProductId(row));
+        encoder.writeByte(',');
+        encoder.writeBytes(batch.getNameBytes(), batch.getNameOffset(row), batch.getNameLength(row));
+        encoder.writeByte(',');
+        
+        // Ensure price is formatted with exactly 2 decimal places
+        if (batch.hasFixedPointPrice(row)) {
+            encoder.writeCents(batch.getPriceCents(row));
+        } else {
+            encoder.writeString(batch.getPrice(row).setScale(2, RoundingMode.HALF_UP).toPlainString());
+        }
+        encoder.writeByte(',');
+        
+        encoder.writeBytes(batch.getCategories().getBytes(batch.getCategoryCode(row)));
+        encoder.writeByte(',');
+        
+        int priceRange = batch.getPriceRangeIndex(row);
+        if (priceRange == ProductBatch.NO_PRICE_RANGE) {
+            encoder.writeString(null);
+        } else {
+            encoder.writeBytes(batch.getPriceBands().getNameBytes(priceRange));
+        }
+        encoder.endRow();
+    }
+    
+    /**
+     * Flushes any buffered rows and closes the file.
+     * 
+     * @throws IOException if an error occurs while flushing or closing
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            encoder.close();
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+    }
+    
+    /**
+     * Closes the file, ignoring any error. Used when the run is already failing.
+     */
+    public void closeQuietly() {
+        try {
+            encoder.close();
+        } catch (IOException e) {
+            // The run is already failing; the original error is reported instead
+        }
+    }
+    
+    /**
+     * Checks whether any I/O operation of this writer has failed.
+     * 
+     * @return true if a write, flush or close operation failed, false otherwise
+     */
+    public boolean hasFailed() {
+        return failed;
+    }
+}
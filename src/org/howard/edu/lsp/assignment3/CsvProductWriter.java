@@ -0,0 +1,177 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Writes transformed products to a CSV file one row at a time.
+ * Rows are encoded by a {@link CsvRowEncoder}, so no format string is parsed and no
+ * row String is built per product. The header is written when the writer is opened,
+ * so rows can be appended as soon as they are transformed. The writer remembers
+ * whether any of its own I/O operations failed, which lets callers tell write errors
+ * apart from errors raised by the source feeding it.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class CsvProductWriter implements ProductSink {
+    
+    /** The encoder that buffers rows and writes them to the file */
+    private final CsvRowEncoder encoder;
+    
+    /** Whether any write, flush or close operation has failed */
+    private boolean failed;
+    
+    /**
+     * Opens the output file and writes the CSV header.
+     * 
+     * @param outputPath the path to the output CSV file
+     * @throws IOException if the file cannot be opened or the header cannot be written
+     */
+    public CsvProductWriter(Path outputPath) throws IOException {
+        this(new CsvRowEncoder(outputPath));
+    }
+    
+    /**
+     * Writes the CSV header through the given encoder, which the writer then owns.
+     * 
+     * @param encoder the encoder for the output file
+     * @throws IOException if the header cannot be written
+     */
+    public CsvProductWriter(CsvRowEncoder encoder) throws IOException {
+        this(encoder, true);
+    }
+    
+    /**
+     * Writes rows through the given encoder, which the writer then owns, optionally
+     * writing the CSV header first. Without the header, rows are appended to an output
+     * file that already has one, for example when an interrupted run is resumed.
+     * 
+     * @param encoder the encoder for the output file
+     * @param writeHeader whether to write the CSV header
+     * @throws IOException if the header cannot be written
+     */
+    public CsvProductWriter(CsvRowEncoder encoder, boolean writeHeader) throws IOException {
+        this.encoder = encoder;
+        if (!writeHeader) {
+            return;
+        }
+        try {
+            encoder.writeString(DataLoader.getCsvHeader());
+            encoder.endRow();
+        } catch (IOException e) {
+            failed = true;
+            closeQuietly();
+            throw e;
+        }
+    }
+    
+    /**
+     * Writes a single product as a CSV row.
+     * 
+     * @param product the product to write
+     * @throws IOException if an error occurs while writing
+     */
+    @Override
+    public void accept(Product product) throws IOException {
+        try {
+            encoder.writeInt(product.getProductId());
+            encoder.writeByte(',');
+            encoder.writeString(product.getName());
+            encoder.writeByte(',');
+            
+            // Ensure price is formatted with exactly 2 decimal places
+            if (product.hasFixedPointPrice()) {
+                encoder.writeCents(product.getPriceCents());
+            } else {
+                encoder.writeString(product.getPrice().setScale(2, RoundingMode.HALF_UP).toPlainString());
+            }
+            encoder.writeByte(',');
+            
+            encoder.writeString(product.getCategory());
+            encoder.writeByte(',');
+            encoder.writeString(product.getPriceRange());
+            encoder.endRow();
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+    }
+    
+    /**
+     * Copies already encoded rows from a file, for example an earlier output file.
+     * 
+     * @param source the file to copy from
+     * @param offset the offset of the first row in the file
+     * @param length the number of bytes to copy
+     * @throws IOException if an error occurs while reading or writing
+     */
+    public void copyRows(FileChannel source, long offset, long length) throws IOException {
+        try {
+            encoder.copyFrom(source, offset, length);
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+    }
+    
+    /**
+     * Writes any buffered rows to the file and forces them to the storage device.
+     * 
+     * @throws IOException if an error occurs while writing or forcing
+     */
+    public void sync() throws IOException {
+        try {
+            encoder.sync();
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+    }
+    
+    /**
+     * Gets the number of bytes written so far, including the header and buffered rows.
+     * 
+     * @return the number of bytes written
+     */
+    public long getBytesWritten() {
+        return encoder.getBytesWritten();
+    }
+    
+    /**
+     * Flushes any buffered rows and closes the file.
+     * 
+     * @throws IOException if an error occurs while flushing or closing
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            encoder.close();
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+    }
+    
+    /**
+     * Closes the file, ignoring any error. Used when the run is already failing.
+     */
+    public void closeQuietly() {
+        try {
+            encoder.close();
+        } catch (IOException e) {
+            // The run is already failing; the original error is reported instead
+        }
+    }
+    
+    /**
+     * Checks whether any I/O operation of this writer has failed.
+     * 
+     * @return true if a write, flush or close operation failed, false otherwise
+     */
+    public boolean hasFailed() {
+        return failed;
+    }
+}
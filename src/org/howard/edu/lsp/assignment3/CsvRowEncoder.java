@@ -0,0 +1,429 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Encodes CSV rows into a reusable byte buffer and writes the buffer to a channel in large blocks.
+ * Numbers are written digit by digit and Strings are encoded to UTF-8 in place, so writing a
+ * row allocates nothing in the common case. The bytes produced are identical to writing the
+ * row with {@code String.format("%d,%s,%s,%s,%s", ...)} through a UTF-8
+ * {@link java.io.BufferedWriter} followed by {@link java.io.BufferedWriter#newLine()}.
+ * 
+ * <p>The encoder writes either synchronously to a channel or through an
+ * {@link AsyncBlockWriter}, in which case full buffers are handed to the writer thread
+ * and encoding continues in the next free block.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class CsvRowEncoder implements Closeable {
+    
+    /** Default size of the encoding buffer in bytes */
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    
+    /** Bytes written for a null value, as String.format does */
+    private static final byte[] NULL_BYTES = "null".getBytes(StandardCharsets.US_ASCII);
+    
+    /** Largest number of bytes one char can take in UTF-8 */
+    private static final int MAX_BYTES_PER_CHAR = 3;
+    
+    /** Largest number of bytes of a formatted long, including the sign */
+    private static final int MAX_LONG_LENGTH = 20;
+    
+    /** Channel the encoded rows are written to, or null when writing through {@link #blockWriter} */
+    private final WritableByteChannel channel;
+    
+    /** Writer thread the filled buffers are handed to, or null when writing to {@link #channel} */
+    private final AsyncBlockWriter blockWriter;
+    
+    /** Buffer the rows are encoded into */
+    private byte[] buffer;
+    
+    /** View of {@link #buffer} used to write it to the channel */
+    private final ByteBuffer view;
+    
+    /** Number of encoded bytes in the buffer */
+    private int position;
+    
+    /** Number of bytes handed to the channel or the writer thread so far */
+    private long flushedBytes;
+    
+    /** Strict UTF-8 encoder for non-ASCII Strings, reporting unpaired surrogates like the UTF-8 writer */
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT);
+    
+    /** Bytes of the line separator written at the end of each row */
+    private final byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    
+    /** Whether the default locale formats integers with ASCII digits, so they can be written directly */
+    private final boolean asciiDigits =
+        DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getZeroDigit() == '0';
+    
+    /**
+     * Opens a file for writing, replacing any existing content, with the default buffer size.
+     * 
+     * @param outputPath the path of the file to write
+     * @throws IOException if the file cannot be opened
+     */
+    public CsvRowEncoder(Path outputPath) throws IOException {
+        this(FileChannel.open(outputPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE), DEFAULT_BUFFER_SIZE);
+    }
+    
+    /**
+     * Constructs a new CsvRowEncoder writing to the given channel.
+     * 
+     * @param channel the channel to write to, closed by {@link #close()}
+     * @param bufferSize the size of the encoding buffer in bytes
+     * @throws IllegalArgumentException if bufferSize is smaller than the longest formatted number
+     */
+    public CsvRowEncoder(WritableByteChannel channel, int bufferSize) {
+        this(channel, new byte[Math.max(bufferSize, 0)]);
+    }
+    
+    /**
+     * Constructs a new CsvRowEncoder writing to the given channel and encoding into the
+     * given buffer, so that a buffer can be reused by encoders used one after another.
+     * 
+     * @param channel the channel to write to, closed by {@link #close()}
+     * @param buffer the encoding buffer, which must not be used by another open encoder
+     * @throws IllegalArgumentException if the buffer is smaller than the longest formatted number
+     */
+    public CsvRowEncoder(WritableByteChannel channel, byte[] buffer) {
+        checkBufferSize(buffer.length);
+        this.channel = channel;
+        this.blockWriter = null;
+        this.buffer = buffer;
+        this.view = ByteBuffer.wrap(buffer);
+    }
+    
+    /**
+     * Constructs a new CsvRowEncoder that encodes into the blocks of an asynchronous writer.
+     * 
+     * @param blockWriter the writer that writes filled blocks, closed by {@link #close()}
+     * @throws IOException if no block can be taken from the writer
+     * @throws IllegalArgumentException if the block size is smaller than the longest formatted number
+     */
+    public CsvRowEncoder(AsyncBlockWriter blockWriter) throws IOException {
+        checkBufferSize(blockWriter.getBlockSize());
+        this.channel = null;
+        this.blockWriter = blockWriter;
+        this.buffer = blockWriter.takeBlock();
+        this.view = null;
+    }
+    
+    /**
+     * Checks that a buffer can hold the longest formatted number.
+     * 
+     * @param bufferSize the size of the buffer in bytes
+     * @throws IllegalArgumentException if the buffer is too small
+     */
+    private static void checkBufferSize(int bufferSize) {
+        if (bufferSize < MAX_LONG_LENGTH + 4) {
+            throw new IllegalArgumentException("Buffer size must be at least " + (MAX_LONG_LENGTH + 4) + " bytes");
+        }
+    }
+    
+    /**
+     * Writes a single byte.
+     * 
+     * @param b the byte to write
+     * @throws IOException if an error occurs while flushing the buffer
+     */
+    public void writeByte(int b) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) b;
+    }
+    
+    /**
+     * Writes a range of bytes.
+     * 
+     * @param bytes the array holding the bytes
+     * @param offset the offset of the first byte
+     * @param length the number of bytes
+     * @throws IOException if an error occurs while flushing the buffer
+     */
+    public void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        while (buffer.length - position < length) {
+            // Fill the buffer with as much as fits and continue in the next one
+            int chunk = buffer.length - position;
+            System.arraycopy(bytes, offset, buffer, position, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+            flushBuffer();
+        }
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+    
+    /**
+     * Writes all bytes of an array.
+     * 
+     * @param bytes the bytes to write
+     * @throws IOException if an error occurs while flushing the buffer
+     */
+    public void writeBytes(byte[] bytes) throws IOException {
+        writeBytes(bytes, 0, bytes.length);
+    }
+    
+    /**
+     * Writes a String encoded as UTF-8, or {@code null} for a null String.
+     * A String holding an unpaired surrogate is not written and fails with a
+     * {@link java.nio.charset.MalformedInputException}, as the UTF-8 writer does.
+     * 
+     * @param value the String to write
+     * @throws IOException if the String is not valid UTF-16 or an error occurs while flushing the buffer
+     */
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            writeBytes(NULL_BYTES);
+            return;
+        }
+        
+        int length = value.length();
+        if (length > buffer.length / MAX_BYTES_PER_CHAR) {
+            writeEncoded(value);
+            return;
+        }
+        if (buffer.length - position < length * MAX_BYTES_PER_CHAR) {
+            flushBuffer();
+        }
+        
+        int start = position;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // Let the JDK encoder handle the rest, including surrogate pairs
+                position = start;
+                writeEncoded(value);
+                return;
+            }
+            buffer[position++] = (byte) c;
+        }
+    }
+    
+    /**
+     * Writes a String encoded by the strict UTF-8 encoder.
+     * 
+     * @param value the String to write
+     * @throws IOException if the String holds an unpaired surrogate or an error occurs while flushing the buffer
+     */
+    private void writeEncoded(String value) throws IOException {
+        ByteBuffer bytes = encoder.encode(CharBuffer.wrap(value));
+        writeBytes(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+    }
+    
+    /**
+     * Writes an int in decimal, as {@code String.format("%d", value)} does in the default locale.
+     * 
+     * @param value the value to write
+     * @throws IOException if an error occurs while flushing the buffer
+     */
+    public void writeInt(int value) throws IOException {
+        if (asciiDigits) {
+            writeLong(value);
+        } else {
+            writeString(String.format("%d", value));
+        }
+    }
+    
+    /**
+     * Writes a price in cents with exactly two fractional digits, as
+     * {@link FixedPointPrice#format(long)} does.
+     * 
+     * @param cents the price in cents, not {@link FixedPointPrice#NOT_REPRESENTABLE}
+     * @throws IOException if an error occurs while flushing the buffer
+     */
+    public void writeCents(long cents) throws IOException {
+        if (buffer.length - position < MAX_LONG_LENGTH + 2) {
+            flushBuffer();
+        }
+        if (cents < 0) {
+            buffer[position++] = '-';
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        putDigits(cents / 100);
+        buffer[position++] = '.';
+        buffer[position++] = (byte) ('0' + fraction / 10);
+        buffer[position++] = (byte) ('0' + fraction % 10);
+    }
+    
+    /**
+     * Writes a long in decimal, as {@link Long#toString(long)} does.
+     * 
+     * @param value the value to write, not {@link Long#MIN_VALUE}
+     * @throws IOException if an error occurs while flushing the buffer
+     */
+    public void writeLong(long value) throws IOException {
+        if (buffer.length - position < MAX_LONG_LENGTH) {
+            flushBuffer();
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        putDigits(value);
+    }
+    
+    /**
+     * Ends the current row with the platform line separator.
+     * 
+     * @throws IOException if an error occurs while flushing the buffer
+     */
+    public void endRow() throws IOException {
+        writeBytes(lineSeparator);
+    }
+    
+    /**
+     * Copies bytes from a file, for example rows of an earlier output file, after the
+     * rows encoded so far. When writing synchronously the bytes are transferred from
+     * file to channel without passing through the buffer.
+     * 
+     * @param source the file to copy from
+     * @param offset the offset of the first byte in the file
+     * @param length the number of bytes to copy
+     * @throws IOException if an error occurs while reading or writing, or the file ends
+     *         before all bytes were copied
+     */
+    public void copyFrom(FileChannel source, long offset, long length) throws IOException {
+        if (blockWriter == null) {
+            flushBuffer();
+            while (length > 0) {
+                long copied = source.transferTo(offset, length, channel);
+                if (copied <= 0) {
+                    throw new EOFException("Unexpected end of file while copying rows");
+                }
+                offset += copied;
+                length -= copied;
+                flushedBytes += copied;
+            }
+            return;
+        }
+        while (length > 0) {
+            if (position == buffer.length) {
+                flushBuffer();
+            }
+            int chunk = (int) Math.min(length, buffer.length - position);
+            int read = source.read(ByteBuffer.wrap(buffer, position, chunk), offset);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of file while copying rows");
+            }
+            position += read;
+            offset += read;
+            length -= read;
+        }
+    }
+    
+    /**
+     * Gets the number of bytes written so far, including those still buffered.
+     * 
+     * @return the number of bytes written
+     */
+    public long getBytesWritten() {
+        return flushedBytes + position;
+    }
+    
+    /**
+     * Puts the decimal digits of a non-negative long into the buffer, which must have room for them.
+     * 
+     * @param value the value to put
+     */
+    private void putDigits(long value) {
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+    
+    /**
+     * Writes the encoded bytes in the buffer to the channel, or hands the buffer to the
+     * writer thread and continues in a free block, and empties the buffer.
+     * 
+     * @throws IOException if an error occurs while writing
+     */
+    private void flushBuffer() throws IOException {
+        if (position == 0) {
+            return;
+        }
+        flushedBytes += position;
+        if (blockWriter != null) {
+            blockWriter.submit(buffer, position);
+            position = 0;
+            buffer = blockWriter.takeBlock();
+        } else {
+            view.clear().limit(position);
+            while (view.hasRemaining()) {
+                channel.write(view);
+            }
+            position = 0;
+        }
+    }
+    
+    /**
+     * Writes any buffered bytes to the channel, or hands them to the writer thread.
+     * 
+     * @throws IOException if an error occurs while writing
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+    }
+    
+    /**
+     * Writes any buffered bytes and, when writing synchronously to a file, forces them
+     * to the storage device, so that they survive a crash of the process or the system.
+     * When writing through an {@link AsyncBlockWriter} the bytes are only handed to the
+     * writer thread.
+     * 
+     * @throws IOException if an error occurs while writing or forcing
+     */
+    public void sync() throws IOException {
+        flushBuffer();
+        if (channel instanceof FileChannel) {
+            ((FileChannel) channel).force(false);
+        }
+    }
+    
+    /**
+     * Writes any buffered bytes and closes the channel or the asynchronous writer, which
+     * waits until every block has been written. The channel is closed even if writing
+     * the buffered bytes fails.
+     * 
+     * @throws IOException if an error occurs while writing or closing
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            if (blockWriter != null) {
+                blockWriter.close();
+            } else {
+                channel.close();
+            }
+        }
+    }
+}
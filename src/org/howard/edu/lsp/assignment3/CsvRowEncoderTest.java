@@ -0,0 +1,73 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for CsvRowEncoder.
+ * Verifies that Strings are encoded like the UTF-8 writer encodes them, including its
+ * failure on unpaired surrogates.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class CsvRowEncoderTest {
+    
+    @Test
+    @DisplayName("Test Strings are encoded exactly as the UTF-8 writer encodes them")
+    public void testSameBytesAsWriter() throws IOException {
+        String[] values = {"Laptop", "Café", "€uro", "𝄞 Music", "日本", "", "a,b"};
+        StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longValue.append("Ünïcode ");
+        }
+        
+        for (String value : new String[] {String.join("|", values), longValue.toString()}) {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(expected,
+                    StandardCharsets.UTF_8.newEncoder()))) {
+                writer.write(value);
+                writer.newLine();
+            }
+            
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            try (CsvRowEncoder encoder = new CsvRowEncoder(Channels.newChannel(actual), 64)) {
+                encoder.writeString(value);
+                encoder.endRow();
+            }
+            assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        }
+    }
+    
+    @Test
+    @DisplayName("Test an unpaired surrogate fails the write like the UTF-8 writer")
+    public void testUnpairedSurrogateFails() throws IOException {
+        String[] values = {"Bad \uD834 name", "\uDD1E", "ends with \uD834"};
+        
+        for (String value : values) {
+            assertThrows(MalformedInputException.class, () -> {
+                try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new ByteArrayOutputStream(),
+                        StandardCharsets.UTF_8.newEncoder()))) {
+                    writer.write(value);
+                }
+            });
+            
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            CsvRowEncoder encoder = new CsvRowEncoder(Channels.newChannel(output), 64);
+            assertThrows(MalformedInputException.class, () -> encoder.writeString(value));
+            encoder.writeString("ok");
+            encoder.close();
+            assertEquals("ok", new String(output.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -2,12 +2,11 @@ package org.howard.edu.lsp.assignment3;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Handles data extraction from CSV files.
@@ -19,6 +18,15 @@ import java.util.List;
  */
 public class DataExtractor {
     
+    /** Whether prices that fit are extracted in fixed-point form as cents */
+    private boolean fixedPointPrices;
+    
+    /** Dictionary that the categories of extracted products are interned in */
+    private CategoryDictionary categories = new CategoryDictionary();
+    
+    /** Sink that receives rejected rows, or null if they are only counted */
+    private RejectedRowSink rejectedRows;
+    
     /**
      * Extracts product data from the specified CSV file.
      * 
@@ -29,44 +37,165 @@ public class DataExtractor {
      */
     public List<Product> extract(Path inputPath, StatisticsCollector statistics) throws IOException {
         List<Product> products = new ArrayList<>();
-        
-        try (BufferedReader reader = Files.newBufferedReader(inputPath, StandardCharsets.UTF_8)) {
+        extract(inputPath, statistics, products::add);
+        return products;
+    }
+    
+    /**
+     * Extracts product data from the specified CSV file and pushes each valid product
+     * into the given sink as soon as its row has been parsed. No rows are retained,
+     * so memory use stays constant regardless of the size of the input file.
+     * Files whose name ends in {@value CompressedFiles#GZIP_EXTENSION} are decompressed
+     * while they are read.
+     * 
+     * @param inputPaththe path to the input CSV file
+     * @param statistics the statistics collector to update during extraction
+     * @param sink the sink that receives each extracted product in input order
+     * @throws IOException if an error occurs while reading the file or if the sink fails
+     */
+    public void extract(Path inputPath, StatisticsCollector statistics, ProductSink sink) throws IOException {
+        try (BufferedReader reader = CompressedFiles.newReader(inputPath)) {
             String line;
-            boolean isHeader = true;
+            long lineNumber = 0;
             
             while ((line = reader.readLine()) != null) {
-                if (isHeader) {
-                    isHeader = false;
+                lineNumber++;
+                if (lineNumber == 1) {
+                    // Skip the header
                     continue;
                 }
                 
-                if (line.trim().isEmpty()) {
+                if (ProductValidator.isBlank(line)) {
                     continue;
                 }
                 
                 statistics.incrementRowsRead();
                 
-                String[] parts = line.split(",", -1);
-                
-                if (!ProductValidator.validateProductData(parts)) {
-                    statistics.incrementSkipped();
+                Product product = parseRow(line, lineNumber, statistics);
+                if (product == null) {
                     continue;
                 }
                 
-                try {
-                    int id = Integer.parseInt(parts[0].trim());
-                    String name = parts[1].trim();
-                    BigDecimal price = new BigDecimal(parts[2].trim());
-                    String category = parts[3].trim();
-                    
-                    products.add(new Product(id, name, price, category));
-                } catch (NumberFormatException e) {
-                    statistics.incrementSkipped();
-                }
+                sink.accept(product);
+            }
+        }
+    }
+    
+    /**
+     * Parses and validates one data row of the input file in a single pass with
+     * {@link ProductValidator#parseProduct(String, boolean)}. Invalid rows are counted
+     * as skipped by reason and passed to the rejected row sink, if there is one. The
+     * category of the product is interned in the dictionary.
+     * 
+     * @param line the row, without its line separator
+     * @param lineNumber the line number of the row in the input file, counting the header as line 1
+     * @param statistics the statistics collector to update when the row is skipped
+     * @return the extracted product, or null if the row is invalid
+     * @throws IOException if the rejected row sink fails
+     */
+    public Product parseRow(String line, long lineNumber, StatisticsCollector statistics) throws IOException {
+        ValidationResult result = ProductValidator.parseProduct(line, fixedPointPrices);
+        if (!result.isValid()) {
+            statistics.incrementSkipped(result.getReason());
+            if (rejectedRows != null) {
+                rejectedRows.reject(lineNumber, line, result.getReason());
             }
+            return null;
         }
         
-        return products;
+        Product product = result.getProduct();
+        product.setCategory(categories, categories.intern(product.getCategory()));
+        return product;
+    }
+    
+    /**
+     * Extracts product data from the specified CSV file into columnar batches.
+     * Rows are appended to the given batch, which is handed to the sink whenever it is
+     * full and once more for the remaining rows; it is cleared after each hand-off, so
+     * the same batch storage is reused for the whole file. Subclasses may also hand
+     * other batches that share the same dictionary to the sink.
+     * 
+     * @param inputPath the path to the input CSV file
+     * @param statistics the statistics collector to update during extraction
+     * @param batch the batch to fill, which is cleared first
+     * @param sink the sink that receives each filled batch in input order
+     * @throws IOException if an error occurs while reading the file or if the sink fails
+     */
+    public void extractBatches(Path inputPath, StatisticsCollector statistics, ProductBatch batch,
+                               ProductBatchSink sink) throws IOException {
+        batch.clear();
+        extract(inputPath, statistics, product -> {
+            batch.add(product);
+            if (batch.isFull()) {
+                sink.accept(batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            sink.accept(batch);
+            batch.clear();
+        }
+    }
+    
+    /**
+     * Checks whether prices are extracted in fixed-point form.
+     * 
+     * @return true if prices with at most two fractional digits are held as cents
+     */
+    public boolean isFixedPointPrices() {
+        return fixedPointPrices;
+    }
+    
+    /**
+     * Enables or disables fixed-point price extraction.
+     * When enabled, every price with at most two fractional digits that fits in a long
+     * number of cents is held in fixed-point form, and no BigDecimal is created for it.
+     * Other prices are still held as BigDecimal values.
+     * 
+     * @param fixedPointPrices true to extract prices as cents where possible
+     */
+    public void setFixedPointPrices(boolean fixedPointPrices) {
+        this.fixedPointPrices = fixedPointPrices;
+    }
+    
+    /**
+     * Gets the dictionary that the categories of extracted products are interned in.
+     * Every extracted product holds the dictionary's instance of its category together
+     * with the category code, so equal categories share a single String.
+     * 
+     * @return the category dictionary
+     */
+    public CategoryDictionary getCategories() {
+        return categories;
+    }
+    
+    /**
+     * Sets the dictionary that the categories of extracted products are interned in.
+     * Sharing one dictionary with the transformer lets it compare category codes.
+     * 
+     * @param categories the category dictionary
+     */
+    public void setCategories(CategoryDictionary categories) {
+        this.categories = Objects.requireNonNull(categories, "categories");
+    }
+    
+    /**
+     * Gets the sink that receives rejected rows.
+     * 
+     * @return the sink, or null if rejected rows are only counted
+     */
+    public RejectedRowSink getRejectedRowSink() {
+        return rejectedRows;
+    }
+    
+    /**
+     * Sets the sink that receives every rejected row with its line number and reject
+     * reason, in input order. The sink is not closed by the extractor.
+     * 
+     * @param rejectedRows the sink, or null to only count rejected rows
+     */
+    public void setRejectedRowSink(RejectedRowSink rejectedRows) {
+        this.rejectedRows = rejectedRows;
     }
     
     /**
@@ -1,17 +1,24 @@
 package org.howard.edu.lsp.assignment3;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.math.RoundingMode;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Handles data loading to CSV files.
  * This class encapsulates all file writing logic and follows the Single Responsibility Principle.
  * It provides methods for writing transformed product data to CSV files with proper formatting.
+ * Output files whose name ends in {@value BinaryProductFormat#EXTENSION} are written in the
+ * binary columnar format of {@link BinaryProductWriter} instead.
+ * 
+ * <p>The load methods write to a temporary file next to the output file and move it into
+ * place only once every row has been written, so a run that fails part way leaves any
+ * earlier output file as it was instead of a truncated one.</p>
  * 
  * @author Giliad Dawite
  * @version 1.0
@@ -21,6 +28,21 @@ public class DataLoader {
     /** CSV header for the output file */
     private static final String CSV_HEADER = "ProductID,Name,Price,Category,PriceRange";
     
+    /** Prefix of the temporary file an output file is written to, which keeps its extension */
+    static final String TEMPORARY_PREFIX = ".tmp-";
+    
+    /** Whether rows are written to disk on a separate writer thread */
+    private boolean asyncWrite;
+    
+    /** Encoding buffer shared by the writers this loader opens, or null if each gets its own */
+    private byte[] sharedBuffer;
+    
+    /** Number of threads compressing gzip output files */
+    private int compressThreads = 1;
+    
+    /** Price bands of the price ranges written to binary output files */
+    private PriceBands priceBands = PriceRangeCalculator.getBands();
+    
     /**
      * Loads transformed products to the specified output CSV file.
      * 
@@ -30,19 +52,167 @@ public class DataLoader {
      * @return true if the write operation was successful, false otherwise
      */
     public boolean load(List<Product> products, Path outputPath, StatisticsCollector statistics) {
-        try (BufferedWriter writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
-            // Write CSV header
-            writer.write(CSV_HEADER);
-            writer.newLine();
+        Path tempPath = temporaryPathOf(outputPath);
+        try {
+            try (ProductSink writer = BinaryProductFormat.isBinary(outputPath)
+                    ? openBinaryWriter(tempPath) : openWriter(tempPath)) {
+                // Write each product as a CSV row
+                for (Product product : products) {
+                    writer.accept(product);
+                }
+            }
+            return replaceOutput(tempPath, outputPath, statistics);
+            
+        } catch (IOException e) {
+            System.err.println("Error: Failed writing output file: " + e.getMessage());
+            statistics.setWriteSuccessful(false);
+            return false;
+        } finally {
+            deleteTemporaryFile(tempPath);
+        }
+    }
+    
+    /**
+     * Streams products from a source straight into the output CSV file.
+     * Each product is written as soon as the source produces it, so memory use does
+     * not depend on the number of rows. Write failures are reported the same way as
+     * in {@link #load(List, Path, StatisticsCollector)}; failures raised by the source
+     * itself (for example while reading the input file) are rethrown to the caller.
+     * 
+     * @param source the source that pushes transformed products into the writer
+     * @param outputPath the path to the output CSV file
+     * @param statistics the statistics collector to update with write status
+     * @return true if the write operation was successful, false otherwise
+     * @throws IOException if the source fails while producing products
+     */
+    public boolean load(ProductSource source, Path outputPath, StatisticsCollector statistics) throws IOException {
+        if (BinaryProductFormat.isBinary(outputPath)) {
+            return loadBinary(writer -> source.forEach(writer), outputPath, statistics);
+        }
+        Path tempPath = temporaryPathOf(outputPath);
+        CsvProductWriter writer = null;
+        try {
+            writer = openWriter(tempPath);
+            source.forEach(writer);
+            writer.close();
+            return replaceOutput(tempPath, outputPath, statistics);
+            
+        } catch (IOException e) {
+            if (writer != null) {
+                writer.closeQuietly();
+                if (!writer.hasFailed()) {
+                    throw e;
+                }
+            }
+            System.err.println("Error: Failed writing output file: " + e.getMessage());
+            statistics.setWriteSuccessful(false);
+            return false;
+        } finally {
+            deleteTemporaryFile(tempPath);
+        }
+    }
+    
+    /**
+     * Streams columnar batches from a source straight into the output CSV file.
+     * Errors are handled as in {@link #load(ProductSource, Path, StatisticsCollector)}.
+     * 
+     * @param source the source that pushes batches of transformed products into the writer
+     * @param outputPath the path to the output CSV file
+     * @param statistics the statistics collector to update with write status
+     * @return true if the write operation was successful, false otherwise
+     * @throws IOException if the source fails while producing batches
+     */
+    public boolean loadBatches(ProductBatchSource source, Path outputPath, StatisticsCollector statistics) throws IOException {
+        if (BinaryProductFormat.isBinary(outputPath)) {
+            return loadBinary(writer -> source.forEach(writer), outputPath, statistics);
+        }
+        Path tempPath = temporaryPathOf(outputPath);
+        CsvBatchWriter writer = null;
+        try {
+            writer = openBatchWriter(tempPath);
+            source.forEach(writer);
+            writer.close();
+            return replaceOutput(tempPath, outputPath, statistics);
             
-            // Write each product as a CSV row
-            for (Product product : products) {
-                writeProductRow(writer, product);
+        } catch (IOException e) {
+            if (writer != null) {
+                writer.closeQuietly();
+                if (!writer.hasFailed()) {
+                    throw e;
+                }
             }
+            System.err.println("Error: Failed writing output file: " + e.getMessage());
+            statistics.setWriteSuccessful(false);
+            return false;
+        } finally {
+            deleteTemporaryFile(tempPath);
+        }
+    }
+    
+    /**
+     * Streams products into a binary output file.
+     * Errors are handled as in {@link #load(ProductSource, Path, StatisticsCollector)}.
+     * 
+     * @param content writes the products to the open writer
+     * @param outputPath the path to the output file
+     * @param statistics the statistics collector to update with write status
+     * @return true if the write operation was successful, false otherwise
+     * @throws IOException if the source fails while producing products
+     */
+    private boolean loadBinary(BinaryContent content, Path outputPath, StatisticsCollector statistics) throws IOException {
+        Path tempPath = temporaryPathOf(outputPath);
+        BinaryProductWriter writer = null;
+        try {
+            writer = openBinaryWriter(tempPath);
+            content.writeTo(writer);
+            writer.close();
+            return replaceOutput(tempPath, outputPath, statistics);
             
+        } catch (IOException e) {
+            if (writer != null) {
+                writer.closeQuietly();
+                if (!writer.hasFailed()) {
+                    throw e;
+                }
+            }
+            System.err.println("Error: Failed writing output file: " + e.getMessage());
+            statistics.setWriteSuccessful(false);
+            return false;
+        } finally {
+            deleteTemporaryFile(tempPath);
+        }
+    }
+    
+    /**
+     * Gets the temporary file an output file is written to before it is moved into place.
+     * The file is in the same directory, so that the move can be atomic, and keeps the
+     * extension of the output file, so that it is written in the same format.
+     * 
+     * @param outputPath the path to the output file
+     * @return the path to the temporary file
+     */
+    static Path temporaryPathOf(Path outputPath) {
+        return outputPath.resolveSibling(TEMPORARY_PREFIX + outputPath.getFileName());
+    }
+    
+    /**
+     * Moves a completely written temporary file over the output file, atomically where
+     * the file system allows it, and records the result in the statistics.
+     * 
+     * @param tempPath the path to the temporary file
+     * @param outputPath the path to the output file
+     * @param statistics the statistics collector to update with write status
+     * @return true if the output file was replaced, false otherwise
+     */
+    private static boolean replaceOutput(Path tempPath, Path outputPath, StatisticsCollector statistics) {
+        try {
+            try {
+                Files.move(tempPath, outputPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, outputPath, StandardCopyOption.REPLACE_EXISTING);
+            }
             statistics.setWriteSuccessful(true);
             return true;
-            
         } catch (IOException e) {
             System.err.println("Error: Failed writing output file: " + e.getMessage());
             statistics.setWriteSuccessful(false);
@@ -51,24 +221,165 @@ public class DataLoader {
     }
     
     /**
-     * Writes a single product as a CSV row.
+     * Deletes the temporary file of a load that did not move it into place.
      * 
-     * @param writer the BufferedWriter to write to
-     * @param product the product to write
-     * @throws IOException if an error occurs while writing
+     * @param tempPath the path to the temporary file
      */
-    private void writeProductRow(BufferedWriter writer, Product product) throws IOException {
-        // Ensure price is formatted with exactly 2 decimal places
-        String formattedPrice = product.getPrice().setScale(2, RoundingMode.HALF_UP).toPlainString();
-        
-        writer.write(String.format("%d,%s,%s,%s,%s",
-            product.getProductId(),
-            product.getName(),
-            formattedPrice,
-            product.getCategory(),
-            product.getPriceRange()
-        ));
-        writer.newLine();
+    private static void deleteTemporaryFile(Path tempPath) {
+        try {
+            Files.deleteIfExists(tempPath);
+        } catch (IOException e) {
+            System.err.println("Warning: Failed deleting temporary output file: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Opens a CSV writer for the output file. The header is written immediately.
+     * 
+     * @param outputPath the path to the output CSV file
+     * @return a writer that accepts transformed products
+     * @throws IOException if the file cannot be opened
+     */
+    public CsvProductWriter openWriter(Path outputPath) throws IOException {
+        return new CsvProductWriter(openEncoder(outputPath));
+    }
+    
+    /**
+     * Opens a CSV writer for columnar batches. The header is written immediately.
+     * 
+     * @param outputPath the path to the output CSV file
+     * @return a writer that accepts batches of transformed products
+     * @throws IOException if the file cannot be opened
+     */
+    public CsvBatchWriter openBatchWriter(Path outputPath) throws IOException {
+        return new CsvBatchWriter(openEncoder(outputPath));
+    }
+    
+    /**
+     * Opens a writer for the output file in the binary columnar format. The header is
+     * written immediately; the footer is written when the writer is closed.
+     * 
+     * @param outputPath the path to the output file
+     * @return a writer that accepts transformed products and batches
+     * @throws IOException if the file cannot be opened
+     */
+    public BinaryProductWriter openBinaryWriter(Path outputPath) throws IOException {
+        return new BinaryProductWriter(outputPath, priceBands);
+    }
+    
+    /**
+     * Opens the row encoder for the output file, writing through an {@link AsyncBlockWriter}
+     * when asynchronous writing is enabled. Output files whose name ends in
+     * {@value CompressedFiles#GZIP_EXTENSION} are compressed with gzip.
+     * 
+     * @param outputPath the path to the output CSV file
+     * @return the row encoder
+     * @throws IOException if the file cannot be opened
+     */
+    private CsvRowEncoder openEncoder(Path outputPath) throws IOException {
+        WritableByteChannel channel = CompressedFiles.newWritableChannel(outputPath, compressThreads);
+        if (!asyncWrite) {
+            if (sharedBuffer == null) {
+                return new CsvRowEncoder(channel, CsvRowEncoder.DEFAULT_BUFFER_SIZE);
+            }
+            return new CsvRowEncoder(channel, sharedBuffer);
+        }
+        AsyncBlockWriter blockWriter = new AsyncBlockWriter(channel,
+            CsvRowEncoder.DEFAULT_BUFFER_SIZE, AsyncBlockWriter.DEFAULT_BLOCK_COUNT);
+        try {
+            return new CsvRowEncoder(blockWriter);
+        } catch (IOException | RuntimeException e) {
+            blockWriter.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Checks whether rows are written to disk on a separate writer thread.
+     * 
+     * @return true if asynchronous writing is enabled, false otherwise
+     */
+    public boolean isAsyncWrite() {
+        return asyncWrite;
+    }
+    
+    /**
+     * Enables or disables asynchronous writing. When enabled, encoded rows are collected
+     * in one buffer while a writer thread writes the previous buffer to disk, so the
+     * transform does not wait for every write. A write failure is still reported by the
+     * load methods, which then mark the write as unsuccessful.
+     * 
+     * @param asyncWrite true to write on a separate writer thread
+     */
+    public void setAsyncWrite(boolean asyncWrite) {
+        this.asyncWrite = asyncWrite;
+    }
+    
+    /**
+     * Checks whether the writers this loader opens share one encoding buffer.
+     * 
+     * @return true if the buffer is reused, false otherwise
+     */
+    public boolean isReuseBuffers() {
+        return sharedBuffer != null;
+    }
+    
+    /**
+     * Enables or disables reusing one encoding buffer for every writer this loader opens,
+     * which saves allocating a new buffer for each output file when a long-running process
+     * writes many files. Only one writer opened by the loader may then be open at a time.
+     * Writers on a separate writer thread use the blocks of their own writer instead.
+     * 
+     * @param reuseBuffers true to share one encoding buffer between writers
+     */
+    public void setReuseBuffers(boolean reuseBuffers) {
+        if (!reuseBuffers) {
+            sharedBuffer = null;
+        } else if (sharedBuffer == null) {
+            sharedBuffer = new byte[CsvRowEncoder.DEFAULT_BUFFER_SIZE];
+        }
+    }
+    
+    /**
+     * Gets the number of threads compressing gzip output files.
+     * 
+     * @return the number of compression threads
+     */
+    public int getCompressThreads() {
+        return compressThreads;
+    }
+    
+    /**
+     * Sets the number of threads compressing gzip output files. With more than one thread
+     * the output is compressed in independent blocks by a {@link ParallelGzipChannel}.
+     * 
+     * @param compressThreads the number of compression threads, at least 1
+     * @throws IllegalArgumentException if compressThreads is less than 1
+     */
+    public void setCompressThreads(int compressThreads) {
+        if (compressThreads < 1) {
+            throw new IllegalArgumentException("Compression threads must be at least 1");
+        }
+        this.compressThreads = compressThreads;
+    }
+    
+    /**
+     * Gets the price bands of the price ranges written to binary output files.
+     * 
+     * @return the price bands
+     */
+    public PriceBands getPriceBands() {
+        return priceBands;
+    }
+    
+    /**
+     * Sets the price bands of the price ranges written to binary output files, which
+     * must be the bands the products were classified into.
+     * 
+     * @param priceBands the price bands
+     */
+    public void setPriceBands(PriceBands priceBands) {
+        this.priceBands = Objects.requireNonNull(priceBands, "priceBands");
     }
     
     /**
@@ -78,9 +389,11 @@ public class DataLoader {
      * @return true if the directory exists and is writable, false otherwise
      */
     public boolean validateOutputDirectory(Path outputPath) {
+        // A bare file name has no parent of its own, so resolve it against the working directory
+        Path directory = outputPath.toAbsolutePath().getParent();
         try {
-            Files.createDirectories(outputPath.getParent());
-            return Files.exists(outputPath.getParent()) && Files.isWritable(outputPath.getParent());
+            Files.createDirectories(directory);
+            return Files.exists(directory) && Files.isWritable(directory);
         } catch (IOException e) {
             return false;
         }
@@ -104,4 +417,19 @@ public class DataLoader {
     public static String getCsvHeader() {
         return CSV_HEADER;
     }
+    
+    /**
+     * Writes the products of a load to an open binary writer.
+     */
+    @FunctionalInterface
+    private interface BinaryContent {
+        
+        /**
+         * Writes the products.
+         * 
+         * @param writer the writer to write to
+         * @throws IOException if the source or the writer fails
+         */
+        void writeTo(BinaryProductWriter writer) throws IOException;
+    }
 }
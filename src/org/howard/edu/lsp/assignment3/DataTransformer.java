@@ -1,15 +1,16 @@
 package org.howard.edu.lsp.assignment3;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
+import java.util.Objects;
 
 /**
  * Handles data transformation according to business rules.
  * This class encapsulates all transformation logic and follows the Single Responsibility Principle.
- * It applies the following transformation rules:
+ * The rules are a {@link RuleSet}, compiled once into a {@link RulePlan} for the category
+ * dictionary. By default it applies the following transformation rules:
  * 1. Uppercase product names
  * 2. Apply 10% discount for Electronics category
  * 3. Re-categorize expensive Electronics as "Premium Electronics"
@@ -32,6 +33,64 @@ public class DataTransformer {
     /** Premium Electronics category name */
     private static final String PREMIUM_ELECTRONICS_CATEGORY = "Premium Electronics";
     
+    /** The default business rules */
+    private static final RuleSet DEFAULT_RULES = new RuleSet(Arrays.asList(
+        TransformRule.uppercaseName("uppercase-name"),
+        TransformRule.multiplyPrice("electronics-discount", DISCOUNT_RATE)
+            .forCategories(ELECTRONICS_CATEGORY),
+        TransformRule.setCategory("premium-electronics", PREMIUM_ELECTRONICS_CATEGORY)
+            .forCategories(ELECTRONICS_CATEGORY)
+            .whenPrice(TransformRule.Comparison.GREATER, PREMIUM_THRESHOLD),
+        TransformRule.priceRange("price-range")));
+    
+    /** Dictionary that category codes are compared against */
+    private final CategoryDictionary categories;
+    
+    /** The business rules applied */
+    private final RuleSet rules;
+    
+    /** The rules compiled for the category dictionary */
+    private final RulePlan plan;
+    
+    /** Aggregates of the rows transformed by each thread, or null if aggregates are not collected */
+    private volatile ThreadLocal<PriceAggregates> threadAggregates;
+    
+    /** Every instance held by {@link #threadAggregates}, guarded by the list itself */
+    private final List<PriceAggregates> allAggregates = new ArrayList<>();
+    
+    /**
+     * Constructs a new DataTransformer with its own category dictionary and the default rules.
+     */
+    public DataTransformer() {
+        this(new CategoryDictionary());
+    }
+    
+    /**
+     * Constructs a new DataTransformer with the default rules that compares category codes
+     * of the given dictionary.
+     * 
+     * @param categories the category dictionary shared with the extractor
+     */
+    public DataTransformer(CategoryDictionary categories) {
+        this(categories, DEFAULT_RULES);
+    }
+    
+    /**
+     * Constructs a new DataTransformer that applies the given rules and compares category
+     * codes of the given dictionary. Products whose category is interned in this
+     * dictionary, as done by an extractor sharing it, find the rules that apply to their
+     * category with a single array lookup instead of trimmed case-insensitive String
+     * comparisons.
+     * 
+     * @param categories the category dictionary shared with the extractor
+     * @param rules the business rules to apply
+     */
+    public DataTransformer(CategoryDictionary categories, RuleSet rules) {
+        this.categories = Objects.requireNonNull(categories, "categories");
+        this.rules = Objects.requireNonNull(rules, "rules");
+        this.plan = new RulePlan(rules, categories);
+    }
+    
     /**
      * Transforms a list of products according to business rules.
      * 
@@ -43,9 +102,7 @@ public class DataTransformer {
         List<Product> transformedProducts = new ArrayList<>();
         
         for (Product product : inputProducts) {
-            Product transformedProduct = transformProduct(product);
-            transformedProducts.add(transformedProduct);
-            statistics.incrementTransformed();
+            transformedProducts.add(transform(product, statistics));
         }
         
         return transformedProducts;
@@ -53,44 +110,119 @@ public class DataTransformer {
     
     /**
      * Transforms a single product according to business rules.
+     * This is the per-row entry point used by the streaming pipeline.
      * 
      * @param product the product to transform
+     * @param statistics the statistics collector to update during transformation
      * @return the transformed product
      */
-    private Product transformProduct(Product product) {
-        // Create a copy to avoid modifying the original
-        Product transformed = new Product(
-            product.getProductId(),
-            product.getName(),
-            product.getPrice(),
-            product.getCategory()
-        );
-        
-        // Rule 1: Uppercase name
-        transformed.setName(transformed.getName().toUpperCase(Locale.ROOT));
-        
-        // Normalize price scale
-        transformed.setPrice(transformed.getPrice().setScale(2, RoundingMode.HALF_UP));
-        
-        // Store original category for rule 3
-        String originalCategory = transformed.getCategory();
-        
-        // Rule 2: Apply 10% discount for Electronics
-        if (ProductValidator.equalsIgnoreCaseTrim(originalCategory, ELECTRONICS_CATEGORY)) {
-            BigDecimal discountedPrice = transformed.getPrice().multiply(DISCOUNT_RATE);
-            transformed.setPrice(discountedPrice.setScale(2, RoundingMode.HALF_UP));
+    public Product transform(Product product, StatisticsCollector statistics) {
+        Product transformedProduct = plan.apply(product);
+        statistics.incrementTransformed();
+        ThreadLocal<PriceAggregates> aggregates = threadAggregates;
+        if (aggregates != null) {
+            aggregates.get().add(transformedProduct);
         }
-        
-        // Rule 3: Re-categorize expensive Electronics as Premium Electronics
-        if (ProductValidator.equalsIgnoreCaseTrim(originalCategory, ELECTRONICS_CATEGORY) &&
-            transformed.getPrice().compareTo(PREMIUM_THRESHOLD) > 0) {
-            transformed.setCategory(PREMIUM_ELECTRONICS_CATEGORY);
+        return transformedProduct;
+    }
+    
+    /**
+     * Transforms a columnar batch of products in place according to business rules.
+     * Rows with ASCII names and prices held as cents are transformed directly on the batch
+     * columns: names are uppercased in place, the rules that apply are found once per
+     * category code, and the price range is stored as an index. Any other row is
+     * transformed through its {@link Product} view, so the results are the same as those
+     * of {@link #transform(Product, StatisticsCollector)}.
+     * 
+     * @param batch the batch to transform
+     * @param statistics the statistics collector to update during transformation
+     */
+    public void transform(ProductBatch batch, StatisticsCollector statistics) {
+        CategoryDictionary batchCategories = batch.getCategories();
+        RulePlan batchPlan = batchCategories == categories ? plan : new RulePlan(rules, batchCategories);
+        batchPlan.apply(batch, statistics);
+        ThreadLocal<PriceAggregates> aggregates = threadAggregates;
+        if (aggregates != null) {
+            aggregates.get().add(batch);
         }
-        
-        // Rule 4: Calculate price range from final price
-        transformed.setPriceRange(PriceRangeCalculator.calculatePriceRange(transformed.getPrice()));
-        
-        return transformed;
+    }
+    
+    /**
+     * Starts or stops collecting {@link PriceAggregates} of the final prices of the rows
+     * transformed from now on. Each thread that transforms rows, such as the workers of a
+     * {@link ParallelTransformEngine}, adds them to its own aggregates, so threads never
+     * contend; {@link #getAggregates()} merges them. Starting again discards the
+     * aggregates collected so far.
+     * 
+     * @param aggregating true to collect aggregates, false to stop
+     */
+    public void setAggregating(boolean aggregating) {
+        synchronized (allAggregates) {
+            allAggregates.clear();
+        }
+        threadAggregates = aggregating ? ThreadLocal.withInitial(() -> {
+            PriceAggregates aggregates = new PriceAggregates(categories, rules.getPriceBands());
+            synchronized (allAggregates) {
+                allAggregates.add(aggregates);
+            }
+            return aggregates;
+        }) : null;
+    }
+    
+    /**
+     * Checks whether aggregates of the transformed rows are collected.
+     * 
+     * @return true if aggregates are collected, false otherwise
+     */
+    public boolean isAggregating() {
+        return threadAggregates != null;
+    }
+    
+    /**
+     * Merges the aggregates that every thread has collected since aggregating started.
+     * Transforms still running on other threads may or may not be included, so this is
+     * called once they have completed.
+     * 
+     * @return the merged aggregates, or null if aggregates are not collected
+     */
+    public PriceAggregates getAggregates() {
+        if (threadAggregates == null) {
+            return null;
+        }
+        PriceAggregates total = new PriceAggregates(categories, rules.getPriceBands());
+        synchronized (allAggregates) {
+            for (PriceAggregates aggregates : allAggregates) {
+                total.merge(aggregates);
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Gets the dictionary that category codes are compared against.
+     * 
+     * @return the category dictionary
+     */
+    public CategoryDictionary getCategories() {
+        return categories;
+    }
+    
+    /**
+     * Gets the business rules applied by this transformer.
+     * 
+     * @return the rule set
+     */
+    public RuleSet getRules() {
+        return rules;
+    }
+    
+    /**
+     * Gets the default business rules, described in the class documentation.
+     * 
+     * @return the default rule set
+     */
+    public static RuleSet getDefaultRules() {
+        return DEFAULT_RULES;
     }
     
     /**
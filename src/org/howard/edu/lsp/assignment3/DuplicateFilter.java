@@ -0,0 +1,344 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drops valid rows whose product id appears more than once in an input file, following a
+ * {@link DuplicatePolicy}. The filter sits between extraction and transformation, so it
+ * sees the valid rows of every extractor in file order, whether they arrive as a list,
+ * one product at a time or in columnar batches. Each dropped row is counted as skipped
+ * with the reason {@link RejectReason#DUPLICATE_ID}.
+ * 
+ * <p>Ids are remembered in a {@link ProductIdSet}, which takes about 4 bytes per id or
+ * less. Keeping the first row only needs the ids seen so far. Keeping the last row or
+ * rejecting every copy needs to know which ids appear again later, so these policies
+ * first scan the whole file with {@link #prescan(DataExtractor, Path)}; that pass also
+ * counts the extra copies of each duplicated id, which takes memory only for ids that
+ * do repeat, and the set of all ids is released before the rows are filtered.</p>
+ * 
+ * <p>A filter is used for one input file by one thread.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class DuplicateFilter {
+    
+    /** What the filter does with duplicated ids */
+    private final DuplicatePolicy policy;
+    
+    /** Ids seen so far, or null once the prescan has finished */
+    private ProductIdSet seen = new ProductIdSet();
+    
+    /** Number of copies after the first of each duplicated id, counted by the prescan */
+    private final IdCounts extraCopies = new IdCounts();
+    
+    /** Whether the input file has been scanned */
+    private boolean prescanned;
+    
+    /** Number of rows dropped */
+    private long dropped;
+    
+    /**
+     * Constructs a new DuplicateFilter.
+     * 
+     * @param policy what to do with duplicated ids
+     */
+    public DuplicateFilter(DuplicatePolicy policy) {
+        this.policy = policy;
+    }
+    
+    /**
+     * Scans the input file for the ids that appear more than once, if the policy needs it.
+     * The rows are extracted into a separate statistics collector and rejected rows are
+     * not passed to the extractor's {@link RejectedRowSink}, so the scan does not change
+     * the counters or the quarantine file of the run.
+     * 
+     * @param extractor the extractor that reads the file
+     * @param inputPath the path to the input file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalStateException if the file has already been scanned
+     */
+    public void prescan(DataExtractor extractor, Path inputPath) throws IOException {
+        if (prescanned) {
+            throw new IllegalStateException("Input file has already been scanned for duplicates");
+        }
+        if (!policy.needsPrescan()) {
+            return;
+        }
+        RejectedRowSink rejectedRows = extractor.getRejectedRowSink();
+        extractor.setRejectedRowSink(null);
+        try {
+            extractor.extractBatches(inputPath, new StatisticsCollector(),
+                new ProductBatch(extractor.getCategories()), batch -> {
+                    for (int row = 0; row < batch.size(); row++) {
+                        int productId = batch.getProductId(row);
+                        if (!seen.add(productId)) {
+                            extraCopies.increment(productId);
+                        }
+                    }
+                });
+        } finally {
+            extractor.setRejectedRowSink(rejectedRows);
+        }
+        seen = null;
+        prescanned = true;
+    }
+    
+    /**
+     * Decides whether the next valid row is kept.
+     * 
+     * @param productId the product id of the row
+     * @return true if the row is kept, false if it is dropped
+     * @throws IllegalStateException if the policy needs a prescan that has not been done
+     */
+    public boolean keep(int productId) {
+        switch (policy) {
+            case KEEP_FIRST:
+                return seen.add(productId);
+            case KEEP_LAST:
+                checkPrescanned();
+                return !extraCopies.decrement(productId);
+            default:
+                checkPrescanned();
+                return extraCopies.get(productId) == 0;
+        }
+    }
+    
+    /**
+     * Wraps a sink so that only the products that are kept reach it.
+     * 
+     * @param sink the sink that receives the kept products
+     * @param statistics the statistics collector that counts dropped rows
+     * @return a sink that accepts every valid product
+     */
+    public ProductSink filter(ProductSink sink, StatisticsCollector statistics) {
+        return product -> {
+            if (keep(product.getProductId())) {
+                sink.accept(product);
+            } else {
+                drop(statistics);
+            }
+        };
+    }
+    
+    /**
+     * Wraps a batch sink so that only the rows that are kept reach it. A batch without
+     * dropped rows is passed on as it is; otherwise its kept rows are copied into a
+     * second batch, which is reused between calls.
+     * 
+     * @param sink the sink that receives batches of kept rows
+     * @param statistics the statistics collector that counts dropped rows
+     * @return a sink that accepts batches of valid rows
+     */
+    public ProductBatchSink filterBatches(ProductBatchSink sink, StatisticsCollector statistics) {
+        return new ProductBatchSink() {
+            /** Batch the kept rows are copied into when a batch has dropped rows */
+            private ProductBatch kept;
+            
+            @Override
+            public void accept(ProductBatch batch) throws IOException {
+                int row = 0;
+                while (row < batch.size() && keep(batch.getProductId(row))) {
+                    row++;
+                }
+                if (row == batch.size()) {
+                    sink.accept(batch);
+                    return;
+                }
+                
+                if (kept == null || kept.getCapacity() < batch.size()
+                        || kept.getCategories() != batch.getCategories()) {
+                    kept = new ProductBatch(batch.getCategories(), batch.getCapacity());
+                }
+                kept.clear();
+                for (int i = 0; i < row; i++) {
+                    kept.add(batch, i);
+                }
+                drop(statistics);
+                for (row++; row < batch.size(); row++) {
+                    if (keep(batch.getProductId(row))) {
+                        kept.add(batch, row);
+                    } else {
+                        drop(statistics);
+                    }
+                }
+                if (!kept.isEmpty()) {
+                    sink.accept(kept);
+                }
+            }
+        };
+    }
+    
+    /**
+     * Filters a list of products.
+     * 
+     * @param products the valid products in input order
+     * @param statistics the statistics collector that counts dropped rows
+     * @return the kept products in input order
+     */
+    public List<Product> filter(List<Product> products, StatisticsCollector statistics) {
+        List<Product> kept = new ArrayList<>(products.size());
+        for (Product product : products) {
+            if (keep(product.getProductId())) {
+                kept.add(product);
+            } else {
+                drop(statistics);
+            }
+        }
+        return kept;
+    }
+    
+    /**
+     * Gets the policy of the filter.
+     * 
+     * @return the duplicate policy
+     */
+    public DuplicatePolicy getPolicy() {
+        return policy;
+    }
+    
+    /**
+     * Gets the number of rows dropped so far.
+     * 
+     * @return the number of dropped rows
+     */
+    public long getDropped() {
+        return dropped;
+    }
+    
+    /**
+     * Counts a dropped row.
+     * 
+     * @param statistics the statistics collector to update
+     */
+    private void drop(StatisticsCollector statistics) {
+        dropped++;
+        statistics.incrementSkipped(RejectReason.DUPLICATE_ID);
+    }
+    
+    /**
+     * Checks that the input file has been scanned.
+     * 
+     * @throws IllegalStateException if it has not
+     */
+    private void checkPrescanned() {
+        if (!prescanned) {
+            throw new IllegalStateException("Policy " + policy.getOptionName() + " needs a prescan of the input file");
+        }
+    }
+    
+    /**
+     * Counts per product id, kept in an open-addressing hash table of int keys and
+     * values. Only ids with a count above zero are stored.
+     */
+    private static final class IdCounts {
+        
+        /** Initial number of slots of the table */
+        private static final int INITIAL_CAPACITY = 64;
+        
+        /** Ids of the table, with 0 marking an empty slot */
+        private int[] ids = new int[INITIAL_CAPACITY];
+        
+        /** Count of the id in the same slot */
+        private int[] counts = new int[INITIAL_CAPACITY];
+        
+        /** Count of the id 0, which cannot be stored in the table */
+        private int zeroCount;
+        
+        /** Number of ids in the table */
+        private int size;
+        
+        /**
+         * Gets the count of an id.
+         * 
+         * @param id the product id
+         * @return the count, or 0 if the id is not stored
+         */
+        private int get(int id) {
+            if (id == 0) {
+                return zeroCount;
+            }
+            int slot = find(id);
+            return ids[slot] == id ? counts[slot] : 0;
+        }
+        
+        /**
+         * Adds one to the count of an id.
+         * 
+         * @param id the product id
+         */
+        private void increment(int id) {
+            if (id == 0) {
+                zeroCount++;
+                return;
+            }
+            int slot = find(id);
+            if (ids[slot] == 0) {
+                ids[slot] = id;
+                size++;
+            }
+            counts[slot]++;
+            if (size * 4 > ids.length * 3) {
+                grow();
+            }
+        }
+        
+        /**
+         * Subtracts one from the count of an id if it is above zero. Ids whose count
+         * reaches zero stay in the table, which is dropped as a whole after the run.
+         * 
+         * @param id the product id
+         * @return true if the count was above zero, false otherwise
+         */
+        private boolean decrement(int id) {
+            if (id == 0) {
+                if (zeroCount == 0) {
+                    return false;
+                }
+                zeroCount--;
+                return true;
+            }
+            int slot = find(id);
+            if (ids[slot] != id || counts[slot] == 0) {
+                return false;
+            }
+            counts[slot]--;
+            return true;
+        }
+        
+        /**
+         * Finds the slot of an id, or the empty slot where it would be stored.
+         * 
+         * @param id the product id, not 0
+         * @return the slot
+         */
+        private int find(int id) {
+            int mask = ids.length - 1;
+            int slot = (id * 0x9E3779B9) >>> Integer.numberOfLeadingZeros(mask);
+            while (ids[slot] != 0 && ids[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+        
+        /**
+         * Doubles the table.
+         */
+        private void grow() {
+            int[] oldIds = ids;
+            int[] oldCounts = counts;
+            ids = new int[oldIds.length * 2];
+            counts = new int[oldIds.length * 2];
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldIds[i] != 0) {
+                    int slot = find(oldIds[i]);
+                    ids[slot] = oldIds[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+    }
+}
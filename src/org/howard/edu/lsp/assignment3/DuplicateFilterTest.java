@@ -0,0 +1,151 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for DuplicateFilter and ProductIdSet.
+ * Verifies that the id set matches a HashSet before and after it switches to a bitmap,
+ * and that every policy keeps the same rows whether products arrive as a list, one at
+ * a time or in batches.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class DuplicateFilterTest {
+    
+    @Test
+    @DisplayName("Test the id set matches a HashSet in both its hash table and bitmap forms")
+    public void testProductIdSet() {
+        Random random = new Random(24);
+        ProductIdSet sparse = new ProductIdSet();
+        ProductIdSet dense = new ProductIdSet();
+        Set<Integer> sparseExpected = new HashSet<>();
+        Set<Integer> denseExpected = new HashSet<>();
+        for (int i = 0; i < 300000; i++) {
+            int sparseId = random.nextInt();
+            int denseId = random.nextInt(400000) - 1000;
+            assertEquals(sparseExpected.add(sparseId), sparse.add(sparseId));
+            assertEquals(denseExpected.add(denseId), dense.add(denseId));
+        }
+        assertTrue(sparse.add(0));
+        assertFalse(sparse.add(0));
+        sparseExpected.add(0);
+        
+        assertFalse(sparse.isBitmap());
+        assertTrue(dense.isBitmap());
+        assertEquals(sparseExpected.size(), sparse.size());
+        assertEquals(denseExpected.size(), dense.size());
+        assertTrue(sparse.getMemoryBytes() <= sparse.size() * 11, "hash table bytes per id");
+        assertTrue(dense.getMemoryBytes() < dense.size() * 3, "bitmap bytes per id");
+        for (int i = 0; i < 100000; i++) {
+            int id = random.nextInt(i % 2 == 0 ? Integer.MAX_VALUE : 400000) - 1000;
+            assertEquals(sparseExpected.contains(id), sparse.contains(id));
+            assertEquals(denseExpected.contains(id), dense.contains(id));
+        }
+        assertTrue(dense.add(-5000));
+        assertTrue(dense.contains(-5000));
+        assertFalse(dense.contains(Integer.MIN_VALUE));
+    }
+    
+    @Test
+    @DisplayName("Test every policy keeps the same rows for lists, products and batches")
+    public void testPolicies() throws IOException {
+        int[] ids = {5, 0, 7, 5, -3, 0, 9, 5, -3};
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            products.add(new Product(ids[i], "Row " + i, new BigDecimal("1.00"), "Office"));
+        }
+        Path input = Files.createTempFile("duplicates", ".csv");
+        try {
+            StringBuilder content = new StringBuilder("ProductID,Name,Price,Category\n");
+            for (Product product : products) {
+                content.append(product.getProductId()).append(',').append(product.getName()).append(",1.00,Office\n");
+            }
+            content.append("5,Invalid,abc,Office\n");
+            Files.write(input, content.toString().getBytes(StandardCharsets.UTF_8));
+            
+            assertPolicy(DuplicatePolicy.KEEP_FIRST, input, products, 0, 1, 2, 4, 6);
+            assertPolicy(DuplicatePolicy.KEEP_LAST, input, products, 2, 5, 6, 7, 8);
+            assertPolicy(DuplicatePolicy.REJECT, input, products, 2, 6);
+        } finally {
+            Files.deleteIfExists(input);
+        }
+        
+        assertThrows(IllegalStateException.class, () -> new DuplicateFilter(DuplicatePolicy.REJECT).keep(1));
+        assertEquals(DuplicatePolicy.KEEP_LAST, DuplicatePolicy.fromOptionName("keep-last"));
+        assertThrows(IllegalArgumentException.class, () -> DuplicatePolicy.fromOptionName("keep-none"));
+        assertEquals(DuplicatePolicy.REJECT,
+            PipelineOptions.fromArgs(new String[] {"--duplicates", "reject"}).getDuplicatePolicy());
+    }
+    
+    /**
+     * Checks that a policy keeps the expected rows of a file in all three ways of passing
+     * rows through the filter, and counts the other rows as duplicates.
+     * 
+     * @param policy the duplicate policy
+     * @param input the input file holding the products
+     * @param products the valid products of the input file
+     * @param expected the indexes of the products that are kept
+     * @throws IOException if the input file cannot be read
+     */
+    private static void assertPolicy(DuplicatePolicy policy, Path input, List<Product> products, int... expected)
+            throws IOException {
+        List<String> expectedNames = new ArrayList<>();
+        for (int index : expected) {
+            expectedNames.add(products.get(index).getName());
+        }
+        long dropped = products.size() - expected.length;
+        
+        for (int mode = 0; mode < 3; mode++) {
+            DataExtractor extractor = new DataExtractor();
+            DuplicateFilter filter = new DuplicateFilter(policy);
+            filter.prescan(extractor, input);
+            StatisticsCollector statistics = new StatisticsCollector();
+            List<String> names = new ArrayList<>();
+            if (mode == 0) {
+                for (Product product : filter.filter(products, statistics)) {
+                    names.add(product.getName());
+                }
+            } else if (mode == 1) {
+                ProductSink sink = filter.filter(product -> names.add(product.getName()), statistics);
+                for (Product product : products) {
+                    sink.accept(product);
+                }
+            } else {
+                // Batches of four rows, so some batches pass through and others are copied
+                ProductBatchSink sink = filter.filterBatches(batch -> {
+                    for (int row = 0; row < batch.size(); row++) {
+                        names.add(batch.getName(row));
+                    }
+                }, statistics);
+                ProductBatch batch = new ProductBatch(extractor.getCategories(), 4);
+                for (Product product : products) {
+                    batch.add(product);
+                    if (batch.isFull()) {
+                        sink.accept(batch);
+                        batch.clear();
+                    }
+                }
+                sink.accept(batch);
+            }
+            assertEquals(expectedNames, names, policy + " mode " + mode);
+            assertEquals(dropped, filter.getDropped());
+            assertEquals(dropped, statistics.getSkipped(RejectReason.DUPLICATE_ID));
+            assertEquals(dropped, statistics.getSkipped());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.howard.edu.lsp.assignment3;
+
+/**
+ * What {@link DuplicateFilter} does with valid rows whose product id appeared earlier or
+ * later in the same input file. Rows that are dropped are counted as skipped with the
+ * reason {@link RejectReason#DUPLICATE_ID}.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public enum DuplicatePolicy {
+    
+    /** Keeps the first row of each product id and drops the later ones */
+    KEEP_FIRST("keep-first"),
+    
+    /** Keeps the last row of each product id and drops the earlier ones */
+    KEEP_LAST("keep-last"),
+    
+    /** Drops every row of a product id that appears more than once */
+    REJECT("reject");
+    
+    /** Name of the policy on the command line */
+    private final String optionName;
+    
+    /**
+     * Constructs a new DuplicatePolicy.
+     * 
+     * @param optionName the name of the policy on the command line
+     */
+    DuplicatePolicy(String optionName) {
+        this.optionName = optionName;
+    }
+    
+    /**
+     * Checks whether the policy needs to see every id of the input file before it can
+     * decide on the first row, which takes a first pass over the file.
+     * 
+     * @return true if the input file is scanned twice, false otherwise
+     */
+    public boolean needsPrescan() {
+        return this != KEEP_FIRST;
+    }
+    
+    /**
+     * Gets the name of the policy on the command line.
+     * 
+     * @return the option name, for example {@code keep-first}
+     */
+    public String getOptionName() {
+        return optionName;
+    }
+    
+    /**
+     * Finds the policy with the given command line name.
+     * 
+     * @param optionName the option name, for example {@code reject}
+     * @return the policy
+     * @throws IllegalArgumentException if no policy has this name
+     */
+    public static DuplicatePolicy fromOptionName(String optionName) {
+        for (DuplicatePolicy policy : values()) {
+            if (policy.optionName.equals(optionName)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown duplicate policy: " + optionName);
+    }
+}
@@ -1,6 +1,8 @@
 package org.howard.edu.lsp.assignment3;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
@@ -15,11 +17,36 @@ import java.util.List;
  */
 public class ETLPipeline {
     
+    /** Path to the input CSV file used when none is given */
+    private static final Path DEFAULT_INPUT_PATH = Paths.get("data/products.csv");
+    
+    /** Path to the output CSV file used when none is given */
+    private static final Path DEFAULT_OUTPUT_PATH = Paths.get("data/transformed_products.csv");
+    
+    /** Path to the output file used when none is given and binary output is requested */
+    private static final Path DEFAULT_BINARY_OUTPUT_PATH = Paths.get("data/transformed_products"
+        + BinaryProductFormat.EXTENSION);
+    
     /** Path to the input CSV file */
-    private static final Path INPUT_PATH = Paths.get("data/products.csv");
+    private final Path inputPath;
     
     /** Path to the output CSV file */
-    private static final Path OUTPUT_PATH = Paths.get("data/transformed_products.csv");
+    private final Path outputPath;
+    
+    /** Path to the index of the output file used by incremental runs */
+    private final Path indexPath;
+    
+    /** Path to the checkpoint written by checkpointed runs */
+    private final Path checkpointPath;
+    
+    /** Path to the metrics summary written next to the output file */
+    private final Path metricsPath;
+    
+    /** Path to the quarantine file of rejected rows written next to the output file */
+    private final Path quarantinePath;
+    
+    /** Path to the price aggregates written next to the output file */
+    private final Path aggregatesPath;
     
     /** Data extractor component */
     private final DataExtractor extractor;
@@ -33,16 +60,126 @@ public class ETLPipeline {
     /** Statistics collector for tracking pipeline metrics */
     private final StatisticsCollector statistics;
     
+    /** Options controlling how the pipeline runs */
+    private final PipelineOptions options;
+    
+    /** Dictionary that categories are interned in, shared by all phases */
+    private final CategoryDictionary categories;
+    
+    /** Processor of incremental runs, or null if runs are not incremental */
+    private final IncrementalProcessor incrementalProcessor;
+    
+    /** Processor of checkpointed runs, or null if runs are not checkpointed */
+    private final CheckpointedProcessor checkpointedProcessor;
+    
+    /** Number of sorted runs the last sorted run wrote to disk */
+    private int sortRunsSpilled;
+    
+    /** Filter of duplicated product ids of the current run, or null if duplicates are kept */
+    private DuplicateFilter duplicateFilter;
+    
+    /** Whether the run summary is printed when the pipeline finishes */
+    private boolean printSummary = true;
+    
     /**
-     * Constructs a new ETLPipeline with all necessary components.
+     * Constructs a new ETLPipeline with all necessary components and default options.
      * This constructor demonstrates composition - the pipeline is composed of
      * specialized components that handle specific responsibilities.
      */
     public ETLPipeline() {
-        this.extractor = new DataExtractor();
-        this.transformer = new DataTransformer();
-        this.loader = new DataLoader();
+        this(new PipelineOptions());
+    }
+    
+    /**
+     * Constructs a new ETLPipeline with all necessary components and the given options,
+     * reading and writing the default paths.
+     * 
+     * @param options the options controlling how the pipeline runs
+     */
+    public ETLPipeline(PipelineOptions options) {
+        this(options, DEFAULT_INPUT_PATH, options.isBinaryOutput() ? DEFAULT_BINARY_OUTPUT_PATH : DEFAULT_OUTPUT_PATH);
+    }
+    
+    /**
+     * Constructs a new ETLPipeline with all necessary components and the given options,
+     * reading and writing the given paths. The index, checkpoint, metrics, quarantine and
+     * aggregates files are kept next to the output file and named after it.
+     * 
+     * @param options the options controlling how the pipeline runs
+     * @param inputPath the path to the input CSV file
+     * @param outputPath the path to the output CSV file
+     */
+    public ETLPipeline(PipelineOptions options, Path inputPath, Path outputPath) {
+        this(options, inputPath, outputPath, new DataLoader());
+    }
+    
+    /**
+     * Constructs a new ETLPipeline that writes through the given loader, so that a
+     * long-running process can keep one loader, and its buffers, for many runs.
+     * 
+     * @param options the options controlling how the pipeline runs
+     * @param inputPath the path to the input CSV file
+     * @param outputPath the path to the output CSV file
+     * @param loader the loader that writes the output file, not used by another pipeline at the same time
+     */
+    ETLPipeline(PipelineOptions options, Path inputPath, Path outputPath, DataLoader loader) {
+        this.inputPath = inputPath;
+        this.outputPath = outputPath;
+        this.indexPath = siblingOf(outputPath, ".index");
+        this.checkpointPath = siblingOf(outputPath, ".checkpoint");
+        this.metricsPath = siblingOf(outputPath, ".metrics.json");
+        this.quarantinePath = siblingOf(outputPath, ".rejected.csv");
+        this.aggregatesPath = siblingOf(outputPath, ".aggregates.csv");
+        this.categories = new CategoryDictionary();
+        this.extractor = createExtractor(options);
+        this.extractor.setCategories(categories);
+        this.transformer = new DataTransformer(categories, options.getRules());
+        this.loader = loader;
+        this.loader.setAsyncWrite(options.isAsyncWrite());
+        this.loader.setCompressThreads(options.getCompressThreads());
+        this.loader.setPriceBands(options.getRules().getPriceBands());
         this.statistics = new StatisticsCollector();
+        this.options = options;
+        this.incrementalProcessor = options.isIncremental()
+            ? new IncrementalProcessor(extractor, transformer, loader) : null;
+        this.checkpointedProcessor = options.isCheckpointing()
+            ? new CheckpointedProcessor(extractor, transformer, options.getCheckpointInterval()) : null;
+    }
+    
+    /**
+     * Gets the path of a file kept next to the output file, named after the output file
+     * without its extension.
+     * 
+     * @param outputPath the path to the output CSV file
+     * @param suffix the suffix that replaces the extension
+     * @return the sibling path
+     */
+    private static Path siblingOf(Path outputPath, String suffix) {
+        String name = outputPath.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return outputPath.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + suffix);
+    }
+    
+    /**
+     * Creates the extractor selected by the options.
+     * 
+     * @param options the options controlling how the pipeline runs
+     * @return the extractor to use
+     */
+    private static DataExtractor createExtractor(PipelineOptions options) {
+        DataExtractor extractor;
+        if (options.getExtractThreads() > 1) {
+            // Runs that stream rows keep only a few small ranges in memory
+            extractor = options.isStreaming() || options.isColumnar()
+                ? new ParallelDataExtractor(options.getExtractThreads(), ParallelDataExtractor.STREAMING_RANGE_SIZE)
+                : new ParallelDataExtractor(options.getExtractThreads());
+        } else if (options.isMemoryMapped()) {
+            extractor = new MappedDataExtractor();
+        } else {
+            extractor = new DataExtractor();
+        }
+        extractor.setFixedPointPrices(options.isFixedPointPrices() || options.isColumnar());
+        return extractor;
     }
     
     /**
@@ -52,36 +189,444 @@ public class ETLPipeline {
      * @return true if the entire pipeline executed successfully, false otherwise
      */
     public boolean execute() {
+        if (options.isMetrics()) {
+            statistics.getMetrics().start();
+        }
+        QuarantineWriter quarantine = null;
         try {
             // Phase 1: Extract - Validate input and extract data
-            if (!extractor.validateInputFile(INPUT_PATH)) {
-                System.err.println(extractor.getMissingFileErrorMessage(INPUT_PATH));
+            if (!extractor.validateInputFile(inputPath)) {
+                System.err.println(extractor.getMissingFileErrorMessage(inputPath));
                 return false;
             }
             
-            // Phase 2: Extract - Read data from CSV file
-            List<Product> extractedProducts = extractor.extract(INPUT_PATH, statistics);
+            if (options.getSortKey() != null && (options.isIncremental() || options.isCheckpointing())) {
+                System.err.println("Error: Incremental and checkpointed runs cannot sort their output");
+                return false;
+            }
             
-            // Phase 3: Transform - Apply business rules
-            List<Product> transformedProducts = transformer.transform(extractedProducts, statistics);
+            if (options.getDuplicatePolicy() != null && (options.isIncremental() || options.isCheckpointing())) {
+                System.err.println("Error: Incremental and checkpointed runs cannot drop duplicate rows");
+                return false;
+            }
             
-            // Phase 4: Load - Validate output directory and write results
-            if (!loader.validateOutputDirectory(OUTPUT_PATH)) {
-                System.err.println(loader.getOutputDirectoryErrorMessage(new IOException("Directory validation failed")));
+            if (options.isAggregates() && (options.isIncremental() || options.isCheckpointing())) {
+                System.err.println("Error: Incremental and checkpointed runs cannot write price aggregates");
                 return false;
             }
+            transformer.setAggregating(options.isAggregates());
+            
+            if (options.isQuarantine()) {
+                if (options.isCheckpointing() && !options.isIncremental()) {
+                    System.err.println("Error: Checkpointed runs cannot write a quarantine file");
+                    return false;
+                }
+                try {
+                    quarantine = new QuarantineWriter(quarantinePath);
+                } catch (IOException e) {
+                    System.err.println("Error: Failed writing quarantine file: " + e.getMessage());
+                    return false;
+                }
+                extractor.setRejectedRowSink(quarantine);
+            }
             
-            // Phase 5: Load - Write transformed data to output file
-            boolean writeSuccess = loader.load(transformedProducts, OUTPUT_PATH, statistics);
+            if (options.getDuplicatePolicy() != null) {
+                // Policies that look ahead read the input file once before the run
+                long start = startTimer();
+                duplicateFilter = new DuplicateFilter(options.getDuplicatePolicy());
+                duplicateFilter.prescan(extractor, inputPath);
+                if (!options.isColumnar() && !options.isStreaming()) {
+                    recordPhase(PipelineMetrics.Phase.EXTRACT, start);
+                }
+            }
+            
+            boolean writeSuccess;
+            
+            if (options.isIncremental()) {
+                if (CompressedFiles.isGzip(outputPath) || BinaryProductFormat.isBinary(outputPath)) {
+                    System.err.println("Error: Incremental runs need an uncompressed CSV output file");
+                    return false;
+                }
+                
+                // Validate the output directory before any row is read
+                if (!loader.validateOutputDirectory(outputPath)) {
+                    System.err.println(loader.getOutputDirectoryErrorMessage(new IOException("Directory validation failed")));
+                    return false;
+                }
+                
+                // Phases 2-5: Copy unchanged rows, extract, transform and load changed rows
+                writeSuccess = incrementalProcessor.process(inputPath, outputPath, indexPath, statistics);
+            } else if (options.isCheckpointing()) {
+                if (CompressedFiles.isGzip(inputPath) || CompressedFiles.isGzip(outputPath)
+                        || BinaryProductFormat.isBinary(outputPath)) {
+                    System.err.println("Error: Checkpointed runs need uncompressed input and CSV output files");
+                    return false;
+                }
+                
+                // Validate the output directory before any row is read
+                if (!loader.validateOutputDirectory(outputPath)) {
+                    System.err.println(loader.getOutputDirectoryErrorMessage(new IOException("Directory validation failed")));
+                    return false;
+                }
+                
+                // Phases 2-5: Extract, transform and load one segment at a time, saving a checkpoint after each
+                writeSuccess = checkpointedProcessor.process(inputPath, outputPath, checkpointPath,
+                    options.isResume(), statistics);
+            } else if (options.getSortKey() != null) {
+                // Validate the output directory before any row is read
+                if (!loader.validateOutputDirectory(outputPath)) {
+                    System.err.println(loader.getOutputDirectoryErrorMessage(new IOException("Directory validation failed")));
+                    return false;
+                }
+                
+                // Phases 2-5: Extract and transform every row into the sorter, then load the sorted rows
+                writeSuccess = sortAndLoad();
+            } else if (options.isColumnar()) {
+                // Validate the output directory before any row is read
+                if (!loader.validateOutputDirectory(outputPath)) {
+                    System.err.println(loader.getOutputDirectoryErrorMessage(new IOException("Directory validation failed")));
+                    return false;
+                }
+                
+                // Phases 2-5: Extract, transform and load one columnar batch at a time
+                ProductBatch batch = new ProductBatch(categories);
+                writeSuccess = loader.loadBatches(sink ->
+                    extractor.extractBatches(inputPath, statistics, batch, dropDuplicateRows(extractedBatch -> {
+                        long start = startTimer();
+                        transformer.transform(extractedBatch, statistics);
+                        recordTransform(start);
+                        start = startTimer();
+                        sink.accept(extractedBatch);
+                        recordPhase(PipelineMetrics.Phase.LOAD, start);
+                    })), outputPath, statistics);
+            } else if (options.isStreaming()) {
+                // Validate the output directory before any row is read
+                if (!loader.validateOutputDirectory(outputPath)) {
+                    System.err.println(loader.getOutputDirectoryErrorMessage(new IOException("Directory validation failed")));
+                    return false;
+                }
+                
+                // Phases 2-5: Extract, transform and load each row as it is read
+                writeSuccess = loader.load(sink -> {
+                    try (ProductSink transformSink = openTransformSink(sink)) {
+                        extractor.extract(inputPath, statistics, dropDuplicates(transformSink));
+                    }
+                }, outputPath, statistics);
+            } else {
+                // Phase 2: Extract - Read data from CSV file
+                long start = startTimer();
+                List<Product> extractedProducts = dropDuplicates(extractor.extract(inputPath, statistics));
+                recordPhase(PipelineMetrics.Phase.EXTRACT, start);
+                
+                // Phase 3: Transform - Apply business rules
+                start = startTimer();
+                List<Product> transformedProducts = transform(extractedProducts);
+                recordTransform(start);
+                
+                // Phase 4: Load - Validate output directory and write results
+                if (!loader.validateOutputDirectory(outputPath)) {
+                    System.err.println(loader.getOutputDirectoryErrorMessage(new IOException("Directory validation failed")));
+                    return false;
+                }
+                
+                // Phase 5: Load - Write transformed data to output file
+                start = startTimer();
+                writeSuccess = loader.load(transformedProducts, outputPath, statistics);
+                recordPhase(PipelineMetrics.Phase.LOAD, start);
+            }
+            
+            boolean quarantineSuccess = true;
+            if (quarantine != null) {
+                quarantineSuccess = closeQuarantine(quarantine);
+                quarantine = null;
+            }
+            
+            boolean aggregatesSuccess = true;
+            if (options.isAggregates() && writeSuccess) {
+                aggregatesSuccess = writeAggregates();
+            }
+            
+            if (options.isMetrics()) {
+                stopMetrics(writeSuccess);
+            }
             
             // Phase 6: Report - Print execution summary
-            printExecutionSummary();
+            if (printSummary) {
+                printExecutionSummary();
+            }
+            if (options.isMetrics()) {
+                writeMetrics();
+            }
             
-            return writeSuccess;
+            return writeSuccess && quarantineSuccess && aggregatesSuccess;
             
         } catch (IOException e) {
             System.err.println("Error: Failed reading input file: " + e.getMessage());
             return false;
+        } finally {
+            if (quarantine != null) {
+                closeQuarantine(quarantine);
+            }
+            extractor.setRejectedRowSink(null);
+            duplicateFilter = null;
+        }
+    }
+    
+    /**
+     * Closes the quarantine file, waiting until every rejected row has been written.
+     * A failure is reported and fails the run, as the rejected rows would be lost.
+     * 
+     * @param quarantine the quarantine writer
+     * @return true if the quarantine file was written successfully, false otherwise
+     */
+    private boolean closeQuarantine(QuarantineWriter quarantine) {
+        try {
+            quarantine.close();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error: Failed writing quarantine file: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Extracts and transforms every row into an {@link ExternalSorter}, in the mode the
+     * options select, and writes the sorted rows to the output file. Sorted runs that do
+     * not fit in memory are written next to the output file and deleted afterwards. Time
+     * spent passing rows to the sorter and writing its output is counted as loading.
+     * 
+     * @return true if the output file was written successfully, false otherwise
+     * @throws IOException if the input file cannot be read
+     */
+    private boolean sortAndLoad() throws IOException {
+        Path spillDirectory = outputPath.toAbsolutePath().getParent();
+        ExternalSorter sorter = new ExternalSorter(options.getSortKey(), options.getSortMemory(), spillDirectory,
+            categories, options.getRules().getPriceBands());
+        try {
+            if (options.isColumnar()) {
+                ProductBatch batch = new ProductBatch(categories);
+                extractor.extractBatches(inputPath, statistics, batch, dropDuplicateRows(extractedBatch -> {
+                    long start = startTimer();
+                    transformer.transform(extractedBatch, statistics);
+                    recordTransform(start);
+                    start = startTimer();
+                    sorter.accept(extractedBatch);
+                    recordPhase(PipelineMetrics.Phase.LOAD, start);
+                }));
+            } else if (options.isStreaming()) {
+                try (ProductSink transformSink = openTransformSink(sorter)) {
+                    extractor.extract(inputPath, statistics, dropDuplicates(transformSink));
+                }
+            } else {
+                long start = startTimer();
+                List<Product> extractedProducts = dropDuplicates(extractor.extract(inputPath, statistics));
+                recordPhase(PipelineMetrics.Phase.EXTRACT, start);
+                
+                start = startTimer();
+                List<Product> transformedProducts = transform(extractedProducts);
+                recordTransform(start);
+                
+                start = startTimer();
+                for (Product product : transformedProducts) {
+                    sorter.accept(product);
+                }
+                recordPhase(PipelineMetrics.Phase.LOAD, start);
+            }
+            
+            long start = startTimer();
+            boolean writeSuccess = loader.loadBatches(sorter, outputPath, statistics);
+            recordPhase(PipelineMetrics.Phase.LOAD, start);
+            return writeSuccess;
+        } catch (IOException e) {
+            if (!sorter.hasFailed()) {
+                throw e;
+            }
+            System.err.println("Error: Failed sorting output: " + e.getMessage());
+            statistics.setWriteSuccessful(false);
+            return false;
+        } finally {
+            sortRunsSpilled = sorter.getRunsSpilled();
+            try {
+                sorter.close();
+            } catch (IOException e) {
+                System.err.println("Warning: Failed deleting sorted runs: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Writes the price aggregates collected by the transformer next to the output file.
+     * A failure is reported and fails the run, as the aggregates replace a scan of the output.
+     * 
+     * @return true if the aggregates file was written successfully, false otherwise
+     */
+    private boolean writeAggregates() {
+        try {
+            transformer.getAggregates().write(aggregatesPath);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error: Failed writing aggregates file: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Drops the products with duplicated ids from a list, if the run has a duplicate policy.
+     * 
+     * @param products the extracted products in input order
+     * @return the kept products in input order
+     */
+    private List<Product> dropDuplicates(List<Product> products) {
+        return duplicateFilter != null ? duplicateFilter.filter(products, statistics) : products;
+    }
+    
+    /**
+     * Wraps a sink so that products with duplicated ids are dropped before they reach it,
+     * if the run has a duplicate policy.
+     * 
+     * @param sink the sink that receives the kept products
+     * @return the sink to pass extracted products to
+     */
+    private ProductSink dropDuplicates(ProductSink sink) {
+        return duplicateFilter != null ? duplicateFilter.filter(sink, statistics) : sink;
+    }
+    
+    /**
+     * Wraps a batch sink so that rows with duplicated ids are dropped before they reach it,
+     * if the run has a duplicate policy.
+     * 
+     * @param sink the sink that receives batches of kept rows
+     * @return the sink to pass extracted batches to
+     */
+    private ProductBatchSink dropDuplicateRows(ProductBatchSink sink) {
+        return duplicateFilter != null ? duplicateFilter.filterBatches(sink, statistics) : sink;
+    }
+    
+    /**
+     * Applies the business rules to the extracted products, in parallel when
+     * more than one transform thread is configured.
+     * 
+     * @param extractedProducts the products to transform
+     * @return the transformed products in input order
+     */
+    private List<Product> transform(List<Product> extractedProducts) {
+        if (options.getTransformThreads() == 1) {
+            return transformer.transform(extractedProducts, statistics);
+        }
+        try (ParallelTransformEngine engine = new ParallelTransformEngine(transformer, options.getTransformThreads())) {
+            return engine.transform(extractedProducts, statistics);
+        }
+    }
+    
+    /**
+     * Opens the sink that transforms streamed products before passing them to the writer.
+     * With more than one transform thread, products are transformed in bounded parallel
+     * batches; closing the returned sink flushes the last batch and releases the threads.
+     * 
+     * @param writer the sink that receives transformed products
+     * @return a sink that accepts extracted products
+     */
+    private ProductSink openTransformSink(ProductSink writer) {
+        ProductSink timedWriter = options.isMetrics() ? product -> {
+            long start = System.nanoTime();
+            writer.accept(product);
+            recordPhase(PipelineMetrics.Phase.LOAD, start);
+        } : writer;
+        if (options.getTransformThreads() == 1) {
+            return product -> {
+                long start = startTimer();
+                Product transformedProduct = transformer.transform(product, statistics);
+                recordTransform(start);
+                timedWriter.accept(transformedProduct);
+            };
+        }
+        ParallelTransformEngine engine = new ParallelTransformEngine(transformer, options.getTransformThreads());
+        ProductSink batchingSink = engine.batchingSink(timedWriter, statistics,
+            engine.getChunkSize() * options.getTransformThreads());
+        return new ProductSink() {
+            @Override
+            public void accept(Product product) throws IOException {
+                batchingSink.accept(product);
+            }
+            
+            @Override
+            public void close() throws IOException {
+                try {
+                    batchingSink.close();
+                } finally {
+                    engine.close();
+                }
+            }
+        };
+    }
+    
+    /**
+     * Reads the clock if metrics are enabled.
+     * 
+     * @return the current value of {@link System#nanoTime()}, or 0 if metrics are disabled
+     */
+    private long startTimer() {
+        return options.isMetrics() ? System.nanoTime() : 0;
+    }
+    
+    /**
+     * Adds the time since a timer was started to a phase, if metrics are enabled.
+     * 
+     * @param phase the phase the time was spent in
+     * @param start the value returned by {@link #startTimer()}
+     */
+    private void recordPhase(PipelineMetrics.Phase phase, long start) {
+        if (options.isMetrics()) {
+            statistics.getMetrics().addPhaseNanos(phase, System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Records the time since a timer was started as the latency of one transformed
+     * batch, if metrics are enabled.
+     * 
+     * @param start the value returned by {@link #startTimer()}
+     */
+    private void recordTransform(long start) {
+        if (options.isMetrics()) {
+            statistics.getMetrics().recordTransformBatch(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Stops the metrics run and records the bytes read and written. When the phases
+     * overlapped, the wall time not spent transforming or loading is counted as extraction.
+     * 
+     * @param writeSuccess whether the output file was written successfully
+     */
+    private void stopMetrics(boolean writeSuccess) {
+        PipelineMetrics metrics = statistics.getMetrics();
+        metrics.stop();
+        if (options.isColumnar() || options.isStreaming() || options.isIncremental()
+                || options.isCheckpointing()) {
+            long overlapped = metrics.getWallNanos() - metrics.getPhaseNanos(PipelineMetrics.Phase.TRANSFORM)
+                - metrics.getPhaseNanos(PipelineMetrics.Phase.LOAD);
+            metrics.addPhaseNanos(PipelineMetrics.Phase.EXTRACT, Math.max(overlapped, 0));
+        }
+        try {
+            metrics.setBytesRead(Files.size(inputPath));
+            if (writeSuccess) {
+                metrics.setBytesWritten(Files.size(outputPath));
+            }
+        } catch (IOException e) {
+            // Sizes that cannot be read are reported as zero
+        }
+    }
+    
+    /**
+     * Writes the counters and metrics of the run as JSON next to the output file.
+     * A failure is reported but does not fail the run.
+     */
+    private void writeMetrics() {
+        try {
+            Files.write(metricsPath, statistics.getMetricsJson().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("Warning: Failed writing metrics file: " + e.getMessage());
         }
     }
     
@@ -92,12 +637,53 @@ public class ETLPipeline {
      */
     private void printExecutionSummary() {
         System.out.println("---- Run Summary ----");
-        System.out.println("Input path:  " + INPUT_PATH.toString());
-        System.out.println("Output path: " + OUTPUT_PATH.toString());
+        System.out.println("Input path:  " + inputPath.toString());
+        System.out.println("Output path: " + outputPath.toString());
         System.out.println("Rows read (excl. header): " + statistics.getRowsRead());
         System.out.println("Transformed:             " + statistics.getTransformed());
         System.out.println("Skipped:                 " + statistics.getSkipped());
         System.out.println("Write successful:        " + statistics.isWriteSuccessful());
+        if (incrementalProcessor != null) {
+            System.out.println(String.format("Changes: %d inserted, %d updated, %d deleted, %d unchanged",
+                incrementalProcessor.getInserted(), incrementalProcessor.getUpdated(),
+                incrementalProcessor.getDeleted(), incrementalProcessor.getUnchanged()));
+        }
+        if (options.getDuplicatePolicy() != null) {
+            System.out.println(String.format("Duplicates dropped:      %d (%s)",
+                statistics.getSkipped(RejectReason.DUPLICATE_ID), options.getDuplicatePolicy().getOptionName()));
+        }
+        if (options.isQuarantine()) {
+            for (RejectReason reason : RejectReason.values()) {
+                System.out.println(String.format("  %-23s %d", reason.getDescription() + ":",
+                    statistics.getSkipped(reason)));
+            }
+            System.out.println("Quarantine path: " + quarantinePath.toString());
+        }
+        if (options.isAggregates()) {
+            System.out.println("Aggregates path: " + aggregatesPath.toString());
+        }
+        if (options.getSortKey() != null) {
+            System.out.println(String.format("Sorted by:               %s (%d runs spilled)",
+                options.getSortKey().getOptionName(), sortRunsSpilled));
+        }
+        if (checkpointedProcessor != null && checkpointedProcessor.getResumedFrom() > 0) {
+            System.out.println("Resumed from input offset: " + checkpointedProcessor.getResumedFrom());
+        }
+        if (options.isMetrics()) {
+            PipelineMetrics metrics = statistics.getMetrics();
+            System.out.println(String.format("Wall time (ms):          %.1f", metrics.getWallNanos() / 1e6));
+            System.out.println(String.format("Rows per second:         %.0f", statistics.getRowsPerSecond()));
+            System.out.println("Metrics path: " + metricsPath.toString());
+        }
+    }
+    
+    /**
+     * Gets the options controlling how the pipeline runs.
+     * 
+     * @return the pipeline options
+     */
+    public PipelineOptions getOptions() {
+        return options;
     }
     
     /**
@@ -109,13 +695,59 @@ public class ETLPipeline {
         return statistics;
     }
     
+    /**
+     * Checks whether the run summary is printed when the pipeline finishes.
+     * 
+     * @return true if the summary is printed, false otherwise
+     */
+    public boolean isPrintSummary() {
+        return printSummary;
+    }
+    
+    /**
+     * Enables or disables printing the run summary, for example when many pipelines
+     * run side by side and report through their statistics instead.
+     * 
+     * @param printSummary true to print the summary when the pipeline finishes
+     */
+    public void setPrintSummary(boolean printSummary) {
+        this.printSummary = printSummary;
+    }
+    
+    /**
+     * Gets the input path used when none is given.
+     * 
+     * @return the default input path
+     */
+    public static Path getDefaultInputPath() {
+        return DEFAULT_INPUT_PATH;
+    }
+    
+    /**
+     * Gets the output path used when none is given.
+     * 
+     * @return the default output path
+     */
+    public static Path getDefaultOutputPath() {
+        return DEFAULT_OUTPUT_PATH;
+    }
+    
+    /**
+     * Gets the output path used when none is given and binary output is requested.
+     * 
+     * @return the default binary output path
+     */
+    public static Path getDefaultBinaryOutputPath() {
+        return DEFAULT_BINARY_OUTPUT_PATH;
+    }
+    
     /**
      * Gets the input path used by the pipeline.
      * 
      * @return the input path
      */
-    public static Path getInputPath() {
-        return INPUT_PATH;
+    public Path getInputPath() {
+        return inputPath;
     }
     
     /**
@@ -123,8 +755,35 @@ public class ETLPipeline {
      * 
      * @return the output path
      */
-    public static Path getOutputPath() {
-        return OUTPUT_PATH;
+    public Path getOutputPath() {
+        return outputPath;
+    }
+    
+    /**
+     * Gets the path of the index written by incremental runs.
+     * 
+     * @return the index path
+     */
+    public Path getIndexPath() {
+        return indexPath;
+    }
+    
+    /**
+     * Gets the path of the checkpoint written by checkpointed runs.
+     * 
+     * @return the checkpoint path
+     */
+    public Path getCheckpointPath() {
+        return checkpointPath;
+    }
+    
+    /**
+     * Gets the path of the metrics summary written when metrics are enabled.
+     * 
+     * @return the metrics path
+     */
+    public Path getMetricsPath() {
+        return metricsPath;
     }
     
     /**
@@ -132,10 +791,20 @@ public class ETLPipeline {
      * This method demonstrates polymorphism by creating an ETLPipeline instance
      * and calling its execute method, which could be overridden in subclasses.
      * 
-     * @param args command line arguments (not used)
+     * @param args command line arguments, see {@link PipelineOptions#getUsage()}
      */
     public static void main(String[] args) {
-        ETLPipeline pipeline = new ETLPipeline();
+        PipelineOptions options;
+        try {
+            options = PipelineOptions.fromArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println(PipelineOptions.getUsage());
+            System.exit(1);
+            return;
+        }
+        
+        ETLPipeline pipeline = new ETLPipeline(options);
         boolean success = pipeline.execute();
         
         if (success) {
@@ -0,0 +1,174 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ETLPipeline.
+ * Verifies that the streaming and columnar modes write exactly what the batch mode writes,
+ * and that a run that fails part way leaves the previous output file untouched.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ETLPipelineTest {
+    
+    /** Category fields, including the discounted one and multi-byte characters */
+    private static final String[] CATEGORIES = {"Electronics", "Books", "Toys", "Électronique", ""};
+    
+    @Test
+    @DisplayName("Test streaming and columnar runs write the batch output and counters byte for byte")
+    public void testStreamingMatchesBatch() throws IOException {
+        Path directory = Files.createTempDirectory("pipeline-test");
+        try {
+            Path input = directory.resolve("products.csv");
+            Files.write(input, generateRows(new Random(5), 5000), StandardCharsets.UTF_8);
+            
+            Path batchOutput = directory.resolve("batch.csv");
+            String expected = run(new PipelineOptions(), input, batchOutput);
+            byte[] expectedBytes = Files.readAllBytes(batchOutput);
+            
+            List<PipelineOptions> modes = new ArrayList<>();
+            PipelineOptions streaming = new PipelineOptions();
+            streaming.setStreaming(true);
+            modes.add(streaming);
+            PipelineOptions parallel = new PipelineOptions();
+            parallel.setStreaming(true);
+            parallel.setTransformThreads(3);
+            modes.add(parallel);
+            PipelineOptions columnar = new PipelineOptions();
+            columnar.setColumnar(true);
+            modes.add(columnar);
+            PipelineOptions fixedPoint = new PipelineOptions();
+            fixedPoint.setColumnar(true);
+            fixedPoint.setFixedPointPrices(true);
+            modes.add(fixedPoint);
+            
+            for (int i = 0; i < modes.size(); i++) {
+                Path output = directory.resolve("mode" + i + ".csv");
+                assertEquals(expected, run(modes.get(i), input, output), "counters of mode " + i);
+                assertArrayEquals(expectedBytes, Files.readAllBytes(output));
+            }
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test a run that fails while reading keeps the previous output and no temporary file")
+    public void testFailedRunKeepsOutput() throws IOException {
+        Path directory = Files.createTempDirectory("pipeline-test");
+        try {
+            Path input = directory.resolve("products.csv");
+            Path output = directory.resolve("transformed.csv");
+            Files.write(input, generateRows(new Random(6), 100), StandardCharsets.UTF_8);
+            run(new PipelineOptions(), input, output);
+            byte[] previous = Files.readAllBytes(output);
+            
+            // Rows after the first are read only once the output would have been opened
+            List<String> rows = generateRows(new Random(7), 100);
+            rows.set(50, "51,Bad ÿ name,1.00,Toys");
+            Files.write(input, rows, StandardCharsets.UTF_8);
+            byte[] invalid = Files.readAllBytes(input);
+            for (int i = 0; i + 1 < invalid.length; i++) {
+                if ((invalid[i] & 0xFF) == 0xC3 && (invalid[i + 1] & 0xFF) == 0xBF) {
+                    invalid[i + 1] = 'x';
+                }
+            }
+            Files.write(input, invalid);
+            
+            for (boolean columnar : new boolean[] {false, true}) {
+                PipelineOptions options = new PipelineOptions();
+                options.setStreaming(!columnar);
+                options.setColumnar(columnar);
+                ETLPipeline pipeline = new ETLPipeline(options, input, output);
+                pipeline.setPrintSummary(false);
+                assertFalse(pipeline.execute());
+                assertArrayEquals(previous, Files.readAllBytes(output));
+                assertFalse(Files.exists(DataLoader.temporaryPathOf(output)));
+            }
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+    
+    /**
+     * Generates the rows of an input file, mixing valid rows with every kind of rejected row.
+     * 
+     * @param random the source of randomness
+     * @param count the number of rows after the header
+     * @return the lines of the file
+     */
+    private static List<String> generateRows(Random random, int count) {
+        List<String> rows = new ArrayList<>();
+        rows.add("ProductID,Name,Price,Category");
+        for (int i = 1; i <= count; i++) {
+            int kind = random.nextInt(20);
+            String price = random.nextInt(5000) + "." + random.nextInt(10) + random.nextInt(10);
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            if (kind == 0) {
+                rows.add(i + ",Missing field," + price);
+            } else if (kind == 1) {
+                rows.add("id" + i + ",Bad id," + price + "," + category);
+            } else if (kind == 2) {
+                rows.add(i + ",Bad price,cheap," + category);
+            } else if (kind == 3) {
+                rows.add("");
+            } else {
+                rows.add(i + ",  Product ñ " + i + " ," + price + "," + category);
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * Runs the pipeline and describes its counters.
+     * 
+     * @param options the options to run with
+     * @param input the input file
+     * @param output the output file
+     * @return the counters, including those of every reject reason
+     */
+    private static String run(PipelineOptions options, Path input, Path output) {
+        ETLPipeline pipeline = new ETLPipeline(options, input, output);
+        pipeline.setPrintSummary(false);
+        assertTrue(pipeline.execute());
+        StatisticsCollector statistics = pipeline.getStatistics();
+        StringBuilder result = new StringBuilder();
+        result.append("read ").append(statistics.getRowsRead()).append(", transformed ")
+            .append(statistics.getTransformed()).append(", skipped ").append(statistics.getSkipped());
+        for (RejectReason reason : RejectReason.values()) {
+            result.append(", ").append(reason).append(' ').append(statistics.getSkipped(reason));
+        }
+        return result.toString();
+    }
+    
+    /**
+     * Deletes a directory and everything in it.
+     * 
+     * @param directory the directory to delete
+     * @throws IOException if a file cannot be deleted
+     */
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            List<Path> all = new ArrayList<>();
+            paths.forEach(all::add);
+            Collections.reverse(all);
+            for (Path path : all) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,633 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts transformed products by a {@link SortKey} with an external merge sort, so that
+ * inputs many times larger than the heap can be sorted within a fixed memory budget.
+ * 
+ * <p>Products and batches passed to the sorter are copied into one columnar
+ * {@link ProductBatch} sized to the memory budget. When it is full, its rows are sorted
+ * by a stable merge sort of their indexes and written to a temporary run file, and the
+ * batch is reused for the next run. {@link #forEach(ProductBatchSink)} then merges the
+ * runs with a heap of run cursors, each reading its run into a small batch, and pushes
+ * the merged rows on in batches. If there are more than {@value #MAX_MERGE_WIDTH} runs,
+ * consecutive groups of runs are first merged into longer runs, so only that many files
+ * are open at once. If every row fits in memory, no file is written at all.</p>
+ * 
+ * <p>The sort is stable: rows with equal keys keep the order they were passed in, as
+ * ties between runs are broken by run order. Run files hold the columns as they are,
+ * with categories as codes of the sorter's dictionary, so rows are neither formatted
+ * nor parsed on their way through the disk and sort exactly as they would in memory.</p>
+ * 
+ * <p>A sorter is used by one thread: rows are passed in, then read out once with
+ * {@link #forEach(ProductBatchSink)}, and {@link #close()} deletes any run files left.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ExternalSorter implements ProductSink, ProductBatchSink, ProductBatchSource {
+    
+    /** Default memory budget for the rows held in memory */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+    
+    /** Estimated memory of one buffered row, excluding its name: its columns and sort indexes */
+    private static final int ROW_BYTES = 40;
+    
+    /** Expected average length of a name in bytes, used to size the run batch */
+    private static final int AVERAGE_NAME_LENGTH = 16;
+    
+    /** Largest number of rows in one run, keeping the batch's name storage within an int */
+    private static final int MAX_RUN_ROWS = 1 << 24;
+    
+    /** Largest number of runs merged at once */
+    private static final int MAX_MERGE_WIDTH = 64;
+    
+    /** Smallest number of rows of the batches used while merging */
+    private static final int MIN_MERGE_ROWS = 256;
+    
+    /** Size of the stream buffer of each run file */
+    private static final int STREAM_BUFFER_SIZE = 32 * 1024;
+    
+    /** Length of the ranges sorted by insertion before merging */
+    private static final int INSERTION_SORT_LENGTH = 32;
+    
+    /** Key the rows are sorted by */
+    private final SortKey key;
+    
+    /** Memory budget for the rows held in memory, in bytes */
+    private final long memoryBudget;
+    
+    /** Directory the run files are written to */
+    private final Path spillDirectory;
+    
+    /** Dictionary that the category codes of all rows refer to */
+    private final CategoryDictionary categories;
+    
+    /** Price bands that the price range indexes of all rows refer to */
+    private final PriceBands priceBands;
+    
+    /** Number of rows of the batches used while merging */
+    private final int mergeRows;
+    
+    /** Rows of the run being filled, or null once the rows have been read out */
+    private ProductBatch rows;
+    
+    /** Row indexes of {@link #rows} in sorted order */
+    private int[] order;
+    
+    /** Scratch space for merging row indexes */
+    private int[] scratch;
+    
+    /** Run files not yet merged, in input order */
+    private final List<Run> runs = new ArrayList<>();
+    
+    /** Number of run files written from memory */
+    private int runsSpilled;
+    
+    /** Whether a run file could not be written or read */
+    private boolean failed;
+    
+    /**
+     * Constructs a new ExternalSorter.
+     * 
+     * @param key the key to sort by
+     * @param memoryBudget the approximate memory for the rows held in memory, in bytes
+     * @param spillDirectory the directory that run files are written to
+     * @param categories the dictionary that category codes refer to
+     * @param priceBands the price bands that price ranges refer to
+     * @throws IllegalArgumentException if memoryBudget is less than 1
+     */
+    public ExternalSorter(SortKey key, long memoryBudget, Path spillDirectory, CategoryDictionary categories,
+                          PriceBands priceBands) {
+        if (memoryBudget < 1) {
+            throw new IllegalArgumentException("Sort memory budget must be at least 1 byte");
+        }
+        this.key = Objects.requireNonNull(key, "key");
+        this.memoryBudget = memoryBudget;
+        this.spillDirectory = Objects.requireNonNull(spillDirectory, "spillDirectory");
+        this.categories = Objects.requireNonNull(categories, "categories");
+        this.priceBands = Objects.requireNonNull(priceBands, "priceBands");
+        
+        int capacity = (int) Math.max(1, Math.min(MAX_RUN_ROWS, memoryBudget / (ROW_BYTES + AVERAGE_NAME_LENGTH)));
+        this.rows = new ProductBatch(categories, capacity);
+        rows.setPriceBands(priceBands);
+        this.order = new int[capacity];
+        this.scratch = new int[capacity];
+        this.mergeRows = Math.max(MIN_MERGE_ROWS, capacity / (MAX_MERGE_WIDTH + 1));
+    }
+    
+    /**
+     * Adds a product to the rows to sort.
+     * 
+     * @param product the transformed product
+     * @throws IOException if a run file cannot be written
+     * @throws IllegalStateException if the rows have already been read out
+     */
+    @Override
+    public void accept(Product product) throws IOException {
+        checkOpen();
+        rows.add(product);
+        spillIfFull();
+    }
+    
+    /**
+     * Adds the rows of a batch to the rows to sort. The batch is copied and may be
+     * reused by the caller.
+     * 
+     * @param batch the batch of transformed products
+     * @throws IOException if a run file cannot be written
+     * @throws IllegalStateException if the rows have already been read out
+     */
+    @Override
+    public void accept(ProductBatch batch) throws IOException {
+        checkOpen();
+        for (int row = 0; row < batch.size(); row++) {
+            rows.add(batch, row);
+            spillIfFull();
+        }
+    }
+    
+    /**
+     * Pushes every row in sorted order into the given sink, in batches that are reused
+     * between calls. Rows still in memory are written to a last run first if earlier
+     * runs were written; otherwise they are sorted and passed on without touching the disk.
+     * 
+     * @param sink the sink that receives the sorted batches
+     * @throws IOException if a run file cannot be written or read, or if the sink fails
+     * @throws IllegalStateException if the rows have already been read out
+     */
+    @Override
+    public void forEach(ProductBatchSink sink) throws IOException {
+        checkOpen();
+        if (runs.isEmpty()) {
+            int count = rows.size();
+            sortRows(count);
+            ProductBatch output = newMergeBatch();
+            for (int i = 0; i < count; i++) {
+                output.add(rows, order[i]);
+                if (output.isFull()) {
+                    sink.accept(output);
+                    output.clear();
+                }
+            }
+            releaseRows();
+            if (!output.isEmpty()) {
+                sink.accept(output);
+            }
+            return;
+        }
+        
+        if (!rows.isEmpty()) {
+            spill();
+        }
+        releaseRows();
+        while (runs.size() > MAX_MERGE_WIDTH) {
+            mergePass();
+        }
+        merge(new ArrayList<>(runs), sink);
+        deleteRuns();
+    }
+    
+    /**
+     * Gets the number of runs written to disk because the rows did not fit in memory.
+     * Runs written by intermediate merges are not counted.
+     * 
+     * @return the number of runs spilled
+     */
+    public int getRunsSpilled() {
+        return runsSpilled;
+    }
+    
+    /**
+     * Checks whether a run file could not be written or read, which tells a failure of
+     * the sort apart from a failure of the sink or of whoever passed the rows in.
+     * 
+     * @return true if a run file failed, false otherwise
+     */
+    public boolean hasFailed() {
+        return failed;
+    }
+    
+    /**
+     * Gets the key the rows are sorted by.
+     * 
+     * @return the sort key
+     */
+    public SortKey getKey() {
+        return key;
+    }
+    
+    /**
+     * Deletes any run files left and releases the rows held in memory.
+     * 
+     * @throws IOException if a run file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        releaseRows();
+        deleteRuns();
+    }
+    
+    /**
+     * Checks that rows can still be added or read out.
+     * 
+     * @throws IllegalStateException if the rows have already been read out
+     */
+    private void checkOpen() {
+        if (rows == null) {
+            throw new IllegalStateException("Sorted rows have already been read");
+        }
+    }
+    
+    /**
+     * Writes the rows in memory to a run file if the run batch is full or the rows use up
+     * the memory budget.
+     * 
+     * @throws IOException if the run file cannot be written
+     */
+    private void spillIfFull() throws IOException {
+        if (rows.isFull() || (long) rows.size() * ROW_BYTES + rows.getNameBytesUsed() >= memoryBudget) {
+            spill();
+        }
+    }
+    
+    /**
+     * Sorts the rows in memory, writes them to a new run file and clears the run batch.
+     * 
+     * @throws IOException if the run file cannot be written
+     */
+    private void spill() throws IOException {
+        int count = rows.size();
+        sortRows(count);
+        try {
+            Run run = newRun();
+            try (DataOutputStream out = run.openOutput()) {
+                for (int i = 0; i < count; i++) {
+                    writeRow(out, rows, order[i]);
+                }
+            }
+            run.rows = count;
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+        runsSpilled++;
+        rows.clear();
+    }
+    
+    /**
+     * Merges consecutive groups of up to {@value #MAX_MERGE_WIDTH} runs into one run each,
+     * keeping the runs in input order.
+     * 
+     * @throws IOException if a run file cannot be read or written
+     */
+    private void mergePass() throws IOException {
+        try {
+            mergeGroups();
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+    }
+    
+    /**
+     * Merges consecutive groups of runs into one run each, as {@link #mergePass()} does.
+     * 
+     * @throws IOException if a run file cannot be read or written
+     */
+    private void mergeGroups() throws IOException {
+        // New runs are added to the list of runs as they are created, so they are deleted on failure
+        List<Run> inputs = new ArrayList<>(runs);
+        List<Run> merged = new ArrayList<>();
+        for (int start = 0; start < inputs.size(); start += MAX_MERGE_WIDTH) {
+            List<Run> group = inputs.subList(start, Math.min(start + MAX_MERGE_WIDTH, inputs.size()));
+            Run run = newRun();
+            merged.add(run);
+            try (DataOutputStream out = run.openOutput()) {
+                merge(group, batch -> {
+                    for (int row = 0; row < batch.size(); row++) {
+                        writeRow(out, batch, row);
+                    }
+                    run.rows += batch.size();
+                });
+            }
+            for (Run done : group) {
+                Files.deleteIfExists(done.path);
+            }
+        }
+        runs.clear();
+        runs.addAll(merged);
+    }
+    
+    /**
+     * Merges runs with a heap of run cursors ordered by the current row of each cursor,
+     * breaking ties by run order, and passes the merged rows on in batches.
+     * 
+     * @param group the runs to merge, in input order
+     * @param sink the sink that receives the merged batches
+     * @throws IOException if a run file cannot be read or the sink fails
+     */
+    private void merge(List<Run> group, ProductBatchSink sink) throws IOException {
+        PriorityQueue<RunCursor> heap = new PriorityQueue<>(group.size(), (a, b) -> {
+            int result = key.compare(a.batch, a.row, b.batch, b.row);
+            return result != 0 ? result : Integer.compare(a.index, b.index);
+        });
+        List<RunCursor> cursors = new ArrayList<>();
+        ProductBatch merged = newMergeBatch();
+        try {
+            for (int i = 0; i < group.size(); i++) {
+                RunCursor cursor = new RunCursor(group.get(i), i, newMergeBatch());
+                cursors.add(cursor);
+                if (cursor.fill()) {
+                    heap.add(cursor);
+                }
+            }
+            while (!heap.isEmpty()) {
+                RunCursor cursor = heap.poll();
+                merged.add(cursor.batch, cursor.row);
+                if (merged.isFull()) {
+                    sink.accept(merged);
+                    merged.clear();
+                }
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+            }
+            if (!merged.isEmpty()) {
+                sink.accept(merged);
+            }
+        } finally {
+            for (RunCursor cursor : cursors) {
+                cursor.in.close();
+            }
+        }
+    }
+    
+    /**
+     * Sorts the indexes of the first rows of the run batch into {@link #order} with a
+     * stable merge sort: ranges are first sorted by insertion, then merged pairwise.
+     * 
+     * @param count the number of rows to sort
+     */
+    private void sortRows(int count) {
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        for (int start = 0; start < count; start += INSERTION_SORT_LENGTH) {
+            int end = Math.min(start + INSERTION_SORT_LENGTH, count);
+            for (int i = start + 1; i < end; i++) {
+                int row = order[i];
+                int j = i - 1;
+                while (j >= start && key.compare(rows, row, rows, order[j]) < 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = row;
+            }
+        }
+        
+        int[] source = order;
+        int[] target = scratch;
+        for (int width = INSERTION_SORT_LENGTH; width < count; width *= 2) {
+            for (int low = 0; low < count; low += 2 * width) {
+                int middle = Math.min(low + width, count);
+                int high = Math.min(low + 2 * width, count);
+                int left = low;
+                int right = middle;
+                int out = low;
+                while (left < middle && right < high) {
+                    // Take from the right only if strictly smaller, which keeps the sort stable
+                    target[out++] = key.compare(rows, source[right], rows, source[left]) < 0
+                        ? source[right++] : source[left++];
+                }
+                System.arraycopy(source, left, target, out, middle - left);
+                out += middle - left;
+                System.arraycopy(source, right, target, out, high - right);
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != order) {
+            System.arraycopy(source, 0, order, 0, count);
+        }
+    }
+    
+    /**
+     * Creates a batch for merging, sharing the sorter's dictionary and price bands.
+     * 
+     * @return the batch
+     */
+    private ProductBatch newMergeBatch() {
+        ProductBatch batch = new ProductBatch(categories, mergeRows);
+        batch.setPriceBands(priceBands);
+        return batch;
+    }
+    
+    /**
+     * Creates a new, empty run file in the spill directory and adds it to the runs.
+     * 
+     * @return the run
+     * @throws IOException if the file cannot be created
+     */
+    private Run newRun() throws IOException {
+        Run run = new Run(Files.createTempFile(spillDirectory, "sort-run-", ".tmp"));
+        runs.add(run);
+        return run;
+    }
+    
+    /**
+     * Releases the run batch and its sort indexes, whose memory is not needed once the
+     * rows have been read out.
+     */
+    private void releaseRows() {
+        rows = null;
+        order = null;
+        scratch = null;
+    }
+    
+    /**
+     * Deletes all run files.
+     * 
+     * @throws IOException if a file cannot be deleted
+     */
+    private void deleteRuns() throws IOException {
+        for (Run run : runs) {
+            Files.deleteIfExists(run.path);
+        }
+        runs.clear();
+    }
+    
+    /**
+     * Writes one row of a batch to a run file.
+     * 
+     * @param out the stream of the run file
+     * @param batch the batch holding the row
+     * @param row the index of the row
+     * @throws IOException if the row cannot be written
+     */
+    private static void writeRow(DataOutputStream out, ProductBatch batch, int row) throws IOException {
+        out.writeInt(batch.getProductId(row));
+        out.writeInt(batch.getCategoryCode(row));
+        out.writeByte(batch.getPriceRangeIndex(row));
+        int length = batch.getNameLength(row);
+        out.writeInt(length);
+        out.write(batch.getNameBytes(), batch.getNameOffset(row), length);
+        boolean fixedPoint = batch.hasFixedPointPrice(row);
+        out.writeBoolean(fixedPoint);
+        if (fixedPoint) {
+            out.writeLong(batch.getPriceCents(row));
+        } else {
+            out.writeUTF(batch.getPrice(row).toString());
+        }
+    }
+    
+    /**
+     * A run file and the number of rows it holds.
+     */
+    private static final class Run {
+        
+        /** Path of the run file */
+        private final Path path;
+        
+        /** Number of rows in the file */
+        private long rows;
+        
+        /**
+         * Constructs a new Run.
+         * 
+         * @param path the path of the run file
+         */
+        private Run(Path path) {
+            this.path = path;
+        }
+        
+        /**
+         * Opens the run file for writing.
+         * 
+         * @return a buffered stream writing the file
+         * @throws IOException if the file cannot be opened
+         */
+        private DataOutputStream openOutput() throws IOException {
+            return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), STREAM_BUFFER_SIZE));
+        }
+    }
+    
+    /**
+     * Reads a run file into a batch, one batch of rows at a time, and tracks the
+     * current row of the run during a merge.
+     */
+    private final class RunCursor {
+        
+        /** Stream of the run file */
+        private final DataInputStream in;
+        
+        /** Position of the run among the runs being merged */
+        private final int index;
+        
+        /** Rows of the run read so far and not yet merged */
+        private final ProductBatch batch;
+        
+        /** Number of rows of the run not yet read */
+        private long remaining;
+        
+        /** Index of the current row in {@link #batch} */
+        private int row;
+        
+        /** Buffer the name of a row is read into */
+        private byte[] name = new byte[64];
+        
+        /** View of {@link #name} passed to the batch */
+        private ByteBuffer nameView = ByteBuffer.wrap(name);
+        
+        /**
+         * Opens a run file.
+         * 
+         * @param run the run
+         * @param index the position of the run among the runs being merged
+         * @param batch the batch to read rows into
+         * @throws IOException if the file cannot be opened
+         */
+        private RunCursor(Run run, int index, ProductBatch batch) throws IOException {
+            try {
+                this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.path),
+                    STREAM_BUFFER_SIZE));
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+            this.index = index;
+            this.batch = batch;
+            this.remaining = run.rows;
+        }
+        
+        /**
+         * Moves to the next row of the run, reading more rows if needed.
+         * 
+         * @return true if there is a current row, false if the run is exhausted
+         * @throws IOException if the file cannot be read
+         */
+        private boolean advance() throws IOException {
+            row++;
+            return row < batch.size() || fill();
+        }
+        
+        /**
+         * Replaces the rows of the batch with the next rows of the run.
+         * 
+         * @return true if at least one row was read, false if the run is exhausted
+         * @throws IOException if the file cannot be read
+         */
+        private boolean fill() throws IOException {
+            batch.clear();
+            try {
+                while (remaining > 0 && !batch.isFull()) {
+                    readRow();
+                    remaining--;
+                }
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+            row = 0;
+            return !batch.isEmpty();
+        }
+        
+        /**
+         * Reads the next row of the run file into the batch.
+         * 
+         * @throws IOException if the file cannot be read
+         */
+        private void readRow() throws IOException {
+            int productId = in.readInt();
+            int categoryCode = in.readInt();
+            int priceRange = in.readByte();
+            int length = in.readInt();
+            if (name.length < length) {
+                name = new byte[Math.max(length, 2 * name.length)];
+                nameView = ByteBuffer.wrap(name);
+            }
+            in.readFully(name, 0, length);
+            int added = batch.add(productId, nameView, 0, length, categoryCode);
+            if (in.readBoolean()) {
+                batch.setPriceCents(added, in.readLong());
+            } else {
+                batch.setPrice(added, new BigDecimal(in.readUTF()));
+            }
+            batch.setPriceRangeIndex(added, priceRange);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ExternalSorter.
+ * Verifies that every key sorts rows stably, whether the rows fit in memory or are
+ * merged from many runs on disk, and that run files are deleted afterwards.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ExternalSorterTest {
+    
+    /** Categories of the test products */
+    private static final String[] CATEGORIES = {"Office", "Electronics", "Kitchen", "Bäckerei", "Furniture"};
+    
+    @Test
+    @DisplayName("Test every key sorts stably in memory and through many runs on disk")
+    public void testSortsStablyByEveryKey() throws IOException {
+        PriceBands priceBands = DataTransformer.getDefaultRules().getPriceBands();
+        List<Product> products = randomProducts(5000, priceBands);
+        Path directory = Files.createTempDirectory("sort-test");
+        try {
+            for (SortKey key : SortKey.values()) {
+                Comparator<Product> comparator = comparatorOf(key);
+                List<Product> expected = new ArrayList<>(products);
+                expected.sort(comparator);
+                
+                // 2000 bytes hold a few dozen rows, so the runs need an intermediate merge pass
+                for (long memoryBudget : new long[] {2000, ExternalSorter.DEFAULT_MEMORY_BUDGET}) {
+                    CategoryDictionary categories = new CategoryDictionary();
+                    try (ExternalSorter sorter = new ExternalSorter(key, memoryBudget, directory, categories,
+                            priceBands)) {
+                        ProductBatch batch = new ProductBatch(new CategoryDictionary(), 100);
+                        for (int i = 0; i < products.size(); i++) {
+                            if (i % 2 == 0) {
+                                sorter.accept(new Product(products.get(i)));
+                            } else {
+                                batch.add(products.get(i));
+                                sorter.accept(batch);
+                                batch.clear();
+                            }
+                        }
+                        
+                        List<Product> sorted = new ArrayList<>();
+                        sorter.forEach(sortedBatch -> {
+                            for (int row = 0; row < sortedBatch.size(); row++) {
+                                sorted.add(sortedBatch.toProduct(row));
+                            }
+                        });
+                        assertEquals(expected.size(), sorted.size());
+                        for (int i = 0; i < expected.size(); i++) {
+                            assertEquals(expected.get(i).toString(), sorted.get(i).toString(), key + " row " + i);
+                            assertEquals(expected.get(i).getPriceRange(), sorted.get(i).getPriceRange());
+                        }
+                        assertEquals(memoryBudget == 2000, sorter.getRunsSpilled() > 64, key.name());
+                        assertFalse(sorter.hasFailed());
+                        assertThrows(IllegalStateException.class, () -> sorter.accept(products.get(0)));
+                    }
+                    try (Stream<Path> files = Files.list(directory)) {
+                        assertEquals(0, files.count());
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(directory);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test sort keys are parsed from their option names")
+    public void testSortKeyOptionNames() {
+        for (SortKey key : SortKey.values()) {
+            assertEquals(key, SortKey.fromOptionName(key.getOptionName()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> SortKey.fromOptionName("name"));
+        PipelineOptions options = PipelineOptions.fromArgs(new String[] {"--sort", "price", "--sort-memory", "8"});
+        assertEquals(SortKey.PRICE, options.getSortKey());
+        assertEquals(8L * 1024 * 1024, options.getSortMemory());
+        assertNull(new PipelineOptions().getSortKey());
+    }
+    
+    /**
+     * Creates random transformed products with many equal keys, half of them with
+     * fixed-point prices and half with decimal prices of varying scale.
+     * 
+     * @param count the number of products
+     * @param priceBands the price bands that classify the prices
+     * @return the products
+     */
+    private static List<Product> randomProducts(int count, PriceBands priceBands) {
+        Random random = new Random(23);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long cents = random.nextInt(50) * 125;
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String name = "Product " + i + (i % 7 == 0 ? " Café" : "");
+            Product product = random.nextBoolean()
+                ? new Product(random.nextInt(500), name, cents, category)
+                : new Product(random.nextInt(500), name, BigDecimal.valueOf(cents * 10, 3), category);
+            product.setPriceRange(priceBands.classify(product.getPrice()));
+            products.add(product);
+        }
+        return products;
+    }
+    
+    /**
+     * Gets the comparator that orders products as a sort key orders rows.
+     * 
+     * @param key the sort key
+     * @return the comparator
+     */
+    private static Comparator<Product> comparatorOf(SortKey key) {
+        switch (key) {
+            case PRODUCT_ID:
+                return Comparator.comparingInt(Product::getProductId);
+            case PRICE:
+                return Comparator.comparing(Product::getPrice);
+            default:
+                return Comparator.comparing(Product::getCategory);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.nio.file.Path;
+
+/**
+ * Holds the outcome of running the pipeline on one file of a batch: the input and
+ * output paths, the counters of the run, whether it succeeded and how long it took.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public final class FileResult {
+    
+    /** Path to the input CSV file */
+    private final Path inputPath;
+    
+    /** Path to the output CSV file */
+    private final Path outputPath;
+    
+    /** Counters and write status of the run */
+    private final StatisticsSnapshot counts;
+    
+    /** Whether the pipeline completed successfully */
+    private final boolean successful;
+    
+    /** Wall time of the run in nanoseconds */
+    private final long wallNanos;
+    
+    /** Message of an unexpected error that aborted the run, or null */
+    private final String error;
+    
+    /**
+     * Constructs a new FileResult.
+     * 
+     * @param inputPath the path to the input CSV file
+     * @param outputPath the path to the output CSV file
+     * @param counts the counters and write status of the run
+     * @param successful whether the pipeline completed successfully
+     * @param wallNanos the wall time of the run in nanoseconds
+     * @param error the message of an unexpected error that aborted the run, or null
+     */
+    public FileResult(Path inputPath, Path outputPath, StatisticsSnapshot counts, boolean successful,
+                      long wallNanos, String error) {
+        this.inputPath = inputPath;
+        this.outputPath = outputPath;
+        this.counts = counts;
+        this.successful = successful;
+        this.wallNanos = wallNanos;
+        this.error = error;
+    }
+    
+    /**
+     * Gets the path to the input CSV file.
+     * 
+     * @return the input path
+     */
+    public Path getInputPath() {
+        return inputPath;
+    }
+    
+    /**
+     * Gets the path to the output CSV file.
+     * 
+     * @return the output path
+     */
+    public Path getOutputPath() {
+        return outputPath;
+    }
+    
+    /**
+     * Gets the counters and write status of the run.
+     * 
+     * @return the counters
+     */
+    public StatisticsSnapshot getCounts() {
+        return counts;
+    }
+    
+    /**
+     * Checks whether the pipeline completed successfully.
+     * 
+     * @return true if the run succeeded, false otherwise
+     */
+    public boolean isSuccessful() {
+        return successful;
+    }
+    
+    /**
+     * Gets the wall time of the run.
+     * 
+     * @return the wall time in nanoseconds
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+    
+    /**
+     * Gets the message of an unexpected error that aborted the run.
+     * 
+     * @return the error message, or null if the run was not aborted
+     */
+    public String getError() {
+        return error;
+    }
+    
+    /**
+     * Gets the number of rows read per second of wall time.
+     * 
+     * @return the rows per second
+     */
+    public double getRowsPerSecond() {
+        return counts.getRowsRead() / (Math.max(wallNanos, 1) / 1e9);
+    }
+}
@@ -0,0 +1,186 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Provides fixed-point price arithmetic on prices stored as a long number of cents.
+ * Every operation rounds with {@link RoundingMode#HALF_UP} semantics, so results are
+ * exactly those of the equivalent {@link BigDecimal} operations at scale 2.
+ * Operations that cannot be represented exactly, because a value overflows a long or
+ * has more than two fractional digits, return {@link #NOT_REPRESENTABLE} so callers
+ * can fall back to BigDecimal arithmetic.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public final class FixedPointPrice {
+    
+    /** Number of fractional digits of a fixed-point price */
+    public static final int SCALE = 2;
+    
+    /** Marker returned when a value cannot be represented as cents */
+    public static final long NOT_REPRESENTABLE = Long.MIN_VALUE;
+    
+    /** Number of cents in one unit */
+    private static final long CENTS_PER_UNIT = 100;
+    
+    /** Largest number of decimal digits that always fits in a long */
+    private static final int MAX_LONG_DIGITS = 18;
+    
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private FixedPointPrice() {
+    }
+    
+    /**
+     * Parses a trimmed plain decimal string into cents.
+     * Only optional signs, ASCII digits and a single decimal point are handled; anything
+     * else, including exponents, more than two fractional digits or values that overflow,
+     * yields {@link #NOT_REPRESENTABLE}.
+     * 
+     * @param text the text to parse
+     * @return the value in cents, or {@link #NOT_REPRESENTABLE}
+     */
+    public static long parseCents(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_LONG_DIGITS) {
+                    return NOT_REPRESENTABLE;
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return NOT_REPRESENTABLE;
+            }
+        }
+        
+        if (digits == 0) {
+            return NOT_REPRESENTABLE;
+        }
+        return fromUnscaled(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+    
+    /**
+     * Converts an unscaled decimal value to cents.
+     * 
+     * @param unscaled the unscaled value
+     * @param scale the number of fractional digits of the unscaled value
+     * @return the value in cents, or {@link #NOT_REPRESENTABLE} if the scale is greater
+     *         than 2 or the result overflows
+     */
+    public static long fromUnscaled(long unscaled, int scale) {
+        if (scale < 0 || scale > SCALE) {
+            return NOT_REPRESENTABLE;
+        }
+        long cents = unscaled;
+        for (int s = scale; s < SCALE; s++) {
+            if (cents > Long.MAX_VALUE / 10 || cents < -Long.MAX_VALUE / 10) {
+                return NOT_REPRESENTABLE;
+            }
+            cents *= 10;
+        }
+        return cents;
+    }
+    
+    /**
+     * Converts a BigDecimal to cents without rounding.
+     * 
+     * @param value the value to convert
+     * @return the value in cents, or {@link #NOT_REPRESENTABLE} if it has more than
+     *         two significant fractional digits or overflows
+     */
+    public static long fromBigDecimal(BigDecimal value) {
+        try {
+            long cents = value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+            return cents == NOT_REPRESENTABLE ? NOT_REPRESENTABLE : cents;
+        } catch (ArithmeticException e) {
+            return NOT_REPRESENTABLE;
+        }
+    }
+    
+    /**
+     * Multiplies a price in cents by the fraction {@code numerator / divisor} and rounds
+     * the result to cents with HALF_UP. For a decimal factor {@code f} this equals
+     * {@code BigDecimal.valueOf(cents, 2).multiply(f).setScale(2, HALF_UP)} when called with
+     * the unscaled value of {@code f} and ten to the power of its scale.
+     * 
+     * @param cents the price in cents
+     * @param numerator the numerator of the factor
+     * @param divisor the positive divisor of the factor, at most 10^18
+     * @return the rounded product in cents, or {@link #NOT_REPRESENTABLE} if it overflows
+     */
+    public static long multiply(long cents, long numerator, long divisor) {
+        long product;
+        try {
+            product = Math.multiplyExact(cents, numerator);
+        } catch (ArithmeticException e) {
+            return NOT_REPRESENTABLE;
+        }
+        long quotient = product / divisor;
+        long remainder = Math.abs(product % divisor);
+        if (remainder >= divisor - remainder) {
+            // Ties round away from zero
+            quotient += Long.signum(product);
+        }
+        return quotient == NOT_REPRESENTABLE ? NOT_REPRESENTABLE : quotient;
+    }
+    
+    /**
+     * Converts cents to a BigDecimal with scale 2.
+     * 
+     * @param cents the value in cents
+     * @return the equivalent BigDecimal
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+    
+    /**
+     * Formats cents as a plain decimal string with exactly two fractional digits,
+     * identical to {@code BigDecimal.valueOf(cents, 2).toPlainString()}.
+     * 
+     * @param cents the value in cents
+     * @return the formatted value
+     */
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(24), cents).toString();
+    }
+    
+    /**
+     * Appends cents as a plain decimal string with exactly two fractional digits.
+     * 
+     * @param builder the builder to append to
+     * @param cents the value in cents, not {@link #NOT_REPRESENTABLE}
+     * @return the builder
+     */
+    public static StringBuilder appendTo(StringBuilder builder, long cents) {
+        if (cents < 0) {
+            builder.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % CENTS_PER_UNIT;
+        builder.append(cents / CENTS_PER_UNIT).append('.');
+        if (fraction < 10) {
+            builder.append('0');
+        }
+        return builder.append(fraction);
+    }
+}
@@ -0,0 +1,116 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for FixedPointPrice.
+ * Verifies that fixed-point price arithmetic produces exactly the same results
+ * as the BigDecimal arithmetic used by the original pipeline.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class FixedPointPriceTest {
+    
+    private static final BigDecimal DISCOUNT_RATE = DataTransformer.getDiscountRate();
+    
+    private static final long DISCOUNT_NUMERATOR = 90;
+    
+    private static final long DISCOUNT_DIVISOR = 100;
+    
+    @Test
+    @DisplayName("Test parseCents() accepts plain decimals with up to two fractional digits")
+    public void testParseCentsPlainDecimals() {
+        assertEquals(1250, FixedPointPrice.parseCents("12.5"));
+        assertEquals(1250, FixedPointPrice.parseCents("00012.50"));
+        assertEquals(500, FixedPointPrice.parseCents("5."));
+        assertEquals(50, FixedPointPrice.parseCents(".5"));
+        assertEquals(-205, FixedPointPrice.parseCents("-2.05"));
+        assertEquals(300, FixedPointPrice.parseCents("+3"));
+        assertEquals(0, FixedPointPrice.parseCents("-0.00"));
+    }
+    
+    @Test
+    @DisplayName("Test parseCents() rejects values that need the BigDecimal fallback")
+    public void testParseCentsFallback() {
+        assertEquals(FixedPointPrice.NOT_REPRESENTABLE, FixedPointPrice.parseCents("1.005"));
+        assertEquals(FixedPointPrice.NOT_REPRESENTABLE, FixedPointPrice.parseCents("1e3"));
+        assertEquals(FixedPointPrice.NOT_REPRESENTABLE, FixedPointPrice.parseCents("99999999999999999999.99"));
+        assertEquals(FixedPointPrice.NOT_REPRESENTABLE, FixedPointPrice.parseCents("."));
+        assertEquals(FixedPointPrice.NOT_REPRESENTABLE, FixedPointPrice.parseCents("-"));
+        assertEquals(FixedPointPrice.NOT_REPRESENTABLE, FixedPointPrice.parseCents(""));
+    }
+    
+    @Test
+    @DisplayName("Test multiply() matches BigDecimal HALF_UP rounding, including ties")
+    public void testMultiplyMatchesBigDecimal() {
+        long[] edgeCases = {0, 1, -1, 5, -5, 15, -15, 55556, 55555, -55556, 99999, Long.MAX_VALUE / 90};
+        for (long cents : edgeCases) {
+            assertMultiplyMatches(cents);
+        }
+        
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            assertMultiplyMatches(random.nextInt(2_000_000) - 1_000_000);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test multiply() reports overflow instead of wrapping")
+    public void testMultiplyOverflow() {
+        assertEquals(FixedPointPrice.NOT_REPRESENTABLE,
+            FixedPointPrice.multiply(Long.MAX_VALUE / 10, DISCOUNT_NUMERATOR, DISCOUNT_DIVISOR));
+    }
+    
+    @Test
+    @DisplayName("Test format() matches BigDecimal.toPlainString()")
+    public void testFormatMatchesBigDecimal() {
+        long[] values = {0, 5, -5, 99, -99, 100, 123456, -123456, Long.MAX_VALUE, Long.MIN_VALUE + 1};
+        for (long cents : values) {
+            assertEquals(BigDecimal.valueOf(cents, 2).toPlainString(), FixedPointPrice.format(cents));
+        }
+    }
+    
+    @Test
+    @DisplayName("Test fixed-point price ranges keep inclusive upper bounds")
+    public void testPriceRangeBoundaries() {
+        long[] values = {-1, 0, 999, 1000, 1001, 9999, 10000, 10001, 49999, 50000, 50001};
+        for (long cents : values) {
+            assertEquals(PriceRangeCalculator.calculatePriceRange(BigDecimal.valueOf(cents, 2)),
+                PriceRangeCalculator.calculatePriceRange(cents));
+        }
+    }
+    
+    @Test
+    @DisplayName("Test fixed-point transform matches the BigDecimal transform")
+    public void testTransformMatches() {
+        DataTransformer transformer = new DataTransformer();
+        String[] prices = {"555.56", "555.55", "0.05", "-555.56", "10", "100.00", "12.3"};
+        
+        for (String price : prices) {
+            Product decimal = new Product(1, "Laptop", new BigDecimal(price), "electronics");
+            Product fixed = new Product(1, "Laptop", FixedPointPrice.parseCents(price), "electronics");
+            
+            Product expected = transformer.transform(decimal, new StatisticsCollector());
+            Product actual = transformer.transform(fixed, new StatisticsCollector());
+            
+            assertTrue(actual.hasFixedPointPrice());
+            assertEquals(expected.getPrice(), actual.getPrice());
+            assertEquals(expected.getCategory(), actual.getCategory());
+            assertEquals(expected.getPriceRange(), actual.getPriceRange());
+        }
+    }
+    
+    private static void assertMultiplyMatches(long cents) {
+        BigDecimal expected = BigDecimal.valueOf(cents, 2).multiply(DISCOUNT_RATE).setScale(2, RoundingMode.HALF_UP);
+        long actual = FixedPointPrice.multiply(cents, DISCOUNT_NUMERATOR, DISCOUNT_DIVISOR);
+        assertEquals(expected, FixedPointPrice.toBigDecimal(actual), "cents=" + cents);
+    }
+}
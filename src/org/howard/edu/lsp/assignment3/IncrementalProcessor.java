@@ -0,0 +1,316 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Runs the pipeline incrementally against the output of the previous run.
+ * A {@link ProductHashIndex} saved next to the output maps each product ID to a hash
+ * of its input row and the position of its output row. Each input row whose ID and hash
+ * match the index is unchanged: its output row is copied from the previous output file,
+ * with runs of adjacent rows copied in one transfer, and it is neither parsed nor
+ * transformed. Every other row is extracted, validated and transformed as usual.
+ * 
+ * <p>The new output is written to a temporary file that replaces the previous output
+ * only when the run succeeds, so it is byte for byte the output of a full run and the
+ * counters are the same as well. The previous index is ignored, and every row is
+ * processed, when it is missing or unreadable, when the output file changed since it
+ * was saved, or when it was saved with different business rules. When the input holds
+ * a product ID more than once no index is saved, so the next run is a full one.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class IncrementalProcessor {
+    
+    /** Extractor that parses and validates changed rows */
+    private final DataExtractor extractor;
+    
+    /** Transformer that applies the business rules to changed rows */
+    private final DataTransformer transformer;
+    
+    /** Loader that opens the output writer */
+    private final DataLoader loader;
+    
+    /** Number of valid rows whose product ID was not in the previous index */
+    private long inserted;
+    
+    /** Number of valid rows whose product ID was in the previous index with another hash */
+    private long updated;
+    
+    /** Number of products in the previous index without a valid row in the input */
+    private long deleted;
+    
+    /** Number of rows copied from the previous output */
+    private long unchanged;
+    
+    /**
+     * Constructs a new IncrementalProcessor.
+     * 
+     * @param extractor the extractor that parses and validates changed rows
+     * @param transformer the transformer that applies the business rules
+     * @param loader the loader that opens the output writer
+     */
+    public IncrementalProcessor(DataExtractor extractor, DataTransformer transformer, DataLoader loader) {
+        this.extractor = extractor;
+        this.transformer = transformer;
+        this.loader = loader;
+    }
+    
+    /**
+     * Processes the input file incrementally and replaces the output file and its index.
+     * Write failures are reported the same way as by {@link DataLoader}; read failures
+     * are rethrown. In both cases the previous output and index are left in place.
+     * The input file may be compressed, but unchanged rows are copied by offset from
+     * the previous output, so the output file must be an uncompressed CSV file.
+     * 
+     * @param inputPaththe path to the input CSV file
+     * @param outputPath the path to the output CSV file
+     * @param indexPath the path to the index of the output file
+     * @param statistics the statistics collector to update
+     * @return true if the output was written successfully, false otherwise
+     * @throws IOException if an error occurs while reading the input file
+     * @throws IllegalArgumentException if the output file is compressed or binary
+     */
+    public boolean process(Path inputPath, Path outputPath, Path indexPath,
+                           StatisticsCollector statistics) throws IOException {
+        if (CompressedFiles.isGzip(outputPath) || BinaryProductFormat.isBinary(outputPath)) {
+            throw new IllegalArgumentException("Incremental runs need an uncompressed CSV output file");
+        }
+        inserted = 0;
+        updated = 0;
+        deleted = 0;
+        unchanged = 0;
+        
+        long rulesFingerprint = rulesFingerprint(transformer.getRules());
+        ProductHashIndex previous = loadPrevious(outputPath, indexPath, rulesFingerprint);
+        ProductHashIndex next = new ProductHashIndex(previous.size());
+        next.setRulesFingerprint(rulesFingerprint);
+        boolean[] seen = new boolean[previous.size()];
+        boolean duplicateIds = false;
+        
+        Path tempPath = outputPath.resolveSibling(outputPath.getFileName() + ".tmp");
+        CsvProductWriter writer;
+        try {
+            writer = loader.openWriter(tempPath);
+        } catch (IOException e) {
+            return writeFailed(e, statistics);
+        }
+        
+        try (BufferedReader reader = CompressedFiles.newReader(inputPath);
+             FileChannel previousOutput = previous.size() == 0
+                 ? null : FileChannel.open(outputPath, StandardOpenOption.READ)) {
+            // Output rows still to be copied from the previous output, as one contiguous run
+            long copyOffset = 0;
+            long copyLength = 0;
+            
+            // Skip the header
+            reader.readLine();
+            long lineNumber = 1;
+            
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (ProductValidator.isBlank(line)) {
+                    continue;
+                }
+                statistics.incrementRowsRead();
+                
+                long hash = ProductHashIndex.hash(line);
+                int entry = findEntry(previous, line);
+                if (entry != ProductHashIndex.NOT_FOUND && previous.getHash(entry) == hash) {
+                    long offset = previous.getOutputOffset(entry);
+                    int length = previous.getOutputLength(entry);
+                    long outputOffset = writer.getBytesWritten() + copyLength;
+                    if (copyLength > 0 && copyOffset + copyLength == offset) {
+                        copyLength += length;
+                    } else {
+                        if (copyLength > 0) {
+                            writer.copyRows(previousOutput, copyOffset, copyLength);
+                        }
+                        copyOffset = offset;
+                        copyLength = length;
+                    }
+                    seen[entry] = true;
+                    unchanged++;
+                    statistics.incrementTransformed();
+                    duplicateIds |= next.add(previous.getProductId(entry), hash, outputOffset, length)
+                        == ProductHashIndex.NOT_FOUND;
+                    continue;
+                }
+                
+                Product product = extractor.parseRow(line, lineNumber, statistics);
+                if (product == null) {
+                    continue;
+                }
+                if (copyLength > 0) {
+                    writer.copyRows(previousOutput, copyOffset, copyLength);
+                    copyLength = 0;
+                }
+                
+                int previousEntry = previous.find(product.getProductId());
+                if (previousEntry == ProductHashIndex.NOT_FOUND) {
+                    inserted++;
+                } else {
+                    seen[previousEntry] = true;
+                    updated++;
+                }
+                
+                long outputOffset = writer.getBytesWritten();
+                writer.accept(transformer.transform(product, statistics));
+                int length = (int) (writer.getBytesWritten() - outputOffset);
+                duplicateIds |= next.add(product.getProductId(), hash, outputOffset, length)
+                    == ProductHashIndex.NOT_FOUND;
+            }
+            
+            if (copyLength > 0) {
+                writer.copyRows(previousOutput, copyOffset, copyLength);
+            }
+            next.setOutputSize(writer.getBytesWritten());
+            writer.close();
+        } catch (IOException e) {
+            writer.closeQuietly();
+            Files.deleteIfExists(tempPath);
+            if (!writer.hasFailed()) {
+                throw e;
+            }
+            return writeFailed(e, statistics);
+        }
+        
+        try {
+            // Drop the previous index first, so that it never describes the new output
+            Files.deleteIfExists(indexPath);
+            Files.move(tempPath, outputPath, StandardCopyOption.REPLACE_EXISTING);
+            if (!duplicateIds) {
+                next.save(indexPath);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempPath);
+            return writeFailed(e, statistics);
+        }
+        
+        for (boolean productSeen : seen) {
+            if (!productSeen) {
+                deleted++;
+            }
+        }
+        statistics.setWriteSuccessful(true);
+        return true;
+    }
+    
+    /**
+     * Reports a failure to write the output file or its index.
+     * 
+     * @param e the error that occurred
+     * @param statistics the statistics collector to update with write status
+     * @return false
+     */
+    private static boolean writeFailed(IOException e, StatisticsCollector statistics) {
+        System.err.println("Error: Failed writing output file: " + e.getMessage());
+        statistics.setWriteSuccessful(false);
+        return false;
+    }
+    
+    /**
+     * Loads the index of the previous run, or returns an empty index if there is no
+     * usable one.
+     * 
+     * @param outputPath the path to the previous output file
+     * @param indexPath the path to the index of the previous output file
+     * @param rulesFingerprint the fingerprint of the current business rules
+     * @return the previous index, or an empty index
+     */
+    private static ProductHashIndex loadPrevious(Path outputPath, Path indexPath, long rulesFingerprint) {
+        ProductHashIndex empty = new ProductHashIndex(0);
+        if (!Files.exists(indexPath) || !Files.exists(outputPath)) {
+            return empty;
+        }
+        try {
+            ProductHashIndex previous = ProductHashIndex.load(indexPath);
+            if (previous.getRulesFingerprint() != rulesFingerprint
+                    || previous.getOutputSize() != Files.size(outputPath)) {
+                return empty;
+            }
+            return previous;
+        } catch (IOException e) {
+            System.err.println("Warning: Ignoring unreadable index " + indexPath + ": " + e.getMessage());
+            return empty;
+        }
+    }
+    
+    /**
+     * Finds the previous entry of a row by the product ID at its start, without
+     * validating the rest of the row.
+     * 
+     * @param previous the previous index
+     * @param line the input row
+     * @return the entry number, or {@link ProductHashIndex#NOT_FOUND} if the row has no
+     *         parsable ID or the ID has no entry
+     */
+    private static int findEntry(ProductHashIndex previous, String line) {
+        if (previous.size() == 0) {
+            return ProductHashIndex.NOT_FOUND;
+        }
+        int comma = line.indexOf(',');
+        if (comma < 0) {
+            return ProductHashIndex.NOT_FOUND;
+        }
+        int start = ProductValidator.trimStart(line, 0, comma);
+        long id = ProductValidator.parseId(line, start, ProductValidator.trimEnd(line, start, comma));
+        return id == ProductValidator.INVALID_ID ? ProductHashIndex.NOT_FOUND : previous.find((int) id);
+    }
+    
+    /**
+     * Computes a fingerprint of the business rules and the output format, so that an
+     * index saved with other rules is not used to copy rows.
+     * 
+     * @param rules the business rules applied
+     * @return the rules fingerprint
+     */
+    static long rulesFingerprint(RuleSet rules) {
+        return ProductHashIndex.hash(DataLoader.getCsvHeader()
+            + '|' + rules
+            + '|' + System.lineSeparator());
+    }
+    
+    /**
+     * Gets the number of valid rows of the last run whose product ID was not in the previous index.
+     * 
+     * @return the number of inserted products
+     */
+    public long getInserted() {
+        return inserted;
+    }
+    
+    /**
+     * Gets the number of valid rows of the last run whose input row changed since the previous run.
+     * 
+     * @return the number of updated products
+     */
+    public long getUpdated() {
+        return updated;
+    }
+    
+    /**
+     * Gets the number of products of the previous run without a valid row in the last run.
+     * 
+     * @return the number of deleted products
+     */
+    public long getDeleted() {
+        return deleted;
+    }
+    
+    /**
+     * Gets the number of rows of the last run copied from the previous output.
+     * 
+     * @return the number of unchanged products
+     */
+    public long getUnchanged() {
+        return unchanged;
+    }
+}
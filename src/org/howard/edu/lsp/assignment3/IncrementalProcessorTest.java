@@ -0,0 +1,90 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for IncrementalProcessor.
+ * Verifies that incremental runs produce the output and counters of a full run.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class IncrementalProcessorTest {
+    
+    @Test
+    @DisplayName("Test an incremental run matches a full run after inserts, updates and deletes")
+    public void testIncrementalRunMatchesFullRun() throws IOException {
+        Path directory = Files.createTempDirectory("incremental-test");
+        Path input = directory.resolve("products.csv");
+        Path output = directory.resolve("transformed_products.csv");
+        Path index = directory.resolve("transformed_products.index");
+        Path fullOutput = directory.resolve("full.csv");
+        try {
+            write(input, "ProductID,Name,Price,Category",
+                "1,Laptop,1200.00,Electronics",
+                "2,Mouse,25.50,Electronics",
+                "3,Chair,150.00,Furniture",
+                "4,Mug,9.99,Kitchen");
+            assertTrue(newProcessor().process(input, output, index, new StatisticsCollector()));
+            assertTrue(Files.exists(index));
+            
+            write(input, "ProductID,Name,Price,Category",
+                "1,Laptop,1200.00,Electronics",
+                "2,Mouse,35.50,Electronics",
+                "bad,row",
+                "4,Mug,9.99,Kitchen",
+                "5,Monitor,600.00,Electronics");
+            IncrementalProcessor processor = newProcessor();
+            StatisticsCollector incremental = new StatisticsCollector();
+            assertTrue(processor.process(input, output, index, incremental));
+            assertEquals(1, processor.getInserted());
+            assertEquals(1, processor.getUpdated());
+            assertEquals(1, processor.getDeleted());
+            assertEquals(2, processor.getUnchanged());
+            
+            StatisticsCollector full = new StatisticsCollector();
+            DataExtractor extractor = new DataExtractor();
+            DataTransformer transformer = new DataTransformer(extractor.getCategories());
+            new DataLoader().load(transformer.transform(extractor.extract(input, full), full), fullOutput, full);
+            
+            assertArrayEquals(Files.readAllBytes(fullOutput), Files.readAllBytes(output));
+            assertEquals(full.getSummary(), incremental.getSummary());
+        } finally {
+            for (Path path : Arrays.asList(input, output, index, fullOutput, directory)) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+    
+    /**
+     * Creates a processor with its own extractor, transformer and loader.
+     * 
+     * @return the processor
+     */
+    private static IncrementalProcessor newProcessor() {
+        DataExtractor extractor = new DataExtractor();
+        return new IncrementalProcessor(extractor, new DataTransformer(extractor.getCategories()), new DataLoader());
+    }
+    
+    /**
+     * Writes lines to a file.
+     * 
+     * @param path the file to write
+     * @param lines the lines to write
+     * @throws IOException if the file cannot be written
+     */
+    private static void write(Path path, String... lines) throws IOException {
+        List<String> content = Arrays.asList(lines);
+        Files.write(path, content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,158 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records latencies in nanoseconds into power-of-two buckets.
+ * Bucket {@code i} counts the latencies below {@code 2^i} nanoseconds that are not
+ * counted by a lower bucket, so percentiles are reported as the upper bound of the
+ * bucket they fall in, which is at most twice the true value. Recording takes no lock,
+ * so several threads can record into the same histogram.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class LatencyHistogram {
+    
+    /** Number of buckets; the last one counts every latency of 2^62 nanoseconds or more */
+    private static final int BUCKET_COUNT = 64;
+    
+    /** Number of latencies recorded in each bucket */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    
+    /** Number of latencies recorded */
+    private final LongAdder count = new LongAdder();
+    
+    /** Sum of the latencies recorded */
+    private final LongAdder sumNanos = new LongAdder();
+    
+    /** Largest latency recorded */
+    private final AtomicLong maxNanos = new AtomicLong();
+    
+    /**
+     * Records one latency. Negative latencies are recorded as zero.
+     * 
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long latency = Math.max(nanos, 0);
+        buckets.incrementAndGet(bucketOf(latency));
+        count.increment();
+        sumNanos.add(latency);
+        maxNanos.accumulateAndGet(latency, Math::max);
+    }
+    
+    /**
+     * Gets the bucket that counts a latency.
+     * 
+     * @param nanos the latency in nanoseconds, not negative
+     * @return the index of the bucket
+     */
+    private static int bucketOf(long nanos) {
+        return Math.min(64 - Long.numberOfLeadingZeros(nanos), BUCKET_COUNT - 1);
+    }
+    
+    /**
+     * Gets the exclusive upper bound of a bucket.
+     * 
+     * @param bucket the index of the bucket
+     * @return the upper bound in nanoseconds, or {@link Long#MAX_VALUE} for the last bucket
+     */
+    public static long getBucketUpperBound(int bucket) {
+        return bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+    
+    /**
+     * Gets the number of buckets.
+     * 
+     * @return the number of buckets
+     */
+    public static int getBucketCount() {
+        return BUCKET_COUNT;
+    }
+    
+    /**
+     * Gets the number of latencies recorded in a bucket.
+     * 
+     * @param bucket the index of the bucket
+     * @return the number of latencies in the bucket
+     */
+    public long getBucket(int bucket) {
+        return buckets.get(bucket);
+    }
+    
+    /**
+     * Gets the number of latencies recorded.
+     * 
+     * @return the number of latencies
+     */
+    public long getCount() {
+        return count.sum();
+    }
+    
+    /**
+     * Gets the sum of the latencies recorded.
+     * 
+     * @return the sum in nanoseconds
+     */
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+    
+    /**
+     * Gets the largest latency recorded.
+     * 
+     * @return the largest latency in nanoseconds, or 0 if none was recorded
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+    
+    /**
+     * Gets an upper bound of a percentile of the recorded latencies: the upper bound
+     * of the bucket that holds it, capped at the largest latency recorded.
+     * 
+     * @param percentile the percentile, between 0 and 100
+     * @return the percentile in nanoseconds, or 0 if no latency was recorded
+     * @throws IllegalArgumentException if percentile is not between 0 and 100
+     */
+    public long getPercentileNanos(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        long total = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+    
+    /**
+     * Clears all recorded latencies. Latencies recorded while the histogram is being
+     * cleared may be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sumNanos.reset();
+        maxNanos.set(0);
+    }
+}
@@ -0,0 +1,83 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for LatencyHistogram.
+ * Verifies bucketing, percentiles and the JSON summary of PipelineMetrics.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class LatencyHistogramTest {
+    
+    @Test
+    @DisplayName("Test record() counts latencies in power-of-two buckets")
+    public void testBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(1000);
+        histogram.record(1023);
+        histogram.record(1024);
+        
+        assertEquals(5, histogram.getCount());
+        assertEquals(3048, histogram.getSumNanos());
+        assertEquals(1024, histogram.getMaxNanos());
+        assertEquals(1, histogram.getBucket(0));
+        assertEquals(1, histogram.getBucket(1));
+        assertEquals(2, histogram.getBucket(10));
+        assertEquals(1, histogram.getBucket(11));
+        assertEquals(1024, LatencyHistogram.getBucketUpperBound(10));
+    }
+    
+    @Test
+    @DisplayName("Test getPercentileNanos() reports the upper bound of the bucket")
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(50));
+        
+        for (int i = 0; i < 90; i++) {
+            histogram.record(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(5000);
+        }
+        
+        assertEquals(128, histogram.getPercentileNanos(50));
+        assertEquals(128, histogram.getPercentileNanos(90));
+        assertEquals(5000, histogram.getPercentileNanos(99));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(101));
+        
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+    }
+    
+    @Test
+    @DisplayName("Test PipelineMetrics.toJson() reports the counts, phases and batch latencies")
+    public void testMetricsJson() {
+        StatisticsCollector statistics = new StatisticsCollector();
+        PipelineMetrics metrics = statistics.getMetrics();
+        metrics.start();
+        statistics.incrementRowsRead();
+        statistics.incrementTransformed();
+        metrics.recordTransformBatch(300);
+        metrics.addPhaseNanos(PipelineMetrics.Phase.LOAD, 700);
+        metrics.setBytesRead(42);
+        metrics.stop();
+        
+        assertFalse(metrics.isRunning());
+        assertTrue(metrics.getWallNanos() > 0);
+        assertEquals(300, metrics.getPhaseNanos(PipelineMetrics.Phase.TRANSFORM));
+        
+        String json = statistics.getMetricsJson();
+        assertTrue(json.contains("\"rowsRead\": 1,"));
+        assertTrue(json.contains("\"bytesRead\": 42,"));
+        assertTrue(json.contains("\"phaseNanos\": {\"extract\": 0, \"transform\": 300, \"load\": 700}"));
+        assertTrue(json.contains("\"buckets\": [{\"lt\": 512, \"count\": 1}]"));
+    }
+}
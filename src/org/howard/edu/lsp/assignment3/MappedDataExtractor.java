@@ -0,0 +1,703 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Extracts product data by memory-mapping the input file and scanning its bytes directly.
+ * Lines and fields are located by searching for newline and comma bytes, and the id and
+ * price fields are parsed straight from their byte ranges, so no per-row line String,
+ * split array or trimmed field copies are created. Only the name becomes a String;
+ * categories are looked up in the category dictionary by their bytes, so a category
+ * is decoded only the first time it is seen. With fixed-point prices enabled,
+ * prices are parsed straight into cents and no BigDecimal is created for them.
+ * When extracting into a {@link ProductBatch}, names are copied as bytes as well.
+ * 
+ * <p>The accepted rows, skipped rows and counters are exactly those of {@link DataExtractor}:
+ * lines end at {@code \n}, {@code \r} or {@code \r\n}, the first line is the header, blank
+ * lines are ignored, and a row must have exactly four fields that pass the same checks as
+ * {@link ProductValidator#validateProductData(String[])}. Uncommon numeric forms such as
+ * exponents or non-ASCII digits are decoded and parsed by {@link ProductValidator}, which
+ * accepts them exactly as {@link Integer#parseInt(String)} and
+ * {@link BigDecimal#BigDecimal(String)} do, without using exceptions for invalid fields.
+ * Rejected rows are counted by reason and passed, with their line number and raw bytes,
+ * to the rejected row sink, if there is one. Like the reader of {@link DataExtractor},
+ * extraction fails on any byte that is not valid UTF-8, including bytes in the header,
+ * in blank lines and in rejected rows. Lines holding only ASCII bytes are recognized
+ * while searching for the line end, so only the other lines are decoded to check them.</p>
+ * 
+ * <p>Files larger than 2 GB are mapped in windows that always end on a line boundary.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class MappedDataExtractor extends DataExtractor {
+    
+    /** Default size of one mapped window of the input file */
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    
+    /** Largest number of decimal digits that always fits in a long */
+    private static final int MAX_LONG_DIGITS = 18;
+    
+    /** Size of the mapped windows used by this extractor */
+    private final int windowSize;
+    
+    /** Strict UTF-8 decoder, matching the reader used by {@link DataExtractor} */
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT);
+    
+    /** Reused output of the decoder when lines are only checked for valid UTF-8 */
+    private final CharBuffer checkedChars = CharBuffer.allocate(1024);
+    
+    /** Marker returned by {@link #parseId(ByteBuffer, int, int)} for an invalid id */
+    private static final long INVALID_ID = ProductValidator.INVALID_ID;
+    
+    /** Start and end offsets of the four fields of the current row */
+    private final int[] fieldBounds = new int[8];
+    
+    /** Product id of the current row */
+    private int parsedId;
+    
+    /** Price of the current row in cents, or {@link FixedPointPrice#NOT_REPRESENTABLE} */
+    private long parsedCents;
+    
+    /** Price of the current row when it is not held in cents */
+    private BigDecimal parsedPrice;
+    
+    /** Line number of the last line scanned, counting the first line of the file as line 1 */
+    private long lineNumber;
+    
+    /**
+     * Constructs a new MappedDataExtractor with the default window size.
+     */
+    public MappedDataExtractor() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+    
+    /**
+     * Constructs a new MappedDataExtractor that maps the input in windows of the given size.
+     * Windows grow automatically when a single line is longer than the window.
+     * 
+     * @param windowSize the size of one mapped window in bytes
+     * @throws IllegalArgumentException if windowSize is less than 2
+     */
+    public MappedDataExtractor(int windowSize) {
+        if (windowSize < 2) {
+            throw new IllegalArgumentException("Window size must be at least 2 bytes");
+        }
+        this.windowSize = windowSize;
+    }
+    
+    /**
+     * Extracts product data from the specified CSV file by scanning its mapped bytes,
+     * pushing each valid product into the given sink in input order. Compressed files
+     * cannot be mapped and are read line by line instead.
+     * 
+     * @param inputPath the path to the input CSV file
+     * @param statistics the statistics collector to update during extraction
+     * @param sink the sink that receives each extracted product in input order
+     * @throws IOException if an error occurs while reading the file or if the sink fails
+     */
+    @Override
+    public void extract(Path inputPath, StatisticsCollector statistics, ProductSink sink) throws IOException {
+        if (CompressedFiles.isGzip(inputPath)) {
+            super.extract(inputPath, statistics, sink);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(inputPath, StandardOpenOption.READ)) {
+            lineNumber = 0;
+            extractRange(channel, 0, channel.size(), true, statistics, sink);
+        }
+    }
+    
+    /**
+     * Extracts the products of the lines that start within a byte range of a file.
+     * The range must start at the beginning of a line and end at the beginning of a
+     * line or at the end of the file.
+     * 
+     * @param channel the channel of the input file
+     * @param start the offset of the first byte of the range
+     * @param end the offset just past the last byte of the range
+     * @param skipHeader whether the first line of the range is the header
+     * @param statistics the statistics collector to update during extraction
+     * @param sink the sink that receives each extracted product in input order
+     * @throws IOException if an error occurs while reading the file or if the sink fails
+     */
+    protected void extractRange(FileChannel channel, long start, long end, boolean skipHeader,
+                                StatisticsCollector statistics, ProductSink sink) throws IOException {
+        scanRange(channel, start, end, skipHeader, statistics, buffer -> sink.accept(createProduct(buffer)));
+    }
+    
+    /**
+     * Extracts product data from the specified CSV file straight into columnar batches.
+     * Names are copied from the mapped bytes into the batch and categories are looked up
+     * in the batch's dictionary by their bytes, so no per-row objects are created for rows
+     * with ASCII names, prices that fit in cents and categories seen before.
+     * 
+     * @param inputPath the path to the input CSV file
+     * @param statistics the statistics collector to update during extraction
+     * @param batch the batch to fill, which is cleared first
+     * @param sink the sink that receives each filled batch in input order
+     * @throws IOException if an error occurs while reading the file or if the sink fails
+     */
+    @Override
+    public void extractBatches(Path inputPath, StatisticsCollector statistics, ProductBatch batch,
+                               ProductBatchSink sink) throws IOException {
+        if (CompressedFiles.isGzip(inputPath)) {
+            super.extractBatches(inputPath, statistics, batch, sink);
+            return;
+        }
+        batch.clear();
+        try (FileChannel channel = FileChannel.open(inputPath, StandardOpenOption.READ)) {
+            lineNumber = 0;
+            extractRange(channel, 0, channel.size(), true, statistics, batch, full -> {
+                sink.accept(full);
+                full.clear();
+                return full;
+            });
+        }
+        if (!batch.isEmpty()) {
+            sink.accept(batch);
+            batch.clear();
+        }
+    }
+    
+    /**
+     * Extracts the products of the lines that start within a byte range of a file into
+     * columnar batches. The range must start at the beginning of a line and end at the
+     * beginning of a line or at the end of the file.
+     * 
+     * @param channel the channel of the input file
+     * @param start the offset of the first byte of the range
+     * @param end the offset just past the last byte of the range
+     * @param skipHeader whether the first line of the range is the header
+     * @param statistics the statistics collector to update during extraction
+     * @param batch the first batch to fill
+     * @param handOff receives each full batch and returns the batch to continue with
+     * @return the last batch, holding the rows not yet handed off
+     * @throws IOException if an error occurs while reading the file or if the hand-off fails
+     */
+    protected ProductBatch extractRange(FileChannel channel, long start, long end, boolean skipHeader,
+                                        StatisticsCollector statistics, ProductBatch batch,
+                                        BatchHandOff handOff) throws IOException {
+        ProductBatch[] current = {batch};
+        scanRange(channel, start, end, skipHeader, statistics, buffer -> {
+            addRow(buffer, current[0]);
+            if (current[0].isFull()) {
+                current[0] = handOff.handOff(current[0]);
+            }
+        });
+        return current[0];
+    }
+    
+    /**
+     * Scans the lines that start within a byte range of a file and passes every valid
+     * row to a handler.
+     * 
+     * @param channel the channel of the input file
+     * @param start the offset of the first byte of the range
+     * @param end the offset just past the last byte of the range
+     * @param skipHeader whether the first line of the range is the header
+     * @param statistics the statistics collector to update during extraction
+     * @param handler the handler that receives each valid row
+     * @throws IOException if an error occurs while reading the file or if the handler fails
+     */
+    private void scanRange(FileChannel channel, long start, long end, boolean skipHeader,
+                           StatisticsCollector statistics, RowHandler handler) throws IOException {
+        boolean isHeader = skipHeader;
+        long position = start;
+        int size = windowSize;
+        
+        while (position < end) {
+            long remaining = end - position;
+            boolean lastWindow = remaining <= size;
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, lastWindow ? remaining : size);
+            
+            int limit = window.limit();
+            int lineStart = 0;
+            int i = 0;
+            // Negative once the current line holds a non-ASCII byte
+            int nonAscii = 0;
+            
+            while (i < limit) {
+                byte b = window.get(i);
+                if (b != '\n' && b != '\r') {
+                    nonAscii |= b;
+                    i++;
+                    continue;
+                }
+                
+                int next = i + 1;
+                if (b == '\r') {
+                    if (next == limit && !lastWindow) {
+                        // A following \n may sit in the next window
+                        break;
+                    }
+                    if (next < limit && window.get(next) == '\n') {
+                        next++;
+                    }
+                }
+                
+                if (nonAscii < 0) {
+                    checkUtf8(window, lineStart, i);
+                    nonAscii = 0;
+                }
+                lineNumber++;
+                if (isHeader) {
+                    isHeader = false;
+                } else {
+                    parseLine(window, lineStart, i, statistics, handler);
+                }
+                lineStart = next;
+                i = next;
+            }
+            
+            if (lastWindow) {
+                if (lineStart < limit) {
+                    // Final line without a line terminator
+                    if (nonAscii < 0) {
+                        checkUtf8(window, lineStart, limit);
+                    }
+                    lineNumber++;
+                    if (!isHeader) {
+                        parseLine(window, lineStart, limit, statistics, handler);
+                    }
+                }
+                return;
+            }
+            
+            if (lineStart == 0) {
+                // One line fills the whole window, so map a larger one
+                if (size > Integer.MAX_VALUE / 2) {
+                    throw new IOException("Line longer than " + size + " bytes at offset " + position);
+                }
+                size *= 2;
+            } else {
+                position += lineStart;
+                size = windowSize;
+            }
+        }
+    }
+    
+    /**
+     * Validates and parses one line, updating the statistics and passing a valid row to the
+     * handler. An invalid row is rejected for the first failing check, in the same order as
+     * {@link ProductValidator#parseProduct(String, boolean)}, and passed to the rejected row
+     * sink, if there is one.
+     * 
+     * @param buffer the buffer holding the line
+     * @param start the offset of the first byte of the line
+     * @param end the offset just past the last byte of the line, excluding the terminator
+     * @param statistics the statistics collector to update
+     * @param handler the handler that receives the row
+     * @throws IOException if a field is not valid UTF-8, or if the handler or the rejected row sink fails
+     */
+    private void parseLine(ByteBuffer buffer, int start, int end, StatisticsCollector statistics,
+                           RowHandler handler) throws IOException {
+        if (trimStart(buffer, start, end) == end) {
+            return;
+        }
+        
+        statistics.incrementRowsRead();
+        
+        RejectReason reason;
+        int[] f = fieldBounds;
+        if (!splitFields(buffer, start, end)) {
+            reason = RejectReason.FIELD_COUNT;
+        } else {
+            long id = f[0] < f[1] ? parseId(buffer, f[0], f[1]) : INVALID_ID;
+            if (id == INVALID_ID) {
+                reason = RejectReason.INVALID_ID;
+            } else if (f[2] == f[3]) {
+                reason = RejectReason.MISSING_NAME;
+            } else if (f[4] == f[5] || !parsePrice(buffer, f[4], f[5])) {
+                reason = RejectReason.INVALID_PRICE;
+            } else if (f[6] == f[7]) {
+                reason = RejectReason.MISSING_CATEGORY;
+            } else {
+                parsedId = (int) id;
+                handler.accept(buffer);
+                return;
+            }
+        }
+        
+        statistics.incrementSkipped(reason);
+        RejectedRowSink rejectedRows = getRejectedRowSink();
+        if (rejectedRows != null) {
+            rejectedRows.reject(lineNumber, buffer, start, end, reason);
+        }
+    }
+    
+    /**
+     * Creates a product from the fields of the current row.
+     * 
+     * @param buffer the buffer holding the row
+     * @return the product
+     * @throws IOException if the name or category is not valid UTF-8
+     */
+    private Product createProduct(ByteBuffer buffer) throws IOException {
+        int[] f = fieldBounds;
+        String name = decode(buffer, f[2], f[3]);
+        CategoryDictionary categories = getCategories();
+        int categoryCode = internCategory(categories, buffer, f[6], f[7]);
+        String category = categories.get(categoryCode);
+        Product product = parsedCents != FixedPointPrice.NOT_REPRESENTABLE
+            ? new Product(parsedId, name, parsedCents, category)
+            : new Product(parsedId, name, parsedPrice, category);
+        product.setCategory(categories, categoryCode);
+        return product;
+    }
+    
+    /**
+     * Appends the fields of the current row to a batch.
+     * ASCII names are copied without decoding, and categories already in the batch's
+     * dictionary are found by their bytes; other names and categories are decoded once
+     * so that invalid UTF-8 is still reported.
+     * 
+     * @param buffer the buffer holding the row
+     * @param batch the batch to append to, which must not be full
+     * @throws IOException if the name or category is not valid UTF-8
+     */
+    private void addRow(ByteBuffer buffer, ProductBatch batch) throws IOException {
+        int[] f = fieldBounds;
+        if (!isAscii(buffer, f[2], f[3])) {
+            decode(buffer, f[2], f[3]);
+        }
+        
+        int categoryCode = internCategory(batch.getCategories(), buffer, f[6], f[7]);
+        int row = batch.add(parsedId, buffer, f[2], f[3], categoryCode);
+        if (parsedCents != FixedPointPrice.NOT_REPRESENTABLE) {
+            batch.setPriceCents(row, parsedCents);
+        } else {
+            batch.setPrice(row, parsedPrice);
+        }
+    }
+    
+    /**
+     * Locates the four comma-separated fields of a line and trims each of them.
+     * The trimmed bounds are stored in {@link #fieldBounds}.
+     * 
+     * @param buffer the buffer holding the line
+     * @param start the offset of the first byte of the line
+     * @param end the offset just past the last byte of the line
+     * @return true if the line has exactly four fields, false otherwise
+     */
+    private boolean splitFields(ByteBuffer buffer, int start, int end) {
+        int field = 0;
+        int fieldStart = start;
+        
+        for (int i = start; i <= end; i++) {
+            if (i < end && buffer.get(i) != ',') {
+                continue;
+            }
+            if (field == 4) {
+                return false;
+            }
+            int trimmedStart = trimStart(buffer, fieldStart, i);
+            fieldBounds[2 * field] = trimmedStart;
+            fieldBounds[2 * field + 1] = trimEnd(buffer, trimmedStart, i);
+            field++;
+            fieldStart = i + 1;
+        }
+        
+        return field == 4;
+    }
+    
+    /**
+     * Parses a trimmed, non-empty product id field the way {@link Integer#parseInt(String)} does.
+     * 
+     * @param buffer the buffer holding the field
+     * @param start the offset of the first byte of the field
+     * @param end the offset just past the last byte of the field
+     * @return the parsed id, or {@link #INVALID_ID} if the field is not a valid int
+     * @throws IOException if the field is not valid UTF-8
+     */
+    private long parseId(ByteBuffer buffer, int start, int end) throws IOException {
+        int i = start;
+        byte first = buffer.get(i);
+        boolean negative = first == '-';
+        if (negative || first == '+') {
+            i++;
+        }
+        if (i == end) {
+            return INVALID_ID;
+        }
+        
+        // Accumulate negatively so that Integer.MIN_VALUE is representable
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return buffer.get(i) < 0 ? parseIdSlowly(buffer, start, end) : INVALID_ID;
+            }
+            if (result < limit / 10 || result * 10 < limit + digit) {
+                return INVALID_ID;
+            }
+            result = result * 10 - digit;
+        }
+        return negative ? result : -result;
+    }
+    
+    /**
+     * Parses a product id field containing non-ASCII characters, which
+     * {@link Integer#parseInt(String)} may still accept as Unicode digits.
+     * 
+     * @param buffer the buffer holding the field
+     * @param start the offset of the first byte of the field
+     * @param end the offset just past the last byte of the field
+     * @return the parsed id, or {@link #INVALID_ID} if the field is not a valid int
+     * @throws IOException if the field is not valid UTF-8
+     */
+    private long parseIdSlowly(ByteBuffer buffer, int start, int end) throws IOException {
+        String id = decode(buffer, start, end);
+        return ProductValidator.parseId(id, 0, id.length());
+    }
+    
+    /**
+     * Parses a trimmed, non-empty price field the way {@link BigDecimal#BigDecimal(String)} does.
+     * Plain decimals of up to 18 digits are parsed from the bytes; anything else is decoded
+     * and handed to the BigDecimal constructor. With fixed-point prices enabled, a price
+     * that fits in cents is stored in {@link #parsedCents} without creating a BigDecimal;
+     * otherwise it is stored in {@link #parsedPrice}.
+     * 
+     * @param buffer the buffer holding the field
+     * @param start the offset of the first byte of the field
+     * @param end the offset just past the last byte of the field
+     * @return true if the field is a valid decimal, false otherwise
+     * @throws IOException if the field is not valid UTF-8
+     */
+    private boolean parsePrice(ByteBuffer buffer, int start, int end) throws IOException {
+        int i = start;
+        byte first = buffer.get(i);
+        boolean negative = first == '-';
+        if (negative || first == '+') {
+            i++;
+        }
+        
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                if (++digits > MAX_LONG_DIGITS) {
+                    return parsePriceSlowly(buffer, start, end);
+                }
+                unscaled = unscaled * 10 + (b - '0');
+                if (seenPoint) {
+                    scale++;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (b == 'e' || b == 'E' || b < 0) {
+                return parsePriceSlowly(buffer, start, end);
+            } else {
+                return false;
+            }
+        }
+        
+        if (digits == 0) {
+            return false;
+        }
+        
+        long signed = negative ? -unscaled : unscaled;
+        parsedCents = isFixedPointPrices()
+            ? FixedPointPrice.fromUnscaled(signed, scale)
+            : FixedPointPrice.NOT_REPRESENTABLE;
+        parsedPrice = parsedCents == FixedPointPrice.NOT_REPRESENTABLE ? BigDecimal.valueOf(signed, scale) : null;
+        return true;
+    }
+    
+    /**
+     * Parses a price field in an uncommon form with {@link ProductValidator}.
+     * 
+     * @param buffer the buffer holding the field
+     * @param start the offset of the first byte of the field
+     * @param end the offset just past the last byte of the field
+     * @return true if the field is a valid decimal, false otherwise
+     * @throws IOException if the field is not valid UTF-8
+     */
+    private boolean parsePriceSlowly(ByteBuffer buffer, int start, int end) throws IOException {
+        String price = decode(buffer, start, end);
+        parsedPrice = ProductValidator.parseDecimal(price, 0, price.length());
+        parsedCents = FixedPointPrice.NOT_REPRESENTABLE;
+        return parsedPrice != null;
+    }
+    
+    /**
+     * Gets the dictionary code of a category field, looking it up by its bytes so that
+     * it is only decoded the first time it is seen.
+     * 
+     * @param categories the dictionary to intern the category in
+     * @param buffer the buffer holding the field
+     * @param start the offset of the first byte of the field
+     * @param end the offset just past the last byte of the field
+     * @return the code of the category
+     * @throws IOException if the field is not valid UTF-8
+     */
+    private int internCategory(CategoryDictionary categories, ByteBuffer buffer, int start, int end) throws IOException {
+        int categoryCode = categories.lookup(buffer, start, end);
+        if (categoryCode == CategoryDictionary.NOT_FOUND) {
+            categoryCode = categories.intern(decode(buffer, start, end));
+        }
+        return categoryCode;
+    }
+    
+    /**
+     * Decodes a byte range as strict UTF-8.
+     * 
+     * @param buffer the buffer holding the bytes
+     * @param start the offset of the first byte
+     * @param end the offset just past the last byte
+     * @return the decoded string
+     * @throws CharacterCodingException if the bytes are not valid UTF-8
+     */
+    private String decode(ByteBuffer buffer, int start, int end) throws CharacterCodingException {
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(end).position(start);
+        return decoder.decode(slice).toString();
+    }
+    
+    /**
+     * Checks that a byte range is strict UTF-8, decoding it into a reused buffer so that
+     * no String is created.
+     * 
+     * @param buffer the buffer holding the bytes
+     * @param start the offset of the first byte
+     * @param end the offset just past the last byte
+     * @throws CharacterCodingException if the bytes are not valid UTF-8
+     */
+    private void checkUtf8(ByteBuffer buffer, int start, int end) throws CharacterCodingException {
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(end).position(start);
+        decoder.reset();
+        CoderResult result;
+        do {
+            checkedChars.clear();
+            result = decoder.decode(slice, checkedChars, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+        } while (result.isOverflow());
+        do {
+            checkedChars.clear();
+            result = decoder.flush(checkedChars);
+        } while (result.isOverflow());
+    }
+    
+    /**
+     * Checks whether a byte range holds only ASCII characters.
+     * 
+     * @param buffer the buffer holding the bytes
+     * @param start the offset of the first byte
+     * @param end the offset just past the last byte
+     * @return true if every byte is ASCII, false otherwise
+     */
+    private static boolean isAscii(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Finds the first byte of a range that is not whitespace, as defined by {@link String#trim()}.
+     * 
+     * @param buffer the buffer holding the bytes
+     * @param start the offset of the first byte
+     * @param end the offset just past the last byte
+     * @return the offset of the first non-whitespace byte, or end if there is none
+     */
+    private static int trimStart(ByteBuffer buffer, int start, int end) {
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+    
+    /**
+     * Finds the end of a range after removing trailing whitespace, as defined by {@link String#trim()}.
+     * 
+     * @param buffer the buffer holding the bytes
+     * @param start the offset of the first byte
+     * @param end the offset just past the last byte
+     * @return the offset just past the last non-whitespace byte, or start if there is none
+     */
+    private static int trimEnd(ByteBuffer buffer, int start, int end) {
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+    
+    /**
+     * Gets the line number of the last line scanned. Scanning a whole file starts from
+     * line 0, and scanning a range continues from the last line scanned, so consecutive
+     * ranges of a file are numbered like the whole file.
+     * 
+     * @return the line number of the last line scanned, counting the first line of the file as line 1
+     */
+    protected long getLineNumber() {
+        return lineNumber;
+    }
+    
+    /**
+     * Sets the line number of the line before the next one scanned, for example to 0
+     * before scanning a range whose line numbers are only known relative to its start.
+     * 
+     * @param lineNumber the line number of the last line scanned
+     */
+    protected void setLineNumber(long lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+    
+    /**
+     * Hands over a full batch filled by
+     * {@link #extractRange(FileChannel, long, long, boolean, StatisticsCollector, ProductBatch, BatchHandOff)}.
+     */
+    @FunctionalInterface
+    protected interface BatchHandOff {
+        
+        /**
+         * Takes a full batch and returns the batch that extraction continues with,
+         * which may be the same batch after it has been cleared.
+         * 
+         * @param full the full batch
+         * @return an empty batch sharing the same dictionary
+         * @throws IOException if the full batch cannot be handled
+         */
+        ProductBatch handOff(ProductBatch full) throws IOException;
+    }
+    
+    /**
+     * Receives the rows of a range that pass validation. The fields of the row are held in
+     * {@link #fieldBounds}, {@link #parsedId}, {@link #parsedCents} and {@link #parsedPrice}.
+     */
+    @FunctionalInterface
+    private interface RowHandler {
+        
+        /**
+         * Handles the current row.
+         * 
+         * @param buffer the buffer holding the row
+         * @throws IOException if the row cannot be handled
+         */
+        void accept(ByteBuffer buffer) throws IOException;
+    }
+}
@@ -0,0 +1,238 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for the byte scanners of MappedDataExtractor and ParallelDataExtractor.
+ * Generated files full of edge cases are extracted with DataExtractor as the reference and
+ * with both byte scanners, using tiny windows and ranges so that window ends and range
+ * splits land on every kind of byte, and the products, counters and rejected rows are compared.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class MappedDataExtractorTest {
+    
+    /** Product id fields, including overflows, signs and non-ASCII digits */
+    private static final String[] IDS = {
+        "1", "42", " 7 ", "-3", "+5", "2147483647", "2147483648", "-2147483648", "abc", "", "+", "١٢", "1e3"
+    };
+    
+    /** Name fields, including multi-byte characters and blanks */
+    private static final String[] NAMES = {"Widget", "  Café ", "€uro", "𝄞 Music", "", "  ", "a b"};
+    
+    /** Price fields, including exponents, long decimals and non-ASCII digits */
+    private static final String[] PRICES = {
+        "1.00", "0.5", " 12.345 ", "1e2", "-0.01", "abc", "", ".", "1.", "99999999999999999999.99", "١.٥", "+7"
+    };
+    
+    /** Category fields, including multi-byte characters and blanks */
+    private static final String[] CATEGORIES = {"Toys", "Électronique", "  Books ", "", "日本"};
+    
+    /** Line terminators accepted by BufferedReader */
+    private static final String[] TERMINATORS = {"\n", "\r\n", "\r"};
+    
+    /** Window sizes of the mapped extractor, from the smallest allowed up */
+    private static final int[] WINDOW_SIZES = {2, 3, 7, 64};
+    
+    /** Worker counts and range sizes of the parallel extractor */
+    private static final int[][] PARALLEL_SETTINGS = {{1, 1}, {2, 3}, {3, 7}, {4, 50}};
+    
+    @Test
+    @DisplayName("Test the byte scanners extract exactly what DataExtractor extracts")
+    public void testSameRowsAsDataExtractor() throws IOException {
+        Random random = new Random(3);
+        Path input = Files.createTempFile("edge-cases", ".csv");
+        try {
+            for (int file = 0; file < 150; file++) {
+                Files.write(input, generateFile(random));
+                boolean fixedPoint = file % 2 == 1;
+                String expected = extract(new DataExtractor(), input, fixedPoint, false);
+                
+                for (int windowSize : WINDOW_SIZES) {
+                    for (boolean batches : new boolean[] {false, true}) {
+                        assertEquals(expected, extract(new MappedDataExtractor(windowSize), input, fixedPoint, batches),
+                            "window " + windowSize + " batches " + batches + " in file " + file);
+                    }
+                }
+                for (int[] settings : PARALLEL_SETTINGS) {
+                    for (boolean batches : new boolean[] {false, true}) {
+                        assertEquals(expected,
+                            extract(new ParallelDataExtractor(settings[0], settings[1]), input, fixedPoint, batches),
+                            settings[0] + " workers, range " + settings[1] + ", batches " + batches
+                                + " in file " + file);
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(input);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test nextLineStart() finds the line start BufferedReader would use from every offset")
+    public void testNextLineStart() throws IOException {
+        Random random = new Random(4);
+        Path input = Files.createTempFile("line-starts", ".csv");
+        try {
+            for (int file = 0; file < 100; file++) {
+                byte[] bytes = generateFile(random);
+                Files.write(input, bytes);
+                try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                    for (int position = 0; position <= bytes.length; position++) {
+                        assertEquals(expectedLineStart(bytes, position),
+                            ParallelDataExtractor.nextLineStart(channel, position, bytes.length),
+                            "offset " + position + " in file " + file);
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(input);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test invalid UTF-8 fails every extractor, wherever it appears")
+    public void testInvalidUtf8() throws IOException {
+        String[] files = {
+            "ProductID,Name,Price,Category\n1,A,1.00,Toys\n2,Bÿ,x,Toys\n",
+            "ProductÿID,Name,Price,Category\n1,A,1.00,Toys\n",
+            "ProductID,Name,Price,Category\n1,A,1.00,Toys\n  Ã\n",
+            "ProductID,Name,Price,Category\n1,A,1.â\u0082,Toys\r\n",
+            "ProductID,Name,Price,Category\r\n1,A,1.00,Toysð\u009f"
+        };
+        Path input = Files.createTempFile("invalid-utf8", ".csv");
+        try {
+            for (String file : files) {
+                // Each char stands for one byte, so the files can hold bytes that are not UTF-8
+                Files.write(input, file.getBytes(StandardCharsets.ISO_8859_1));
+                List<DataExtractor> extractors = new ArrayList<>();
+                extractors.add(new DataExtractor());
+                for (int windowSize : WINDOW_SIZES) {
+                    extractors.add(new MappedDataExtractor(windowSize));
+                }
+                for (int[] settings : PARALLEL_SETTINGS) {
+                    extractors.add(new ParallelDataExtractor(settings[0], settings[1]));
+                }
+                for (DataExtractor extractor : extractors) {
+                    assertThrows(CharacterCodingException.class, () -> extractor.extract(input, new StatisticsCollector()),
+                        extractor.getClass().getSimpleName());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(input);
+        }
+    }
+    
+    /**
+     * Generates a small CSV file of valid, invalid and blank rows with mixed line terminators.
+     * The last line may lack a terminator, and the file may end in a lone {@code \r}.
+     * 
+     * @param random the source of randomness
+     * @return the UTF-8 bytes of the file
+     */
+    private static byte[] generateFile(Random random) {
+        StringBuilder content = new StringBuilder(
+            random.nextInt(4) == 0 ? "Prödukt,Name,Price,Category" : "ProductID,Name,Price,Category");
+        int lines = random.nextInt(30);
+        for (int line = 0; line < lines; line++) {
+            content.append(TERMINATORS[random.nextInt(TERMINATORS.length)]);
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                content.append(random.nextBoolean() ? "" : " \t ");
+                continue;
+            }
+            int fields = kind == 1 ? 3 : kind == 2 ? 5 : 4;
+            for (int field = 0; field < fields; field++) {
+                if (field > 0) {
+                    content.append(',');
+                }
+                String[] values = field == 0 ? IDS : field == 1 ? NAMES : field == 2 ? PRICES : CATEGORIES;
+                content.append(values[random.nextInt(values.length)]);
+            }
+        }
+        if (random.nextBoolean()) {
+            content.append(TERMINATORS[random.nextInt(TERMINATORS.length)]);
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Extracts a file and describes everything the extraction produced: the products, the
+     * counters and the rejected rows with their line numbers and reasons.
+     * 
+     * @param extractor the extractor to use
+     * @param input the input file
+     * @param fixedPoint whether prices are held in cents where possible
+     * @param batches whether to extract into small columnar batches instead of products
+     * @return the description of the extraction
+     * @throws IOException if the file cannot be read
+     */
+    private static String extract(DataExtractor extractor, Path input, boolean fixedPoint, boolean batches)
+            throws IOException {
+        StringBuilder result = new StringBuilder();
+        extractor.setFixedPointPrices(fixedPoint);
+        extractor.setRejectedRowSink((lineNumber, buffer, start, end, reason) -> {
+            ByteArrayOutputStream row = new ByteArrayOutputStream();
+            for (int i = start; i < end; i++) {
+                row.write(buffer.get(i));
+            }
+            result.append("rejected line ").append(lineNumber).append(' ').append(reason).append(": ")
+                .append(new String(row.toByteArray(), StandardCharsets.UTF_8)).append('\n');
+        });
+        
+        StatisticsCollector statistics = new StatisticsCollector();
+        List<Product> products = new ArrayList<>();
+        if (batches) {
+            extractor.extractBatches(input, statistics, new ProductBatch(extractor.getCategories(), 3), batch -> {
+                for (int row = 0; row < batch.size(); row++) {
+                    products.add(batch.toProduct(row));
+                }
+            });
+        } else {
+            extractor.extract(input, statistics, products::add);
+        }
+        
+        for (Product product : products) {
+            result.append(product).append('\n');
+        }
+        result.append("read ").append(statistics.getRowsRead()).append(", skipped ").append(statistics.getSkipped());
+        for (RejectReason reason : RejectReason.values()) {
+            result.append(", ").append(reason).append(' ').append(statistics.getSkipped(reason));
+        }
+        return result.toString();
+    }
+    
+    /**
+     * Finds the first line start at or after an offset the way BufferedReader splits lines:
+     * a line starts at offset 0, after {@code \n}, and after {@code \r} not followed by {@code \n}.
+     * 
+     * @param bytes the bytes of the file
+     * @param position the offset to start from
+     * @return the offset of the line start, or the file size if there is none
+     */
+    private static long expectedLineStart(byte[] bytes, int position) {
+        for (int offset = position; offset < bytes.length; offset++) {
+            if (offset == 0 || bytes[offset - 1] == '\n'
+                    || (bytes[offset - 1] == '\r' && bytes[offset] != '\n')) {
+                return offset;
+            }
+        }
+        return bytes.length;
+    }
+}
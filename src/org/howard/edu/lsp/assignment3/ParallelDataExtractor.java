@@ -0,0 +1,442 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Extracts product data by splitting the input file into byte ranges and parsing
+ * the ranges on several worker threads.
+ * Range boundaries are moved forward to the start of the next line, so every line
+ * belongs to exactly one range. Each range is parsed by a {@link MappedDataExtractor}
+ * into its own product list, or its own batches, and its own {@link StatisticsCollector}
+ * shard. The results are consumed in file order, merging each shard into the caller's
+ * statistics, so the products and counters are exactly those of a single-threaded
+ * extraction. Only the first range skips the header line.
+ * 
+ * <p>Workers do not know the line number a range starts at, so when rejected rows are
+ * passed to a sink, each range numbers its lines from 1 and keeps its rejected rows. They
+ * are passed to the sink in file order, with the number of lines of the preceding ranges
+ * added, so the sink receives the same rows and line numbers as from a single-threaded
+ * extraction.</p>
+ * 
+ * <p>At most two ranges per worker are in flight at any time, and each of them is held
+ * as a full list of products or batches until it is consumed, so memory use grows with
+ * {@code 2 * workers * rangeSize} rather than with the size of the input file. The
+ * default range size suits runs that keep every product in memory anyway; streaming and
+ * columnar runs use {@link #STREAMING_RANGE_SIZE}, which keeps the products in flight
+ * to a few megabytes.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ParallelDataExtractor extends DataExtractor {
+    
+    /** Default size of one byte range */
+    private static final long DEFAULT_RANGE_SIZE = 32L * 1024 * 1024;
+    
+    /** Size of one byte range when products are streamed, so that little input is in flight */
+    public static final long STREAMING_RANGE_SIZE = 256L * 1024;
+    
+    /** Smallest capacity of the batches a range is parsed into */
+    private static final int MIN_BATCH_CAPACITY = 1024;
+    
+    /** Row length assumed when sizing the batches of a range, in bytes */
+    private static final int MIN_ROW_BYTES = 16;
+    
+    /** Size of the buffer used to look for the next line start */
+    private static final int ALIGN_BUFFER_SIZE = 8192;
+    
+    /** Number of worker threads */
+    private final int workers;
+    
+    /** Target size of one byte range before alignment */
+    private final long rangeSize;
+    
+    /**
+     * Constructs a new ParallelDataExtractor with the default range size.
+     * 
+     * @param workers the number of worker threads
+     * @throws IllegalArgumentException if workers is less than 1
+     */
+    public ParallelDataExtractor(int workers) {
+        this(workers, DEFAULT_RANGE_SIZE);
+    }
+    
+    /**
+     * Constructs a new ParallelDataExtractor with the given range size.
+     * 
+     * @param workers the number of worker threads
+     * @param rangeSize the target size of one byte range
+     * @throws IllegalArgumentException if workers or rangeSize is less than 1
+     */
+    public ParallelDataExtractor(int workers, long rangeSize) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers must be at least 1");
+        }
+        if (rangeSize < 1) {
+            throw new IllegalArgumentException("Range size must be at least 1 byte");
+        }
+        this.workers = workers;
+        this.rangeSize = rangeSize;
+    }
+    
+    /**
+     * Extracts product data from the specified CSV file using several workers,
+     * pushing each valid product into the given sink in input order. Compressed files
+     * cannot be split into ranges and are read line by line on the calling thread instead.
+     * 
+     * @param inputPath the path to the input CSV file
+     * @param statistics the statistics collector to update during extraction
+     * @param sink the sink that receives each extracted product in input order
+     * @throws IOException if an error occurs while reading the file or if the sink fails
+     */
+    @Override
+    public void extract(Path inputPath, StatisticsCollector statistics, ProductSink sink) throws IOException {
+        if (CompressedFiles.isGzip(inputPath)) {
+            super.extract(inputPath, statistics, sink);
+            return;
+        }
+        extractRanges(inputPath, statistics, this::parseRange, result -> {
+            for (Product product : result.products) {
+                sink.accept(product);
+            }
+        });
+    }
+    
+    /**
+     * Extracts product data from the specified CSV file into columnar batches using
+     * several workers. Each range is parsed into its own batches, which share the
+     * dictionary of the given batch, are no larger than it, and are handed to the sink in
+     * input order. The given batch itself is only cleared.
+     * 
+     * @param inputPath the path to the input CSV file
+     * @param statistics the statistics collector to update during extraction
+     * @param batch the batch whose dictionary and capacity the range batches use
+     * @param sink the sink that receives each filled batch in input order
+     * @throws IOException if an error occurs while reading the file or if the sink fails
+     */
+    @Override
+    public void extractBatches(Path inputPath, StatisticsCollector statistics, ProductBatch batch,
+                               ProductBatchSink sink) throws IOException {
+        if (CompressedFiles.isGzip(inputPath)) {
+            super.extractBatches(inputPath, statistics, batch, sink);
+            return;
+        }
+        batch.clear();
+        CategoryDictionary categories = batch.getCategories();
+        int capacity = batch.getCapacity();
+        extractRanges(inputPath, statistics,
+            (channel, start, end) -> parseRangeBatches(channel, start, end, categories, capacity),
+            result -> {
+                for (ProductBatch rangeBatch : result.batches) {
+                    sink.accept(rangeBatch);
+                }
+            });
+    }
+    
+    /**
+     * Splits the input file into line-aligned ranges, parses them on the workers and
+     * passes the results to a consumer in file order, merging each statistics shard first.
+     * 
+     * @param inputPath the path to the input CSV file
+     * @param statistics the statistics collector to update during extraction
+     * @param parser creates the task that parses one range
+     * @param consumer receives the result of each range in file order
+     * @throws IOException if an error occurs while reading the file or if the consumer fails
+     */
+    private void extractRanges(Path inputPath, StatisticsCollector statistics, RangeParser parser,
+                               RangeConsumer consumer) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        Deque<Future<RangeResult>> pending = new ArrayDeque<>();
+        
+        try (FileChannel channel = FileChannel.open(inputPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            long linesBefore = 0;
+            
+            while (start < size || !pending.isEmpty()) {
+                // Keep up to two ranges per worker in flight
+                while (start < size && pending.size() < 2 * workers) {
+                    long end = nextLineStart(channel, Math.min(start + rangeSize, size), size);
+                    pending.add(executor.submit(parser.parse(channel, start, end)));
+                    start = end;
+                }
+                
+                RangeResult result = pending.remove().get();
+                statistics.merge(result.statistics);
+                if (result.rejectedRows != null) {
+                    result.rejectedRows.replay(getRejectedRowSink(), linesBefore);
+                }
+                linesBefore += result.lines;
+                consumer.accept(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting " + inputPath, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Extraction task failed", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Creates the task that parses one byte range with its own extractor and statistics shard.
+     * 
+     * @param channel the channel of the input file
+     * @param start the offset of the first byte of the range
+     * @param end the offset just past the last byte of the range
+     * @return the task producing the products and statistics of the range
+     */
+    private Callable<RangeResult> parseRange(FileChannel channel, long start, long end) {
+        return () -> {
+            RangeResult result = new RangeResult();
+            MappedDataExtractor rangeExtractor = createRangeExtractor(result);
+            rangeExtractor.extractRange(channel, start, end, start == 0, result.statistics, result.products::add);
+            result.lines = rangeExtractor.getLineNumber();
+            return result;
+        };
+    }
+    
+    /**
+     * Creates the task that parses one byte range into its own batches and statistics shard.
+     * 
+     * @param channel the channel of the input file
+     * @param start the offset of the first byte of the range
+     * @param end the offset just past the last byte of the range
+     * @param categories the dictionary shared by all batches
+     * @param maxCapacity the largest capacity of each batch; small ranges use smaller batches
+     * @return the task producing the batches and statistics of the range
+     */
+    private Callable<RangeResult> parseRangeBatches(FileChannel channel, long start, long end,
+                                                    CategoryDictionary categories, int maxCapacity) {
+        // A row takes at least a few bytes, so a small range does not need a full-size batch
+        int capacity = (int) Math.min(maxCapacity, Math.max(MIN_BATCH_CAPACITY, (end - start) / MIN_ROW_BYTES));
+        return () -> {
+            RangeResult result = new RangeResult();
+            MappedDataExtractor rangeExtractor = createRangeExtractor(result);
+            ProductBatch last = rangeExtractor.extractRange(channel, start, end, start == 0,
+                result.statistics, new ProductBatch(categories, capacity), full -> {
+                    result.batches.add(full);
+                    return new ProductBatch(categories, capacity);
+                });
+            if (!last.isEmpty()) {
+                result.batches.add(last);
+            }
+            result.lines = rangeExtractor.getLineNumber();
+            return result;
+        };
+    }
+    
+    /**
+     * Creates the extractor that parses one range, with the same price settings and
+     * category dictionary as this extractor. If rejected rows are passed to a sink, the
+     * range extractor keeps them in the result of the range, numbered from the start of the range.
+     * 
+     * @param result the result of the range
+     * @return the range extractor
+     */
+    private MappedDataExtractor createRangeExtractor(RangeResult result) {
+        MappedDataExtractor rangeExtractor = new MappedDataExtractor();
+        rangeExtractor.setFixedPointPrices(isFixedPointPrices());
+        rangeExtractor.setCategories(getCategories());
+        if (getRejectedRowSink() != null) {
+            result.rejectedRows = new RejectedRowBuffer();
+            rangeExtractor.setRejectedRowSink(result.rejectedRows);
+        }
+        return rangeExtractor;
+    }
+    
+    /**
+     * Finds the first line start at or after the given position.
+     * A line starts at offset 0, after a {@code \n}, or after a {@code \r} that is
+     * not followed by {@code \n}, which matches {@link java.io.BufferedReader#readLine()}.
+     * 
+     * @param channel the channel of the input file
+     * @param position the position to align
+     * @param size the size of the file
+     * @return the offset of the next line start, or size if there is none
+     * @throws IOException if an error occurs while reading the file
+     */
+    static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        if (position <= 0 || position >= size) {
+            return Math.max(0, Math.min(position, size));
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate(ALIGN_BUFFER_SIZE);
+        boolean sawReturn = false;
+        long offset = position - 1;
+        
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (sawReturn) {
+                    return b == '\n' ? offset + i + 1 : offset + i;
+                }
+                if (b == '\n') {
+                    return offset + i + 1;
+                }
+                sawReturn = b == '\r';
+            }
+            offset += read;
+        }
+        
+        return size;
+    }
+    
+    /**
+     * Gets the number of worker threads.
+     * 
+     * @return the number of workers
+     */
+    public int getWorkers() {
+        return workers;
+    }
+    
+    /**
+     * Holds the products and statistics shard produced by one range.
+     */
+    private static class RangeResult {
+        
+        /** Products parsed from the range, in file order, when extracting products */
+        private final List<Product> products = new ArrayList<>();
+        
+        /** Batches parsed from the range, in file order, when extracting batches */
+        private final List<ProductBatch> batches = new ArrayList<>();
+        
+        /** Statistics shard of the range */
+        private final StatisticsCollector statistics = new StatisticsCollector();
+        
+        /** Rows rejected in the range, or null if rejected rows are only counted */
+        private RejectedRowBuffer rejectedRows;
+        
+        /** Number of lines in the range */
+        private long lines;
+    }
+    
+    /**
+     * Keeps the rows rejected in one range until the rows of the preceding ranges have
+     * been passed on. The bytes of all rows are kept in one array.
+     */
+    private static final class RejectedRowBuffer implements RejectedRowSink {
+        
+        /** Bytes of the rejected rows, one after the other */
+        private byte[] bytes = new byte[1024];
+        
+        /** Offset just past the bytes of each row */
+        private int[] ends = new int[16];
+        
+        /** Line number of each row, relative to the start of the range */
+        private long[] lineNumbers = new long[16];
+        
+        /** Reject reason of each row */
+        private RejectReason[] reasons = new RejectReason[16];
+        
+        /** Number of rows kept */
+        private int count;
+        
+        /**
+         * Keeps a rejected row.
+         * 
+         * @param lineNumber the line number of the row, relative to the start of the range
+         * @param buffer the buffer holding the bytes of the row
+         * @param start the offset of the first byte of the row
+         * @param end the offset just past the last byte of the row
+         * @param reason the reason the row was rejected
+         */
+        @Override
+        public void reject(long lineNumber, ByteBuffer buffer, int start, int end, RejectReason reason) {
+            int offset = count == 0 ? 0 : ends[count - 1];
+            int length = end - start;
+            if (bytes.length - offset < length) {
+                bytes = Arrays.copyOf(bytes, Math.max(offset + length, 2 * bytes.length));
+            }
+            if (count == ends.length) {
+                ends = Arrays.copyOf(ends, 2 * count);
+                lineNumbers = Arrays.copyOf(lineNumbers, 2 * count);
+                reasons = Arrays.copyOf(reasons, 2 * count);
+            }
+            ByteBuffer row = buffer.duplicate();
+            row.limit(end).position(start);
+            row.get(bytes, offset, length);
+            ends[count] = offset + length;
+            lineNumbers[count] = lineNumber;
+            reasons[count] = reason;
+            count++;
+        }
+        
+        /**
+         * Passes the kept rows to a sink in the order they were rejected.
+         * 
+         * @param sink the sink that receives the rows
+         * @param linesBefore the number of lines of the file before the range
+         * @throws IOException if the sink fails
+         */
+        private void replay(RejectedRowSink sink, long linesBefore) throws IOException {
+            ByteBuffer view = ByteBuffer.wrap(bytes);
+            for (int i = 0; i < count; i++) {
+                sink.reject(linesBefore + lineNumbers[i], view, i == 0 ? 0 : ends[i - 1], ends[i], reasons[i]);
+            }
+        }
+    }
+    
+    /**
+     * Creates the task that parses one byte range.
+     */
+    @FunctionalInterface
+    private interface RangeParser {
+        
+        /**
+         * Creates the task for a range.
+         * 
+         * @param channel the channel of the input file
+         * @param start the offset of the first byte of the range
+         * @param end the offset just past the last byte of the range
+         * @return the task producing the result of the range
+         */
+        Callable<RangeResult> parse(FileChannel channel, long start, long end);
+    }
+    
+    /**
+     * Receives the result of a range once its statistics shard has been merged.
+     */
+    @FunctionalInterface
+    private interface RangeConsumer {
+        
+        /**
+         * Handles the result of a range.
+         * 
+         * @param result the result of the range
+         * @throws IOException if the result cannot be handled
+         */
+        void accept(RangeResult result) throws IOException;
+    }
+}
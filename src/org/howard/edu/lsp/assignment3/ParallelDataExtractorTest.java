@@ -0,0 +1,83 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ParallelDataExtractor.
+ * Verifies that streaming and columnar runs with parallel extraction keep the heap small,
+ * by running the pipeline in a separate JVM whose heap is far smaller than the input.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ParallelDataExtractorTest {
+    
+    /** Heap of the pipeline JVM, which every single-threaded streaming mode fits in */
+    private static final String SMALL_HEAP = "-Xmx24m";
+    
+    /** Number of rows of the generated input, about 20 MB */
+    private static final int ROWS = 500000;
+    
+    @Test
+    @DisplayName("Test streaming and columnar runs with parallel extraction fit in a small heap")
+    public void testStreamingFitsInSmallHeap() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("parallel-heap-test");
+        try {
+            Path data = Files.createDirectory(directory.resolve("data"));
+            String[] categories = {"Electronics", "Books", "Toys", "Garden", "Kitchen"};
+            try (BufferedWriter writer = Files.newBufferedWriter(data.resolve("products.csv"), StandardCharsets.UTF_8)) {
+                writer.write("ProductID,Name,Price,Category");
+                writer.newLine();
+                for (int i = 0; i < ROWS; i++) {
+                    writer.write(i + ",Product name " + i + "," + (i % 100000) / 100 + "." + i % 10 + "5,"
+                        + categories[i % categories.length]);
+                    writer.newLine();
+                }
+            }
+            
+            for (String mode : new String[] {"--streaming", "--columnar"}) {
+                for (String threads : new String[] {"2", "4"}) {
+                    String javaPath = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+                    Process process = new ProcessBuilder(javaPath, SMALL_HEAP, "-cp",
+                        System.getProperty("java.class.path"), ETLPipeline.class.getName(), mode,
+                        "--extract-threads", threads)
+                        .directory(directory.toFile())
+                        .redirectErrorStream(true)
+                        .redirectOutput(new File(directory.toFile(), "run.log"))
+                        .start();
+                    assertTrue(process.waitFor(120, TimeUnit.SECONDS), "pipeline did not finish");
+                    assertEquals(0, process.exitValue(),
+                        mode + " with " + threads + " threads: " + Files.readAllLines(directory.resolve("run.log")));
+                    try (Stream<String> lines = Files.lines(data.resolve("transformed_products.csv"))) {
+                        assertEquals(ROWS + 1, lines.count());
+                    }
+                }
+            }
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                List<Path> all = new ArrayList<>();
+                paths.forEach(all::add);
+                Collections.reverse(all);
+                for (Path path : all) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+}
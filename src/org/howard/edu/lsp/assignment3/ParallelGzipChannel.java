@@ -0,0 +1,236 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses the bytes written to it on several threads and writes them to a channel
+ * in gzip format. The bytes are cut into fixed-size blocks, each block is compressed as
+ * a separate gzip member by a thread pool, and the members are written in order. A file
+ * made of consecutive gzip members is a valid gzip file, which gzip and
+ * {@link java.util.zip.GZIPInputStream} decompress as a whole; it is slightly larger
+ * than a single stream because every block starts with an empty dictionary.
+ * 
+ * <p>At most two blocks per thread are compressed or waiting to be written at any time;
+ * a producer that is faster than the compression threads waits for the oldest block,
+ * which bounds memory use. Input blocks are reused once they have been compressed.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ParallelGzipChannel implements WritableByteChannel {
+    
+    /** Default size of each uncompressed block in bytes */
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    
+    /** Counter used to number the compression threads */
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+    
+    /** Channel the compressed members are written to */
+    private final WritableByteChannel channel;
+    
+    /** Threads compressing the blocks */
+    private final ExecutorService compressors;
+    
+    /** Size of each uncompressed block in bytes */
+    private final int blockSize;
+    
+    /** Maximum number of blocks being compressed or waiting to be written */
+    private final int maxPending;
+    
+    /** Blocks being compressed, in write order */
+    private final Deque<Future<Member>> pending = new ArrayDeque<>();
+    
+    /** Compressed blocks ready to be filled again */
+    private final Deque<byte[]> freeBlocks = new ArrayDeque<>();
+    
+    /** Block being filled */
+    private byte[] block;
+    
+    /** Number of bytes in the block being filled */
+    private int position;
+    
+    /** Whether any member has been submitted */
+    private boolean started;
+    
+    /** Whether the channel is open */
+    private boolean open = true;
+    
+    /**
+     * Constructs a new ParallelGzipChannel and starts its compression threads.
+     * 
+     * @param channel the channel to write the compressed bytes to, closed by {@link #close()}
+     * @param threads the number of compression threads, at least 1
+     * @param blockSize the size of each uncompressed block in bytes, at least 1
+     * @throws IllegalArgumentException if threads or blockSize is less than 1
+     */
+    public ParallelGzipChannel(WritableByteChannel channel, int threads, int blockSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Compression threads must be at least 1");
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1 byte");
+        }
+        this.channel = channel;
+        this.blockSize = blockSize;
+        this.maxPending = threads * 2;
+        this.block = new byte[blockSize];
+        this.compressors = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "etl-gzip-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Copies bytes into the current block, handing every full block to the compression threads.
+     * 
+     * @param src the bytes to write
+     * @return the number of bytes written, which is all remaining bytes of src
+     * @throws IOException if the channel is closed or compressing or writing an earlier block failed
+     */
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        int written = src.remaining();
+        while (src.hasRemaining()) {
+            int length = Math.min(src.remaining(), blockSize - position);
+            src.get(block, position, length);
+            position += length;
+            if (position == blockSize) {
+                submitBlock();
+            }
+        }
+        return written;
+    }
+    
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+    
+    /**
+     * Compresses the last block, waits until every member has been written, stops the
+     * compression threads and closes the channel. If nothing was written, one empty
+     * member is written so that the output is still a valid gzip file.
+     * 
+     * @throws IOException if compressing or writing a block fails, or the wait is interrupted
+     */
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        try {
+            if (position > 0 || !started) {
+                submitBlock();
+            }
+            while (!pending.isEmpty()) {
+                writeOldest();
+            }
+        } finally {
+            compressors.shutdownNow();
+            pending.clear();
+            channel.close();
+        }
+    }
+    
+    /**
+     * Hands the current block to the compression threads and starts a new one, first
+     * writing the oldest member if the maximum number of blocks is pending.
+     * 
+     * @throws IOException if compressing or writing an earlier block failed
+     */
+    private void submitBlock() throws IOException {
+        if (pending.size() >= maxPending) {
+            writeOldest();
+        }
+        byte[] data = block;
+        int length = position;
+        pending.addLast(compressors.submit(() -> new Member(data, compress(data, length))));
+        started = true;
+        block = freeBlocks.isEmpty() ? new byte[blockSize] : freeBlocks.removeFirst();
+        position = 0;
+    }
+    
+    /**
+     * Waits for the oldest pending block to be compressed, writes it and keeps its input
+     * block for reuse.
+     * 
+     * @throws IOException if compressing or writing the block failed, or the wait is interrupted
+     */
+    private void writeOldest() throws IOException {
+        Member member;
+        try {
+            member = pending.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a compressed block");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed compressing an output block", cause);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(member.compressed);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        freeBlocks.addLast(member.input);
+    }
+    
+    /**
+     * Runs on a compression thread: compresses a block as one complete gzip member.
+     * 
+     * @param data the block to compress
+     * @param length the number of bytes of the block to compress
+     * @return the gzip member
+     * @throws IOException if compressing fails
+     */
+    private static byte[] compress(byte[] data, int length) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024)) {
+            gzip.write(data, 0, length);
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * An input block and the gzip member compressed from it.
+     */
+    private static final class Member {
+        
+        /** Uncompressed block, reused once the member is written */
+        final byte[] input;
+        
+        /** Compressed gzip member */
+        final byte[] compressed;
+        
+        /**
+         * Constructs a new Member.
+         * 
+         * @param input the uncompressed block
+         * @param compressed the compressed gzip member
+         */
+        Member(byte[] input, byte[] compressed) {
+            this.input = input;
+            this.compressed = compressed;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Applies the business rules of a {@link DataTransformer} on several threads.
+ * The input list is split into fixed-size chunks, each chunk is transformed on
+ * the executor with its own statistics collector, and the results are reassembled
+ * in input order. Chunk statistics are merged on the calling thread, so the counts
+ * are exactly the same as those of a single-threaded run.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ParallelTransformEngine implements AutoCloseable {
+    
+    /** Default number of products transformed by one task */
+    private static final int DEFAULT_CHUNK_SIZE = 4096;
+    
+    /** The transformer whose rules are applied to every product */
+    private final DataTransformer transformer;
+    
+    /** The executor that runs the chunk tasks */
+    private final ExecutorService executor;
+    
+    /** Whether the executor was created by this engine and must be shut down by it */
+    private final boolean ownsExecutor;
+    
+    /** Number of products transformed by one task */
+    private final int chunkSize;
+    
+    /**
+     * Constructs an engine backed by its own fork-join pool.
+     * 
+     * @param transformer the transformer whose rules are applied
+     * @param parallelism the number of worker threads
+     * @throws IllegalArgumentException if parallelism is less than 1
+     */
+    public ParallelTransformEngine(DataTransformer transformer, int parallelism) {
+        this(transformer, new ForkJoinPool(parallelism), DEFAULT_CHUNK_SIZE, true);
+    }
+    
+    /**
+     * Constructs an engine that runs its tasks on a caller-supplied executor.
+     * The executor is not shut down when the engine is closed.
+     * 
+     * @param transformer the transformer whose rules are applied
+     * @param executor the executor that runs the chunk tasks
+     * @param chunkSize the number of products transformed by one task
+     * @throws IllegalArgumentException if chunkSize is less than 1
+     */
+    public ParallelTransformEngine(DataTransformer transformer, ExecutorService executor, int chunkSize) {
+        this(transformer, executor, chunkSize, false);
+    }
+    
+    /**
+     * Constructs an engine with all fields specified.
+     * 
+     * @param transformer the transformer whose rules are applied
+     * @param executor the executor that runs the chunk tasks
+     * @param chunkSize the number of products transformed by one task
+     * @param ownsExecutor whether the engine shuts the executor down on close
+     */
+    private ParallelTransformEngine(DataTransformer transformer, ExecutorService executor,
+                                    int chunkSize, boolean ownsExecutor) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        this.transformer = transformer;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.ownsExecutor = ownsExecutor;
+    }
+    
+    /**
+     * Transforms a list of products in parallel, preserving input order.
+     * Lists no larger than one chunk are transformed on the calling thread.
+     * 
+     * @param inputProducts the list of products to transform
+     * @param statistics the statistics collector to update during transformation
+     * @return a list of transformed products in the same order as the input
+     */
+    public List<Product> transform(List<Product> inputProducts, StatisticsCollector statistics) {
+        if (inputProducts.size() <= chunkSize) {
+            return transformer.transform(inputProducts, statistics);
+        }
+        
+        List<Future<List<Product>>> chunks = new ArrayList<>();
+        List<StatisticsCollector> shards = new ArrayList<>();
+        
+        for (int from = 0; from < inputProducts.size(); from += chunkSize) {
+            List<Product> chunk = inputProducts.subList(from, Math.min(from + chunkSize, inputProducts.size()));
+            StatisticsCollector shard = new StatisticsCollector();
+            shards.add(shard);
+            chunks.add(executor.submit(() -> transformer.transform(chunk, shard)));
+        }
+        
+        List<Product> transformedProducts = new ArrayList<>(inputProducts.size());
+        try {
+            for (Future<List<Product>> chunk : chunks) {
+                transformedProducts.addAll(chunk.get());
+            }
+        } catch (InterruptedException e) {
+            cancelAll(chunks);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while transforming products", e);
+        } catch (ExecutionException e) {
+            cancelAll(chunks);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Transformation task failed", cause);
+        }
+        
+        // Every chunk completed, so the shard counters are final
+        for (StatisticsCollector shard : shards) {
+            statistics.merge(shard);
+        }
+        
+        return transformedProducts;
+    }
+    
+    /**
+     * Creates a sink that transforms products in bounded parallel batches.
+     * Products are buffered until a batch of one chunk per worker is full, the batch
+     * is transformed in parallel, and the results are passed downstream in input order.
+     * Closing the returned sink transforms and passes on the final partial batch;
+     * it does not close the downstream sink. While a metrics run is in progress, the
+     * time taken to transform each batch is recorded in the statistics' metrics.
+     * 
+     * @param downstream the sink that receives transformed products
+     * @param statistics the statistics collector to update during transformation
+     * @param batchSize the maximum number of products buffered before transforming
+     * @return a sink that accepts untransformed products
+     */
+    public ProductSink batchingSink(ProductSink downstream, StatisticsCollector statistics, int batchSize) {
+        return new ProductSink() {
+            private final List<Product> batch = new ArrayList<>(batchSize);
+            
+            @Override
+            public void accept(Product product) throws IOException {
+                batch.add(product);
+                if (batch.size() >= batchSize) {
+                    flush();
+                }
+            }
+            
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+            
+            private void flush() throws IOException {
+                if (batch.isEmpty()) {
+                    return;
+                }
+                PipelineMetrics metrics = statistics.getMetrics();
+                long start = metrics.isRunning() ? System.nanoTime() : 0;
+                List<Product> transformedProducts = transform(batch, statistics);
+                if (metrics.isRunning()) {
+                    metrics.recordTransformBatch(System.nanoTime() - start);
+                }
+                for (Product transformedProduct : transformedProducts) {
+                    downstream.accept(transformedProduct);
+                }
+                batch.clear();
+            }
+        };
+    }
+    
+    /**
+     * Cancels all chunk tasks that have not completed yet.
+     * 
+     * @param chunks the chunk tasks to cancel
+     */
+    private static void cancelAll(List<Future<List<Product>>> chunks) {
+        for (Future<List<Product>> chunk : chunks) {
+            chunk.cancel(true);
+        }
+    }
+    
+    /**
+     * Gets the number of products transformed by one task.
+     * 
+     * @return the chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+    
+    /**
+     * Shuts down the executor if it was created by this engine.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ParallelTransformEngine.
+ * Verifies that parallel runs return the products and counters of a sequential
+ * DataTransformer run for any number of threads and chunks, and that a failing
+ * chunk task fails the caller.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ParallelTransformEngineTest {
+    
+    /** Categories of the generated products, including those the default rules match */
+    private static final String[] CATEGORIES = {"Electronics", " electronics ", "Books", "Toys", "Électronique"};
+    
+    /** Worker counts, from one to more than there are rows */
+    private static final int[] THREADS = {1, 2, 3, 8, 64};
+    
+    /** Chunk sizes, from one row per task to a single task */
+    private static final int[] CHUNK_SIZES = {1, 7, 250, 100000};
+    
+    @Test
+    @DisplayName("Test parallel runs match a sequential run in order, content and counters")
+    public void testSameAsSequential() throws IOException, InterruptedException {
+        for (int rows : new int[] {0, 5, 1000, 10000}) {
+            List<Product> products = generateProducts(new Random(rows), rows);
+            StatisticsCollector expectedStatistics = new StatisticsCollector();
+            String expected = describe(new DataTransformer().transform(copyOf(products), expectedStatistics));
+            
+            for (int threads : THREADS) {
+                // Engines with their own pool split lists larger than the default chunk
+                try (ParallelTransformEngine engine = new ParallelTransformEngine(new DataTransformer(), threads)) {
+                    assertSameRun(expected, expectedStatistics, engine, products, rows + " rows, " + threads + " threads");
+                }
+                
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                try {
+                    for (int chunkSize : CHUNK_SIZES) {
+                        ParallelTransformEngine engine = new ParallelTransformEngine(new DataTransformer(), executor,
+                            chunkSize);
+                        String run = rows + " rows, " + threads + " threads, chunks of " + chunkSize;
+                        assertSameRun(expected, expectedStatistics, engine, products, run);
+                        
+                        StatisticsCollector statistics = new StatisticsCollector();
+                        List<Product> transformed = new ArrayList<>();
+                        try (ProductSink sink = engine.batchingSink(transformed::add, statistics, 300)) {
+                            for (Product product : copyOf(products)) {
+                                sink.accept(product);
+                            }
+                        }
+                        assertEquals(expected, describe(transformed), "sink of " + run);
+                        assertEquals(expectedStatistics.getTransformed(), statistics.getTransformed(), "sink of " + run);
+                    }
+                } finally {
+                    executor.shutdown();
+                    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+                }
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Test an exception in a worker reaches the caller instead of hanging")
+    public void testWorkerExceptionReachesCaller() throws InterruptedException {
+        List<Product> products = generateProducts(new Random(1), 1000);
+        DataTransformer failing = new DataTransformer() {
+            @Override
+            public Product transform(Product product, StatisticsCollector statistics) {
+                if (product.getProductId() == 777) {
+                    throw new IllegalStateException("bad row 777");
+                }
+                return super.transform(product, statistics);
+            }
+        };
+        
+        for (int threads : new int[] {1, 4}) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                ParallelTransformEngine engine = new ParallelTransformEngine(failing, executor, 10);
+                StatisticsCollector statistics = new StatisticsCollector();
+                long start = System.nanoTime();
+                IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> engine.transform(copyOf(products), statistics));
+                assertEquals("bad row 777", e.getMessage());
+                assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+                // Counts of a failed run are not merged, so none are half counted
+                assertEquals(0, statistics.getTransformed());
+            } finally {
+                executor.shutdown();
+                assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            }
+        }
+    }
+    
+    /**
+     * Runs an engine on a copy of the products and compares the result with the sequential run.
+     * The statistics start with counts of their own, which the engine must add to.
+     * 
+     * @param expected the description of the sequential result
+     * @param expectedStatistics the statistics of the sequential run
+     * @param engine the engine to run
+     * @param products the products to transform
+     * @param run the description of the run for failure messages
+     */
+    private static void assertSameRun(String expected, StatisticsCollector expectedStatistics,
+                                      ParallelTransformEngine engine, List<Product> products, String run) {
+        StatisticsCollector statistics = new StatisticsCollector();
+        statistics.incrementTransformed();
+        assertEquals(expected, describe(engine.transform(copyOf(products), statistics)), run);
+        assertEquals(expectedStatistics.getTransformed() + 1, statistics.getTransformed(), run);
+        assertEquals(expectedStatistics.getSkipped(), statistics.getSkipped(), run);
+    }
+    
+    /**
+     * Generates products with cent and BigDecimal prices around the premium threshold.
+     * 
+     * @param random the source of randomness
+     * @param count the number of products
+     * @return the products
+     */
+    private static List<Product> generateProducts(Random random, int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            long cents = random.nextInt(100000);
+            products.add(random.nextBoolean()
+                ? new Product(i, "Product ñ " + i, cents, category)
+                : new Product(i, "item " + i, BigDecimal.valueOf(cents, 2).add(new BigDecimal("0.005")), category));
+        }
+        return products;
+    }
+    
+    /**
+     * Copies products, so that every run starts from untransformed products.
+     * 
+     * @param products the products to copy
+     * @return the copies
+     */
+    private static List<Product> copyOf(List<Product> products) {
+        List<Product> copies = new ArrayList<>(products.size());
+        for (Product product : products) {
+            copies.add(new Product(product));
+        }
+        return copies;
+    }
+    
+    /**
+     * Describes products one per line, in order.
+     * 
+     * @param products the products
+     * @return the description
+     */
+    private static String describe(List<Product> products) {
+        StringBuilder result = new StringBuilder();
+        for (Product product : products) {
+            result.append(product).append('\n');
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,649 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Runs the pipeline as a resident service on every file dropped into an inbox directory,
+ * so that each file is processed by warm code instead of paying JVM startup and JIT warmup.
+ * A {@link WatchService} thread queues each new file whose name matches the pattern, and
+ * the thread that called {@link #run()} processes the queue one file at a time, so drops
+ * that arrive together wait their turn. Files already in the inbox when the daemon starts
+ * are queued as well. All runs write through one {@link DataLoader} whose encoding buffer
+ * is reused from file to file.
+ * 
+ * <p>A file is processed once its size and modification time stop changing for the settle
+ * time, so a file still being copied into the inbox is not read half-written. Its output is
+ * written to the output directory with the {@value BatchRunner#OUTPUT_PREFIX} prefix, and
+ * the input is then moved atomically to the processed directory, or to its
+ * {@value #FAILED_DIRECTORY} subdirectory if the run failed, under a timestamped name.
+ * The inbox and the processed directory must be on the same file system. A file that cannot
+ * be moved stays in the inbox and is processed again the next time the daemon starts.</p>
+ * 
+ * <p>Each output is written to a temporary file in the output directory and moved over the
+ * output file only once the run has succeeded, so readers never see a partial output and a
+ * failed run leaves any earlier output as it was. A later drop of a file with the same name
+ * replaces the output of the earlier one, whose input is kept in the processed directory.
+ * The later file must be dropped once the earlier one has left the inbox, as dropping it
+ * over a file still in the inbox replaces that input before it is processed.
+ * Checkpointed runs write their output in place and are therefore not allowed.</p>
+ * 
+ * <p>The counters of every file are added up and, together with those of the last file,
+ * published through JMX as a {@link PipelineDaemonMXBean}. One line is printed per file.</p>
+ * 
+ * <p>Usage: {@code PipelineDaemon [pipeline options] --inbox <directory> --output-dir <directory>
+ * --processed-dir <directory> [--pattern <glob>] [--settle-ms <n>]}, where the pipeline
+ * options are those of {@link PipelineOptions#getUsage()}.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class PipelineDaemon implements PipelineDaemonMXBean {
+    
+    /** Default glob pattern of the file names processed */
+    public static final String DEFAULT_PATTERN = "*.csv";
+    
+    /** Default time a file must stay unchanged before it is processed */
+    public static final long DEFAULT_SETTLE_MILLIS = 500;
+    
+    /** Subdirectory of the processed directory that inputs of failed runs are moved to */
+    public static final String FAILED_DIRECTORY = "failed";
+    
+    /** Time the processing thread waits for a queued file before checking for a stop */
+    private static final long POLL_MILLIS = 200;
+    
+    /** Format of the timestamp prefixed to the names of processed inputs */
+    private static final DateTimeFormatter ARCHIVE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    
+    /** Options every run uses */
+    private final PipelineOptions options;
+    
+    /** Directory watched for new files */
+    private final Path inbox;
+    
+    /** Directory the outputs are written to */
+    private final Path outputDirectory;
+    
+    /** Directory the inputs of successful runs are moved to */
+    private final Path processedDirectory;
+    
+    /** Directory the inputs of failed runs are moved to */
+    private final Path failedDirectory;
+    
+    /** Glob pattern of the file names processed */
+    private final String pattern;
+    
+    /** Matcher of the file names processed */
+    private final PathMatcher matcher;
+    
+    /** Time a file must stay unchanged before it is processed */
+    private final long settleMillis;
+    
+    /** Loader shared by all runs, so that its encoding buffer is reused */
+    private final DataLoader loader = new DataLoader();
+    
+    /** Files waiting to be processed, in arrival order */
+    private final BlockingQueue<Path> queue = new LinkedBlockingQueue<>();
+    
+    /** Files queued or being processed, so that repeated events queue a file once */
+    private final Set<Path> queued = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    
+    /** Counters added up over all files */
+    private final ConcurrentStatisticsCollector totals = new ConcurrentStatisticsCollector();
+    
+    /** Number of files processed successfully */
+    private final LongAdder filesProcessed = new LongAdder();
+    
+    /** Number of files whose run failed */
+    private final LongAdder filesFailed = new LongAdder();
+    
+    /** Result of the last file processed, or null */
+    private volatile FileResult lastResult;
+    
+    /** Whether the daemon keeps processing files */
+    private volatile boolean running;
+    
+    /** Counted down when {@link #run()} returns */
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    
+    /**
+     * Constructs a new PipelineDaemon.
+     * 
+     * @param options the options every run uses
+     * @param inbox the directory watched for new files
+     * @param outputDirectory the directory the outputs are written to
+     * @param processedDirectory the directory the processed inputs are moved to
+     * @param pattern the glob pattern of the file names processed
+     * @param settleMillis the time a file must stay unchanged before it is processed, at least 0
+     * @throws IllegalArgumentException if settleMillis is negative, the pattern is invalid, or
+     *         the output or processed directory is the inbox or inside it, or the options
+     *         select checkpointed runs
+     */
+    public PipelineDaemon(PipelineOptions options, Path inbox, Path outputDirectory, Path processedDirectory,
+                          String pattern, long settleMillis) {
+        if (settleMillis < 0) {
+            throw new IllegalArgumentException("Settle time must not be negative");
+        }
+        if (options.isCheckpointing()) {
+            throw new IllegalArgumentException("Checkpointed runs write the output in place and cannot be used by the daemon");
+        }
+        // Outputs written into the inbox would be picked up and transformed again
+        checkOutsideInbox(inbox, outputDirectory, "Output");
+        checkOutsideInbox(inbox, processedDirectory, "Processed");
+        this.options = options;
+        this.inbox = inbox;
+        this.outputDirectory = outputDirectory;
+        this.processedDirectory = processedDirectory;
+        this.failedDirectory = processedDirectory.resolve(FAILED_DIRECTORY);
+        this.pattern = pattern;
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        this.settleMillis = settleMillis;
+        this.loader.setReuseBuffers(true);
+        this.running = true;
+    }
+    
+    /**
+     * Checks that a directory the daemon writes to is neither the inbox nor inside it.
+     * 
+     * @param inbox the directory watched for new files
+     * @param directory the directory to check
+     * @param role the role of the directory in the error message
+     * @throws IllegalArgumentException if the directory is the inbox or inside it
+     */
+    private static void checkOutsideInbox(Path inbox, Path directory, String role) {
+        if (directory.toAbsolutePath().normalize().startsWith(inbox.toAbsolutePath().normalize())) {
+            throw new IllegalArgumentException(role + " directory must not be the inbox or inside it: " + directory);
+        }
+    }
+    
+    /**
+     * Watches the inbox and processes the files dropped into it until {@link #stop()} is
+     * called or the thread is interrupted. The file being processed is finished first.
+     * A daemon runs once; it cannot be started again after it stopped.
+     * 
+     * @throws IOException if the inbox cannot be watched or a directory cannot be created
+     */
+    public void run() throws IOException {
+        try {
+            if (!Files.isDirectory(inbox)) {
+                throw new IOException("Inbox is not a directory: " + inbox);
+            }
+            Files.createDirectories(outputDirectory);
+            Files.createDirectories(failedDirectory);
+            
+            try (WatchService watcher = inbox.getFileSystem().newWatchService()) {
+                inbox.register(watcher, StandardWatchEventKinds.ENTRY_CREATE);
+                ObjectName name = register();
+                Thread watchThread = new Thread(() -> watch(watcher), "pipeline-daemon-watcher");
+                watchThread.setDaemon(true);
+                try {
+                    scanInbox();
+                    watchThread.start();
+                    while (running) {
+                        Path file = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                        if (file != null) {
+                            processFile(file);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running = false;
+                    unregister(name);
+                }
+            }
+        } finally {
+            stopped.countDown();
+        }
+    }
+    
+    /**
+     * Asks the daemon to stop once the file being processed is finished.
+     */
+    public void stop() {
+        running = false;
+    }
+    
+    /**
+     * Waits until {@link #run()} has returned.
+     * 
+     * @param timeoutMillis the longest time to wait in milliseconds
+     * @return true if the daemon stopped, false if the time ran out
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public boolean awaitStopped(long timeoutMillis) throws InterruptedException {
+        return stopped.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Queues the files of the inbox whose names match the pattern, in name order.
+     * 
+     * @throws IOException if the inbox cannot be read
+     */
+    private void scanInbox() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(inbox)) {
+            for (Path entry : entries) {
+                files.add(entry);
+            }
+        }
+        Collections.sort(files);
+        for (Path file : files) {
+            enqueue(file);
+        }
+    }
+    
+    /**
+     * Takes the events of the watch service and queues each new file until the service is closed.
+     * 
+     * @param watcher the watch service of the inbox
+     */
+    private void watch(WatchService watcher) {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost, so look at the whole inbox again
+                        scanInbox();
+                    } else {
+                        enqueue(inbox.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    System.err.println("Error: Inbox is no longer accessible: " + inbox);
+                    stop();
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // The daemon is stopping
+        } catch (IOException e) {
+            System.err.println("Error: Failed reading inbox " + inbox + ": " + e.getMessage());
+            stop();
+        }
+    }
+    
+    /**
+     * Queues a file if its name matches the pattern and it is not queued already.
+     * 
+     * @param file the file in the inbox
+     */
+    private void enqueue(Path file) {
+        if (matcher.matches(file.getFileName()) && Files.isRegularFile(file) && queued.add(file)) {
+            queue.add(file);
+        }
+    }
+    
+    /**
+     * Runs the pipeline on one queued file, records its counters and moves it out of the inbox.
+     * 
+     * @param file the file in the inbox
+     * @throws InterruptedException if the thread is interrupted while waiting for the file to settle
+     */
+    private void processFile(Path file) throws InterruptedException {
+        boolean archived = false;
+        try {
+            if (!awaitSettled(file)) {
+                return;
+            }
+            // The loader writes a temporary file next to the output and moves it into place on success
+            Path output = outputDirectory.resolve(BatchRunner.OUTPUT_PREFIX + file.getFileName());
+            FileResult result = BatchRunner.runFile(options, file, output, loader);
+            
+            StatisticsSnapshot counts = result.getCounts();
+            System.out.println(String.format("%s: rows read %d, transformed %d, skipped %d, %s in %.1f ms",
+                file.getFileName(), counts.getRowsRead(), counts.getTransformed(), counts.getSkipped(),
+                result.isSuccessful() ? "written to " + output : "FAILED", result.getWallNanos() / 1e6));
+            if (result.getError() != null) {
+                System.err.println("Error: " + result.getError());
+            }
+            archived = archive(file, result.isSuccessful() ? processedDirectory : failedDirectory);
+            
+            // Counted once the input has left the inbox, so that a counted file can be dropped again
+            totals.merge(counts);
+            if (result.isSuccessful()) {
+                filesProcessed.increment();
+            } else {
+                filesFailed.increment();
+            }
+            lastResult = result;
+        } finally {
+            queued.remove(file);
+        }
+        if (archived) {
+            // A drop of the same name that arrived while this one was queued was not queued again
+            enqueue(file);
+        }
+    }
+    
+    /**
+     * Waits until the size and modification time of a file stay unchanged for the settle time.
+     * 
+     * @param file the file to wait for
+     * @return true if the file settled, false if it disappeared or the daemon is stopping
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private boolean awaitSettled(Path file) throws InterruptedException {
+        long size = -1;
+        long modified = -1;
+        while (running) {
+            try {
+                long currentSize = Files.size(file);
+                long currentModified = Files.getLastModifiedTime(file).toMillis();
+                if (currentSize == size && currentModified == modified) {
+                    return true;
+                }
+                size = currentSize;
+                modified = currentModified;
+            } catch (IOException e) {
+                // The file was removed before it could be processed
+                return false;
+            }
+            Thread.sleep(settleMillis);
+        }
+        return false;
+    }
+    
+    /**
+     * Moves a processed file atomically into a directory under a timestamped name.
+     * 
+     * @param file the file in the inbox
+     * @param directory the directory to move it to
+     * @return true if the file was moved, false if it is still in the inbox
+     */
+    private static boolean archive(Path file, Path directory) {
+        Path target = directory.resolve(ARCHIVE_TIMESTAMP.format(LocalDateTime.now()) + "_" + file.getFileName());
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error: Failed moving " + file + " to " + directory + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Publishes the daemon through the platform MBean server.
+     * 
+     * @return the name it was registered under, or null if it could not be registered
+     */
+    private ObjectName register() {
+        try {
+            ObjectName name = new ObjectName("org.howard.edu.lsp.assignment3:type=PipelineDaemon,inbox="
+                + ObjectName.quote(inbox.toAbsolutePath().toString()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            return name;
+        } catch (JMException e) {
+            System.err.println("Warning: Failed publishing daemon metrics: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Removes the daemon from the platform MBean server.
+     * 
+     * @param name the name it was registered under, or null
+     */
+    private static void unregister(ObjectName name) {
+        if (name == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            // Already gone
+        }
+    }
+    
+    /**
+     * Gets the number of files processed successfully.
+     * 
+     * @return the number of processed files
+     */
+    @Override
+    public long getFilesProcessed() {
+        return filesProcessed.sum();
+    }
+    
+    /**
+     * Gets the number of files whose run failed.
+     * 
+     * @return the number of failed files
+     */
+    @Override
+    public long getFilesFailed() {
+        return filesFailed.sum();
+    }
+    
+    /**
+     * Gets the number of files waiting to be processed.
+     * 
+     * @return the queue length
+     */
+    @Override
+    public int getQueueLength() {
+        return queue.size();
+    }
+    
+    /**
+     * Gets the number of rows read from all files.
+     * 
+     * @return the total rows read
+     */
+    @Override
+    public long getRowsRead() {
+        return totals.getRowsRead();
+    }
+    
+    /**
+     * Gets the number of products transformed from all files.
+     * 
+     * @return the total products transformed
+     */
+    @Override
+    public long getTransformed() {
+        return totals.getTransformed();
+    }
+    
+    /**
+     * Gets the number of rows skipped in all files.
+     * 
+     * @return the total rows skipped
+     */
+    @Override
+    public long getSkipped() {
+        return totals.getSkipped();
+    }
+    
+    /**
+     * Gets the name of the last file processed.
+     * 
+     * @return the file name, or an empty string if no file was processed yet
+     */
+    @Override
+    public String getLastFile() {
+        FileResult result = lastResult;
+        return result == null ? "" : result.getInputPath().getFileName().toString();
+    }
+    
+    /**
+     * Checks whether the run of the last file processed succeeded.
+     * 
+     * @return true if the last run succeeded, false otherwise
+     */
+    @Override
+    public boolean isLastFileSuccessful() {
+        FileResult result = lastResult;
+        return result != null && result.isSuccessful();
+    }
+    
+    /**
+     * Gets the number of rows read from the last file processed.
+     * 
+     * @return the rows read
+     */
+    @Override
+    public long getLastFileRowsRead() {
+        FileResult result = lastResult;
+        return result == null ? 0 : result.getCounts().getRowsRead();
+    }
+    
+    /**
+     * Gets the number of products transformed from the last file processed.
+     * 
+     * @return the products transformed
+     */
+    @Override
+    public long getLastFileTransformed() {
+        FileResult result = lastResult;
+        return result == null ? 0 : result.getCounts().getTransformed();
+    }
+    
+    /**
+     * Gets the number of rows skipped in the last file processed.
+     * 
+     * @return the rows skipped
+     */
+    @Override
+    public long getLastFileSkipped() {
+        FileResult result = lastResult;
+        return result == null ? 0 : result.getCounts().getSkipped();
+    }
+    
+    /**
+     * Gets the wall time of the run of the last file processed.
+     * 
+     * @return the wall time in milliseconds
+     */
+    @Override
+    public long getLastFileMillis() {
+        FileResult result = lastResult;
+        return result == null ? 0 : TimeUnit.NANOSECONDS.toMillis(result.getWallNanos());
+    }
+    
+    /**
+     * Gets the glob pattern of the file names processed.
+     * 
+     * @return the pattern
+     */
+    public String getPattern() {
+        return pattern;
+    }
+    
+    /**
+     * Gets a usage message describing the supported command line options.
+     * 
+     * @return the usage message
+     */
+    public static String getUsage() {
+        return "Usage: PipelineDaemon [pipeline options] --inbox <directory> --output-dir <directory> "
+            + "--processed-dir <directory> [--pattern <glob>] [--settle-ms <n>]\n"
+            + "Pipeline options: " + PipelineOptions.getUsage().replaceFirst("^Usage: ETLPipeline ", "");
+    }
+    
+    /**
+     * Entry point of the daemon. It runs until the JVM is shut down, for example with
+     * Ctrl+C, and finishes the file being processed before exiting.
+     * 
+     * @param args the options described in the class documentation
+     */
+    public static void main(String[] args) {
+        PipelineDaemon daemon;
+        try {
+            Path inbox = null;
+            Path outputDirectory = null;
+            Path processedDirectory = null;
+            String pattern = DEFAULT_PATTERN;
+            long settleMillis = DEFAULT_SETTLE_MILLIS;
+            List<String> pipelineArgs = new ArrayList<>();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if ("--inbox".equals(arg)) {
+                    inbox = Paths.get(valueOf(args, ++i, arg));
+                } else if ("--output-dir".equals(arg)) {
+                    outputDirectory = Paths.get(valueOf(args, ++i, arg));
+                } else if ("--processed-dir".equals(arg)) {
+                    processedDirectory = Paths.get(valueOf(args, ++i, arg));
+                } else if ("--pattern".equals(arg)) {
+                    pattern = valueOf(args, ++i, arg);
+                } else if ("--settle-ms".equals(arg)) {
+                    settleMillis = Long.parseLong(valueOf(args, ++i, arg));
+                } else {
+                    pipelineArgs.add(arg);
+                }
+            }
+            if (inbox == null || outputDirectory == null || processedDirectory == null) {
+                throw new IllegalArgumentException("Options --inbox, --output-dir and --processed-dir are required");
+            }
+            daemon = new PipelineDaemon(PipelineOptions.fromArgs(pipelineArgs.toArray(new String[0])),
+                inbox, outputDirectory, processedDirectory, pattern, settleMillis);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println(getUsage());
+            System.exit(1);
+            return;
+        }
+        
+        PipelineDaemon shutdownDaemon = daemon;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            shutdownDaemon.stop();
+            try {
+                shutdownDaemon.awaitStopped(Long.MAX_VALUE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "pipeline-daemon-shutdown"));
+        
+        System.out.println("Watching " + daemon.inbox + " for " + daemon.getPattern());
+        try {
+            daemon.run();
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Gets the value that follows an option on the command line.
+     * 
+     * @param args the command line arguments
+     * @param index the index of the value
+     * @param option the option the value belongs to
+     * @return the option value
+     * @throws IllegalArgumentException if the value is missing
+     */
+    private static String valueOf(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + option);
+        }
+        return args[index];
+    }
+}
@@ -0,0 +1,96 @@
+package org.howard.edu.lsp.assignment3;
+
+/**
+ * Management interface of a {@link PipelineDaemon}, published through JMX so that the
+ * counters of the daemon and of the last file it processed can be read by monitoring
+ * tools such as JConsole while it runs.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public interface PipelineDaemonMXBean {
+    
+    /**
+     * Gets the number of files processed successfully.
+     * 
+     * @return the number of processed files
+     */
+    long getFilesProcessed();
+    
+    /**
+     * Gets the number of files whose run failed.
+     * 
+     * @return the number of failed files
+     */
+    long getFilesFailed();
+    
+    /**
+     * Gets the number of files waiting to be processed.
+     * 
+     * @return the queue length
+     */
+    int getQueueLength();
+    
+    /**
+     * Gets the number of rows read from all files.
+     * 
+     * @return the total rows read
+     */
+    long getRowsRead();
+    
+    /**
+     * Gets the number of products transformed from all files.
+     * 
+     * @return the total products transformed
+     */
+    long getTransformed();
+    
+    /**
+     * Gets the number of rows skipped in all files.
+     * 
+     * @return the total rows skipped
+     */
+    long getSkipped();
+    
+    /**
+     * Gets the name of the last file processed.
+     * 
+     * @return the file name, or an empty string if no file was processed yet
+     */
+    String getLastFile();
+    
+    /**
+     * Checks whether the run of the last file processed succeeded.
+     * 
+     * @return true if the last run succeeded, false otherwise
+     */
+    boolean isLastFileSuccessful();
+    
+    /**
+     * Gets the number of rows read from the last file processed.
+     * 
+     * @return the rows read
+     */
+    long getLastFileRowsRead();
+    
+    /**
+     * Gets the number of products transformed from the last file processed.
+     * 
+     * @return the products transformed
+     */
+    long getLastFileTransformed();
+    
+    /**
+     * Gets the number of rows skipped in the last file processed.
+     * 
+     * @return the rows skipped
+     */
+    long getLastFileSkipped();
+    
+    /**
+     * Gets the wall time of the run of the last file processed.
+     * 
+     * @return the wall time in milliseconds
+     */
+    long getLastFileMillis();
+}
@@ -0,0 +1,202 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for PipelineDaemon.
+ * Verifies that dropped files are processed, counted and moved out of the inbox.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class PipelineDaemonTest {
+    
+    @Test
+    @DisplayName("Test files dropped before and after start are processed and archived")
+    public void testDroppedFilesAreProcessed() throws Exception {
+        Path directory = Files.createTempDirectory("daemon-test");
+        Path inbox = Files.createDirectory(directory.resolve("inbox"));
+        Path outputDirectory = directory.resolve("out");
+        Path processedDirectory = directory.resolve("processed");
+        try {
+            Files.write(inbox.resolve("east.csv"), Arrays.asList("ProductID,Name,Price,Category",
+                "1,Laptop,1200.00,Electronics", "bad,row"), StandardCharsets.UTF_8);
+            
+            PipelineDaemon daemon = new PipelineDaemon(new PipelineOptions(), inbox, outputDirectory,
+                processedDirectory, PipelineDaemon.DEFAULT_PATTERN, 20);
+            Thread thread = new Thread(() -> {
+                try {
+                    daemon.run();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            thread.start();
+            
+            // Drop files the way producers should: write elsewhere, then move into the inbox
+            Path staged = directory.resolve("west.csv");
+            Files.write(staged, Arrays.asList("ProductID,Name,Price,Category",
+                "2,Chair,150.00,Furniture", "3,Mug,9.99,Kitchen"), StandardCharsets.UTF_8);
+            Files.move(staged, inbox.resolve("west.csv"), StandardCopyOption.ATOMIC_MOVE);
+            Path invalid = directory.resolve("broken.csv");
+            Files.write(invalid, new byte[] {'I', 'D', '\n', (byte) 0xC3, '\n'});
+            Files.move(invalid, inbox.resolve("broken.csv"), StandardCopyOption.ATOMIC_MOVE);
+            Files.write(inbox.resolve("notes.txt"), Arrays.asList("ignored"), StandardCharsets.UTF_8);
+            
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (daemon.getFilesProcessed() + daemon.getFilesFailed() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            daemon.stop();
+            assertTrue(daemon.awaitStopped(10_000));
+            
+            assertEquals(2, daemon.getFilesProcessed());
+            assertEquals(1, daemon.getFilesFailed());
+            assertEquals(4, daemon.getRowsRead());
+            assertEquals(3, daemon.getTransformed());
+            assertEquals(1, daemon.getSkipped());
+            assertEquals(Collections.singletonList("notes.txt"), names(inbox));
+            assertEquals(3, Files.readAllLines(outputDirectory.resolve("transformed_west.csv")).size());
+            assertEquals(2, Files.readAllLines(outputDirectory.resolve("transformed_east.csv")).size());
+            assertEquals(3, names(processedDirectory).size());
+            assertEquals(1, names(processedDirectory.resolve(PipelineDaemon.FAILED_DIRECTORY)).size());
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                List<Path> all = new ArrayList<>();
+                paths.forEach(all::add);
+                Collections.reverse(all);
+                for (Path path : all) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Test a later drop with the same name replaces the output only if its run succeeds")
+    public void testSameNameDropReplacesOutput() throws Exception {
+        Path directory = Files.createTempDirectory("daemon-test");
+        Path inbox = Files.createDirectory(directory.resolve("inbox"));
+        Path outputDirectory = directory.resolve("out");
+        Path processedDirectory = directory.resolve("processed");
+        Path output = outputDirectory.resolve("transformed_east.csv");
+        try {
+            PipelineOptions checkpointed = new PipelineOptions();
+            checkpointed.setCheckpointing(true);
+            assertThrows(IllegalArgumentException.class, () -> new PipelineDaemon(checkpointed, inbox,
+                outputDirectory, processedDirectory, PipelineDaemon.DEFAULT_PATTERN, 20));
+            
+            PipelineDaemon daemon = new PipelineDaemon(new PipelineOptions(), inbox, outputDirectory,
+                processedDirectory, PipelineDaemon.DEFAULT_PATTERN, 20);
+            Thread thread = new Thread(() -> {
+                try {
+                    daemon.run();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            thread.start();
+            
+            Path staged = directory.resolve("east.csv");
+            Files.write(staged, Arrays.asList("ProductID,Name,Price,Category",
+                "1,Laptop,1200.00,Electronics"), StandardCharsets.UTF_8);
+            Files.move(staged, inbox.resolve("east.csv"), StandardCopyOption.ATOMIC_MOVE);
+            awaitFiles(daemon, 1);
+            assertEquals(2, Files.readAllLines(output).size());
+            
+            Files.write(staged, Arrays.asList("ProductID,Name,Price,Category",
+                "2,Chair,150.00,Furniture", "3,Mug,9.99,Kitchen"), StandardCharsets.UTF_8);
+            Files.move(staged, inbox.resolve("east.csv"), StandardCopyOption.ATOMIC_MOVE);
+            awaitFiles(daemon, 2);
+            byte[] replaced = Files.readAllBytes(output);
+            assertEquals(3, Files.readAllLines(output).size());
+            
+            // A run that fails after reading some rows leaves the previous output as it was
+            Files.write(staged, new byte[] {'I', 'D', '\n', '4', ',', 'A', ',', '1', ',', 'B', '\n', (byte) 0xC3, '\n'});
+            Files.move(staged, inbox.resolve("east.csv"), StandardCopyOption.ATOMIC_MOVE);
+            awaitFiles(daemon, 3);
+            daemon.stop();
+            assertTrue(daemon.awaitStopped(10_000));
+            
+            assertEquals(2, daemon.getFilesProcessed());
+            assertEquals(1, daemon.getFilesFailed());
+            assertArrayEquals(replaced, Files.readAllBytes(output));
+            assertEquals(Collections.singletonList("transformed_east.csv"), names(outputDirectory));
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                List<Path> all = new ArrayList<>();
+                paths.forEach(all::add);
+                Collections.reverse(all);
+                for (Path path : all) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Test output and processed directories in the inbox are rejected")
+    public void testDirectoriesInsideInboxRejected() {
+        Path inbox = Paths.get("data", "inbox");
+        Path elsewhere = Paths.get("data", "out");
+        Path[] insideInbox = {inbox, inbox.resolve("out"), Paths.get("data", ".", "inbox"), inbox.toAbsolutePath()};
+        
+        for (Path directory : insideInbox) {
+            assertThrows(IllegalArgumentException.class, () -> new PipelineDaemon(new PipelineOptions(), inbox,
+                directory, elsewhere, PipelineDaemon.DEFAULT_PATTERN, 0), directory.toString());
+            assertThrows(IllegalArgumentException.class, () -> new PipelineDaemon(new PipelineOptions(), inbox,
+                elsewhere, directory, PipelineDaemon.DEFAULT_PATTERN, 0), directory.toString());
+        }
+        new PipelineDaemon(new PipelineOptions(), inbox, elsewhere, Paths.get("data", "inbox-done"),
+            PipelineDaemon.DEFAULT_PATTERN, 0);
+    }
+    
+    /**
+     * Waits until the daemon has finished a number of files, successfully or not.
+     * 
+     * @param daemon the daemon
+     * @param files the number of files
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    private static void awaitFiles(PipelineDaemon daemon, long files) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (daemon.getFilesProcessed() + daemon.getFilesFailed() < files && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(files, daemon.getFilesProcessed() + daemon.getFilesFailed());
+    }
+    
+    /**
+     * Lists the names of the entries of a directory in name order.
+     * 
+     * @param directory the directory to list
+     * @return the entry names
+     * @throws IOException if the directory cannot be read
+     */
+    private static List<String> names(Path directory) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                names.add(entry.getFileName().toString());
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+}
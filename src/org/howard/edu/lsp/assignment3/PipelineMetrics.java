@@ -0,0 +1,392 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects timing and resource metrics of a pipeline run: the wall time of the run and
+ * of each phase, the bytes read and written, the garbage collections, the bytes allocated
+ * by the thread that ran the pipeline, and a histogram of the time taken to transform each batch.
+ * Garbage collection counts are sampled from the {@link GarbageCollectorMXBean}s and
+ * allocation from the {@link ThreadMXBean} when {@link #start()} and {@link #stop()}
+ * are called. Phase times and batch latencies can be recorded from several threads.
+ * 
+ * <p>Allocation is counted for the thread that called {@link #start()} only, which is why
+ * it is reported as {@code pipelineThreadAllocatedBytes}. Worker threads of parallel
+ * extraction, transformation and compression are not included, as they may have finished
+ * and no longer be reported by the JVM when the run stops.</p>
+ * 
+ * <p>When the phases of a run overlap, as in streaming and columnar modes, the
+ * transform and load times are the sums of the time spent transforming and writing
+ * each row or batch, and the extract time is the rest of the wall time.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class PipelineMetrics {
+    
+    /**
+     * A phase of the pipeline.
+     */
+    public enum Phase {
+        /** Reading and parsing the input file */
+        EXTRACT,
+        /** Applying the business rules */
+        TRANSFORM,
+        /** Writing the output file */
+        LOAD
+    }
+    
+    /** Value reported when a metric is not supported by the JVM */
+    public static final long UNAVAILABLE = -1;
+    
+    /** Time spent in each phase, indexed by phase ordinal */
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    
+    /** Time taken to transform each batch */
+    private final LatencyHistogram transformLatency = new LatencyHistogram();
+    
+    /** Whether the run has been started and not yet stopped */
+    private volatile boolean running;
+    
+    /** Value of {@link System#nanoTime()} when the run started */
+    private long startNanos;
+    
+    /** Wall time of the run, set when it stops */
+    private long wallNanos;
+    
+    /** Garbage collections counted by the JVM when the run started */
+    private long startGcCount;
+    
+    /** Garbage collection time in milliseconds reported by the JVM when the run started */
+    private long startGcMillis;
+    
+    /** Bytes allocated by the calling thread when the run started */
+    private long startAllocatedBytes;
+    
+    /** Garbage collections during the run */
+    private long gcCount;
+    
+    /** Garbage collection time in milliseconds during the run */
+    private long gcMillis;
+    
+    /** Bytes allocated by the thread that started the run, during the run */
+    private long pipelineThreadAllocatedBytes = UNAVAILABLE;
+    
+    /** Number of bytes read from the input file */
+    private long bytesRead;
+    
+    /** Number of bytes written to the output file */
+    private long bytesWritten;
+    
+    /**
+     * Constructs a new PipelineMetrics with all metrics set to zero.
+     */
+    public PipelineMetrics() {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Starts a run: clears all metrics and samples the garbage collection and
+     * allocation counters.
+     */
+    public void start() {
+        reset();
+        startGcCount = sampleGcCount();
+        startGcMillis = sampleGcMillis();
+        startAllocatedBytes = sampleAllocatedBytes();
+        startNanos = System.nanoTime();
+        running = true;
+    }
+    
+    /**
+     * Stops the run started by {@link #start()}, which must be called on the same thread,
+     * and records the wall time and the garbage collections and allocation of the run.
+     */
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        wallNanos = System.nanoTime() - startNanos;
+        gcCount = sampleGcCount() - startGcCount;
+        gcMillis = sampleGcMillis() - startGcMillis;
+        long endAllocatedBytes = sampleAllocatedBytes();
+        pipelineThreadAllocatedBytes = startAllocatedBytes == UNAVAILABLE || endAllocatedBytes == UNAVAILABLE
+            ? UNAVAILABLE
+            : endAllocatedBytes - startAllocatedBytes;
+        running = false;
+    }
+    
+    /**
+     * Checks whether a run has been started and not yet stopped. Components that time
+     * their own work record it only while a run is in progress.
+     * 
+     * @return true if a run is in progress, false otherwise
+     */
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Adds time spent in a phase.
+     * 
+     * @param phase the phase
+     * @param nanos the time in nanoseconds
+     */
+    public void addPhaseNanos(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()].add(nanos);
+    }
+    
+    /**
+     * Records the time taken to transform one batch and adds it to the transform phase.
+     * 
+     * @param nanos the time in nanoseconds
+     */
+    public void recordTransformBatch(long nanos) {
+        transformLatency.record(nanos);
+        addPhaseNanos(Phase.TRANSFORM, nanos);
+    }
+    
+    /**
+     * Gets the time spent in a phase.
+     * 
+     * @param phase the phase
+     * @return the time in nanoseconds
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()].sum();
+    }
+    
+    /**
+     * Gets the histogram of the time taken to transform each batch.
+     * 
+     * @return the transform latency histogram
+     */
+    public LatencyHistogram getTransformLatency() {
+        return transformLatency;
+    }
+    
+    /**
+     * Gets the wall time of the last completed run.
+     * 
+     * @return the wall time in nanoseconds
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+    
+    /**
+     * Gets the number of rows processed per second of wall time.
+     * 
+     * @param rows the number of rows processed
+     * @return the rows per second, or 0 if no wall time was recorded
+     */
+    public double getRowsPerSecond(long rows) {
+        return wallNanos == 0 ? 0 : rows * 1e9 / wallNanos;
+    }
+    
+    /**
+     * Gets the number of garbage collections during the last completed run.
+     * 
+     * @return the number of collections
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+    
+    /**
+     * Gets the time spent in garbage collection during the last completed run.
+     * 
+     * @return the collection time in milliseconds
+     */
+    public long getGcMillis() {
+        return gcMillis;
+    }
+    
+    /**
+     * Gets the number of bytes allocated by the single thread that ran the pipeline during
+     * the last completed run. Allocation by worker threads is not included, so runs with
+     * several extract, transform or compress threads allocate more than this reports.
+     * 
+     * @return the allocated bytes, or {@link #UNAVAILABLE} if the JVM does not report them
+     */
+    public long getPipelineThreadAllocatedBytes() {
+        return pipelineThreadAllocatedBytes;
+    }
+    
+    /**
+     * Gets the number of bytes read from the input file.
+     * 
+     * @return the bytes read
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+    
+    /**
+     * Sets the number of bytes read from the input file.
+     * 
+     * @param bytesRead the bytes read
+     */
+    public void setBytesRead(long bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+    
+    /**
+     * Gets the number of bytes written to the output file.
+     * 
+     * @return the bytes written
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+    
+    /**
+     * Sets the number of bytes written to the output file.
+     * 
+     * @param bytesWritten the bytes written
+     */
+    public void setBytesWritten(long bytesWritten) {
+        this.bytesWritten = bytesWritten;
+    }
+    
+    /**
+     * Clears all metrics.
+     */
+    public void reset() {
+        for (LongAdder nanos : phaseNanos) {
+            nanos.reset();
+        }
+        transformLatency.reset();
+        running = false;
+        wallNanos = 0;
+        gcCount = 0;
+        gcMillis = 0;
+        pipelineThreadAllocatedBytes = UNAVAILABLE;
+        bytesRead = 0;
+        bytesWritten = 0;
+    }
+    
+    /**
+     * Formats the metrics and the given counts as a JSON object.
+     * 
+     * @param counts the row counts of the run
+     * @return the JSON text, ending with a line separator
+     */
+    public String toJson(StatisticsSnapshot counts) {
+        String nl = System.lineSeparator();
+        StringBuilder json = new StringBuilder();
+        json.append('{').append(nl);
+        appendField(json, "rowsRead", counts.getRowsRead());
+        appendField(json, "transformed", counts.getTransformed());
+        appendField(json, "skipped", counts.getSkipped());
+        
+        json.append("  \"skippedByReason\": {");
+        RejectReason[] reasons = RejectReason.values();
+        for (int i = 0; i < reasons.length; i++) {
+            json.append(i == 0 ? "" : ", ")
+                .append('"').append(reasons[i].name().toLowerCase(Locale.ROOT)).append("\": ")
+                .append(counts.getSkipped(reasons[i]));
+        }
+        json.append("},").append(nl);
+        
+        appendField(json, "writeSuccessful", counts.isWriteSuccessful());
+        appendField(json, "wallTimeNanos", wallNanos);
+        appendField(json, "rowsPerSecond", String.format(Locale.ROOT, "%.1f", getRowsPerSecond(counts.getRowsRead())));
+        appendField(json, "bytesRead", bytesRead);
+        appendField(json, "bytesWritten", bytesWritten);
+        appendField(json, "gcCount", gcCount);
+        appendField(json, "gcTimeMillis", gcMillis);
+        appendField(json, "pipelineThreadAllocatedBytes", pipelineThreadAllocatedBytes);
+        
+        json.append("  \"phaseNanos\": {");
+        Phase[] phases = Phase.values();
+        for (int i = 0; i < phases.length; i++) {
+            json.append(i == 0 ? "" : ", ")
+                .append('"').append(phases[i].name().toLowerCase(Locale.ROOT)).append("\": ")
+                .append(getPhaseNanos(phases[i]));
+        }
+        json.append("},").append(nl);
+        
+        LatencyHistogram latency = transformLatency;
+        json.append("  \"transformBatchNanos\": {")
+            .append("\"count\": ").append(latency.getCount())
+            .append(", \"sum\": ").append(latency.getSumNanos())
+            .append(", \"max\": ").append(latency.getMaxNanos())
+            .append(", \"p50\": ").append(latency.getPercentileNanos(50))
+            .append(", \"p90\": ").append(latency.getPercentileNanos(90))
+            .append(", \"p99\": ").append(latency.getPercentileNanos(99))
+            .append(", \"buckets\": [");
+        boolean first = true;
+        for (int i = 0; i < LatencyHistogram.getBucketCount(); i++) {
+            long bucket = latency.getBucket(i);
+            if (bucket != 0) {
+                json.append(first ? "" : ", ")
+                    .append("{\"lt\": ").append(LatencyHistogram.getBucketUpperBound(i))
+                    .append(", \"count\": ").append(bucket).append('}');
+                first = false;
+            }
+        }
+        json.append("]}").append(nl);
+        json.append('}').append(nl);
+        return json.toString();
+    }
+    
+    /**
+     * Appends a JSON field followed by a comma.
+     * 
+     * @param json the JSON text to append to
+     * @param name the field name
+     * @param value the field value, written as is
+     */
+    private static void appendField(StringBuilder json, String name, Object value) {
+        json.append("  \"").append(name).append("\": ").append(value).append(',').append(System.lineSeparator());
+    }
+    
+    /**
+     * Sums the collection counts of all garbage collectors.
+     * 
+     * @return the number of collections
+     */
+    private static long sampleGcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(collector.getCollectionCount(), 0);
+        }
+        return total;
+    }
+    
+    /**
+     * Sums the collection times of all garbage collectors.
+     * 
+     * @return the collection time in milliseconds
+     */
+    private static long sampleGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(collector.getCollectionTime(), 0);
+        }
+        return total;
+    }
+    
+    /**
+     * Gets the number of bytes allocated so far by the calling thread.
+     * 
+     * @return the allocated bytes, or {@link #UNAVAILABLE} if the JVM does not report them
+     */
+    private static long sampleAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+            if (allocation.isThreadAllocatedMemorySupported() && allocation.isThreadAllocatedMemoryEnabled()) {
+                return allocation.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return UNAVAILABLE;
+    }
+}
@@ -0,0 +1,727 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Holds the configurable options of an ETL pipeline run.
+ * The defaults reproduce the original behaviour: the whole input file is
+ * extracted into memory, transformed, and then written out.
+ * Options can be set programmatically or parsed from command line arguments.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class PipelineOptions {
+    
+    /** Command line flag that enables streaming mode */
+    private static final String STREAMING_FLAG = "--streaming";
+    
+    /** Command line flag that enables the memory-mapped extractor */
+    private static final String MMAP_FLAG = "--mmap";
+    
+    /** Command line flag that enables fixed-point prices */
+    private static final String FIXED_POINT_FLAG = "--fixed-point";
+    
+    /** Command line flag that enables columnar batch processing */
+    private static final String COLUMNAR_FLAG = "--columnar";
+    
+    /** Command line flag that enables writing on a separate writer thread */
+    private static final String ASYNC_WRITE_FLAG = "--async-write";
+    
+    /** Command line flag that enables per-phase metrics and the metrics summary file */
+    private static final String METRICS_FLAG = "--metrics";
+    
+    /** Command line flag that enables incremental runs against the previous output */
+    private static final String INCREMENTAL_FLAG = "--incremental";
+    
+    /** Command line flag that enables periodic checkpoints */
+    private static final String CHECKPOINT_FLAG = "--checkpoint";
+    
+    /** Command line flag that resumes an interrupted checkpointed run */
+    private static final String RESUME_FLAG = "--resume";
+    
+    /** Command line flag that writes the default output in the binary columnar format */
+    private static final String BINARY_FLAG = "--binary";
+    
+    /** Command line flag that writes rejected rows to a quarantine file */
+    private static final String QUARANTINE_FLAG = "--quarantine";
+    
+    /** Command line flag that writes price aggregates by category and price range */
+    private static final String AGGREGATES_FLAG = "--aggregates";
+    
+    /** Command line option that sets the checkpoint interval in megabytes of input */
+    private static final String CHECKPOINT_INTERVAL_OPTION = "--checkpoint-interval";
+    
+    /** Command line option that sets the number of extract threads */
+    private static final String EXTRACT_THREADS_OPTION = "--extract-threads";
+    
+    /** Command line option that sets the number of transform threads */
+    private static final String THREADS_OPTION = "--threads";
+    
+    /** Command line option that sets the number of threads compressing gzip output */
+    private static final String COMPRESS_THREADS_OPTION = "--compress-threads";
+    
+    /** Command line option that sorts the output by a key */
+    private static final String SORT_OPTION = "--sort";
+    
+    /** Command line option that sets the memory budget of the sort in megabytes */
+    private static final String SORT_MEMORY_OPTION = "--sort-memory";
+    
+    /** Command line option that drops rows with duplicated product ids */
+    private static final String DUPLICATES_OPTION = "--duplicates";
+    
+    /** Command line option that loads the business rules from a rule file */
+    private static final String RULES_OPTION = "--rules";
+    
+    /** Whether rows stream from the reader to the writer one at a time */
+    private boolean streaming;
+    
+    /** Number of threads used to apply the business rules */
+    private int transformThreads;
+    
+    /** Whether the input file is memory-mapped and scanned as bytes */
+    private boolean memoryMapped;
+    
+    /** Number of threads used to parse the input file */
+    private int extractThreads;
+    
+    /** Whether prices are held as long cents where possible */
+    private boolean fixedPointPrices;
+    
+    /** Whether rows flow through the pipeline in columnar batches */
+    private boolean columnar;
+    
+    /** Whether output is written on a separate writer thread */
+    private boolean asyncWrite;
+    
+    /** Whether per-phase metrics are collected and written next to the output file */
+    private boolean metrics;
+    
+    /** Whether only rows changed since the previous run are transformed */
+    private boolean incremental;
+    
+    /** Whether checkpoints are saved periodically during the run */
+    private boolean checkpointing;
+    
+    /** Whether the run resumes from the last checkpoint of an interrupted run */
+    private boolean resume;
+    
+    /** Number of input bytes processed between checkpoints */
+    private long checkpointInterval;
+    
+    /** Number of threads used to compress gzip output */
+    private int compressThreads;
+    
+    /** Whether the default output is written in the binary columnar format */
+    private boolean binaryOutput;
+    
+    /** Whether rejected rows are written to a quarantine file next to the output file */
+    private boolean quarantine;
+    
+    /** Whether price aggregates are written to a file next to the output file */
+    private boolean aggregates;
+    
+    /** Key the output is sorted by, or null to keep the input order */
+    private SortKey sortKey;
+    
+    /** Memory budget of the sort in bytes */
+    private long sortMemory;
+    
+    /** What is done with rows whose product id appears more than once, or null to keep them all */
+    private DuplicatePolicy duplicatePolicy;
+    
+    /** Business rules applied to every product */
+    private RuleSet rules;
+    
+    /**
+     * Constructs a new PipelineOptions with all options set to their defaults.
+     */
+    public PipelineOptions() {
+        this.streaming = false;
+        this.transformThreads = 1;
+        this.memoryMapped = false;
+        this.extractThreads = 1;
+        this.fixedPointPrices = false;
+        this.columnar = false;
+        this.asyncWrite = false;
+        this.metrics = false;
+        this.incremental = false;
+        this.checkpointing = false;
+        this.resume = false;
+        this.checkpointInterval = CheckpointedProcessor.DEFAULT_INTERVAL;
+        this.compressThreads = 1;
+        this.binaryOutput = false;
+        this.quarantine = false;
+        this.aggregates = false;
+        this.sortKey = null;
+        this.sortMemory = ExternalSorter.DEFAULT_MEMORY_BUDGET;
+        this.duplicatePolicy = null;
+        this.rules = DataTransformer.getDefaultRules();
+    }
+    
+    /**
+     * Parses pipeline options from command line arguments.
+     * 
+     * @param args the command line arguments
+     * @return the parsed options
+     * @throws IllegalArgumentException if an argument is not recognized or the rule file
+     *         cannot be loaded
+     */
+    public static PipelineOptions fromArgs(String[] args) {
+        PipelineOptions options = new PipelineOptions();
+        
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (STREAMING_FLAG.equals(arg)) {
+                options.setStreaming(true);
+            } else if (MMAP_FLAG.equals(arg)) {
+                options.setMemoryMapped(true);
+            } else if (FIXED_POINT_FLAG.equals(arg)) {
+                options.setFixedPointPrices(true);
+            } else if (COLUMNAR_FLAG.equals(arg)) {
+                options.setColumnar(true);
+            } else if (ASYNC_WRITE_FLAG.equals(arg)) {
+                options.setAsyncWrite(true);
+            } else if (METRICS_FLAG.equals(arg)) {
+                options.setMetrics(true);
+            } else if (INCREMENTAL_FLAG.equals(arg)) {
+                options.setIncremental(true);
+            } else if (CHECKPOINT_FLAG.equals(arg)) {
+                options.setCheckpointing(true);
+            } else if (RESUME_FLAG.equals(arg)) {
+                options.setResume(true);
+            } else if (BINARY_FLAG.equals(arg)) {
+                options.setBinaryOutput(true);
+            } else if (QUARANTINE_FLAG.equals(arg)) {
+                options.setQuarantine(true);
+            } else if (AGGREGATES_FLAG.equals(arg)) {
+                options.setAggregates(true);
+            } else if (CHECKPOINT_INTERVAL_OPTION.equals(arg)) {
+                options.setCheckpointing(true);
+                options.setCheckpointInterval(parsePositiveInt(arg, valueOf(args, ++i, arg)) * 1024L * 1024L);
+            } else if (EXTRACT_THREADS_OPTION.equals(arg)) {
+                options.setExtractThreads(parsePositiveInt(arg, valueOf(args, ++i, arg)));
+            } else if (THREADS_OPTION.equals(arg)) {
+                options.setTransformThreads(parsePositiveInt(arg, valueOf(args, ++i, arg)));
+            } else if (COMPRESS_THREADS_OPTION.equals(arg)) {
+                options.setCompressThreads(parsePositiveInt(arg, valueOf(args, ++i, arg)));
+            } else if (SORT_OPTION.equals(arg)) {
+                options.setSortKey(SortKey.fromOptionName(valueOf(args, ++i, arg)));
+            } else if (SORT_MEMORY_OPTION.equals(arg)) {
+                options.setSortMemory(parsePositiveInt(arg, valueOf(args, ++i, arg)) * 1024L * 1024L);
+            } else if (DUPLICATES_OPTION.equals(arg)) {
+                options.setDuplicatePolicy(DuplicatePolicy.fromOptionName(valueOf(args, ++i, arg)));
+            } else if (RULES_OPTION.equals(arg)) {
+                options.setRules(loadRules(valueOf(args, ++i, arg)));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        
+        return options;
+    }
+    
+    /**
+     * Gets the value that follows an option on the command line.
+     * 
+     * @param args the command line arguments
+     * @param index the index of the value
+     * @param option the option the value belongs to
+     * @return the option value
+     * @throws IllegalArgumentException if the value is missing
+     */
+    private static String valueOf(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + option);
+        }
+        return args[index];
+    }
+    
+    /**
+     * Parses a positive integer option value.
+     * 
+     * @param option the option the value belongs to
+     * @param value the value to parse
+     * @return the parsed value
+     * @throws IllegalArgumentException if the value is not a positive integer
+     */
+    private static int parsePositiveInt(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Option " + option + " expects a positive integer, got: " + value);
+    }
+    
+    /**
+     * Loads the rule file given on the command line.
+     * 
+     * @param value the path of the rule file
+     * @return the rule set
+     * @throws IllegalArgumentException if the file cannot be read or is not a valid rule file
+     */
+    private static RuleSet loadRules(String value) {
+        try {
+            return RuleSet.load(Paths.get(value));
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("Rule file not found: " + value, e);
+        } catch (IOException | InvalidPathException e) {
+            throw new IllegalArgumentException("Option " + RULES_OPTION + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Checks whether streaming mode is enabled.
+     * In streaming mode each row flows from the reader through validation and
+     * transformation into the writer before the next row is read, so heap use
+     * stays constant regardless of the input size. The output is identical.
+     * 
+     * @return true if streaming mode is enabled, false otherwise
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+    
+    /**
+     * Enables or disables streaming mode.
+     * 
+     * @param streaming true to stream rows one at a time, false to process the file in memory
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+    
+    /**
+     * Gets the number of threads used to apply the business rules.
+     * With more than one thread the transform phase runs on a {@link ParallelTransformEngine};
+     * in streaming mode rows are then transformed in small bounded batches.
+     * 
+     * @return the number of transform threads
+     */
+    public int getTransformThreads() {
+        return transformThreads;
+    }
+    
+    /**
+     * Sets the number of threads used to apply the business rules.
+     * 
+     * @param transformThreads the number of transform threads, at least 1
+     * @throws IllegalArgumentException if transformThreads is less than 1
+     */
+    public void setTransformThreads(int transformThreads) {
+        if (transformThreads < 1) {
+            throw new IllegalArgumentException("Transform threads must be at least 1");
+        }
+        this.transformThreads = transformThreads;
+    }
+    
+    /**
+     * Checks whether the input file is read through the memory-mapped extractor.
+     * 
+     * @return true if {@link MappedDataExtractor} is used, false if {@link DataExtractor} is used
+     */
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+    
+    /**
+     * Selects the memory-mapped extractor or the reader-based extractor.
+     * 
+     * @param memoryMapped true to scan the mapped input bytes directly, false to read lines
+     */
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+    
+    /**
+     * Gets the number of threads used to parse the input file.
+     * With more than one thread the input is split into line-aligned byte ranges that are
+     * parsed by a {@link ParallelDataExtractor}; this implies memory-mapped extraction.
+     * 
+     * @return the number of extract threads
+     */
+    public int getExtractThreads() {
+        return extractThreads;
+    }
+    
+    /**
+     * Sets the number of threads used to parse the input file.
+     * 
+     * @param extractThreads the number of extract threads, at least 1
+     * @throws IllegalArgumentException if extractThreads is less than 1
+     */
+    public void setExtractThreads(int extractThreads) {
+        if (extractThreads < 1) {
+            throw new IllegalArgumentException("Extract threads must be at least 1");
+        }
+        this.extractThreads = extractThreads;
+    }
+    
+    /**
+     * Checks whether prices are held as long cents where possible.
+     * Fixed-point prices avoid creating BigDecimal objects while extracting, transforming
+     * and writing rows; prices that overflow or have more than two fractional digits are
+     * still held as BigDecimal values. The output is identical.
+     * 
+     * @return true if fixed-point prices are enabled, false otherwise
+     */
+    public boolean isFixedPointPrices() {
+        return fixedPointPrices;
+    }
+    
+    /**
+     * Enables or disables fixed-point prices.
+     * 
+     * @param fixedPointPrices true to hold prices as long cents where possible
+     */
+    public void setFixedPointPrices(boolean fixedPointPrices) {
+        this.fixedPointPrices = fixedPointPrices;
+    }
+    
+    /**
+     * Checks whether rows flow through the pipeline in columnar batches.
+     * In columnar mode the input is streamed in {@link ProductBatch} batches that are
+     * extracted, transformed in place and written without creating a {@link Product}
+     * per row. Prices are held as cents where possible, as with fixed-point prices.
+     * The output is identical.
+     * 
+     * @return true if columnar mode is enabled, false otherwise
+     */
+    public boolean isColumnar() {
+        return columnar;
+    }
+    
+    /**
+     * Enables or disables columnar mode.
+     * 
+     * @param columnar true to process rows in columnar batches
+     */
+    public void setColumnar(boolean columnar) {
+        this.columnar = columnar;
+    }
+    
+    /**
+     * Checks whether output is written on a separate writer thread.
+     * The writer thread drains one output buffer while the pipeline fills the other,
+     * so transforming and writing overlap. The output is identical.
+     * 
+     * @return true if asynchronous writing is enabled, false otherwise
+     */
+    public boolean isAsyncWrite() {
+        return asyncWrite;
+    }
+    
+    /**
+     * Enables or disables writing on a separate writer thread.
+     * 
+     * @param asyncWrite true to write output asynchronously
+     */
+    public void setAsyncWrite(boolean asyncWrite) {
+        this.asyncWrite = asyncWrite;
+    }
+    
+    /**
+     * Checks whether per-phase metrics are collected.
+     * With metrics enabled the pipeline times each phase and each transformed batch,
+     * samples garbage collection and allocation counts, prints the wall time and
+     * throughput, and writes a JSON summary next to the output file. The output is identical.
+     * 
+     * @return true if metrics are enabled, false otherwise
+     */
+    public boolean isMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Enables or disables per-phase metrics.
+     * 
+     * @param metrics true to collect metrics and write the metrics summary
+     */
+    public void setMetrics(boolean metrics) {
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Checks whether runs are incremental.
+     * An incremental run compares each input row with an index saved by the previous run
+     * and copies the output rows of unchanged products instead of transforming them again;
+     * see {@link IncrementalProcessor}. Rows are read by the line-based extractor and
+     * written one at a time, so the streaming, columnar and thread options do not apply.
+     * The output and the counters are identical.
+     * 
+     * @return true if incremental runs are enabled, false otherwise
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+    
+    /**
+     * Enables or disables incremental runs.
+     * 
+     * @param incremental true to reprocess only rows changed since the previous run
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+    
+    /**
+     * Checks whether checkpoints are saved periodically during the run.
+     * A checkpointed run records after every checkpoint interval how far it has got, so
+     * that an interrupted run can be resumed; see {@link CheckpointedProcessor}. Rows are
+     * read by the memory-mapped extractor and written one at a time, so the streaming,
+     * columnar, asynchronous write and thread options do not apply. Resuming implies
+     * checkpointing. The output and the counters are identical.
+     * 
+     * @return true if checkpoints are saved, false otherwise
+     */
+    public boolean isCheckpointing() {
+        return checkpointing || resume;
+    }
+    
+    /**
+     * Enables or disables periodic checkpoints.
+     * 
+     * @param checkpointing true to save checkpoints during the run
+     */
+    public void setCheckpointing(boolean checkpointing) {
+        this.checkpointing = checkpointing;
+    }
+    
+    /**
+     * Checks whether the run resumes from the last checkpoint of an interrupted run.
+     * Without a usable checkpoint the run starts from the beginning.
+     * 
+     * @return true if the run resumes, false otherwise
+     */
+    public boolean isResume() {
+        return resume;
+    }
+    
+    /**
+     * Enables or disables resuming from the last checkpoint.
+     * 
+     * @param resume true to resume an interrupted run
+     */
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+    
+    /**
+     * Gets the number of input bytes processed between checkpoints.
+     * 
+     * @return the checkpoint interval in bytes
+     */
+    public long getCheckpointInterval() {
+        return checkpointInterval;
+    }
+    
+    /**
+     * Sets the number of input bytes processed between checkpoints.
+     * 
+     * @param checkpointInterval the checkpoint interval in bytes, at least 1
+     * @throws IllegalArgumentException if checkpointInterval is less than 1
+     */
+    public void setCheckpointInterval(long checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1 byte");
+        }
+        this.checkpointInterval = checkpointInterval;
+    }
+    
+    /**
+     * Gets the number of threads used to compress the output when its file name ends in
+     * {@value CompressedFiles#GZIP_EXTENSION}. With more than one thread the output is
+     * compressed in independent blocks on a {@link ParallelGzipChannel}.
+     * 
+     * @return the number of compression threads
+     */
+    public int getCompressThreads() {
+        return compressThreads;
+    }
+    
+    /**
+     * Sets the number of threads used to compress gzip output.
+     * 
+     * @param compressThreads the number of compression threads, at least 1
+     * @throws IllegalArgumentException if compressThreads is less than 1
+     */
+    public void setCompressThreads(int compressThreads) {
+        if (compressThreads < 1) {
+            throw new IllegalArgumentException("Compression threads must be at least 1");
+        }
+        this.compressThreads = compressThreads;
+    }
+    
+    /**
+     * Checks whether rejected rows are written to a quarantine file.
+     * The pipeline then writes every rejected row with its line number and reject reason
+     * to a file next to the output file, on a separate writer thread, and prints the
+     * number of rows skipped for each reason; see {@link QuarantineWriter}. Checkpointed
+     * runs cannot resume a quarantine file, so they do not support it. The output and the
+     * counters are identical.
+     * 
+     * @return true if rejected rows are quarantined, false otherwise
+     */
+    public boolean isQuarantine() {
+        return quarantine;
+    }
+    
+    /**
+     * Enables or disables the quarantine file.
+     * 
+     * @param quarantine true to write rejected rows to a quarantine file
+     */
+    public void setQuarantine(boolean quarantine) {
+        this.quarantine = quarantine;
+    }
+    
+    /**
+     * Checks whether price aggregates are written next to the output file.
+     * The transformer then computes the count, minimum, maximum, sum and mean of the
+     * final prices by category and by price range as it transforms the rows, and the
+     * pipeline writes them as a CSV file; see {@link PriceAggregates}. Incremental and
+     * checkpointed runs only transform part of the input, so they do not support it.
+     * The output is identical.
+     * 
+     * @return true if aggregates are written, false otherwise
+     */
+    public boolean isAggregates() {
+        return aggregates;
+    }
+    
+    /**
+     * Enables or disables writing price aggregates.
+     * 
+     * @param aggregates true to write price aggregates next to the output file
+     */
+    public void setAggregates(boolean aggregates) {
+        this.aggregates = aggregates;
+    }
+    
+    /**
+     * Checks whether the default output is written in the binary columnar format.
+     * The pipeline then writes {@link ETLPipeline#getDefaultBinaryOutputPath()} instead of
+     * the default CSV file. Explicit output paths choose their format by their extension.
+     * 
+     * @return true if the default output is binary, false otherwise
+     */
+    public boolean isBinaryOutput() {
+        return binaryOutput;
+    }
+    
+    /**
+     * Enables or disables writing the default output in the binary columnar format.
+     * 
+     * @param binaryOutput true to write the default output as a binary file
+     */
+    public void setBinaryOutput(boolean binaryOutput) {
+        this.binaryOutput = binaryOutput;
+    }
+    
+    /**
+     * Gets the key the output is sorted by.
+     * When a key is set, transformed rows are sorted by it before they are written, with an
+     * {@link ExternalSorter} that writes sorted runs to the output directory when the rows
+     * do not fit in {@link #getSortMemory()}, so any input size can be sorted. Rows with
+     * equal keys keep their input order. Incremental and checkpointed runs do not support it.
+     * 
+     * @return the sort key, or null if the output keeps the input order
+     */
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+    
+    /**
+     * Sets the key the output is sorted by.
+     * 
+     * @param sortKey the sort key, or null to keep the input order
+     */
+    public void setSortKey(SortKey sortKey) {
+        this.sortKey = sortKey;
+    }
+    
+    /**
+     * Gets the memory budget of the sort, by default {@link ExternalSorter#DEFAULT_MEMORY_BUDGET}.
+     * 
+     * @return the memory budget in bytes
+     */
+    public long getSortMemory() {
+        return sortMemory;
+    }
+    
+    /**
+     * Sets the memory budget of the sort.
+     * 
+     * @param sortMemory the memory budget in bytes
+     * @throws IllegalArgumentException if sortMemory is less than 1
+     */
+    public void setSortMemory(long sortMemory) {
+        if (sortMemory < 1) {
+            throw new IllegalArgumentException("Sort memory must be at least 1 byte");
+        }
+        this.sortMemory = sortMemory;
+    }
+    
+    /**
+     * Gets what is done with valid rows whose product id appears more than once.
+     * When a policy is set, a {@link DuplicateFilter} drops duplicated rows between
+     * extraction and transformation and counts them as skipped. The keep-last and reject
+     * policies read the input file twice. Incremental and checkpointed runs do not support it.
+     * 
+     * @return the duplicate policy, or null if every valid row is kept
+     */
+    public DuplicatePolicy getDuplicatePolicy() {
+        return duplicatePolicy;
+    }
+    
+    /**
+     * Sets what is done with valid rows whose product id appears more than once.
+     * 
+     * @param duplicatePolicy the duplicate policy, or null to keep every valid row
+     */
+    public void setDuplicatePolicy(DuplicatePolicy duplicatePolicy) {
+        this.duplicatePolicy = duplicatePolicy;
+    }
+    
+    /**
+     * Gets the business rules applied to every product, by default
+     * {@link DataTransformer#getDefaultRules()}.
+     * 
+     * @return the rule set
+     */
+    public RuleSet getRules() {
+        return rules;
+    }
+    
+    /**
+     * Sets the business rules applied to every product.
+     * 
+     * @param rules the rule set
+     */
+    public void setRules(RuleSet rules) {
+        this.rules = Objects.requireNonNull(rules, "rules");
+    }
+    
+    /**
+     * Gets a usage message describing the supported command line options.
+     * 
+     * @return the usage message
+     */
+    public static String getUsage() {
+        return "Usage: ETLPipeline [" + STREAMING_FLAG + "] [" + MMAP_FLAG + "] [" + FIXED_POINT_FLAG + "] ["
+            + COLUMNAR_FLAG + "] [" + ASYNC_WRITE_FLAG + "] [" + METRICS_FLAG + "] [" + INCREMENTAL_FLAG + "] ["
+            + CHECKPOINT_FLAG + "] [" + RESUME_FLAG + "] [" + BINARY_FLAG + "] [" + QUARANTINE_FLAG + "] ["
+            + AGGREGATES_FLAG + "] [" + CHECKPOINT_INTERVAL_OPTION + " <MB>] [" + EXTRACT_THREADS_OPTION + " <n>] [" + THREADS_OPTION + " <n>] ["
+            + COMPRESS_THREADS_OPTION + " <n>] [" + SORT_OPTION + " <productId|price|category>] ["
+            + SORT_MEMORY_OPTION + " <MB>] [" + DUPLICATES_OPTION + " <keep-first|keep-last|reject>] ["
+            + RULES_OPTION + " <file>]";
+    }
+}
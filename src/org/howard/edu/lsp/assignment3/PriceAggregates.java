@@ -0,0 +1,450 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Count, minimum, maximum, sum and mean of the final prices of transformed products, by
+ * category and by price range. Prices are aggregated as they are written to the output
+ * file, rounded to cents, so the aggregates equal those computed by scanning the output.
+ * 
+ * <p>Accumulators are found by category code and price range index, so adding a row
+ * only indexes two arrays, and prices held in cents are summed as longs. A sum that
+ * overflows a long, or a price that does not fit one in cents, switches its
+ * accumulator to exact decimal arithmetic.</p>
+ * 
+ * <p>An instance is updated by one thread. {@link DataTransformer} keeps one per
+ * transforming thread and {@link #merge(PriceAggregates) merges} them at the end of a run.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class PriceAggregates {
+    
+    /** Header line of the aggregates file */
+    public static final String HEADER = "Dimension,Key,Count,Min,Max,Sum,Mean";
+    
+    /** Dimension name of the category rows of the aggregates file */
+    public static final String CATEGORY_DIMENSION = "Category";
+    
+    /** Dimension name of the price range rows of the aggregates file */
+    public static final String PRICE_RANGE_DIMENSION = "PriceRange";
+    
+    /** Dictionary that category codes refer to */
+    private final CategoryDictionary categories;
+    
+    /** Price bands that price range indexes refer to */
+    private final PriceBands priceBands;
+    
+    /** Accumulator of each category, indexed by code; null for categories without rows */
+    private Aggregate[] byCategory = new Aggregate[16];
+    
+    /** Accumulator of each price band, indexed by band */
+    private final Aggregate[] byBand;
+    
+    /** Accumulators of price ranges that are not named by the price bands, including none */
+    private final Map<String, Aggregate> otherRanges = new HashMap<>();
+    
+    /**
+     * Constructs empty aggregates.
+     * 
+     * @param categories the dictionary that category codes refer to
+     * @param priceBands the price bands that price range indexes refer to
+     */
+    public PriceAggregates(CategoryDictionary categories, PriceBands priceBands) {
+        this.categories = Objects.requireNonNull(categories, "categories");
+        this.priceBands = Objects.requireNonNull(priceBands, "priceBands");
+        this.byBand = new Aggregate[priceBands.size()];
+    }
+    
+    /**
+     * Adds a transformed product.
+     * 
+     * @param product the transformed product
+     */
+    public void add(Product product) {
+        int categoryCode = product.getCategoryCode();
+        if (!categories.isInterned(product.getCategory(), categoryCode)) {
+            categoryCode = categories.intern(product.getCategory());
+        }
+        String priceRange = product.getPriceRange();
+        int band = priceRange != null ? priceBands.indexOfName(priceRange) : -1;
+        Aggregate range = band >= 0 ? band(band) : otherRange(priceRange);
+        if (product.hasFixedPointPrice()) {
+            long cents = product.getPriceCents();
+            category(categoryCode).addCents(cents);
+            range.addCents(cents);
+        } else {
+            addPrice(category(categoryCode), range, product.getPrice());
+        }
+    }
+    
+    /**
+     * Adds every row of a batch of transformed products.
+     * 
+     * @param batch the batch
+     */
+    public void add(ProductBatch batch) {
+        boolean sameCategories = batch.getCategories() == categories;
+        boolean sameBands = batch.getPriceBands() == priceBands;
+        for (int row = 0; row < batch.size(); row++) {
+            int categoryCode = sameCategories ? batch.getCategoryCode(row)
+                : categories.intern(batch.getCategory(row));
+            int index = batch.getPriceRangeIndex(row);
+            Aggregate range;
+            if (index != ProductBatch.NO_PRICE_RANGE && sameBands) {
+                range = band(index);
+            } else {
+                String priceRange = batch.getPriceRange(row);
+                int band = priceRange != null ? priceBands.indexOfName(priceRange) : -1;
+                range = band >= 0 ? band(band) : otherRange(priceRange);
+            }
+            if (batch.hasFixedPointPrice(row)) {
+                long cents = batch.getPriceCents(row);
+                category(categoryCode).addCents(cents);
+                range.addCents(cents);
+            } else {
+                addPrice(category(categoryCode), range, batch.getPrice(row));
+            }
+        }
+    }
+    
+    /**
+     * Adds the rows of other aggregates to these.
+     * 
+     * @param other the aggregates to add, which are not changed
+     */
+    public void merge(PriceAggregates other) {
+        boolean sameCategories = other.categories == categories;
+        for (int code = 0; code < other.byCategory.length; code++) {
+            if (other.byCategory[code] != null) {
+                int target = sameCategories ? code : categories.intern(other.categories.get(code));
+                category(target).merge(other.byCategory[code]);
+            }
+        }
+        for (int band = 0; band < other.byBand.length; band++) {
+            if (other.byBand[band] != null) {
+                int target = other.priceBands == priceBands ? band
+                    : priceBands.indexOfName(other.priceBands.getName(band));
+                (target >= 0 ? band(target) : otherRange(other.priceBands.getName(band))).merge(other.byBand[band]);
+            }
+        }
+        for (Map.Entry<String, Aggregate> entry : other.otherRanges.entrySet()) {
+            String priceRange = entry.getKey();
+            int band = priceRange.isEmpty() ? -1 : priceBands.indexOfName(priceRange);
+            (band >= 0 ? band(band) : otherRange(priceRange)).merge(entry.getValue());
+        }
+    }
+    
+    /**
+     * Gets the aggregates of each category, ordered by name, so the order does not depend
+     * on the order in which categories were interned.
+     * 
+     * @return the aggregates by category name
+     */
+    public Map<String, Aggregate> getByCategory() {
+        Map<String, Aggregate> result = new TreeMap<>();
+        for (int code = 0; code < byCategory.length; code++) {
+            if (byCategory[code] != null) {
+                result.put(categories.get(code), byCategory[code]);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Gets the aggregates of each price range, in band order, followed by any range names
+     * not named by the price bands ordered by name. Rows without a price range are
+     * aggregated under an empty name.
+     * 
+     * @return the aggregates by price range name
+     */
+    public Map<String, Aggregate> getByPriceRange() {
+        Map<String, Aggregate> result = new LinkedHashMap<>();
+        for (int band = 0; band < byBand.length; band++) {
+            if (byBand[band] != null) {
+                result.put(priceBands.getName(band), byBand[band]);
+            }
+        }
+        result.putAll(new TreeMap<>(otherRanges));
+        return result;
+    }
+    
+    /**
+     * Formats the aggregates as the lines of a CSV file with the header {@value #HEADER}:
+     * one row per category, then one row per price range. Prices have two decimals and
+     * the mean is rounded half up. Keys are written as they are, like the fields of the
+     * output file.
+     * 
+     * @return the lines, starting with the header
+     */
+    public List<String> toCsvLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        addLines(lines, CATEGORY_DIMENSION, getByCategory());
+        addLines(lines, PRICE_RANGE_DIMENSION, getByPriceRange());
+        return lines;
+    }
+    
+    /**
+     * Writes the aggregates to a CSV file as formatted by {@link #toCsvLines()}, replacing
+     * any existing content.
+     * 
+     * @param path the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        Files.write(path, toCsvLines(), StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Adds the CSV lines of the aggregates of one dimension.
+     * 
+     * @param lines the lines to add to
+     * @param dimension the name of the dimension
+     * @param aggregates the aggregates by key
+     */
+    private static void addLines(List<String> lines, String dimension, Map<String, Aggregate> aggregates) {
+        for (Map.Entry<String, Aggregate> entry : aggregates.entrySet()) {
+            Aggregate aggregate = entry.getValue();
+            lines.add(dimension + "," + entry.getKey() + "," + aggregate.getCount() + ","
+                + aggregate.getMin().toPlainString() + "," + aggregate.getMax().toPlainString() + ","
+                + aggregate.getSum().toPlainString() + "," + aggregate.getMean().toPlainString());
+        }
+    }
+    
+    /**
+     * Adds a decimal price, rounded to cents as it is written, to two accumulators.
+     * 
+     * @param category the accumulator of the category
+     * @param range the accumulator of the price range
+     * @param price the price
+     */
+    private static void addPrice(Aggregate category, Aggregate range, BigDecimal price) {
+        BigDecimal rounded = price.setScale(FixedPointPrice.SCALE, RoundingMode.HALF_UP);
+        long cents = FixedPointPrice.fromBigDecimal(rounded);
+        if (cents != FixedPointPrice.NOT_REPRESENTABLE) {
+            category.addCents(cents);
+            range.addCents(cents);
+        } else {
+            category.addDecimal(rounded);
+            range.addDecimal(rounded);
+        }
+    }
+    
+    /**
+     * Gets the accumulator of a category, creating it if needed.
+     * 
+     * @param code the category code
+     * @return the accumulator
+     */
+    private Aggregate category(int code) {
+        if (code >= byCategory.length) {
+            byCategory = Arrays.copyOf(byCategory, Math.max(code + 1, 2 * byCategory.length));
+        }
+        Aggregate aggregate = byCategory[code];
+        if (aggregate == null) {
+            aggregate = new Aggregate();
+            byCategory[code] = aggregate;
+        }
+        return aggregate;
+    }
+    
+    /**
+     * Gets the accumulator of a price band, creating it if needed.
+     * 
+     * @param band the band index
+     * @return the accumulator
+     */
+    private Aggregate band(int band) {
+        Aggregate aggregate = byBand[band];
+        if (aggregate == null) {
+            aggregate = new Aggregate();
+            byBand[band] = aggregate;
+        }
+        return aggregate;
+    }
+    
+    /**
+     * Gets the accumulator of a price range not named by the price bands, creating it if needed.
+     * 
+     * @param priceRange the price range, or null for rows without one
+     * @return the accumulator
+     */
+    private Aggregate otherRange(String priceRange) {
+        return otherRanges.computeIfAbsent(priceRange != null ? priceRange : "", name -> new Aggregate());
+    }
+    
+    /**
+     * Count, minimum, maximum and sum of a group of prices in cents. The values are held
+     * as longs until they no longer fit, and as decimals from then on.
+     */
+    public static final class Aggregate {
+        
+        /** Number of prices */
+        private long count;
+        
+        /** Smallest price in cents, while the values are held as longs */
+        private long minCents = Long.MAX_VALUE;
+        
+        /** Largest price in cents, while the values are held as longs */
+        private long maxCents = Long.MIN_VALUE;
+        
+        /** Sum of the prices in cents, while the values are held as longs */
+        private long sumCents;
+        
+        /** Smallest price, once the values are held as decimals */
+        private BigDecimal min;
+        
+        /** Largest price, once the values are held as decimals */
+        private BigDecimal max;
+        
+        /** Sum of the prices, or null while the values are held as longs */
+        private BigDecimal sum;
+        
+        /**
+         * Constructs an empty Aggregate.
+         */
+        private Aggregate() {
+        }
+        
+        /**
+         * Adds a price in cents.
+         * 
+         * @param cents the price in cents
+         */
+        private void addCents(long cents) {
+            if (sum == null) {
+                long total = sumCents + cents;
+                if (((sumCents ^ total) & (cents ^ total)) >= 0) {
+                    count++;
+                    sumCents = total;
+                    minCents = Math.min(minCents, cents);
+                    maxCents = Math.max(maxCents, cents);
+                    return;
+                }
+            }
+            addDecimal(BigDecimal.valueOf(cents, FixedPointPrice.SCALE));
+        }
+        
+        /**
+         * Adds a price with two decimals, switching to decimal values if needed.
+         * 
+         * @param price the price
+         */
+        private void addDecimal(BigDecimal price) {
+            switchToDecimal();
+            count++;
+            sum = sum.add(price);
+            min = min == null || price.compareTo(min) < 0 ? price : min;
+            max = max == null || price.compareTo(max) > 0 ? price : max;
+        }
+        
+        /**
+         * Adds the prices of another aggregate.
+         * 
+         * @param other the aggregate to add
+         */
+        private void merge(Aggregate other) {
+            if (other.count == 0) {
+                return;
+            }
+            if (sum == null && other.sum == null) {
+                long total = sumCents + other.sumCents;
+                if (((sumCents ^ total) & (other.sumCents ^ total)) >= 0) {
+                    count += other.count;
+                    sumCents = total;
+                    minCents = Math.min(minCents, other.minCents);
+                    maxCents = Math.max(maxCents, other.maxCents);
+                    return;
+                }
+            }
+            switchToDecimal();
+            count += other.count;
+            sum = sum.add(other.getSum());
+            BigDecimal otherMin = other.getMin();
+            BigDecimal otherMax = other.getMax();
+            min = min == null || otherMin.compareTo(min) < 0 ? otherMin : min;
+            max = max == null || otherMax.compareTo(max) > 0 ? otherMax : max;
+        }
+        
+        /**
+         * Moves the values held as longs to decimals, if not done yet.
+         */
+        private void switchToDecimal() {
+            if (sum == null) {
+                sum = BigDecimal.valueOf(sumCents, FixedPointPrice.SCALE);
+                if (count > 0) {
+                    min = BigDecimal.valueOf(minCents, FixedPointPrice.SCALE);
+                    max = BigDecimal.valueOf(maxCents, FixedPointPrice.SCALE);
+                }
+            }
+        }
+        
+        /**
+         * Gets the number of prices.
+         * 
+         * @return the count
+         */
+        public long getCount() {
+            return count;
+        }
+        
+        /**
+         * Gets the smallest price.
+         * 
+         * @return the minimum with two decimals, or null if there are no prices
+         */
+        public BigDecimal getMin() {
+            if (count == 0) {
+                return null;
+            }
+            return sum != null ? min : BigDecimal.valueOf(minCents, FixedPointPrice.SCALE);
+        }
+        
+        /**
+         * Gets the largest price.
+         * 
+         * @return the maximum with two decimals, or null if there are no prices
+         */
+        public BigDecimal getMax() {
+            if (count == 0) {
+                return null;
+            }
+            return sum != null ? max : BigDecimal.valueOf(maxCents, FixedPointPrice.SCALE);
+        }
+        
+        /**
+         * Gets the sum of the prices.
+         * 
+         * @return the sum with two decimals
+         */
+        public BigDecimal getSum() {
+            return sum != null ? sum : BigDecimal.valueOf(sumCents, FixedPointPrice.SCALE);
+        }
+        
+        /**
+         * Gets the mean of the prices, rounded half up to two decimals.
+         * 
+         * @return the mean, or null if there are no prices
+         */
+        public BigDecimal getMean() {
+            if (count == 0) {
+                return null;
+            }
+            return getSum().divide(BigDecimal.valueOf(count), FixedPointPrice.SCALE, RoundingMode.HALF_UP);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for PriceAggregates.
+ * Verifies that aggregates collected while transforming are the same for products,
+ * batches and parallel transforms, and that sums too large for a long stay exact.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class PriceAggregatesTest {
+    
+    /** Categories of the test products */
+    private static final String[] CATEGORIES = {"Electronics", "Books", "Toys", "Café"};
+    
+    @Test
+    @DisplayName("Test products, batches and parallel transforms give the same aggregates")
+    public void testSameAggregatesForEveryTransform() {
+        List<Product> products = new ArrayList<>();
+        Random random = new Random(25);
+        for (int i = 0; i < 20000; i++) {
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            long cents = random.nextInt(100000);
+            products.add(i % 3 == 0 ? new Product(i, "Item " + i, BigDecimal.valueOf(cents * 10 + 5, 3), category)
+                : new Product(i, "Item " + i, cents, category));
+        }
+        
+        CategoryDictionary categories = new CategoryDictionary();
+        DataTransformer transformer = new DataTransformer(categories);
+        assertNull(transformer.getAggregates());
+        transformer.setAggregating(true);
+        List<Product> transformed = transformer.transform(copy(products), new StatisticsCollector());
+        List<String> expected = transformer.getAggregates().toCsvLines();
+        
+        assertEquals(PriceAggregates.HEADER, expected.get(0));
+        PriceAggregates aggregates = transformer.getAggregates();
+        assertEquals(1 + aggregates.getByCategory().size() + aggregates.getByPriceRange().size(), expected.size());
+        String electronics = expected.stream()
+            .filter(line -> line.startsWith("Category,Electronics,")).findFirst().get();
+        PriceAggregates.Aggregate aggregate = aggregates.getByCategory().get("Electronics");
+        BigDecimal sum = BigDecimal.ZERO;
+        long count = 0;
+        for (Product product : transformed) {
+            if (product.getCategory().equals("Electronics")) {
+                sum = sum.add(product.getPrice().setScale(2, RoundingMode.HALF_UP));
+                count++;
+            }
+        }
+        assertEquals(count, aggregate.getCount());
+        assertEquals(sum, aggregate.getSum());
+        assertTrue(electronics.endsWith("," + sum.toPlainString() + "," + aggregate.getMean().toPlainString()));
+        
+        transformer.setAggregating(true);
+        try (ParallelTransformEngine engine = new ParallelTransformEngine(transformer, 4)) {
+            engine.transform(copy(products), new StatisticsCollector());
+        }
+        assertEquals(expected, transformer.getAggregates().toCsvLines());
+        
+        transformer.setAggregating(true);
+        ProductBatch batch = new ProductBatch(categories, 1000);
+        for (Product product : products) {
+            batch.add(product);
+            if (batch.isFull()) {
+                transformer.transform(batch, new StatisticsCollector());
+                batch.clear();
+            }
+        }
+        assertEquals(expected, transformer.getAggregates().toCsvLines());
+        
+        transformer.setAggregating(false);
+        assertFalse(transformer.isAggregating());
+        assertNull(transformer.getAggregates());
+    }
+    
+    @Test
+    @DisplayName("Test sums and prices too large for a long in cents stay exact")
+    public void testLargeSums() {
+        PriceBands priceBands = DataTransformer.getDefaultRules().getPriceBands();
+        PriceAggregates first = new PriceAggregates(new CategoryDictionary(), priceBands);
+        PriceAggregates second = new PriceAggregates(new CategoryDictionary(), priceBands);
+        Product large = new Product(1, "Large", Long.MAX_VALUE - 1, "Toys");
+        large.setPriceRange("Premium");
+        first.add(large);
+        first.add(large);
+        Product small = new Product(2, "Small", new BigDecimal("0.005"), "Toys");
+        small.setPriceRange("Low");
+        second.add(small);
+        Product huge = new Product(3, "Huge", new BigDecimal("1e30"), "Toys");
+        second.add(huge);
+        
+        first.merge(second);
+        PriceAggregates.Aggregate toys = first.getByCategory().get("Toys");
+        BigDecimal largePrice = BigDecimal.valueOf(Long.MAX_VALUE - 1, 2);
+        assertEquals(4, toys.getCount());
+        assertEquals(new BigDecimal("0.01"), toys.getMin());
+        assertEquals(new BigDecimal("1e30").setScale(2), toys.getMax());
+        assertEquals(largePrice.add(largePrice).add(new BigDecimal("0.01")).add(new BigDecimal("1e30")),
+            toys.getSum());
+        assertEquals(largePrice.add(largePrice).divide(BigDecimal.valueOf(2)).setScale(2),
+            first.getByPriceRange().get("Premium").getMean());
+        assertEquals(1, first.getByPriceRange().get("").getCount());
+    }
+    
+    /**
+     * Copies products, as transforming changes them in place.
+     * 
+     * @param products the products
+     * @return copies of the products
+     */
+    private static List<Product> copy(List<Product> products) {
+        List<Product> copies = new ArrayList<>();
+        for (Product product : products) {
+            copies.add(new Product(product));
+        }
+        return copies;
+    }
+}
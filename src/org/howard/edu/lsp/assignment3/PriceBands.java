@@ -0,0 +1,344 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Classifies prices into named price bands. Each band but the last has an inclusive upper
+ * bound, and the bounds are strictly increasing, so a price belongs to the first band whose
+ * upper bound it does not exceed, and to the last band if it exceeds them all. The default
+ * bands of {@link PriceRangeCalculator} are:
+ * <pre>
+ * Low &lt;= 10.00, Medium &lt;= 100.00, High &lt;= 500.00, Premium
+ * </pre>
+ * which is also the form bands are written in by {@link #toString()} and read by
+ * {@link #parse(String)}.
+ * 
+ * <p>The bounds are held as a sorted array of cents, so a price in cents is classified
+ * with a binary search over primitive values. Up to {@value #UNROLLED_BOUNDS} bounds, as
+ * for the default bands, are also held in fields and compared one after the other, which
+ * is as fast as comparing with constants. Prices that are BigDecimal values are
+ * classified with an exact search over the BigDecimal bounds, with the same results.
+ * Bands are identified by their index, which columnar batches store as a byte, so there
+ * are at most {@value #MAX_BANDS} of them.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public final class PriceBands {
+    
+    /** Largest number of bands, as band indexes are stored as bytes */
+    public static final int MAX_BANDS = Byte.MAX_VALUE;
+    
+    /** Largest number of bounds compared one after the other instead of by binary search */
+    private static final int UNROLLED_BOUNDS = 3;
+    
+    /** Separator of the bands in the text form */
+    private static final String BAND_SEPARATOR = ",";
+    
+    /** Separator of a band name and its upper bound in the text form */
+    private static final String BOUND_SEPARATOR = "<=";
+    
+    /** Band names, ordered from the lowest to the highest band */
+    private final String[] names;
+    
+    /** UTF-8 bytes of each band name */
+    private final byte[][] nameBytes;
+    
+    /** Inclusive upper bound of each band but the last */
+    private final BigDecimal[] upperBounds;
+    
+    /** Inclusive upper bound of each band but the last, in cents */
+    private final long[] upperBoundCents;
+    
+    /** First bound in cents, or {@link Long#MAX_VALUE} if there is none */
+    private final long bound0;
+    
+    /** Second bound in cents, or {@link Long#MAX_VALUE} if there is none */
+    private final long bound1;
+    
+    /** Third bound in cents, or {@link Long#MAX_VALUE} if there is none */
+    private final long bound2;
+    
+    /**
+     * Constructs a new PriceBands.
+     * 
+     * @param names the band names, ordered from the lowest to the highest band
+     * @param upperBounds the inclusive upper bound of each band but the last, strictly
+     *        increasing and with at most two decimal places
+     * @throws IllegalArgumentException if there is not exactly one bound less than names,
+     *         there are more than {@value #MAX_BANDS} bands, a name is empty or repeated, or
+     *         the bounds are not strictly increasing whole cents
+     */
+    public PriceBands(List<String> names, List<BigDecimal> upperBounds) {
+        if (names.isEmpty() || names.size() > MAX_BANDS) {
+            throw new IllegalArgumentException("Price bands must number from 1 to " + MAX_BANDS + ": " + names);
+        }
+        if (upperBounds.size() != names.size() - 1) {
+            throw new IllegalArgumentException("Price bands need one upper bound less than names: " + names
+                + " " + upperBounds);
+        }
+        this.names = names.toArray(new String[0]);
+        this.nameBytes = new byte[this.names.length][];
+        for (int i = 0; i < this.names.length; i++) {
+            String name = Objects.requireNonNull(this.names[i], "name");
+            if (name.trim().isEmpty() || indexOfName(name) != i) {
+                throw new IllegalArgumentException("Price band names must be distinct and not empty: " + names);
+            }
+            nameBytes[i] = name.getBytes(StandardCharsets.UTF_8);
+        }
+        this.upperBounds = upperBounds.toArray(new BigDecimal[0]);
+        this.upperBoundCents = new long[this.upperBounds.length];
+        for (int i = 0; i < this.upperBounds.length; i++) {
+            upperBoundCents[i] = FixedPointPrice.fromBigDecimal(Objects.requireNonNull(this.upperBounds[i], "bound"));
+            if (upperBoundCents[i] == FixedPointPrice.NOT_REPRESENTABLE) {
+                throw new IllegalArgumentException("Price band bound is not whole cents: " + this.upperBounds[i]);
+            }
+            if (i > 0 && upperBoundCents[i] <= upperBoundCents[i - 1]) {
+                throw new IllegalArgumentException("Price band bounds must be strictly increasing: " + upperBounds);
+            }
+        }
+        this.bound0 = boundCents(0);
+        this.bound1 = boundCents(1);
+        this.bound2 = boundCents(2);
+    }
+    
+    /**
+     * Gets a bound in cents for the unrolled comparisons. A missing bound is
+     * {@link Long#MAX_VALUE}, which no other price exceeds, so comparing with it gives the
+     * index of the last band.
+     * 
+     * @param index the index of the bound
+     * @return the bound in cents, or {@link Long#MAX_VALUE} if there is no such bound
+     */
+    private long boundCents(int index) {
+        return index < upperBoundCents.length ? upperBoundCents[index] : Long.MAX_VALUE;
+    }
+    
+    /**
+     * Parses bands written as {@code name <= bound} for every band but the last, which is
+     * written as its name alone, separated by commas.
+     * 
+     * @param text the bands, for example {@code Low <= 10.00, Medium <= 100.00, High}
+     * @return the bands
+     * @throws IllegalArgumentException if the text does not describe valid bands
+     */
+    public static PriceBands parse(String text) {
+        String[] bands = text.split(BAND_SEPARATOR, -1);
+        List<String> names = new ArrayList<>();
+        List<BigDecimal> upperBounds = new ArrayList<>();
+        for (int i = 0; i < bands.length; i++) {
+            String band = bands[i];
+            int separator = band.indexOf(BOUND_SEPARATOR);
+            if ((separator < 0) != (i == bands.length - 1)) {
+                throw new IllegalArgumentException("Every price band but the last needs an upper bound: " + text);
+            }
+            if (separator < 0) {
+                names.add(band.trim());
+            } else {
+                names.add(band.substring(0, separator).trim());
+                String bound = band.substring(separator + BOUND_SEPARATOR.length()).trim();
+                try {
+                    upperBounds.add(new BigDecimal(bound));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad price band bound: " + bound);
+                }
+            }
+        }
+        return new PriceBands(names, upperBounds);
+    }
+    
+    /**
+     * Gets the index of the band of a price in cents.
+     * 
+     * @param priceCents the price, in cents
+     * @return the index of the band
+     */
+    public int indexOf(long priceCents) {
+        if (upperBoundCents.length <= UNROLLED_BOUNDS) {
+            if (priceCents <= bound0) {
+                return 0;
+            } else if (priceCents <= bound1) {
+                return 1;
+            } else if (priceCents <= bound2) {
+                return 2;
+            }
+            return UNROLLED_BOUNDS;
+        }
+        int low = 0;
+        int high = upperBoundCents.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (priceCents > upperBoundCents[middle]) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Gets the index of the band of a price, comparing it exactly with the bounds.
+     * 
+     * @param price the price
+     * @return the index of the band
+     * @throws IllegalArgumentException if the price is null
+     */
+    public int indexOf(BigDecimal price) {
+        if (price == null) {
+            throw new IllegalArgumentException("Price cannot be null");
+        }
+        int low = 0;
+        int high = upperBounds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (price.compareTo(upperBounds[middle]) > 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Gets the name of the band of a price in cents.
+     * 
+     * @param priceCents the price, in cents
+     * @return the band name
+     */
+    public String classify(long priceCents) {
+        return names[indexOf(priceCents)];
+    }
+    
+    /**
+     * Gets the name of the band of a price.
+     * 
+     * @param price the price
+     * @return the band name
+     * @throws IllegalArgumentException if the price is null
+     */
+    public String classify(BigDecimal price) {
+        return names[indexOf(price)];
+    }
+    
+    /**
+     * Gets the name of the band with the given index.
+     * 
+     * @param index the index of the band
+     * @return the band name
+     * @throws ArrayIndexOutOfBoundsException if the index is not a valid band index
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+    
+    /**
+     * Gets the UTF-8 bytes of the name of the band with the given index.
+     * The returned array must not be modified.
+     * 
+     * @param index the index of the band
+     * @return the bytes of the band name
+     * @throws ArrayIndexOutOfBoundsException if the index is not a valid band index
+     */
+    byte[] getNameBytes(int index) {
+        return nameBytes[index];
+    }
+    
+    /**
+     * Gets the index of the band with the given name.
+     * 
+     * @param name the band name
+     * @return the index of the band, or -1 if no band has this name
+     */
+    public int indexOfName(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Gets the number of bands.
+     * 
+     * @return the number of bands
+     */
+    public int size() {
+        return names.length;
+    }
+    
+    /**
+     * Gets the band names, ordered from the lowest to the highest band.
+     * 
+     * @return an unmodifiable list of the band names
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+    
+    /**
+     * Gets the inclusive upper bound of each band but the last.
+     * 
+     * @return an unmodifiable list of the upper bounds
+     */
+    public List<BigDecimal> getUpperBounds() {
+        return Collections.unmodifiableList(Arrays.asList(upperBounds));
+    }
+    
+    /**
+     * Checks whether another object is a PriceBands with the same names and bounds.
+     * Bounds that only differ in scale, like 10.0 and 10.00, are the same.
+     * 
+     * @param other the object to compare with
+     * @return true if the bands classify every price to the same name
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PriceBands)) {
+            return false;
+        }
+        PriceBands bands = (PriceBands) other;
+        return Arrays.equals(names, bands.names) && Arrays.equals(upperBoundCents, bands.upperBoundCents);
+    }
+    
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     * 
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(names) + Arrays.hashCode(upperBoundCents);
+    }
+    
+    /**
+     * Returns the bands in the form read by {@link #parse(String)}.
+     * 
+     * @return a string representation of the bands
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                builder.append(BAND_SEPARATOR).append(' ');
+            }
+            builder.append(names[i]);
+            if (i < upperBounds.length) {
+                builder.append(' ').append(BOUND_SEPARATOR).append(' ').append(upperBounds[i]);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,128 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for PriceBands.
+ * Verifies that the default bands classify like PriceRangeCalculator, that bounds are
+ * inclusive, and that custom bands are carried through batches and binary files.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class PriceBandsTest {
+    
+    /** Bands with more names than the default ones */
+    private static final String REGIONAL_BANDS = "Budget <= 5.00, Low <= 10.00, Medium <= 100.00, "
+        + "High <= 500.00, Luxury <= 1000.00, Premium";
+    
+    @Test
+    @DisplayName("Test the default bands classify like PriceRangeCalculator")
+    public void testDefaultBandsMatchCalculator() {
+        PriceBands bands = PriceRangeCalculator.getBands();
+        long[] samples = {Long.MIN_VALUE + 1, -1, 0, 1, 999, 1000, 1001, 9999, 10000, 10001, 49999, 50000, 50001,
+            Long.MAX_VALUE};
+        for (long cents : samples) {
+            assertEquals(PriceRangeCalculator.calculatePriceRangeIndex(cents), bands.indexOf(cents));
+            BigDecimal price = BigDecimal.valueOf(cents, 2);
+            assertEquals(PriceRangeCalculator.calculatePriceRange(price), bands.classify(price));
+        }
+        assertEquals("Low", bands.classify(new BigDecimal("10.000")));
+        assertEquals("Medium", bands.classify(new BigDecimal("10.001")));
+        assertEquals(PriceRangeCalculator.getPriceRangeCount(), bands.size());
+    }
+    
+    @Test
+    @DisplayName("Test bands parse, print and classify at their inclusive bounds")
+    public void testParseAndClassify() {
+        PriceBands bands = PriceBands.parse(REGIONAL_BANDS);
+        
+        assertEquals(REGIONAL_BANDS, bands.toString());
+        assertEquals(bands, PriceBands.parse(bands.toString()));
+        assertEquals("Budget", bands.classify(500));
+        assertEquals("Low", bands.classify(501));
+        assertEquals("Luxury", bands.classify(100000));
+        assertEquals("Premium", bands.classify(100001));
+        assertEquals("Luxury", bands.classify(new BigDecimal("1000")));
+        assertEquals(1, PriceBands.parse("Any").size());
+        assertEquals("Any", PriceBands.parse("Any").classify(Long.MAX_VALUE));
+        
+        assertThrows(IllegalArgumentException.class, () -> PriceBands.parse("Low <= 10.00, High <= 20.00"));
+        assertThrows(IllegalArgumentException.class, () -> PriceBands.parse("Low, High"));
+        assertThrows(IllegalArgumentException.class, () -> PriceBands.parse("Low <= 10.00, Mid <= 10.00, High"));
+        assertThrows(IllegalArgumentException.class, () -> PriceBands.parse("Low <= 1.005, High"));
+        assertThrows(IllegalArgumentException.class, () -> PriceBands.parse("Low <= ten, High"));
+        assertThrows(IllegalArgumentException.class, () -> PriceBands.parse("Low <= 10.00, Low"));
+        assertThrows(IllegalArgumentException.class, () -> new PriceBands(Collections.nCopies(128, "x"),
+            Collections.nCopies(127, BigDecimal.ONE)));
+    }
+    
+    @Test
+    @DisplayName("Test custom bands from a rule set give the same ranges on every path")
+    public void testCustomBandsInRules() {
+        RuleSet rules = new RuleSet(Arrays.asList(TransformRule.priceRange("price-range")),
+            PriceBands.parse(REGIONAL_BANDS));
+        CategoryDictionary dictionary = new CategoryDictionary();
+        DataTransformer transformer = new DataTransformer(dictionary, rules);
+        String[] prices = {"4.99", "5.00", "5.01", "750.00", "1000.00", "1000.01", "9000000000000000.00"};
+        
+        ProductBatch batch = new ProductBatch(dictionary);
+        for (int i = 0; i < prices.length; i++) {
+            Product product = new Product(i + 1, "Item", FixedPointPrice.parseCents(prices[i]), "Misc");
+            product.setCategory(dictionary, dictionary.intern("Misc"));
+            batch.add(product);
+        }
+        transformer.transform(batch, new StatisticsCollector());
+        
+        assertEquals(rules.getPriceBands(), batch.getPriceBands());
+        for (int row = 0; row < prices.length; row++) {
+            Product decimal = transformer.transform(new Product(row + 1, "Item", new BigDecimal(prices[row]), "Misc"),
+                new StatisticsCollector());
+            assertEquals(decimal.getPriceRange(), batch.getPriceRange(row));
+        }
+        assertEquals("Budget", batch.getPriceRange(1));
+        assertEquals("Luxury", batch.getPriceRange(3));
+        assertEquals("Premium", batch.getPriceRange(6));
+    }
+    
+    @Test
+    @DisplayName("Test binary files keep custom bands and batches only switch to bands naming their ranges")
+    public void testBinaryFileWithCustomBands() throws IOException {
+        PriceBands bands = PriceBands.parse(REGIONAL_BANDS);
+        CategoryDictionary dictionary = new CategoryDictionary();
+        ProductBatch batch = new ProductBatch(dictionary);
+        batch.setPriceBands(bands);
+        Product product = new Product(1, "Watch", FixedPointPrice.parseCents("800.00"), "Luxury Goods");
+        product.setPriceRange("Luxury");
+        batch.add(product);
+        
+        assertThrows(IllegalArgumentException.class, () -> batch.setPriceBands(PriceRangeCalculator.getBands()));
+        assertEquals("Luxury", batch.getPriceRange(0));
+        
+        Path file = Files.createTempFile("bands", BinaryProductFormat.EXTENSION);
+        try {
+            try (BinaryProductWriter writer = new BinaryProductWriter(file, bands)) {
+                writer.accept(batch);
+            }
+            assertThrows(IOException.class, () -> new BinaryProductReader(file));
+            try (BinaryProductReader reader = new BinaryProductReader(file, bands)) {
+                ProductBatch read = new ProductBatch(reader.getCategories());
+                reader.readRowGroup(0, read);
+                assertEquals("Luxury", read.getPriceRange(0));
+                assertEquals(bands.indexOfName("Luxury"), read.getPriceRangeIndex(0));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
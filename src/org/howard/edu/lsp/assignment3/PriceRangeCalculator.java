@@ -1,11 +1,13 @@
 package org.howard.edu.lsp.assignment3;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 
 /**
  * Calculates price ranges based on product prices.
  * This class encapsulates the business logic for determining price ranges,
- * following the Single Responsibility Principle.
+ * following the Single Responsibility Principle. The same ranges are available as
+ * {@link PriceBands}, which the business rules use and which can be replaced by other bands.
  * 
  * @author Giliad Dawite
  * @version 1.0
@@ -21,6 +23,22 @@ public class PriceRangeCalculator {
     /** Price threshold for High range */
     private static final BigDecimal HIGH_THRESHOLD = new BigDecimal("500.00");
     
+    /** Price range names, ordered from the lowest to the highest range */
+    private static final String[] PRICE_RANGES = {"Low", "Medium", "High", "Premium"};
+    
+    /** Price threshold for Low range in cents */
+    private static final long LOW_THRESHOLD_CENTS = FixedPointPrice.fromBigDecimal(LOW_THRESHOLD);
+    
+    /** Price threshold for Medium range in cents */
+    private static final long MEDIUM_THRESHOLD_CENTS = FixedPointPrice.fromBigDecimal(MEDIUM_THRESHOLD);
+    
+    /** Price threshold for High range in cents */
+    private static final long HIGH_THRESHOLD_CENTS = FixedPointPrice.fromBigDecimal(HIGH_THRESHOLD);
+    
+    /** The price ranges as price bands */
+    private static final PriceBands BANDS = new PriceBands(Arrays.asList(PRICE_RANGES),
+        Arrays.asList(LOW_THRESHOLD, MEDIUM_THRESHOLD, HIGH_THRESHOLD));
+    
     /**
      * Calculates the appropriate price range based on the given price.
      * Price ranges are determined as follows:
@@ -48,6 +66,83 @@ public class PriceRangeCalculator {
         }
     }
     
+    /**
+     * Calculates the appropriate price range for a fixed-point price in cents.
+     * The ranges and their inclusive upper bounds are the same as for
+     * {@link #calculatePriceRange(BigDecimal)}.
+     * 
+     * @param priceCents the price to evaluate, in cents
+     * @return the calculated price range as a String
+     */
+    public static String calculatePriceRange(long priceCents) {
+        return PRICE_RANGES[calculatePriceRangeIndex(priceCents)];
+    }
+    
+    /**
+     * Calculates the index of the price range for a fixed-point price in cents.
+     * Indexes follow the order Low, Medium, High, Premium, which lets columnar
+     * batches store price ranges as small codes.
+     * 
+     * @param priceCents the price to evaluate, in cents
+     * @return the index of the calculated price range
+     */
+    public static int calculatePriceRangeIndex(long priceCents) {
+        if (priceCents <= LOW_THRESHOLD_CENTS) {
+            return 0;
+        } else if (priceCents <= MEDIUM_THRESHOLD_CENTS) {
+            return 1;
+        } else if (priceCents <= HIGH_THRESHOLD_CENTS) {
+            return 2;
+        } else {
+            return 3;
+        }
+    }
+    
+    /**
+     * Gets the name of the price range with the given index.
+     * 
+     * @param index the index of the price range
+     * @return the price range name
+     * @throws ArrayIndexOutOfBoundsException if the index is not a valid price range index
+     */
+    public static String getPriceRangeName(int index) {
+        return PRICE_RANGES[index];
+    }
+    
+    /**
+     * Gets the index of the price range with the given name.
+     * 
+     * @param name the price range name
+     * @return the index of the price range, or -1 if the name is not a price range
+     */
+    public static int getPriceRangeIndex(String name) {
+        for (int i = 0; i < PRICE_RANGES.length; i++) {
+            if (PRICE_RANGES[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Gets the number of price ranges.
+     * 
+     * @return the number of price ranges
+     */
+    public static int getPriceRangeCount() {
+        return PRICE_RANGES.length;
+    }
+    
+    /**
+     * Gets the price ranges as price bands, with the same names, indexes and inclusive
+     * upper bounds.
+     * 
+     * @return the default price bands
+     */
+    public static PriceBands getBands() {
+        return BANDS;
+    }
+    
     /**
      * Gets the low price threshold.
      * 
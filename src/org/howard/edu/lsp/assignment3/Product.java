@@ -21,9 +21,18 @@ public class Product {
     /** The price of the product */
     private BigDecimal price;
     
+    /** The price of the product in cents, used when the price is held in fixed-point form */
+    private long priceCents;
+    
+    /** Whether the price is held in fixed-point form as a number of cents */
+    private boolean fixedPoint;
+    
     /** The category of the product */
     private String category;
     
+    /** The code of the category in a {@link CategoryDictionary}, or {@link CategoryDictionary#NOT_FOUND} */
+    private int categoryCode;
+    
     /** The calculated price range based on the final price */
     private String priceRange;
     
@@ -40,9 +49,41 @@ public class Product {
         this.name = name;
         this.price = price;
         this.category = category;
+        this.categoryCode = CategoryDictionary.NOT_FOUND;
         this.priceRange = null; // Will be set during transformation
     }
     
+    /**
+     * Constructs a new Product whose price is held in fixed-point form as a number of cents.
+     * No BigDecimal is created unless {@link #getPrice()} is called.
+     * 
+     * @param productId the unique identifier for the product
+     * @param name the name of the product
+     * @param priceCents the price of the product in cents
+     * @param category the category of the product
+     */
+    public Product(int productId, String name, long priceCents, String category) {
+        this(productId, name, (BigDecimal) null, category);
+        this.priceCents = priceCents;
+        this.fixedPoint = true;
+    }
+    
+    /**
+     * Constructs a copy of another product, keeping its price representation and price range.
+     * 
+     * @param other the product to copy
+     */
+    public Product(Product other) {
+        this.productId = other.productId;
+        this.name = other.name;
+        this.price = other.price;
+        this.priceCents = other.priceCents;
+        this.fixedPoint = other.fixedPoint;
+        this.category = other.category;
+        this.categoryCode = other.categoryCode;
+        this.priceRange = other.priceRange;
+    }
+    
     /**
      * Gets the product ID.
      * 
@@ -81,20 +122,55 @@ public class Product {
     
     /**
      * Gets the product price.
+     * A fixed-point price is converted to a BigDecimal with scale 2.
      * 
      * @return the product price
      */
     public BigDecimal getPrice() {
-        return price;
+        return fixedPoint ? FixedPointPrice.toBigDecimal(priceCents) : price;
     }
     
     /**
-     * Sets the product price.
+     * Sets the product price. The price is no longer held in fixed-point form.
      * 
      * @param price the product price to set
      */
     public void setPrice(BigDecimal price) {
         this.price = price;
+        this.fixedPoint = false;
+    }
+    
+    /**
+     * Checks whether the price is held in fixed-point form as a number of cents.
+     * 
+     * @return true if the price is held in cents, false if it is held as a BigDecimal
+     */
+    public boolean hasFixedPointPrice() {
+        return fixedPoint;
+    }
+    
+    /**
+     * Gets the product price in cents.
+     * 
+     * @return the price in cents
+     * @throws IllegalStateException if the price is not held in fixed-point form
+     */
+    public long getPriceCents() {
+        if (!fixedPoint) {
+            throw new IllegalStateException("Price is not held in fixed-point form");
+        }
+        return priceCents;
+    }
+    
+    /**
+     * Sets the product price in cents. The price is held in fixed-point form afterwards.
+     * 
+     * @param priceCents the price in cents to set
+     */
+    public void setPriceCents(long priceCents) {
+        this.price = null;
+        this.priceCents = priceCents;
+        this.fixedPoint = true;
     }
     
     /**
@@ -107,12 +183,35 @@ public class Product {
     }
     
     /**
-     * Sets the product category.
+     * Sets the product category. The category no longer has a dictionary code.
      * 
      * @param category the product category to set
      */
     public void setCategory(String category) {
         this.category = category;
+        this.categoryCode = CategoryDictionary.NOT_FOUND;
+    }
+    
+    /**
+     * Gets the code of the product category in the dictionary it was interned in.
+     * The code is only meaningful together with that dictionary; use
+     * {@link CategoryDictionary#isInterned(String, int)} to check it against a dictionary.
+     * 
+     * @return the category code, or {@link CategoryDictionary#NOT_FOUND} if the category was not interned
+     */
+    public int getCategoryCode() {
+        return categoryCode;
+    }
+    
+    /**
+     * Sets the product category to a value interned in a {@link CategoryDictionary}.
+     * 
+     * @param categories the dictionary holding the category
+     * @param categoryCode the code of the category in the dictionary
+     */
+    public void setCategory(CategoryDictionary categories, int categoryCode) {
+        this.category = categories.get(categoryCode);
+        this.categoryCode = categoryCode;
     }
     
     /**
@@ -143,7 +242,7 @@ public class Product {
         return "Product{" +
                 "productId=" + productId +
                 ", name='" + name + '\'' +
-                ", price=" + price +
+                ", price=" + getPrice() +
                 ", category='" + category + '\'' +
                 ", priceRange='" + priceRange + '\'' +
                 '}';
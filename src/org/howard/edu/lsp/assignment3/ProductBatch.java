@@ -0,0 +1,580 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Holds a batch of products in columnar form, with one primitive array per field.
+ * Ids are kept in an {@code int[]}, prices as long cents, names as UTF-8 bytes in one
+ * shared byte array indexed by offset and length, categories as codes of a
+ * {@link CategoryDictionary}, and price ranges as band indexes of the batch's
+ * {@link PriceBands}, by default those of {@link PriceRangeCalculator}. A batch therefore holds a fixed
+ * number of arrays no matter how many rows it contains, and it can be cleared and
+ * refilled without allocating.
+ * 
+ * <p>Prices that cannot be held as cents are kept as BigDecimal values in a separate
+ * column that is only allocated when such a price is first stored. {@link #toProduct(int)}
+ * and {@link #set(int, Product)} convert single rows to and from {@link Product} for
+ * callers that need the object view.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ProductBatch {
+    
+    /** Default number of rows in a batch */
+    public static final int DEFAULT_CAPACITY = 65536;
+    
+    /** Price range index of a row whose price range has not been calculated */
+    public static final int NO_PRICE_RANGE = -1;
+    
+    /** Expected average length of a name in bytes, used to size the name storage */
+    private static final int AVERAGE_NAME_LENGTH = 16;
+    
+    /** Dictionary that the category codes refer to */
+    private final CategoryDictionary categories;
+    
+    /** Product ids by row */
+    private final int[] productIds;
+    
+    /** Prices in cents by row, for rows without a BigDecimal price */
+    private final long[] priceCents;
+    
+    /** BigDecimal prices by row, or null if no row has needed one yet */
+    private BigDecimal[] decimalPrices;
+    
+    /** UTF-8 bytes of all names */
+    private byte[] nameBytes;
+    
+    /** Number of bytes of {@link #nameBytes} in use */
+    private int nameBytesUsed;
+    
+    /** Offset of each row's name in {@link #nameBytes} */
+    private final int[] nameOffsets;
+    
+    /** Length in bytes of each row's name */
+    private final int[] nameLengths;
+    
+    /** Category codes by row */
+    private final int[] categoryCodes;
+    
+    /** Price range indexes by row */
+    private final byte[] priceRanges;
+    
+    /** Price bands that the price range indexes refer to */
+    private PriceBands priceBands = PriceRangeCalculator.getBands();
+    
+    /** Number of rows in the batch */
+    private int size;
+    
+    /**
+     * Constructs an empty ProductBatch with the default capacity.
+     * 
+     * @param categories the dictionary that category codes refer to
+     */
+    public ProductBatch(CategoryDictionary categories) {
+        this(categories, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructs an empty ProductBatch that holds up to the given number of rows.
+     * 
+     * @param categories the dictionary that category codes refer to
+     * @param capacity the maximum number of rows
+     * @throws IllegalArgumentException if capacity is less than 1
+     */
+    public ProductBatch(CategoryDictionary categories, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Batch capacity must be at least 1");
+        }
+        this.categories = Objects.requireNonNull(categories, "categories");
+        this.productIds = new int[capacity];
+        this.priceCents = new long[capacity];
+        this.nameBytes = new byte[capacity * AVERAGE_NAME_LENGTH];
+        this.nameOffsets = new int[capacity];
+        this.nameLengths = new int[capacity];
+        this.categoryCodes = new int[capacity];
+        this.priceRanges = new byte[capacity];
+    }
+    
+    /**
+     * Appends a row whose name is copied from a byte range of a buffer.
+     * The row's price is zero cents until it is set, and it has no price range.
+     * 
+     * @param productId the product id
+     * @param buffer the buffer holding the UTF-8 bytes of the name
+     * @param nameStart the offset of the first byte of the name
+     * @param nameEnd the offset just past the last byte of the name
+     * @param categoryCode the code of the category in the batch's dictionary
+     * @return the index of the new row
+     * @throws IllegalStateException if the batch is full
+     */
+    public int add(int productId, ByteBuffer buffer, int nameStart, int nameEnd, int categoryCode) {
+        int row = addRow(productId, categoryCode);
+        int length = nameEnd - nameStart;
+        int offset = reserveNameBytes(row, length);
+        for (int i = 0; i < length; i++) {
+            nameBytes[offset + i] = buffer.get(nameStart + i);
+        }
+        return row;
+    }
+    
+    /**
+     * Appends a row holding the fields of a product.
+     * 
+     * @param product the product to append, with non-null name, price and category
+     * @return the index of the new row
+     * @throws IllegalStateException if the batch is full
+     */
+    public int add(Product product) {
+        int row = addRow(product.getProductId(), 0);
+        set(row, product);
+        return row;
+    }
+    
+    /**
+     * Appends a copy of a row of another batch. Columns are copied as they are, so no
+     * objects are created, except when the batches use different dictionaries, in which
+     * case the category is interned in this batch's dictionary. A price range is kept by
+     * its name when the batches use different price bands.
+     * 
+     * @param source the batch holding the row
+     * @param sourceRow the index of the row in the source batch
+     * @return the index of the new row
+     * @throws IllegalStateException if this batch is full
+     * @throws IllegalArgumentException if the row's price range is not named by this batch's price bands
+     */
+    public int add(ProductBatch source, int sourceRow) {
+        source.checkRow(sourceRow);
+        int priceRange = source.priceRanges[sourceRow];
+        if (priceRange != NO_PRICE_RANGE && source.priceBands != priceBands) {
+            priceRange = priceBands.indexOfName(source.priceBands.getName(priceRange));
+            if (priceRange == NO_PRICE_RANGE) {
+                throw new IllegalArgumentException("Unknown price range: " + source.getPriceRange(sourceRow));
+            }
+        }
+        int categoryCode = source.categories == categories
+            ? source.categoryCodes[sourceRow] : categories.intern(source.getCategory(sourceRow));
+        
+        int row = addRow(source.productIds[sourceRow], categoryCode);
+        int length = source.nameLengths[sourceRow];
+        int offset = reserveNameBytes(row, length);
+        System.arraycopy(source.nameBytes, source.nameOffsets[sourceRow], nameBytes, offset, length);
+        if (source.hasFixedPointPrice(sourceRow)) {
+            priceCents[row] = source.priceCents[sourceRow];
+        } else {
+            setPrice(row, source.decimalPrices[sourceRow]);
+        }
+        priceRanges[row] = (byte) priceRange;
+        return row;
+    }
+    
+    /**
+     * Appends a row with the given id and category and resets its other fields.
+     * 
+     * @param productId the product id
+     * @param categoryCode the category code
+     * @return the index of the new row
+     * @throws IllegalStateException if the batch is full
+     */
+    private int addRow(int productId, int categoryCode) {
+        if (isFull()) {
+            throw new IllegalStateException("Batch is full");
+        }
+        int row = size++;
+        productIds[row] = productId;
+        priceCents[row] = 0;
+        if (decimalPrices != null) {
+            decimalPrices[row] = null;
+        }
+        nameOffsets[row] = nameBytesUsed;
+        nameLengths[row] = 0;
+        categoryCodes[row] = categoryCode;
+        priceRanges[row] = NO_PRICE_RANGE;
+        return row;
+    }
+    
+    /**
+     * Reserves space for a row's name at the end of the name storage.
+     * 
+     * @param row the row the name belongs to
+     * @param length the length of the name in bytes
+     * @return the offset of the reserved space
+     */
+    private int reserveNameBytes(int row, int length) {
+        int offset = nameBytesUsed;
+        if (nameBytes.length - offset < length) {
+            nameBytes = Arrays.copyOf(nameBytes, Math.max(2 * nameBytes.length, offset + length));
+        }
+        nameBytesUsed = offset + length;
+        nameOffsets[row] = offset;
+        nameLengths[row] = length;
+        return offset;
+    }
+    
+    /**
+     * Creates a {@link Product} holding the fields of a row.
+     * The product is a copy; changing it does not change the batch.
+     * 
+     * @param row the index of the row
+     * @return the product
+     */
+    public Product toProduct(int row) {
+        checkRow(row);
+        Product product = hasFixedPointPrice(row)
+            ? new Product(productIds[row], getName(row), priceCents[row], getCategory(row))
+            : new Product(productIds[row], getName(row), decimalPrices[row], getCategory(row));
+        product.setCategory(categories, categoryCodes[row]);
+        product.setPriceRange(getPriceRange(row));
+        return product;
+    }
+    
+    /**
+     * Replaces the fields of a row with those of a product.
+     * 
+     * @param row the index of the row
+     * @param product the product, with non-null name, price and category
+     * @throws IllegalArgumentException if the product's price range is not a known price range
+     */
+    public void set(int row, Product product) {
+        checkRow(row);
+        int priceRange = NO_PRICE_RANGE;
+        if (product.getPriceRange() != null) {
+            priceRange = priceBands.indexOfName(product.getPriceRange());
+            if (priceRange == NO_PRICE_RANGE) {
+                throw new IllegalArgumentException("Unknown price range: " + product.getPriceRange());
+            }
+        }
+        
+        productIds[row] = product.getProductId();
+        setName(row, product.getName());
+        if (product.hasFixedPointPrice()) {
+            setPriceCents(row, product.getPriceCents());
+        } else {
+            setPrice(row, product.getPrice());
+        }
+        categoryCodes[row] = categories.isInterned(product.getCategory(), product.getCategoryCode())
+            ? product.getCategoryCode()
+            : categories.intern(product.getCategory());
+        priceRanges[row] = (byte) priceRange;
+    }
+    
+    /**
+     * Gets the product id of a row.
+     * 
+     * @param row the index of the row
+     * @return the product id
+     */
+    public int getProductId(int row) {
+        checkRow(row);
+        return productIds[row];
+    }
+    
+    /**
+     * Gets the name of a row, decoded from its UTF-8 bytes.
+     * 
+     * @param row the index of the row
+     * @return the name
+     */
+    public String getName(int row) {
+        checkRow(row);
+        return new String(nameBytes, nameOffsets[row], nameLengths[row], StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Replaces the name of a row. The new bytes are appended to the name storage.
+     * 
+     * @param row the index of the row
+     * @param name the new name
+     */
+    public void setName(int row, String name) {
+        checkRow(row);
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int offset = reserveNameBytes(row, bytes.length);
+        System.arraycopy(bytes, 0, nameBytes, offset, bytes.length);
+    }
+    
+    /**
+     * Gets the array holding the UTF-8 bytes of all names. Each row's name occupies
+     * {@link #getNameLength(int)} bytes starting at {@link #getNameOffset(int)}.
+     * The array is the batch's own storage; it may be replaced when names are added,
+     * so it must be fetched again after any change to the batch.
+     * 
+     * @return the name storage
+     */
+    public byte[] getNameBytes() {
+        return nameBytes;
+    }
+    
+    /**
+     * Gets the number of bytes in use at the start of {@link #getNameBytes()}. The names
+     * of all rows lie within them, together with any names that have been replaced.
+     * 
+     * @return the number of name bytes in use
+     */
+    public int getNameBytesUsed() {
+        return nameBytesUsed;
+    }
+    
+    /**
+     * Gets the offset of a row's name in {@link #getNameBytes()}.
+     * 
+     * @param row the index of the row
+     * @return the offset of the first byte of the name
+     */
+    public int getNameOffset(int row) {
+        checkRow(row);
+        return nameOffsets[row];
+    }
+    
+    /**
+     * Gets the length in bytes of a row's name.
+     * 
+     * @param row the index of the row
+     * @return the length of the name in bytes
+     */
+    public int getNameLength(int row) {
+        checkRow(row);
+        return nameLengths[row];
+    }
+    
+    /**
+     * Checks whether the price of a row is held in fixed-point form as cents.
+     * 
+     * @param row the index of the row
+     * @return true if the price is held as cents, false if it is held as a BigDecimal
+     */
+    public boolean hasFixedPointPrice(int row) {
+        checkRow(row);
+        return decimalPrices == null || decimalPrices[row] == null;
+    }
+    
+    /**
+     * Gets the price of a row in cents.
+     * 
+     * @param row the index of the row
+     * @return the price in cents
+     * @throws IllegalStateException if the price is held as a BigDecimal
+     */
+    public long getPriceCents(int row) {
+        if (!hasFixedPointPrice(row)) {
+            throw new IllegalStateException("Price of row " + row + " is not held in fixed-point form");
+        }
+        return priceCents[row];
+    }
+    
+    /**
+     * Sets the price of a row in cents.
+     * 
+     * @param row the index of the row
+     * @param cents the price in cents
+     */
+    public void setPriceCents(int row, long cents) {
+        checkRow(row);
+        priceCents[row] = cents;
+        if (decimalPrices != null) {
+            decimalPrices[row] = null;
+        }
+    }
+    
+    /**
+     * Gets the price of a row as a BigDecimal, creating it for prices held as cents.
+     * 
+     * @param row the index of the row
+     * @return the price
+     */
+    public BigDecimal getPrice(int row) {
+        return hasFixedPointPrice(row) ? FixedPointPrice.toBigDecimal(priceCents[row]) : decimalPrices[row];
+    }
+    
+    /**
+     * Sets the price of a row as a BigDecimal.
+     * 
+     * @param row the index of the row
+     * @param price the price
+     */
+    public void setPrice(int row, BigDecimal price) {
+        checkRow(row);
+        Objects.requireNonNull(price, "price");
+        if (decimalPrices == null) {
+            decimalPrices = new BigDecimal[productIds.length];
+        }
+        decimalPrices[row] = price;
+    }
+    
+    /**
+     * Gets the category of a row.
+     * 
+     * @param row the index of the row
+     * @return the category
+     */
+    public String getCategory(int row) {
+        return categories.get(getCategoryCode(row));
+    }
+    
+    /**
+     * Gets the category code of a row.
+     * 
+     * @param row the index of the row
+     * @return the code of the category in {@link #getCategories()}
+     */
+    public int getCategoryCode(int row) {
+        checkRow(row);
+        return categoryCodes[row];
+    }
+    
+    /**
+     * Sets the category code of a row.
+     * 
+     * @param row the index of the row
+     * @param categoryCode the code of the category in {@link #getCategories()}
+     */
+    public void setCategoryCode(int row, int categoryCode) {
+        checkRow(row);
+        categoryCodes[row] = categoryCode;
+    }
+    
+    /**
+     * Gets the price range of a row.
+     * 
+     * @param row the index of the row
+     * @return the price range, or null if it has not been calculated
+     */
+    public String getPriceRange(int row) {
+        int index = getPriceRangeIndex(row);
+        return index == NO_PRICE_RANGE ? null : priceBands.getName(index);
+    }
+    
+    /**
+     * Gets the price range index of a row.
+     * 
+     * @param row the index of the row
+     * @return the price range index, or {@link #NO_PRICE_RANGE}
+     */
+    public int getPriceRangeIndex(int row) {
+        checkRow(row);
+        return priceRanges[row];
+    }
+    
+    /**
+     * Sets the price range index of a row.
+     * 
+     * @param row the index of the row
+     * @param priceRangeIndex the price range index, or {@link #NO_PRICE_RANGE}
+     */
+    public void setPriceRangeIndex(int row, int priceRangeIndex) {
+        checkRow(row);
+        priceRanges[row] = (byte) priceRangeIndex;
+    }
+    
+    /**
+     * Gets the price bands that the price range indexes of this batch refer to.
+     * 
+     * @return the price bands
+     */
+    public PriceBands getPriceBands() {
+        return priceBands;
+    }
+    
+    /**
+     * Sets the price bands that the price range indexes of this batch refer to. Rows
+     * that already have a price range keep it, with the index of the band of the same
+     * name in the new bands.
+     * 
+     * @param priceBands the price bands
+     * @throws IllegalArgumentException if a row has a price range the new bands do not name,
+     *         in which case the batch is left unchanged
+     */
+    public void setPriceBands(PriceBands priceBands) {
+        if (priceBands.equals(this.priceBands)) {
+            this.priceBands = priceBands;
+            return;
+        }
+        int[] remap = new int[this.priceBands.size()];
+        for (int index = 0; index < remap.length; index++) {
+            remap[index] = priceBands.indexOfName(this.priceBands.getName(index));
+        }
+        for (int row = 0; row < size; row++) {
+            if (priceRanges[row] != NO_PRICE_RANGE && remap[priceRanges[row]] == NO_PRICE_RANGE) {
+                throw new IllegalArgumentException("Unknown price range: " + getPriceRange(row));
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            if (priceRanges[row] != NO_PRICE_RANGE) {
+                priceRanges[row] = (byte) remap[priceRanges[row]];
+            }
+        }
+        this.priceBands = priceBands;
+    }
+    
+    /**
+     * Gets the dictionary that the category codes of this batch refer to.
+     * 
+     * @return the category dictionary
+     */
+    public CategoryDictionary getCategories() {
+        return categories;
+    }
+    
+    /**
+     * Gets the number of rows in the batch.
+     * 
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Gets the maximum number of rows of the batch.
+     * 
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return productIds.length;
+    }
+    
+    /**
+     * Checks whether the batch has no rows.
+     * 
+     * @return true if the batch is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Checks whether the batch has reached its capacity.
+     * 
+     * @return true if no more rows can be added, false otherwise
+     */
+    public boolean isFull() {
+        return size == productIds.length;
+    }
+    
+    /**
+     * Removes all rows, keeping the allocated storage for reuse.
+     */
+    public void clear() {
+        if (decimalPrices != null) {
+            Arrays.fill(decimalPrices, 0, size, null);
+        }
+        size = 0;
+        nameBytesUsed = 0;
+    }
+    
+    /**
+     * Checks that a row index refers to a row of the batch.
+     * 
+     * @param row the index of the row
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range for batch of size " + size);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Receives products a whole {@link ProductBatch} at a time as they flow through the pipeline.
+ * Batches are usually reused by their producer, so a sink must finish with a batch
+ * before {@link #accept(ProductBatch)} returns and must not keep a reference to it.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ProductBatchSink extends Closeable {
+    
+    /**
+     * Accepts the next batch of products in input order.
+     * 
+     * @param batch the batch to accept, only valid until this method returns
+     * @throws IOException if the sink fails to handle the batch
+     */
+    void accept(ProductBatch batch) throws IOException;
+    
+    /**
+     * Releases any resources held by the sink. The default implementation does nothing.
+     * 
+     * @throws IOException if an error occurs while closing
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
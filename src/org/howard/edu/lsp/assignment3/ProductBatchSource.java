@@ -0,0 +1,22 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+
+/**
+ * Produces batches of products on demand and pushes them into a batch sink.
+ * This is the columnar counterpart of {@link ProductSource}.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ProductBatchSource {
+    
+    /**
+     * Pushes every batch of this source into the given sink, in order.
+     * 
+     * @param sink the sink that receives the batches
+     * @throws IOException if an error occurs while producing or accepting a batch
+     */
+    void forEach(ProductBatchSink sink) throws IOException;
+}
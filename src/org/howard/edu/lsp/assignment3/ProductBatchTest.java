@@ -0,0 +1,130 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ProductBatch.
+ * Verifies that rows keep their fields through every way of adding and changing them,
+ * and that capacity, clearing and price bands behave as documented.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ProductBatchTest {
+    
+    @Test
+    @DisplayName("Test rows added from products, buffers and other batches keep their fields")
+    public void testAddKeepsFields() {
+        CategoryDictionary categories = new CategoryDictionary();
+        ProductBatch batch = new ProductBatch(categories, 4);
+        
+        Product fixed = new Product(1, "Café", 1999L, "Électronique");
+        fixed.setPriceRange("Medium");
+        assertEquals(0, batch.add(fixed));
+        Product decimal = new Product(2, "Widget", new BigDecimal("0.125"), "Toys");
+        assertEquals(1, batch.add(decimal));
+        
+        ByteBuffer buffer = ByteBuffer.wrap("xx𝄞 Music,".getBytes(StandardCharsets.UTF_8));
+        int code = categories.intern("Books");
+        assertEquals(2, batch.add(3, buffer, 2, buffer.limit() - 1, code));
+        
+        assertEquals("Café", batch.getName(0));
+        assertTrue(batch.hasFixedPointPrice(0));
+        assertEquals(1999L, batch.getPriceCents(0));
+        assertEquals("Électronique", batch.getCategory(0));
+        assertEquals("Medium", batch.getPriceRange(0));
+        
+        assertFalse(batch.hasFixedPointPrice(1));
+        assertEquals(new BigDecimal("0.125"), batch.getPrice(1));
+        assertThrows(IllegalStateException.class, () -> batch.getPriceCents(1));
+        assertNull(batch.getPriceRange(1));
+        
+        assertEquals(3, batch.getProductId(2));
+        assertEquals("𝄞 Music", batch.getName(2));
+        assertEquals("Books", batch.getCategory(2));
+        assertEquals(0L, batch.getPriceCents(2));
+        
+        Product copy = batch.toProduct(0);
+        assertEquals(fixed.toString(), copy.toString());
+        assertEquals(decimal.toString(), batch.toProduct(1).toString());
+        
+        // A batch with its own dictionary interns the categories of copied rows
+        ProductBatch other = new ProductBatch(new CategoryDictionary(), 4);
+        for (int row = 0; row < batch.size(); row++) {
+            other.add(batch, row);
+            assertEquals(batch.toProduct(row).toString(), other.toProduct(row).toString());
+        }
+    }
+    
+    @Test
+    @DisplayName("Test changing rows, capacity, clearing and bounds checks")
+    public void testChangesAndCapacity() {
+        ProductBatch batch = new ProductBatch(new CategoryDictionary(), 2);
+        assertTrue(batch.isEmpty());
+        batch.add(new Product(1, "Lamp", 500L, "Home"));
+        batch.add(new Product(2, "Desk", 25000L, "Home"));
+        assertTrue(batch.isFull());
+        assertThrows(IllegalStateException.class, () -> batch.add(new Product(3, "Chair", 100L, "Home")));
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.getName(2));
+        
+        batch.setName(0, "Desk lamp with a much longer name than before");
+        batch.setPrice(0, new BigDecimal("4.999"));
+        batch.setPriceRangeIndex(1, 2);
+        assertEquals("Desk lamp with a much longer name than before", batch.getName(0));
+        assertEquals("Desk", batch.getName(1));
+        assertEquals(new BigDecimal("4.999"), batch.getPrice(0));
+        assertEquals("High", batch.getPriceRange(1));
+        batch.setPriceCents(0, 450L);
+        assertTrue(batch.hasFixedPointPrice(0));
+        
+        Product replacement = new Product(7, "Rug", new BigDecimal("80.00"), "Décor");
+        replacement.setPriceRange("Low");
+        batch.set(1, replacement);
+        assertEquals(replacement.toString(), batch.toProduct(1).toString());
+        replacement.setPriceRange("Unknown");
+        assertThrows(IllegalArgumentException.class, () -> batch.set(1, replacement));
+        
+        batch.clear();
+        assertTrue(batch.isEmpty());
+        assertEquals(0, batch.getNameBytesUsed());
+        assertEquals(2, batch.getCapacity());
+        batch.add(new Product(8, "Vase", 1200L, "Décor"));
+        assertTrue(batch.hasFixedPointPrice(0));
+        assertEquals("Vase", batch.getName(0));
+        assertNull(batch.getPriceRange(0));
+        
+        assertThrows(IllegalArgumentException.class, () -> new ProductBatch(new CategoryDictionary(), 0));
+    }
+    
+    @Test
+    @DisplayName("Test price ranges follow their names when the price bands change")
+    public void testPriceBands() {
+        ProductBatch batch = new ProductBatch(new CategoryDictionary(), 4);
+        batch.add(new Product(1, "Pen", 150L, "Office"));
+        batch.add(new Product(2, "Chair", 15000L, "Office"));
+        batch.setPriceRangeIndex(0, 0);
+        batch.setPriceRangeIndex(1, 2);
+        
+        PriceBands regional = PriceBands.parse("Budget <= 5.00, Low <= 10.00, Medium <= 100.00, High <= 500.00, Premium");
+        batch.setPriceBands(regional);
+        assertEquals("Low", batch.getPriceRange(0));
+        assertEquals("High", batch.getPriceRange(1));
+        assertEquals(1, batch.getPriceRangeIndex(0));
+        
+        ProductBatch standard = new ProductBatch(new CategoryDictionary(), 4);
+        standard.add(batch, 1);
+        assertEquals("High", standard.getPriceRange(0));
+        
+        PriceBands renamed = PriceBands.parse("Cheap <= 10.00, Dear");
+        assertThrows(IllegalArgumentException.class, () -> batch.setPriceBands(renamed));
+        assertEquals("Low", batch.getPriceRange(0));
+        assertSame(regional, batch.getPriceBands());
+    }
+}
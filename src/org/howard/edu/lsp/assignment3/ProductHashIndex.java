@@ -0,0 +1,338 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Maps product IDs to a content hash of their input row and the position of their row
+ * in the output file. It is saved after each incremental run so that the next run can
+ * tell which rows were inserted, updated or deleted, and copy the output rows of
+ * unchanged products instead of transforming them again.
+ * 
+ * <p>Entries are held in parallel arrays in insertion order and found through an
+ * open-addressing table of entry numbers, so an entry takes 24 bytes plus its table
+ * slots and no object is created per product. The file format is a small header
+ * followed by the entries as fixed-size binary records.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ProductHashIndex {
+    
+    /** Value returned by {@link #find(int)} for an ID without an entry */
+    public static final int NOT_FOUND = -1;
+    
+    /** Magic number at the start of an index file */
+    private static final int MAGIC = 0x45544C49;
+    
+    /** Version of the index file format */
+    private static final int VERSION = 1;
+    
+    /** FNV-1a 64-bit offset basis */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    
+    /** FNV-1a 64-bit prime */
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    /** Product ID of each entry */
+    private int[] ids;
+    
+    /** Content hash of the input row of each entry */
+    private long[] hashes;
+    
+    /** Offset of the output row of each entry */
+    private long[] offsets;
+    
+    /** Length in bytes of the output row of each entry, including the line separator */
+    private int[] lengths;
+    
+    /** Number of entries */
+    private int size;
+    
+    /** Open-addressing table of entry numbers plus one; 0 marks an empty slot */
+    private int[] slots;
+    
+    /** Fingerprint of the business rules the output rows were produced with */
+    private long rulesFingerprint;
+    
+    /** Size of the output file the entries point into */
+    private long outputSize;
+    
+    /**
+     * Constructs an empty index.
+     * 
+     * @param expectedSize the number of entries to allocate room for
+     */
+    public ProductHashIndex(int expectedSize) {
+        int capacity = Math.max(expectedSize, 16);
+        this.ids = new int[capacity];
+        this.hashes = new long[capacity];
+        this.offsets = new long[capacity];
+        this.lengths = new int[capacity];
+        this.slots = new int[tableSizeFor(capacity)];
+    }
+    
+    /**
+     * Computes the 64-bit FNV-1a hash of the characters of an input row.
+     * 
+     * @param row the row to hash
+     * @return the content hash
+     */
+    public static long hash(String row) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < row.length(); i++) {
+            char c = row.charAt(i);
+            hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+    
+    /**
+     * Finds the entry of a product ID.
+     * 
+     * @param productId the product ID
+     * @return the entry number, or {@link #NOT_FOUND}
+     */
+    public int find(int productId) {
+        int mask = slots.length - 1;
+        for (int slot = mix(productId) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) {
+                return NOT_FOUND;
+            }
+            if (ids[entry] == productId) {
+                return entry;
+            }
+        }
+    }
+    
+    /**
+     * Adds an entry for a product ID that has none yet.
+     * 
+     * @param productId the product ID
+     * @param hash the content hash of the input row
+     * @param offset the offset of the output row
+     * @param length the length of the output row in bytes
+     * @return the entry number, or {@link #NOT_FOUND} if the ID already has an entry
+     */
+    public int add(int productId, long hash, long offset, int length) {
+        if (find(productId) != NOT_FOUND) {
+            return NOT_FOUND;
+        }
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        int entry = size++;
+        ids[entry] = productId;
+        hashes[entry] = hash;
+        offsets[entry] = offset;
+        lengths[entry] = length;
+        
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        } else {
+            insertSlot(entry);
+        }
+        return entry;
+    }
+    
+    /**
+     * Gets the product ID of an entry.
+     * 
+     * @param entry the entry number
+     * @return the product ID
+     */
+    public int getProductId(int entry) {
+        return ids[entry];
+    }
+    
+    /**
+     * Gets the content hash of the input row of an entry.
+     * 
+     * @param entry the entry number
+     * @return the content hash
+     */
+    public long getHash(int entry) {
+        return hashes[entry];
+    }
+    
+    /**
+     * Gets the offset of the output row of an entry.
+     * 
+     * @param entry the entry number
+     * @return the offset in bytes
+     */
+    public long getOutputOffset(int entry) {
+        return offsets[entry];
+    }
+    
+    /**
+     * Gets the length of the output row of an entry, including the line separator.
+     * 
+     * @param entry the entry number
+     * @return the length in bytes
+     */
+    public int getOutputLength(int entry) {
+        return lengths[entry];
+    }
+    
+    /**
+     * Gets the number of entries.
+     * 
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Gets the fingerprint of the business rules the output rows were produced with.
+     * 
+     * @return the rules fingerprint
+     */
+    public long getRulesFingerprint() {
+        return rulesFingerprint;
+    }
+    
+    /**
+     * Sets the fingerprint of the business rules the output rows were produced with.
+     * 
+     * @param rulesFingerprint the rules fingerprint
+     */
+    public void setRulesFingerprint(long rulesFingerprint) {
+        this.rulesFingerprint = rulesFingerprint;
+    }
+    
+    /**
+     * Gets the size of the output file the entries point into.
+     * 
+     * @return the output file size in bytes
+     */
+    public long getOutputSize() {
+        return outputSize;
+    }
+    
+    /**
+     * Sets the size of the output file the entries point into.
+     * 
+     * @param outputSize the output file size in bytes
+     */
+    public void setOutputSize(long outputSize) {
+        this.outputSize = outputSize;
+    }
+    
+    /**
+     * Writes the index to a file, replacing any existing content.
+     * 
+     * @param path the path of the index file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(rulesFingerprint);
+            out.writeLong(outputSize);
+            out.writeInt(size);
+            for (int entry = 0; entry < size; entry++) {
+                out.writeInt(ids[entry]);
+                out.writeLong(hashes[entry]);
+                out.writeLong(offsets[entry]);
+                out.writeInt(lengths[entry]);
+            }
+        }
+    }
+    
+    /**
+     * Reads an index written by {@link #save(Path)}.
+     * 
+     * @param path the path of the index file
+     * @return the index
+     * @throws IOException if the file cannot be read or is not an index file of this version
+     */
+    public static ProductHashIndex load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported index file: " + path);
+            }
+            long rulesFingerprint = in.readLong();
+            long outputSize = in.readLong();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Corrupt index file: " + path);
+            }
+            
+            ProductHashIndex index = new ProductHashIndex(count);
+            index.setRulesFingerprint(rulesFingerprint);
+            index.setOutputSize(outputSize);
+            for (int i = 0; i < count; i++) {
+                int productId = in.readInt();
+                long hash = in.readLong();
+                long offset = in.readLong();
+                int length = in.readInt();
+                if (index.add(productId, hash, offset, length) == NOT_FOUND) {
+                    throw new IOException("Corrupt index file: " + path);
+                }
+            }
+            return index;
+        }
+    }
+    
+    /**
+     * Inserts an entry into the open-addressing table, which must have a free slot.
+     * 
+     * @param entry the entry number
+     */
+    private void insertSlot(int entry) {
+        int mask = slots.length - 1;
+        int slot = mix(ids[entry]) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry + 1;
+    }
+    
+    /**
+     * Rebuilds the open-addressing table with a new size.
+     * 
+     * @param tableSize the new table size, a power of two
+     */
+    private void rehash(int tableSize) {
+        slots = new int[tableSize];
+        for (int entry = 0; entry < size; entry++) {
+            insertSlot(entry);
+        }
+    }
+    
+    /**
+     * Gets the table size for a number of entries: a power of two at least twice as large.
+     * 
+     * @param capacity the number of entries
+     * @return the table size
+     */
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) << 1;
+    }
+    
+    /**
+     * Spreads the bits of a product ID so that sequential IDs do not cluster.
+     * 
+     * @param productId the product ID
+     * @return the mixed hash
+     */
+    private static int mix(int productId) {
+        int h = productId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
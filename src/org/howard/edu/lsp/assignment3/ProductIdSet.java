@@ -0,0 +1,236 @@
+package org.howard.edu.lsp.assignment3;
+
+/**
+ * A set of product ids stored as primitive ints, used to find duplicate ids in feeds
+ * of any size without boxing every id as a {@code HashSet<Integer>} would.
+ * 
+ * <p>Ids are first kept in an open-addressing hash table of ints with linear probing,
+ * which takes 4 bytes per slot and is at most three quarters full. When the table has
+ * to grow and a bitmap of the ids seen so far would be smaller, the set switches to a
+ * bitmap of the whole int range, split into pages of {@value #PAGE_SIZE} ids that are
+ * only allocated once an id in them is added. Dense ids therefore take about one bit
+ * each, and hundreds of millions of scattered ids take at most the 512 MB of a bitmap of
+ * every int, under two bytes per id, instead of growing the table further.</p>
+ * 
+ * <p>The set is not thread-safe.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ProductIdSet {
+    
+    /** Number of ids covered by one bitmap page */
+    private static final int PAGE_SIZE = 1 << 16;
+    
+    /** Number of bitmap pages covering the whole int range */
+    private static final int PAGE_COUNT = 1 << 16;
+    
+    /** Initial number of slots of the hash table */
+    private static final int INITIAL_CAPACITY = 1024;
+    
+    /** Slots of the hash table, with 0 marking an empty slot; null once the set is a bitmap */
+    private int[] table = new int[INITIAL_CAPACITY];
+    
+    /** Number of bits the mixed hash of an id is shifted right by to index the table */
+    private int shift = Integer.numberOfLeadingZeros(INITIAL_CAPACITY - 1);
+    
+    /** Whether the set holds the id 0, which cannot be stored in the table */
+    private boolean containsZero;
+    
+    /** Pages of the bitmap, indexed by the high 16 bits of an id; null until the set is a bitmap */
+    private long[][] pages;
+    
+    /** Bits telling which bitmap pages hold at least one id of the set */
+    private final long[] pagesUsed = new long[PAGE_COUNT / Long.SIZE];
+    
+    /** Number of bitmap pages holding at least one id of the set */
+    private int pageCount;
+    
+    /** Number of ids in the set */
+    private long size;
+    
+    /**
+     * Adds an id to the set.
+     * 
+     * @param id the product id
+     * @return true if the id was added, false if the set already held it
+     */
+    public boolean add(int id) {
+        if (pages != null) {
+            return addToBitmap(id);
+        }
+        if (id == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+        } else {
+            int mask = table.length - 1;
+            int slot = mix(id) >>> shift;
+            while (table[slot] != 0) {
+                if (table[slot] == id) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+        }
+        size++;
+        markPageUsed(id);
+        if (size * 4 > table.length * 3L) {
+            grow();
+        }
+        return true;
+    }
+    
+    /**
+     * Checks whether the set holds an id.
+     * 
+     * @param id the product id
+     * @return true if the set holds the id, false otherwise
+     */
+    public boolean contains(int id) {
+        if (pages != null) {
+            long[] page = pages[id >>> 16];
+            return page != null && (page[(id & (PAGE_SIZE - 1)) >>> 6] & (1L << id)) != 0;
+        }
+        if (id == 0) {
+            return containsZero;
+        }
+        int mask = table.length - 1;
+        for (int slot = mix(id) >>> shift; table[slot] != 0; slot = (slot + 1) & mask) {
+            if (table[slot] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Gets the number of ids in the set.
+     * 
+     * @return the number of ids
+     */
+    public long size() {
+        return size;
+    }
+    
+    /**
+     * Checks whether the set has switched from a hash table to a bitmap.
+     * 
+     * @return true if the ids are kept in a bitmap, false if they are kept in a hash table
+     */
+    public boolean isBitmap() {
+        return pages != null;
+    }
+    
+    /**
+     * Gets the approximate memory used by the ids, excluding the fixed overhead of
+     * the set.
+     * 
+     * @return the memory in bytes
+     */
+    public long getMemoryBytes() {
+        return pages != null ? bitmapBytes(pageCount) : table.length * 4L;
+    }
+    
+    /**
+     * Doubles the hash table, or switches to a bitmap if that takes less memory than
+     * the doubled table.
+     */
+    private void grow() {
+        if (bitmapBytes(pageCount) <= table.length * 8L) {
+            switchToBitmap();
+            return;
+        }
+        int[] oldTable = table;
+        table = new int[oldTable.length * 2];
+        shift--;
+        int mask = table.length - 1;
+        for (int id : oldTable) {
+            if (id != 0) {
+                int slot = mix(id) >>> shift;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = id;
+            }
+        }
+    }
+    
+    /**
+     * Moves the ids of the hash table into a bitmap and releases the table.
+     */
+    private void switchToBitmap() {
+        pages = new long[PAGE_COUNT][];
+        long count = size;
+        if (containsZero) {
+            addToBitmap(0);
+        }
+        for (int id : table) {
+            if (id != 0) {
+                addToBitmap(id);
+            }
+        }
+        size = count;
+        table = null;
+    }
+    
+    /**
+     * Adds an id to the bitmap, allocating its page if needed.
+     * 
+     * @param id the product id
+     * @return true if the id was added, false if the bitmap already held it
+     */
+    private boolean addToBitmap(int id) {
+        long[] page = pages[id >>> 16];
+        if (page == null) {
+            page = new long[PAGE_SIZE / Long.SIZE];
+            pages[id >>> 16] = page;
+        }
+        int word = (id & (PAGE_SIZE - 1)) >>> 6;
+        long bit = 1L << id;
+        if ((page[word] & bit) != 0) {
+            return false;
+        }
+        page[word] |= bit;
+        size++;
+        markPageUsed(id);
+        return true;
+    }
+    
+    /**
+     * Records that the bitmap page of an id holds at least one id.
+     * 
+     * @param id the product id
+     */
+    private void markPageUsed(int id) {
+        int page = id >>> 16;
+        long bit = 1L << page;
+        if ((pagesUsed[page >>> 6] & bit) == 0) {
+            pagesUsed[page >>> 6] |= bit;
+            pageCount++;
+        }
+    }
+    
+    /**
+     * Gets the memory of a bitmap with a number of allocated pages, including the page index.
+     * 
+     * @param pageCount the number of allocated pages
+     * @return the memory in bytes
+     */
+    private static long bitmapBytes(int pageCount) {
+        return pageCount * (PAGE_SIZE / 8L) + PAGE_COUNT * 8L;
+    }
+    
+    /**
+     * Spreads the bits of an id so that consecutive ids land far apart in the table,
+     * with the well-mixed high bits used as the slot index.
+     * 
+     * @param id the product id
+     * @return the mixed hash
+     */
+    private static int mix(int id) {
+        return id * 0x9E3779B9;
+    }
+}
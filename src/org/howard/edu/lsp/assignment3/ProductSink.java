@@ -0,0 +1,34 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Receives products one at a time as they flow through the pipeline.
+ * Extractors push each valid product into a sink, and writers implement this
+ * interface so that rows can stream from the input file to the output file
+ * without ever being collected into a list.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ProductSink extends Closeable {
+    
+    /**
+     * Accepts the next product in input order.
+     * 
+     * @param product the product to accept
+     * @throws IOException if the sink fails to handle the product
+     */
+    void accept(Product product) throws IOException;
+    
+    /**
+     * Releases any resources held by the sink. The default implementation does nothing.
+     * 
+     * @throws IOException if an error occurs while closing
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,23 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+
+/**
+ * Produces products on demand and pushes them into a sink.
+ * A source lets the loader drive a streaming pipeline: the loader opens its writer,
+ * hands it to the source, and the source feeds rows into it as they are read.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ProductSource {
+    
+    /**
+     * Pushes every product of this source into the given sink, in order.
+     * 
+     * @param sink the sink that receives the products
+     * @throws IOException if an error occurs while producing or accepting a product
+     */
+    void forEach(ProductSink sink) throws IOException;
+}
@@ -1,15 +1,36 @@
 package org.howard.edu.lsp.assignment3;
 
+import java.math.BigDecimal;
+
 /**
  * Validates product data integrity and CSV row format.
  * This class encapsulates all validation logic, following the Single Responsibility Principle.
  * It provides static utility methods for validating different aspects of product data.
  * 
+ * <p>{@link #parseProduct(String, boolean)} validates and parses a row in one pass: each
+ * field is trimmed once and the id and price are parsed straight from the line, so no
+ * split array, trimmed copies or second parse are needed. Ids and prices are accepted
+ * exactly as {@link Integer#parseInt(String)} and {@link BigDecimal#BigDecimal(String)}
+ * accept them, including exponents and non-ASCII digits, but without throwing and
+ * catching an exception for every invalid field.</p>
+ * 
  * @author Giliad Dawite
  * @version 1.0
  */
 public class ProductValidator {
     
+    /** Marker returned by {@link #parseId(CharSequence, int, int)} for an invalid id */
+    static final long INVALID_ID = Long.MIN_VALUE;
+    
+    /** Largest number of decimal digits that always fits in a long */
+    private static final int MAX_LONG_DIGITS = 18;
+    
+    /** Largest number of significant exponent digits that can fit in an int */
+    private static final int MAX_EXPONENT_DIGITS = 10;
+    
+    /** Marker returned by {@link #parseExponent(CharSequence, int, int)} for an invalid exponent */
+    private static final long INVALID_EXPONENT = Long.MIN_VALUE;
+    
     /**
      * Validates a CSV row to ensure it has the correct number of fields.
      * 
@@ -27,15 +48,11 @@ public class ProductValidator {
      * @return true if the string can be parsed as an integer, false otherwise
      */
     public static boolean validateProductId(String idString) {
-        if (idString == null || idString.trim().isEmpty()) {
-            return false;
-        }
-        try {
-            Integer.parseInt(idString.trim());
-            return true;
-        } catch (NumberFormatException e) {
+        if (idString == null) {
             return false;
         }
+        int start = trimStart(idString, 0, idString.length());
+        return parseId(idString, start, trimEnd(idString, start, idString.length())) != INVALID_ID;
     }
     
     /**
@@ -45,15 +62,11 @@ public class ProductValidator {
      * @return true if the string can be parsed as a BigDecimal, false otherwise
      */
     public static boolean validatePrice(String priceString) {
-        if (priceString == null || priceString.trim().isEmpty()) {
-            return false;
-        }
-        try {
-            new java.math.BigDecimal(priceString.trim());
-            return true;
-        } catch (NumberFormatException e) {
+        if (priceString == null) {
             return false;
         }
+        int start = trimStart(priceString, 0, priceString.length());
+        return parseDecimal(priceString, start, trimEnd(priceString, start, priceString.length())) != null;
     }
     
     /**
@@ -93,6 +106,265 @@ public class ProductValidator {
                validateCategory(parts[3]);
     }
     
+    /**
+     * Validates and parses a data row in one pass. The row is accepted exactly when
+     * {@link #validateProductData(String[])} accepts its comma-separated fields, and the
+     * product holds the trimmed name and category. The category is not interned.
+     * 
+     * @param line the row, without its line separator
+     * @param fixedPointPrices true to hold prices with at most two fractional digits that
+     *        fit in a long number of cents as cents instead of BigDecimal values
+     * @return the parsed product, or the reason the row is rejected
+     */
+    public static ValidationResult parseProduct(String line, boolean fixedPointPrices) {
+        int idEnd = line.indexOf(',');
+        int nameEnd = idEnd < 0 ? -1 : line.indexOf(',', idEnd + 1);
+        int priceEnd = nameEnd < 0 ? -1 : line.indexOf(',', nameEnd + 1);
+        if (priceEnd < 0 || line.indexOf(',', priceEnd + 1) >= 0) {
+            return ValidationResult.rejected(RejectReason.FIELD_COUNT);
+        }
+        
+        int start = trimStart(line, 0, idEnd);
+        long id = parseId(line, start, trimEnd(line, start, idEnd));
+        if (id == INVALID_ID) {
+            return ValidationResult.rejected(RejectReason.INVALID_ID);
+        }
+        
+        int nameStart = trimStart(line, idEnd + 1, nameEnd);
+        int nameStop = trimEnd(line, nameStart, nameEnd);
+        if (nameStart == nameStop) {
+            return ValidationResult.rejected(RejectReason.MISSING_NAME);
+        }
+        
+        // Plain ASCII decimals of up to 18 digits are parsed here; other forms by parseDecimal
+        int priceStart = trimStart(line, nameEnd + 1, priceEnd);
+        int priceStop = trimEnd(line, priceStart, priceEnd);
+        int i = priceStart;
+        boolean negative = i < priceStop && line.charAt(i) == '-';
+        if (negative || (i < priceStop && line.charAt(i) == '+')) {
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenPoint = false;
+        for (; i < priceStop; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9' && digits < MAX_LONG_DIGITS) {
+                digits++;
+                unscaled = unscaled * 10 + (c - '0');
+                if (seenPoint) {
+                    scale++;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if ((c >= '0' && c <= '9') || c == 'e' || c == 'E' || c > 0x7F) {
+                break;
+            } else {
+                return ValidationResult.rejected(RejectReason.INVALID_PRICE);
+            }
+        }
+        long cents = FixedPointPrice.NOT_REPRESENTABLE;
+        BigDecimal price = null;
+        if (i < priceStop) {
+            price = parseDecimal(line, priceStart, priceStop);
+            if (price == null) {
+                return ValidationResult.rejected(RejectReason.INVALID_PRICE);
+            }
+        } else if (digits == 0) {
+            return ValidationResult.rejected(RejectReason.INVALID_PRICE);
+        } else {
+            long signed = negative ? -unscaled : unscaled;
+            cents = fixedPointPrices ? FixedPointPrice.fromUnscaled(signed, scale) : FixedPointPrice.NOT_REPRESENTABLE;
+            if (cents == FixedPointPrice.NOT_REPRESENTABLE) {
+                price = BigDecimal.valueOf(signed, scale);
+            }
+        }
+        
+        int categoryStart = trimStart(line, priceEnd + 1, line.length());
+        int categoryStop = trimEnd(line, categoryStart, line.length());
+        if (categoryStart == categoryStop) {
+            return ValidationResult.rejected(RejectReason.MISSING_CATEGORY);
+        }
+        
+        String name = line.substring(nameStart, nameStop);
+        String category = line.substring(categoryStart, categoryStop);
+        return ValidationResult.valid(price == null
+            ? new Product((int) id, name, cents, category)
+            : new Product((int) id, name, price, category));
+    }
+    
+    /**
+     * Parses a trimmed product id the way {@link Integer#parseInt(String)} does, without
+     * throwing an exception for an invalid id.
+     * 
+     * @param text the text holding the id
+     * @param start the index of the first character of the id
+     * @param end the index just past the last character of the id
+     * @return the id, or {@link #INVALID_ID} if it is empty or not a valid int
+     */
+    static long parseId(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = i < end && text.charAt(i) == '-';
+        if (negative || (i < end && text.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == end) {
+            return INVALID_ID;
+        }
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = digit(text.charAt(i));
+            if (digit < 0) {
+                return INVALID_ID;
+            }
+            result = result * 10 + digit;
+            if (result > limit) {
+                return INVALID_ID;
+            }
+        }
+        return negative ? -result : result;
+    }
+    
+    /**
+     * Parses a trimmed decimal the way {@link BigDecimal#BigDecimal(String)} does, without
+     * throwing an exception for an invalid decimal. The text is checked against the
+     * constructor's grammar, an optional sign, digits with at most one decimal point and an
+     * optional exponent, and against its limits on the exponent and scale, before the
+     * constructor is called.
+     * 
+     * @param text the text holding the decimal
+     * @param start the index of the first character of the decimal
+     * @param end the index just past the last character of the decimal
+     * @return the decimal, or null if the text is empty or not a valid decimal
+     */
+    static BigDecimal parseDecimal(CharSequence text, int start, int end) {
+        int i = start;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        int digits = 0;
+        long scale = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (c == 'e' || c == 'E') {
+                break;
+            } else if (digit(c) >= 0) {
+                digits++;
+                if (seenPoint) {
+                    scale++;
+                }
+            } else {
+                return null;
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+        if (i < end) {
+            long exponent = parseExponent(text, i + 1, end);
+            if (exponent == INVALID_EXPONENT || scale - exponent > Integer.MAX_VALUE
+                    || scale - exponent < Integer.MIN_VALUE) {
+                return null;
+            }
+        }
+        return new BigDecimal(text.subSequence(start, end).toString());
+    }
+    
+    /**
+     * Parses the exponent of a decimal with the limits of {@link BigDecimal#BigDecimal(String)}:
+     * at least one digit, at most ten digits after leading zeros, and a value that fits in an int.
+     * 
+     * @param text the text holding the exponent
+     * @param start the index of the first character after the exponent marker
+     * @param end the index just past the last character of the exponent
+     * @return the exponent, or {@link #INVALID_EXPONENT} if it is not a valid exponent
+     */
+    private static long parseExponent(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = i < end && text.charAt(i) == '-';
+        if (negative || (i < end && text.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == end) {
+            return INVALID_EXPONENT;
+        }
+        while (end - i > MAX_EXPONENT_DIGITS && digit(text.charAt(i)) == 0) {
+            i++;
+        }
+        if (end - i > MAX_EXPONENT_DIGITS) {
+            return INVALID_EXPONENT;
+        }
+        long exponent = 0;
+        for (; i < end; i++) {
+            int digit = digit(text.charAt(i));
+            if (digit < 0) {
+                return INVALID_EXPONENT;
+            }
+            exponent = exponent * 10 + digit;
+        }
+        if (negative) {
+            exponent = -exponent;
+        }
+        return (int) exponent == exponent ? exponent : INVALID_EXPONENT;
+    }
+    
+    /**
+     * Gets the value of a decimal digit, including non-ASCII digits, as
+     * {@link Character#digit(char, int)} does.
+     * 
+     * @param c the character
+     * @return the digit value, or -1 if the character is not a decimal digit
+     */
+    private static int digit(char c) {
+        return c >= '0' && c <= '9' ? c - '0' : Character.digit(c, 10);
+    }
+    
+    /**
+     * Checks whether a line is empty or only whitespace, as defined by {@link String#trim()},
+     * without creating a trimmed copy.
+     * 
+     * @param text the text to check
+     * @return true if every character is whitespace, false otherwise
+     */
+    public static boolean isBlank(CharSequence text) {
+        return trimStart(text, 0, text.length()) == text.length();
+    }
+    
+    /**
+     * Finds the first character of a range that is not whitespace, as defined by {@link String#trim()}.
+     * 
+     * @param text the text
+     * @param start the index of the first character
+     * @param end the index just past the last character
+     * @return the index of the first non-whitespace character, or end if there is none
+     */
+    static int trimStart(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+    
+    /**
+     * Finds the end of a range after removing trailing whitespace, as defined by {@link String#trim()}.
+     * 
+     * @param text the text
+     * @param start the index of the first character
+     * @param end the index just past the last character
+     * @return the index just past the last non-whitespace character, or start if there is none
+     */
+    static int trimEnd(CharSequence text, int start, int end) {
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+    
     /**
      * Checks if two strings are equal ignoring case and whitespace.
      * 
@@ -0,0 +1,136 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ProductValidator.
+ * Verifies that the fused validate-and-parse accepts and parses exactly the rows that
+ * splitting, validating and parsing with the JDK parsers do, and reports why rows fail.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class ProductValidatorTest {
+    
+    /** Characters random fields are made of, including non-ASCII digits and whitespace */
+    private static final String ALPHABET = "0123456789000111999+-.eE ,\t١٩１ x";
+    
+    @Test
+    @DisplayName("Test fused parsing matches split, validate and parse on random rows")
+    public void testMatchesSplitAndParse() {
+        Random random = new Random(21);
+        String[] samples = {"1e3", "-1.5E-2", "1e", "1e+", "+.5", "5.", ".", "-", "+", "1..2", "1.2.3", "1e2147483648",
+            "1e-2147483648", "1E00000000000000000003", "1e12345678901", "12345678901234567890.5", "0.001",
+            "١٢.٣", "2147483647", "2147483648", "-2147483648", "-2147483649", "+0", "007",
+            "1.2e3.4", "9223372036854775807.99", "-0.00", "1e-2147483647"};
+        for (int i = 0; i < 200_000; i++) {
+            String id = i % 3 == 0 ? samples[random.nextInt(samples.length)] : randomField(random);
+            String price = i % 3 == 1 ? samples[random.nextInt(samples.length)] : randomField(random);
+            String line = id + "," + (random.nextInt(8) == 0 ? " " : " Name ") + "," + price + ","
+                + (random.nextInt(8) == 0 ? "" : "Category") + (random.nextInt(16) == 0 ? "," : "");
+            for (boolean fixedPoint : new boolean[] {false, true}) {
+                Product expected = parseWithSplit(line, fixedPoint);
+                ValidationResult result = ProductValidator.parseProduct(line, fixedPoint);
+                assertEquals(expected != null, result.isValid(), line);
+                if (expected == null) {
+                    assertNotNull(result.getReason(), line);
+                    continue;
+                }
+                Product actual = result.getProduct();
+                assertEquals(expected.getProductId(), actual.getProductId(), line);
+                assertEquals(expected.getName(), actual.getName(), line);
+                assertEquals(expected.getCategory(), actual.getCategory(), line);
+                assertEquals(expected.hasFixedPointPrice(), actual.hasFixedPointPrice(), line);
+                assertEquals(expected.getPrice(), actual.getPrice(), line);
+            }
+            assertEquals(validateWithExceptions(id, true), ProductValidator.validateProductId(id), id);
+            assertEquals(validateWithExceptions(price, false), ProductValidator.validatePrice(price), price);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test rejected rows report the first failing check")
+    public void testRejectReasons() {
+        assertEquals(RejectReason.FIELD_COUNT, ProductValidator.parseProduct("1,Name,2.00", false).getReason());
+        assertEquals(RejectReason.FIELD_COUNT, ProductValidator.parseProduct("1,Name,2.00,A,B", false).getReason());
+        assertEquals(RejectReason.INVALID_ID, ProductValidator.parseProduct("x,,bad,", false).getReason());
+        assertEquals(RejectReason.MISSING_NAME, ProductValidator.parseProduct("1, ,bad,", false).getReason());
+        assertEquals(RejectReason.INVALID_PRICE, ProductValidator.parseProduct("1,Name,1.2.3,", false).getReason());
+        assertEquals(RejectReason.INVALID_PRICE, ProductValidator.parseProduct("1,Name,,Books", false).getReason());
+        assertEquals(RejectReason.MISSING_CATEGORY, ProductValidator.parseProduct("1,Name,2.00, ", false).getReason());
+        assertSame(ProductValidator.parseProduct("1,Name,,Books", true),
+            ProductValidator.parseProduct("2,Other,x,Toys", false));
+        
+        ValidationResult valid = ProductValidator.parseProduct(" 7 , Desk Lamp , 19.5 , Furniture ", true);
+        assertTrue(valid.isValid());
+        assertNull(valid.getReason());
+        assertEquals(1950, valid.getProduct().getPriceCents());
+        assertEquals("Desk Lamp", valid.getProduct().getName());
+        assertEquals("Furniture", valid.getProduct().getCategory());
+        assertTrue(ProductValidator.isBlank(" \t "));
+        assertFalse(ProductValidator.isBlank(" x "));
+    }
+    
+    /**
+     * Builds a random field from {@link #ALPHABET}.
+     * 
+     * @param random the random source
+     * @return the field
+     */
+    private static String randomField(Random random) {
+        StringBuilder field = new StringBuilder();
+        int length = random.nextInt(7);
+        for (int i = 0; i < length; i++) {
+            field.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return field.toString();
+    }
+    
+    /**
+     * Parses a row by splitting it, validating the parts and parsing them with the JDK
+     * parsers, as rows were parsed before the fused parser.
+     * 
+     * @param line the row
+     * @param fixedPoint whether prices that fit are held as cents
+     * @return the product, or null if the row is invalid
+     */
+    private static Product parseWithSplit(String line, boolean fixedPoint) {
+        String[] parts = line.split(",", -1);
+        if (parts.length != 4 || !validateWithExceptions(parts[0], true) || parts[1].trim().isEmpty()
+                || !validateWithExceptions(parts[2], false) || parts[3].trim().isEmpty()) {
+            return null;
+        }
+        int id = Integer.parseInt(parts[0].trim());
+        String price = parts[2].trim();
+        long cents = fixedPoint ? FixedPointPrice.parseCents(price) : FixedPointPrice.NOT_REPRESENTABLE;
+        return cents != FixedPointPrice.NOT_REPRESENTABLE
+            ? new Product(id, parts[1].trim(), cents, parts[3].trim())
+            : new Product(id, parts[1].trim(), new BigDecimal(price), parts[3].trim());
+    }
+    
+    /**
+     * Validates an id or price field by parsing it with the JDK parser.
+     * 
+     * @param field the field
+     * @param id true for an id, false for a price
+     * @return true if the trimmed field parses
+     */
+    private static boolean validateWithExceptions(String field, boolean id) {
+        try {
+            if (id) {
+                Integer.parseInt(field.trim());
+            } else {
+                new BigDecimal(field.trim());
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
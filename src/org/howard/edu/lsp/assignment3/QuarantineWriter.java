@@ -0,0 +1,166 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Writes rejected rows to a quarantine file, so that rows dropped by a run can be found,
+ * counted by reason and corrected. The file is a CSV file with the header
+ * {@value #HEADER}: each rejected row is written as its line number in the input file,
+ * the name of its {@link RejectReason}, and its raw text, which is the last field and is
+ * not quoted, so it may itself contain commas.
+ * 
+ * <p>Rows are encoded into the blocks of an {@link AsyncBlockWriter}, and full blocks
+ * are written on its writer thread, so the extractor that rejects a row only copies its
+ * bytes. The number of blocks is fixed, which bounds the memory held by rows waiting to
+ * be written; when every block is waiting, the extractor waits for the disk instead of
+ * dropping rows. Files whose name ends in {@value CompressedFiles#GZIP_EXTENSION} are
+ * compressed with gzip.</p>
+ * 
+ * <p>A writer is meant to be used by one thread at a time.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class QuarantineWriter implements RejectedRowSink {
+    
+    /** Header line of the quarantine file */
+    public static final String HEADER = "LineNumber,Reason,Row";
+    
+    /** Default number of blocks that rows are encoded into */
+    public static final int DEFAULT_BLOCK_COUNT = 4;
+    
+    /** Size of each block in bytes */
+    private static final int BLOCK_SIZE = 64 * 1024;
+    
+    /** Encoder that formats the rows into the blocks of the writer thread */
+    private final CsvRowEncoder encoder;
+    
+    /** ASCII bytes of the name of each reason, indexed by ordinal */
+    private final byte[][] reasonNames;
+    
+    /** Buffer that rows held in buffers without an accessible array are copied through */
+    private byte[] copyBuffer = new byte[256];
+    
+    /** Number of rows written */
+    private long rows;
+    
+    /**
+     * Opens a quarantine file with the default number of blocks and writes its header,
+     * replacing any existing content.
+     * 
+     * @param path the path of the quarantine file
+     * @throws IOException if the file cannot be opened or the header cannot be written
+     */
+    public QuarantineWriter(Path path) throws IOException {
+        this(path, DEFAULT_BLOCK_COUNT);
+    }
+    
+    /**
+     * Opens a quarantine file and writes its header, replacing any existing content.
+     * 
+     * @param path the path of the quarantine file
+     * @param blockCount the number of blocks, at least 2
+     * @throws IOException if the file cannot be opened or the header cannot be written
+     * @throws IllegalArgumentException if blockCount is less than 2
+     */
+    public QuarantineWriter(Path path, int blockCount) throws IOException {
+        AsyncBlockWriter blockWriter = new AsyncBlockWriter(CompressedFiles.newWritableChannel(path, 1),
+            BLOCK_SIZE, blockCount);
+        try {
+            this.encoder = new CsvRowEncoder(blockWriter);
+            encoder.writeString(HEADER);
+            encoder.endRow();
+        } catch (IOException | RuntimeException e) {
+            blockWriter.close();
+            throw e;
+        }
+        RejectReason[] reasons = RejectReason.values();
+        this.reasonNames = new byte[reasons.length][];
+        for (RejectReason reason : reasons) {
+            reasonNames[reason.ordinal()] = reason.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+    
+    /**
+     * Writes a rejected row to the quarantine file.
+     * 
+     * @param lineNumber the line number of the row in the input file
+     * @param buffer the buffer holding the UTF-8 bytes of the row
+     * @param start the offset of the first byte of the row
+     * @param end the offset just past the last byte of the row
+     * @param reason the reason the row was rejected
+     * @throws IOException if an earlier block could not be written
+     */
+    @Override
+    public void reject(long lineNumber, ByteBuffer buffer, int start, int end, RejectReason reason)
+            throws IOException {
+        writePrefix(lineNumber, reason);
+        int length = end - start;
+        if (buffer.hasArray()) {
+            encoder.writeBytes(buffer.array(), buffer.arrayOffset() + start, length);
+        } else {
+            if (copyBuffer.length < length) {
+                copyBuffer = new byte[Math.max(length, 2 * copyBuffer.length)];
+            }
+            ByteBuffer row = buffer.duplicate();
+            row.limit(end).position(start);
+            row.get(copyBuffer, 0, length);
+            encoder.writeBytes(copyBuffer, 0, length);
+        }
+        encoder.endRow();
+        rows++;
+    }
+    
+    /**
+     * Writes a rejected row given as text to the quarantine file, encoding it straight
+     * into the current block.
+     * 
+     * @param lineNumber the line number of the row in the input file
+     * @param line the row
+     * @param reason the reason the row was rejected
+     * @throws IOException if an earlier block could not be written
+     */
+    @Override
+    public void reject(long lineNumber, String line, RejectReason reason) throws IOException {
+        writePrefix(lineNumber, reason);
+        encoder.writeString(line);
+        encoder.endRow();
+        rows++;
+    }
+    
+    /**
+     * Writes the line number and reason fields of a rejected row.
+     * 
+     * @param lineNumber the line number of the row in the input file
+     * @param reason the reason the row was rejected
+     * @throws IOException if an earlier block could not be written
+     */
+    private void writePrefix(long lineNumber, RejectReason reason) throws IOException {
+        encoder.writeLong(lineNumber);
+        encoder.writeByte(',');
+        encoder.writeBytes(reasonNames[reason.ordinal()]);
+        encoder.writeByte(',');
+    }
+    
+    /**
+     * Gets the number of rows written to the quarantine file.
+     * 
+     * @return the number of rejected rows
+     */
+    public long getRows() {
+        return rows;
+    }
+    
+    /**
+     * Writes the remaining rows and closes the file, waiting until every block has been written.
+     * 
+     * @throws IOException if a block cannot be written or the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        encoder.close();
+    }
+}
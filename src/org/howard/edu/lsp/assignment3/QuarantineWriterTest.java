@@ -0,0 +1,144 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for QuarantineWriter.
+ * Verifies that every extractor quarantines the same rows with the same line numbers and
+ * reasons, and that counts by reason survive merging, checkpoints and the metrics file.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class QuarantineWriterTest {
+    
+    /** Data rows the test input is made of, valid and rejected for every reason */
+    private static final String[] ROWS = {"1,Desk Lamp,19.99,Furniture", "x,Pen,1.00,Office", "2, ,3.00,Office",
+        "3,Pen,1.2.3,Office", "4,Pen,2.50, ", "5,Pen,2.50", "6,Pen,2.50,Office,Extra", "", "   ",
+        "7,Café,1e2,Bäckerei", "8,Mug,,Kitchen"};
+    
+    /** Line separators the test input uses */
+    private static final String[] SEPARATORS = {"\n", "\r\n", "\r"};
+    
+    @Test
+    @DisplayName("Test every extractor quarantines the same rows, line numbers and reasons")
+    public void testSameQuarantineForEveryExtractor() throws IOException {
+        Path directory = Files.createTempDirectory("quarantine-test");
+        Path input = directory.resolve("products.csv");
+        Path[] files = {directory.resolve("plain.csv"), directory.resolve("mapped.csv"),
+            directory.resolve("parallel.csv"), directory.resolve("batches.csv")};
+        try {
+            StringBuilder content = new StringBuilder("ProductID,Name,Price,Category\n");
+            Random random = new Random(22);
+            for (int i = 0; i < 2000; i++) {
+                content.append(ROWS[random.nextInt(ROWS.length)]).append(SEPARATORS[random.nextInt(3)]);
+            }
+            content.append("9,Last,1.00");
+            Files.write(input, content.toString().getBytes(StandardCharsets.UTF_8));
+            
+            StatisticsCollector expected = new StatisticsCollector();
+            Path expectedFile = quarantine(new DataExtractor(), input, files[0], expected, false);
+            List<String> lines = Files.readAllLines(expectedFile, StandardCharsets.UTF_8);
+            assertEquals(QuarantineWriter.HEADER, lines.get(0));
+            assertEquals(expected.getSkipped() + 1, lines.size());
+            assertTrue(lines.get(lines.size() - 1).endsWith(",FIELD_COUNT,9,Last,1.00"));
+            String[] inputLines = content.toString().split("\r\n|\r|\n", -1);
+            for (String line : lines.subList(1, lines.size())) {
+                String[] parts = line.split(",", 3);
+                assertEquals(inputLines[Integer.parseInt(parts[0]) - 1], parts[2], line);
+                RejectReason reason = RejectReason.valueOf(parts[1]);
+                assertEquals(reason, ProductValidator.parseProduct(parts[2], false).getReason(), line);
+            }
+            
+            DataExtractor[] extractors = {new MappedDataExtractor(64), new ParallelDataExtractor(3, 100),
+                new ParallelDataExtractor(3, 100)};
+            for (int i = 0; i < extractors.length; i++) {
+                StatisticsCollector statistics = new StatisticsCollector();
+                Path file = quarantine(extractors[i], input, files[i + 1], statistics, i == 2);
+                assertArrayEquals(Files.readAllBytes(expectedFile), Files.readAllBytes(file));
+                assertEquals(expected.getSkipped(), statistics.getSkipped());
+                for (RejectReason reason : RejectReason.values()) {
+                    assertTrue(expected.getSkipped(reason) > 0 || reason == RejectReason.DUPLICATE_ID, reason.name());
+                    assertEquals(expected.getSkipped(reason), statistics.getSkipped(reason), reason.name());
+                }
+            }
+        } finally {
+            for (Path path : files) {
+                Files.deleteIfExists(path);
+            }
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(directory);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test counts by reason are merged, checkpointed and reported in the metrics")
+    public void testCountsByReason() throws IOException {
+        StatisticsCollector shard = new StatisticsCollector();
+        shard.incrementSkipped(RejectReason.INVALID_PRICE);
+        shard.incrementSkipped(RejectReason.INVALID_PRICE);
+        shard.incrementSkipped(RejectReason.MISSING_NAME);
+        shard.incrementSkipped();
+        
+        ConcurrentStatisticsCollector total = new ConcurrentStatisticsCollector();
+        total.merge(shard);
+        total.incrementSkipped(RejectReason.INVALID_PRICE);
+        assertEquals(5, total.getSkipped());
+        assertEquals(3, total.getSkipped(RejectReason.INVALID_PRICE));
+        assertEquals(1, total.getSkipped(RejectReason.MISSING_NAME));
+        assertEquals(0, total.getSkipped(RejectReason.FIELD_COUNT));
+        
+        Path file = Files.createTempFile("quarantine", ".checkpoint");
+        try {
+            new Checkpoint(1, 2, 3, 4, 5, total.snapshot()).save(file);
+            StatisticsSnapshot counts = Checkpoint.load(file).getCounts();
+            assertEquals(3, counts.getSkipped(RejectReason.INVALID_PRICE));
+            assertEquals(1, counts.getSkipped(RejectReason.MISSING_NAME));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        
+        assertTrue(total.getMetricsJson().contains("\"invalid_price\": 3, \"missing_category\": 0"));
+        total.reset();
+        assertEquals(0, total.getSkipped(RejectReason.INVALID_PRICE));
+        shard.reset();
+        assertEquals(0, shard.snapshot().getSkipped(RejectReason.MISSING_NAME));
+        assertThrows(IllegalArgumentException.class, () -> new StatisticsSnapshot(0, 0, 0, new long[1], false));
+    }
+    
+    /**
+     * Extracts a file with an extractor that writes rejected rows to a quarantine file.
+     * 
+     * @param extractor the extractor
+     * @param input the input file
+     * @param path the quarantine file to write
+     * @param statistics the statistics collector to update
+     * @param batches whether to extract columnar batches instead of products
+     * @return the quarantine file
+     * @throws IOException if the input cannot be read or the quarantine file cannot be written
+     */
+    private static Path quarantine(DataExtractor extractor, Path input, Path path, StatisticsCollector statistics,
+                                   boolean batches) throws IOException {
+        try (QuarantineWriter writer = new QuarantineWriter(path, 2)) {
+            extractor.setRejectedRowSink(writer);
+            if (batches) {
+                extractor.extractBatches(input, statistics, new ProductBatch(extractor.getCategories(), 16),
+                    batch -> { });
+            } else {
+                extractor.extract(input, statistics, product -> { });
+            }
+            assertEquals(statistics.getSkipped(), writer.getRows());
+        }
+        return path;
+    }
+}
@@ -0,0 +1,53 @@
+package org.howard.edu.lsp.assignment3;
+
+/**
+ * The reason a data row of the input file is rejected. A row with several problems is
+ * rejected for the first one, checking the field count and then the fields from left
+ * to right. Duplicated ids are only checked for valid rows, and only when the run has
+ * a {@link DuplicatePolicy}; such rows are counted but not quarantined, as they are
+ * dropped after extraction.
+ *  
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public enum RejectReason {
+    
+    /** The row does not have exactly four comma-separated fields */
+    FIELD_COUNT("wrong number of fields"),
+    
+    /** The product id is empty or not an int */
+    INVALID_ID("invalid product id"),
+    
+    /** The name is empty */
+    MISSING_NAME("missing name"),
+    
+    /** The price is empty or not a decimal number */
+    INVALID_PRICE("invalid price"),
+    
+    /** The category is empty */
+    MISSING_CATEGORY("missing category"),
+    
+    /** The row is valid but its product id is dropped by the {@link DuplicatePolicy} of the run */
+    DUPLICATE_ID("duplicate product id");
+    
+    /** Human-readable description of the reason */
+    private final String description;
+    
+    /**
+     * Constructs a new RejectReason.
+     * 
+     * @param description the human-readable description of the reason
+     */
+    RejectReason(String description) {
+        this.description = description;
+    }
+    
+    /**
+     * Gets the human-readable description of the reason.
+     * 
+     * @return the description
+     */
+    public String getDescription() {
+        return description;
+    }
+}
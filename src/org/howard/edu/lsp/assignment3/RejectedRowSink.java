@@ -0,0 +1,52 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Receives the data rows that extractors reject, one at a time and in input order.
+ * Each row is passed with its line number in the input file, counting the header as
+ * line 1, its raw text without the line separator, and the reason it was rejected.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface RejectedRowSink extends Closeable {
+    
+    /**
+     * Accepts the next rejected row. The bytes of the row are only valid during the call.
+     * 
+     * @param lineNumber the line number of the row in the input file
+     * @param buffer the buffer holding the UTF-8 bytes of the row
+     * @param start the offset of the first byte of the row
+     * @param end the offset just past the last byte of the row
+     * @param reason the reason the row was rejected
+     * @throws IOException if the sink fails to handle the row
+     */
+    void reject(long lineNumber, ByteBuffer buffer, int start, int end, RejectReason reason) throws IOException;
+    
+    /**
+     * Accepts the next rejected row as text.
+     * 
+     * @param lineNumber the line number of the row in the input file
+     * @param line the row
+     * @param reason the reason the row was rejected
+     * @throws IOException if the sink fails to handle the row
+     */
+    default void reject(long lineNumber, String line, RejectReason reason) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        reject(lineNumber, ByteBuffer.wrap(bytes), 0, bytes.length, reason);
+    }
+    
+    /**
+     * Releases any resources held by the sink. The default implementation does nothing.
+     * 
+     * @throws IOException if an error occurs while closing
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,581 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A {@link RuleSet} compiled for one {@link CategoryDictionary}. Each rule becomes a step
+ * held in flat arrays: its action, its price condition with the threshold in cents, its
+ * factor as a fraction for fixed-point prices and its target category as a code. The
+ * category conditions are resolved once per category code into a program, the list of
+ * steps whose category condition holds, so a row only runs the rules that can apply to
+ * it and only price conditions are checked per row. Steps whose result does not depend
+ * on the order are taken out of the list: an unconditional uppercase becomes a flag, as
+ * nothing else reads the name, and so do unconditional price range steps at the end.
+ * 
+ * <p>Prices held in cents are handled in cents; a row whose price is a BigDecimal, or
+ * whose price overflows or needs a factor too precise for cents, is handled with
+ * BigDecimal arithmetic instead, with the same results. Programs for new category codes
+ * are compiled as the dictionary grows and published as a new array, so a plan can be
+ * shared by several threads without a lock.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+final class RulePlan {
+    
+    /** Step action that uppercases the name */
+    private static final int UPPERCASE_NAME = 0;
+    
+    /** Step action that multiplies the price */
+    private static final int MULTIPLY_PRICE = 1;
+    
+    /** Step action that replaces the category */
+    private static final int SET_CATEGORY = 2;
+    
+    /** Step action that sets the price range */
+    private static final int PRICE_RANGE = 3;
+    
+    /** Largest divisor accepted by {@link FixedPointPrice#multiply(long, long, long)} */
+    private static final int MAX_FACTOR_SCALE = 18;
+    
+    /** Divisor of factors with at most two decimal places */
+    private static final long CENTS_DIVISOR = 100;
+    
+    /** The rules the steps were compiled from */
+    private final List<TransformRule> rules;
+    
+    /** Dictionary the category codes belong to */
+    private final CategoryDictionary categories;
+    
+    /** Price bands the price range steps classify prices into */
+    private final PriceBands priceBands;
+    
+    /** Action of each step */
+    private final int[] actions;
+    
+    /** Price comparison of each step, or null if the step applies to every price */
+    private final TransformRule.Comparison[] comparisons;
+    
+    /** Lowest price in cents for which the price condition of each step holds */
+    private final long[] minCents;
+    
+    /** Highest price in cents for which the price condition of each step holds */
+    private final long[] maxCents;
+    
+    /** Price threshold of each step */
+    private final BigDecimal[] thresholds;
+    
+    /** Factor numerator of each step, or {@link FixedPointPrice#NOT_REPRESENTABLE} if it does not fit */
+    private final long[] numerators;
+    
+    /** Factor divisor of each step */
+    private final long[] divisors;
+    
+    /** Factor of each step */
+    private final BigDecimal[] factors;
+    
+    /** Target category code of each step */
+    private final int[] targetCodes;
+    
+    /** Whether a rule uppercases every name, whatever the category and price */
+    private final boolean uppercaseAll;
+    
+    /** Program of each category code of the dictionary, extended as codes are added */
+    private volatile Program[] programs = new Program[0];
+    
+    /**
+     * Compiles a rule set for a dictionary. The target categories of the rules are
+     * interned in the dictionary.
+     * 
+     * @param rules the rules to compile
+     * @param categories the dictionary of the category codes the plan is used with
+     */
+    RulePlan(RuleSet rules, CategoryDictionary categories) {
+        this.rules = rules.getRules();
+        this.categories = categories;
+        this.priceBands = rules.getPriceBands();
+        int steps = this.rules.size();
+        this.actions = new int[steps];
+        this.comparisons = new TransformRule.Comparison[steps];
+        this.minCents = new long[steps];
+        this.maxCents = new long[steps];
+        this.thresholds = new BigDecimal[steps];
+        this.numerators = new long[steps];
+        this.divisors = new long[steps];
+        this.factors = new BigDecimal[steps];
+        this.targetCodes = new int[steps];
+        boolean uppercase = false;
+        for (int step = 0; step < steps; step++) {
+            TransformRule rule = this.rules.get(step);
+            actions[step] = rule.getAction().ordinal();
+            comparisons[step] = rule.getPriceComparison();
+            thresholds[step] = rule.getPriceThreshold();
+            setPriceBounds(step, rule.getPriceComparison(), rule.getPriceThreshold());
+            if (rule.getFactor() != null) {
+                setFactor(step, rule.getFactor());
+            }
+            targetCodes[step] = rule.getTargetCategory() == null
+                ? CategoryDictionary.NOT_FOUND : categories.intern(rule.getTargetCategory());
+            uppercase |= rule.getAction() == TransformRule.Action.UPPERCASE_NAME
+                && rule.getCategories().isEmpty() && rule.getPriceComparison() == null;
+        }
+        this.uppercaseAll = uppercase;
+    }
+    
+    /**
+     * Stores the price condition of a step as the range of prices in cents for which it
+     * holds, so that checking it is two comparisons whatever the comparison is.
+     * 
+     * @param step the step
+     * @param comparison the comparison of the condition, or null for every price
+     * @param threshold the threshold of the condition, or null for every price
+     */
+    private void setPriceBounds(int step, TransformRule.Comparison comparison, BigDecimal threshold) {
+        minCents[step] = Long.MIN_VALUE;
+        maxCents[step] = Long.MAX_VALUE;
+        if (comparison == null) {
+            return;
+        }
+        long cents = FixedPointPrice.fromBigDecimal(threshold);
+        switch (comparison) {
+            case GREATER:
+                if (cents == Long.MAX_VALUE) {
+                    // No price in cents is greater, so the range is empty
+                    maxCents[step] = Long.MIN_VALUE;
+                } else {
+                    minCents[step] = cents + 1;
+                }
+                break;
+            case GREATER_OR_EQUAL:
+                minCents[step] = cents;
+                break;
+            case LESS:
+                maxCents[step] = cents - 1;
+                break;
+            default:
+                maxCents[step] = cents;
+                break;
+        }
+    }
+    
+    /**
+     * Stores the factor of a step, as a fraction for fixed-point prices when it fits.
+     * Factors with at most two decimal places, like discount rates, all get the divisor
+     * {@value #CENTS_DIVISOR}.
+     * 
+     * @param step the step
+     * @param factor the factor
+     */
+    private void setFactor(int step, BigDecimal factor) {
+        factors[step] = factor;
+        BigDecimal fraction = factor.scale() < FixedPointPrice.SCALE ? factor.setScale(FixedPointPrice.SCALE) : factor;
+        numerators[step] = FixedPointPrice.NOT_REPRESENTABLE;
+        if (fraction.scale() <= MAX_FACTOR_SCALE) {
+            try {
+                numerators[step] = fraction.unscaledValue().longValueExact();
+                divisors[step] = BigDecimal.ONE.movePointRight(fraction.scale()).longValueExact();
+            } catch (ArithmeticException e) {
+                numerators[step] = FixedPointPrice.NOT_REPRESENTABLE;
+            }
+        }
+    }
+    
+    /**
+     * Applies the rules to a copy of a product.
+     * 
+     * @param product the product to transform, left unchanged
+     * @return the transformed product
+     */
+    Product apply(Product product) {
+        Program program = program(product);
+        Product transformed = new Product(product);
+        if (!transformed.hasFixedPointPrice()) {
+            applyDecimal(transformed, program);
+        } else if (!applyInCents(transformed, program)) {
+            transformed = new Product(product);
+            applyDecimal(transformed, program);
+        }
+        return transformed;
+    }
+    
+    /**
+     * Applies the rules to every row of a batch that uses this plan's dictionary, working
+     * on the columns directly for rows whose price is held in cents and whose name is
+     * ASCII, and through the row's {@link Product} view otherwise. When every name is
+     * uppercased and all names of the batch are ASCII, they are uppercased in one pass
+     * over the name column instead of row by row. The price ranges of the batch are
+     * switched to this plan's price bands first.
+     * 
+     * @param batch the batch to transform
+     * @param statistics the statistics collector to update for each row
+     */
+    void apply(ProductBatch batch, StatisticsCollector statistics) {
+        batch.setPriceBands(priceBands);
+        Program[] current = programs;
+        if (current.length < categories.size()) {
+            current = extendPrograms();
+        }
+        boolean namesUppercased = uppercaseAll && uppercaseAscii(batch);
+        for (int row = 0; row < batch.size(); row++) {
+            Program program = current[batch.getCategoryCode(row)];
+            if (!batch.hasFixedPointPrice(row) || !applyInCents(batch, row, program, namesUppercased)) {
+                batch.set(row, apply(batch.toProduct(row)));
+            }
+            statistics.incrementTransformed();
+        }
+    }
+    
+    /**
+     * Runs a program on a row whose price is held in cents. The flags of the program are
+     * handled here and the steps in {@link #runSteps(ProductBatch, int, int[], long)}, so
+     * rows of categories without steps take a short path. When the row cannot be handled
+     * here its name may have been uppercased, which the {@link Product} view repeats to
+     * the same result, and everything else is left unchanged.
+     * 
+     * @param batch the batch holding the row
+     * @param row the index of the row
+     * @param program the program to run
+     * @param nameUppercased whether the name of the row has already been uppercased
+     * @return true if the row was transformed, false if its name must be uppercased but is
+     *         not ASCII or its price cannot be computed in cents
+     */
+    private boolean applyInCents(ProductBatch batch, int row, Program program, boolean nameUppercased) {
+        if (program.uppercase && !nameUppercased && !uppercaseAscii(batch, row)) {
+            return false;
+        }
+        long cents = batch.getPriceCents(row);
+        if (program.steps.length > 0) {
+            int categoryCode = batch.getCategoryCode(row);
+            int priceRange = batch.getPriceRangeIndex(row);
+            cents = runSteps(batch, row, program.steps, cents);
+            if (cents == FixedPointPrice.NOT_REPRESENTABLE) {
+                batch.setCategoryCode(row, categoryCode);
+                batch.setPriceRangeIndex(row, priceRange);
+                return false;
+            }
+        }
+        batch.setPriceCents(row, cents);
+        if (program.priceRange) {
+            batch.setPriceRangeIndex(row, priceBands.indexOf(cents));
+        }
+        return true;
+    }
+    
+    /**
+     * Runs the steps of a program on a row whose price is held in cents, setting the
+     * category and price range of the row as it goes.
+     * 
+     * @param batch the batch holding the row
+     * @param row the index of the row
+     * @param steps the steps to run
+     * @param cents the price of the row in cents
+     * @return the new price in cents, or {@link FixedPointPrice#NOT_REPRESENTABLE} if the
+     *         name must be uppercased but is not ASCII or the price cannot be computed in cents
+     */
+    private long runSteps(ProductBatch batch, int row, int[] steps, long cents) {
+        for (int step : steps) {
+            if (cents < minCents[step] || cents > maxCents[step]) {
+                continue;
+            }
+            switch (actions[step]) {
+                case UPPERCASE_NAME:
+                    if (!uppercaseAscii(batch, row)) {
+                        return FixedPointPrice.NOT_REPRESENTABLE;
+                    }
+                    break;
+                case MULTIPLY_PRICE:
+                    cents = multiply(step, cents);
+                    if (cents == FixedPointPrice.NOT_REPRESENTABLE) {
+                        return FixedPointPrice.NOT_REPRESENTABLE;
+                    }
+                    break;
+                case SET_CATEGORY:
+                    batch.setCategoryCode(row, targetCodes[step]);
+                    break;
+                default:
+                    batch.setPriceRangeIndex(row, priceBands.indexOf(cents));
+                    break;
+            }
+        }
+        return cents;
+    }
+    
+    /**
+     * Uppercases the names of all rows of a batch in place if they are all ASCII.
+     * 
+     * @param batch the batch
+     * @return true if the names were uppercased, false if any is not ASCII and none was changed
+     */
+    private static boolean uppercaseAscii(ProductBatch batch) {
+        return uppercaseAscii(batch.getNameBytes(), 0, batch.getNameBytesUsed());
+    }
+    
+    /**
+     * Uppercases the name of a row in place if it is ASCII.
+     * 
+     * @param batch the batch holding the row
+     * @param row the index of the row
+     * @return true if the name was uppercased, false if it is not ASCII and was left unchanged
+     */
+    private static boolean uppercaseAscii(ProductBatch batch, int row) {
+        int start = batch.getNameOffset(row);
+        return uppercaseAscii(batch.getNameBytes(), start, start + batch.getNameLength(row));
+    }
+    
+    /**
+     * Uppercases a range of name bytes in place if it is ASCII, for which uppercasing only
+     * affects a-z.
+     * 
+     * @param names the name bytes
+     * @param start the start of the range
+     * @param end the end of the range, exclusive
+     * @return true if the range was uppercased, false if it is not ASCII and was left unchanged
+     */
+    private static boolean uppercaseAscii(byte[] names, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (names[i] < 0) {
+                return false;
+            }
+        }
+        for (int i = start; i < end; i++) {
+            byte b = names[i];
+            if (b >= 'a' && b <= 'z') {
+                names[i] = (byte) (b - ('a' - 'A'));
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Runs a program on a copy of a product whose price is held in cents.
+     * 
+     * @param transformed the copy being transformed
+     * @param program the program to run
+     * @return true if the product was transformed, false if the price cannot be computed in
+     *         cents, in which case BigDecimal arithmetic must be used on a new copy instead
+     */
+    private boolean applyInCents(Product transformed, Program program) {
+        long cents = transformed.getPriceCents();
+        if (program.steps.length > 0) {
+            cents = runSteps(transformed, program.steps, cents);
+            if (cents == FixedPointPrice.NOT_REPRESENTABLE) {
+                return false;
+            }
+        }
+        if (program.uppercase) {
+            transformed.setName(transformed.getName().toUpperCase(Locale.ROOT));
+        }
+        transformed.setPriceCents(cents);
+        if (program.priceRange) {
+            transformed.setPriceRange(priceBands.classify(cents));
+        }
+        return true;
+    }
+    
+    /**
+     * Runs the steps of a program on a copy of a product whose price is held in cents,
+     * setting its name, category and price range as it goes.
+     * 
+     * @param transformed the copy being transformed
+     * @param steps the steps to run
+     * @param cents the price of the product in cents
+     * @return the new price in cents, or {@link FixedPointPrice#NOT_REPRESENTABLE} if the
+     *         price cannot be computed in cents
+     */
+    private long runSteps(Product transformed, int[] steps, long cents) {
+        for (int step : steps) {
+            if (cents < minCents[step] || cents > maxCents[step]) {
+                continue;
+            }
+            switch (actions[step]) {
+                case UPPERCASE_NAME:
+                    transformed.setName(transformed.getName().toUpperCase(Locale.ROOT));
+                    break;
+                case MULTIPLY_PRICE:
+                    cents = multiply(step, cents);
+                    if (cents == FixedPointPrice.NOT_REPRESENTABLE) {
+                        return FixedPointPrice.NOT_REPRESENTABLE;
+                    }
+                    break;
+                case SET_CATEGORY:
+                    transformed.setCategory(categories, targetCodes[step]);
+                    break;
+                default:
+                    transformed.setPriceRange(priceBands.classify(cents));
+                    break;
+            }
+        }
+        return cents;
+    }
+    
+    /**
+     * Runs a program on a product with BigDecimal arithmetic, after normalizing the price
+     * to two decimal places.
+     * 
+     * @param transformed the product being transformed
+     * @param program the program to run
+     */
+    private void applyDecimal(Product transformed, Program program) {
+        BigDecimal price = transformed.getPrice().setScale(FixedPointPrice.SCALE, RoundingMode.HALF_UP);
+        if (program.steps.length > 0) {
+            price = runSteps(transformed, program.steps, price);
+        }
+        if (program.uppercase) {
+            transformed.setName(transformed.getName().toUpperCase(Locale.ROOT));
+        }
+        if (program.priceRange) {
+            transformed.setPriceRange(priceBands.classify(price));
+        }
+        transformed.setPrice(price);
+    }
+    
+    /**
+     * Runs the steps of a program on a product with BigDecimal arithmetic, setting its
+     * name, category and price range as it goes.
+     * 
+     * @param transformed the product being transformed
+     * @param steps the steps to run
+     * @param price the price of the product, with two decimal places
+     * @return the new price, with two decimal places
+     */
+    private BigDecimal runSteps(Product transformed, int[] steps, BigDecimal price) {
+        for (int step : steps) {
+            if (comparisons[step] != null && !comparisons[step].test(price.compareTo(thresholds[step]))) {
+                continue;
+            }
+            switch (actions[step]) {
+                case UPPERCASE_NAME:
+                    transformed.setName(transformed.getName().toUpperCase(Locale.ROOT));
+                    break;
+                case MULTIPLY_PRICE:
+                    price = price.multiply(factors[step]).setScale(FixedPointPrice.SCALE, RoundingMode.HALF_UP);
+                    break;
+                case SET_CATEGORY:
+                    transformed.setCategory(categories, targetCodes[step]);
+                    break;
+                default:
+                    transformed.setPriceRange(priceBands.classify(price));
+                    break;
+            }
+        }
+        return price;
+    }
+    
+    /**
+     * Multiplies a price in cents by the factor of a step.
+     * 
+     * @param step the step
+     * @param cents the price in cents
+     * @return the rounded product in cents, or {@link FixedPointPrice#NOT_REPRESENTABLE} if
+     *         the factor does not fit in a fraction of longs or the product overflows
+     */
+    private long multiply(int step, long cents) {
+        long numerator = numerators[step];
+        if (numerator == FixedPointPrice.NOT_REPRESENTABLE) {
+            return FixedPointPrice.NOT_REPRESENTABLE;
+        }
+        long divisor = divisors[step];
+        // A constant divisor lets the division compile to a multiplication
+        return FixedPointPrice.multiply(cents, numerator, divisor == CENTS_DIVISOR ? CENTS_DIVISOR : divisor);
+    }
+    
+    /**
+     * Gets the program of a product. A category not yet interned in this plan's
+     * dictionary, as for products not read by an extractor sharing it, is interned first,
+     * so its program is compiled only once.
+     * 
+     * @param product the product
+     * @return the program
+     */
+    private Program program(Product product) {
+        int code = product.getCategoryCode();
+        if (!categories.isInterned(product.getCategory(), code)) {
+            code = categories.intern(product.getCategory());
+        }
+        Program[] current = programs;
+        if (code >= current.length) {
+            current = extendPrograms();
+        }
+        return current[code];
+    }
+    
+    /**
+     * Compiles the programs of every code currently in the dictionary.
+     * A new array is published each time, so readers never need a lock.
+     * 
+     * @return programs covering every code in the dictionary
+     */
+    private synchronized Program[] extendPrograms() {
+        Program[] current = programs;
+        int size = categories.size();
+        if (current.length < size) {
+            int known = current.length;
+            current = Arrays.copyOf(current, size);
+            for (int code = known; code < size; code++) {
+                current[code] = compile(categories.get(code));
+            }
+            programs = current;
+        }
+        return current;
+    }
+    
+    /**
+     * Compiles the program of a category from the steps whose category condition holds for it.
+     * 
+     * @param category the category a product has before any rule runs
+     * @return the program
+     */
+    private Program compile(String category) {
+        int[] steps = new int[rules.size()];
+        int length = 0;
+        boolean uppercase = false;
+        for (int step = 0; step < steps.length; step++) {
+            if (!rules.get(step).matchesCategory(category)) {
+                continue;
+            }
+            if (actions[step] == UPPERCASE_NAME && comparisons[step] == null) {
+                uppercase = true;
+            } else {
+                steps[length++] = step;
+            }
+        }
+        boolean priceRange = false;
+        while (length > 0 && actions[steps[length - 1]] == PRICE_RANGE && comparisons[steps[length - 1]] == null) {
+            priceRange = true;
+            length--;
+        }
+        return new Program(Arrays.copyOf(steps, length), uppercase, priceRange);
+    }
+    
+    /**
+     * The compiled rules of one category.
+     */
+    private static final class Program {
+        
+        /** Steps to run for each row, in order */
+        final int[] steps;
+        
+        /** Whether the name is uppercased whatever the price */
+        final boolean uppercase;
+        
+        /** Whether the price range is set from the final price */
+        final boolean priceRange;
+        
+        /**
+         * Constructs a new Program.
+         * 
+         * @param steps the steps to run for each row
+         * @param uppercase whether the name is uppercased whatever the price
+         * @param priceRange whether the price range is set from the final price
+         */
+        Program(int[] steps, boolean uppercase, boolean priceRange) {
+            this.steps = steps;
+            this.uppercase = uppercase;
+            this.priceRange = priceRange;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * An ordered list of {@link TransformRule}s, applied one after the other to every product,
+ * and the {@link PriceBands} that {@code price-range} rules classify prices into.
+ * Rule sets are loaded from properties files of the following form:
+ * <pre>
+ * rules=uppercase, discount, premium
+ * rule.uppercase.action=uppercase-name
+ * rule.discount.action=multiply-price
+ * rule.discount.value=0.90
+ * rule.discount.categories=Electronics
+ * rule.premium.action=set-category
+ * rule.premium.value=Premium Electronics
+ * rule.premium.categories=Electronics
+ * rule.premium.price=&gt; 500.00
+ * price-bands=Low &lt;= 10.00, Medium &lt;= 100.00, High &lt;= 500.00, Premium
+ * </pre>
+ * {@code rules} lists the rules in the order they run. The action of a rule is one of
+ * {@code uppercase-name}, {@code multiply-price}, {@code set-category} and
+ * {@code price-range}; the optional {@code categories} are comma-separated and the
+ * optional {@code price} condition is one of {@code >}, {@code >=}, {@code <} and
+ * {@code <=} followed by a threshold. At least one {@code price-range} rule must have
+ * neither, so that every row gets a price range. The file is read as UTF-8, like the
+ * CSV files. {@code price-bands} is optional and defaults to the
+ * price ranges of {@link PriceRangeCalculator}; see {@link PriceBands#parse(String)}.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public final class RuleSet {
+    
+    /** Property listing the rules in order */
+    private static final String RULES_KEY = "rules";
+    
+    /** Prefix of the properties of each rule */
+    private static final String RULE_PREFIX = "rule.";
+    
+    /** Property holding the price bands */
+    private static final String PRICE_BANDS_KEY = "price-bands";
+    
+    /** The rules in the order they run */
+    private final List<TransformRule> rules;
+    
+    /** The price bands prices are classified into */
+    private final PriceBands priceBands;
+    
+    /**
+     * Constructs a new RuleSet that classifies prices into the price ranges of
+     * {@link PriceRangeCalculator}.
+     * 
+     * @param rules the rules in the order they run
+     */
+    public RuleSet(List<TransformRule> rules) {
+        this(rules, PriceRangeCalculator.getBands());
+    }
+    
+    /**
+     * Constructs a new RuleSet.
+     * 
+     * @param rules the rules in the order they run
+     * @param priceBands the price bands prices are classified into
+     */
+    public RuleSet(List<TransformRule> rules, PriceBands priceBands) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.priceBands = Objects.requireNonNull(priceBands, "priceBands");
+    }
+    
+    /**
+     * Reads a rule set from a properties file.
+     * 
+     * @param path the path of the rule file
+     * @return the rule set
+     * @throws IOException if the file cannot be read or does not describe a valid rule set
+     */
+    public static RuleSet load(Path path) throws IOException {
+        Properties properties = new Properties();
+        // Rule files are UTF-8 like the CSV files, so categories such as Bäckerei match
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        try {
+            return fromProperties(properties);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid rule file " + path + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Builds a rule set from the properties of a rule file.
+     * 
+     * @param properties the properties, in the format described in the class documentation
+     * @return the rule set
+     * @throws IllegalArgumentException if the properties do not describe a valid rule set
+     */
+    static RuleSet fromProperties(Properties properties) {
+        String names = properties.getProperty(RULES_KEY);
+        if (names == null) {
+            throw new IllegalArgumentException("missing " + RULES_KEY);
+        }
+        List<TransformRule> rules = new ArrayList<>();
+        for (String name : split(names)) {
+            rules.add(parseRule(properties, name));
+        }
+        if (!hasUnconditionalPriceRange(rules)) {
+            // Without one, rows would be written with a PriceRange of null
+            throw new IllegalArgumentException("no " + TransformRule.Action.PRICE_RANGE.getKey()
+                + " rule without categories or price applies to every row");
+        }
+        String bands = properties.getProperty(PRICE_BANDS_KEY);
+        return new RuleSet(rules, bands == null ? PriceRangeCalculator.getBands() : PriceBands.parse(bands));
+    }
+    
+    /**
+     * Checks whether a price-range rule without conditions gives every row a price range.
+     * 
+     * @param rules the rules of the rule set
+     * @return true if some price-range rule applies to every row, false otherwise
+     */
+    private static boolean hasUnconditionalPriceRange(List<TransformRule> rules) {
+        for (TransformRule rule : rules) {
+            if (rule.getAction() == TransformRule.Action.PRICE_RANGE && rule.getCategories().isEmpty()
+                    && rule.getPriceComparison() == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Builds one rule from its properties.
+     * 
+     * @param properties the properties of the rule file
+     * @param name the name of the rule
+     * @return the rule
+     * @throws IllegalArgumentException if the rule properties are missing or invalid
+     */
+    private static TransformRule parseRule(Properties properties, String name) {
+        String prefix = RULE_PREFIX + name + '.';
+        String action = properties.getProperty(prefix + "action");
+        if (action == null) {
+            throw new IllegalArgumentException("missing " + prefix + "action");
+        }
+        String value = properties.getProperty(prefix + "value");
+        TransformRule rule;
+        switch (TransformRule.Action.fromKey(action.trim())) {
+            case UPPERCASE_NAME:
+                rule = TransformRule.uppercaseName(name);
+                break;
+            case MULTIPLY_PRICE:
+                rule = TransformRule.multiplyPrice(name, parseDecimal(prefix + "value", value));
+                break;
+            case SET_CATEGORY:
+                if (value == null || value.trim().isEmpty()) {
+                    throw new IllegalArgumentException("missing " + prefix + "value");
+                }
+                rule = TransformRule.setCategory(name, value.trim());
+                break;
+            default:
+                rule = TransformRule.priceRange(name);
+                break;
+        }
+        
+        String categories = properties.getProperty(prefix + "categories");
+        if (categories != null) {
+            rule = rule.forCategories(split(categories).toArray(new String[0]));
+        }
+        String price = properties.getProperty(prefix + "price");
+        if (price != null) {
+            String condition = price.trim();
+            int split = 0;
+            while (split < condition.length() && "<>=".indexOf(condition.charAt(split)) >= 0) {
+                split++;
+            }
+            rule = rule.whenPrice(TransformRule.Comparison.fromSymbol(condition.substring(0, split)),
+                parseDecimal(prefix + "price", condition.substring(split).trim()));
+        }
+        return rule;
+    }
+    
+    /**
+     * Parses a decimal property value.
+     * 
+     * @param key the property the value belongs to
+     * @param value the value, or null if the property is missing
+     * @return the parsed value
+     * @throws IllegalArgumentException if the value is missing or not a number
+     */
+    private static BigDecimal parseDecimal(String key, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("missing " + key);
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad " + key + " " + value);
+        }
+    }
+    
+    /**
+     * Splits a comma-separated property value into its trimmed, non-empty parts.
+     * 
+     * @param value the property value
+     * @return the parts
+     */
+    private static List<String> split(String value) {
+        List<String> parts = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.trim().isEmpty()) {
+                parts.add(part.trim());
+            }
+        }
+        return parts;
+    }
+    
+    /**
+     * Gets the rules in the order they run.
+     * 
+     * @return an unmodifiable list of the rules
+     */
+    public List<TransformRule> getRules() {
+        return rules;
+    }
+    
+    /**
+     * Gets the price bands prices are classified into.
+     * 
+     * @return the price bands
+     */
+    public PriceBands getPriceBands() {
+        return priceBands;
+    }
+    
+    /**
+     * Returns a description of the rules, one per line, and of the price bands, holding
+     * everything that affects their results.
+     * 
+     * @return a string representation of the rule set
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (TransformRule rule : rules) {
+            builder.append(rule).append('\n');
+        }
+        return builder.append(PRICE_BANDS_KEY).append(": ").append(priceBands).append('\n').toString();
+    }
+}
@@ -0,0 +1,178 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for RuleSet and the rule plans DataTransformer compiles from it.
+ * Verifies loading rule files and that the row, batch and BigDecimal paths agree.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class RuleSetTest {
+    
+    /** Rule file equivalent to the default rules */
+    private static final String DEFAULT_RULE_FILE = String.join("\n",
+        "rules=uppercase-name, electronics-discount, premium-electronics, price-range",
+        "rule.uppercase-name.action=uppercase-name",
+        "rule.electronics-discount.action=multiply-price",
+        "rule.electronics-discount.value=0.90",
+        "rule.electronics-discount.categories=Electronics",
+        "rule.premium-electronics.action=set-category",
+        "rule.premium-electronics.value=Premium Electronics",
+        "rule.premium-electronics.categories=Electronics",
+        "rule.premium-electronics.price=> 500.00",
+        "rule.price-range.action=price-range");
+    
+    @Test
+    @DisplayName("Test a rule file with the default rules loads to the same rules")
+    public void testLoadDefaultRules() throws IOException {
+        Path file = Files.createTempFile("rules", ".properties");
+        try {
+            Files.write(file, DEFAULT_RULE_FILE.getBytes(StandardCharsets.UTF_8));
+            RuleSet rules = RuleSet.load(file);
+            
+            assertEquals(DataTransformer.getDefaultRules().toString(), rules.toString());
+            assertEquals(IncrementalProcessor.rulesFingerprint(DataTransformer.getDefaultRules()),
+                IncrementalProcessor.rulesFingerprint(rules));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test an invalid rule file is rejected with the offending property")
+    public void testInvalidRuleFile() throws IOException {
+        Path file = Files.createTempFile("rules", ".properties");
+        try {
+            Files.write(file, "rules=discount\nrule.discount.action=multiply-price\nrule.discount.value=ten\n"
+                .getBytes(StandardCharsets.UTF_8));
+            IOException e = assertThrows(IOException.class, () -> RuleSet.load(file));
+            assertTrue(e.getMessage().contains("rule.discount.value"));
+            
+            Files.write(file, ("rules=premium\nrule.premium.action=set-category\nrule.premium.value=Premium\n"
+                + "rule.premium.price=> 1.005\n").getBytes(StandardCharsets.UTF_8));
+            e = assertThrows(IOException.class, () -> RuleSet.load(file));
+            assertTrue(e.getMessage().contains("not whole cents"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test a UTF-8 rule file matches non-ASCII categories")
+    public void testUtf8RuleFile() throws IOException {
+        Path file = Files.createTempFile("rules", ".properties");
+        try {
+            Files.write(file, String.join("\n", "rules=disc, price-range", "rule.disc.action=multiply-price",
+                "rule.disc.value=0.05", "rule.disc.categories=Bäckerei", "rule.price-range.action=price-range")
+                .getBytes(StandardCharsets.UTF_8));
+            DataTransformer transformer = new DataTransformer(new CategoryDictionary(), RuleSet.load(file));
+            
+            Product product = transformer.transform(new Product(1, "Brot", new BigDecimal("10.00"), "Bäckerei"),
+                new StatisticsCollector());
+            assertEquals(new BigDecimal("0.50"), product.getPrice());
+            assertEquals("Low", product.getPriceRange());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test a rule file that leaves rows without a price range is rejected")
+    public void testPriceRangeRequired() throws IOException {
+        Path file = Files.createTempFile("rules", ".properties");
+        try {
+            Files.write(file, "rules=upper\nrule.upper.action=uppercase-name\n".getBytes(StandardCharsets.UTF_8));
+            IOException e = assertThrows(IOException.class, () -> RuleSet.load(file));
+            assertTrue(e.getMessage().contains("price-range"));
+            
+            Files.write(file, ("rules=range\nrule.range.action=price-range\nrule.range.categories=Books\n")
+                .getBytes(StandardCharsets.UTF_8));
+            assertThrows(IOException.class, () -> RuleSet.load(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test rules only apply to their categories and prices")
+    public void testCustomRules() {
+        RuleSet rules = new RuleSet(Arrays.asList(
+            TransformRule.multiplyPrice("books-half-price", new BigDecimal("0.5")).forCategories("Books", "Comics"),
+            TransformRule.setCategory("bargain", "Bargains").whenPrice(TransformRule.Comparison.LESS_OR_EQUAL,
+                new BigDecimal("5.00")),
+            TransformRule.priceRange("price-range")));
+        DataTransformer transformer = new DataTransformer(new CategoryDictionary(), rules);
+        
+        Product book = transformer.transform(new Product(1, "Novel", new BigDecimal("10.00"), " books "),
+            new StatisticsCollector());
+        assertEquals("Novel", book.getName());
+        assertEquals(new BigDecimal("5.00"), book.getPrice());
+        assertEquals("Bargains", book.getCategory());
+        assertEquals("Low", book.getPriceRange());
+        
+        Product lamp = transformer.transform(new Product(2, "Lamp", new BigDecimal("10.00"), "Furniture"),
+            new StatisticsCollector());
+        assertEquals(new BigDecimal("10.00"), lamp.getPrice());
+        assertEquals("Furniture", lamp.getCategory());
+    }
+    
+    @Test
+    @DisplayName("Test batch, fixed-point and BigDecimal prices give the same results")
+    public void testPathsAgree() {
+        RuleSet rules = new RuleSet(Arrays.asList(
+            TransformRule.uppercaseName("uppercase-name"),
+            TransformRule.multiplyPrice("discount", new BigDecimal("0.875")).forCategories("Electronics"),
+            TransformRule.multiplyPrice("surcharge", new BigDecimal("1.1")).forCategories("Electronics")
+                .whenPrice(TransformRule.Comparison.GREATER_OR_EQUAL, new BigDecimal("100.00")),
+            TransformRule.setCategory("premium", "Premium Electronics").forCategories("Electronics")
+                .whenPrice(TransformRule.Comparison.GREATER, new BigDecimal("500.00")),
+            TransformRule.priceRange("price-range")));
+        CategoryDictionary dictionary = new CategoryDictionary();
+        DataTransformer transformer = new DataTransformer(dictionary, rules);
+        String[] names = {"Laptop", "Café Mug", "desk"};
+        String[] prices = {"0.01", "99.99", "114.29", "571.43", "600.00", "9000000000000000.00"};
+        String[] categories = {"Electronics", "electronics ", "Books"};
+        
+        ProductBatch batch = new ProductBatch(dictionary);
+        int id = 0;
+        for (String name : names) {
+            for (String price : prices) {
+                for (String category : categories) {
+                    Product product = new Product(++id, name, FixedPointPrice.parseCents(price), category);
+                    product.setCategory(dictionary, dictionary.intern(category));
+                    batch.add(product);
+                }
+            }
+        }
+        transformer.transform(batch, new StatisticsCollector());
+        
+        for (int row = 0; row < batch.size(); row++) {
+            String name = names[row / (prices.length * categories.length)];
+            String price = prices[row / categories.length % prices.length];
+            String category = categories[row % categories.length];
+            Product decimal = transformer.transform(new Product(row + 1, name, new BigDecimal(price), category),
+                new StatisticsCollector());
+            Product fixedPoint = transformer.transform(new Product(row + 1, name, FixedPointPrice.parseCents(price),
+                category), new StatisticsCollector());
+            
+            for (Product product : Arrays.asList(fixedPoint, batch.toProduct(row))) {
+                assertEquals(decimal.getName(), product.getName());
+                assertEquals(decimal.getPrice(), product.getPrice());
+                assertEquals(decimal.getCategory(), product.getCategory());
+                assertEquals(decimal.getPriceRange(), product.getPriceRange());
+            }
+        }
+    }
+}
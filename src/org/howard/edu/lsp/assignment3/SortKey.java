@@ -0,0 +1,90 @@
+package org.howard.edu.lsp.assignment3;
+
+/**
+ * The field that {@link ExternalSorter} orders transformed products by. Every key orders
+ * rows in ascending order, and rows with equal keys keep their input order.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public enum SortKey {
+    
+    /** Orders rows by product id */
+    PRODUCT_ID("productId") {
+        @Override
+        public int compare(ProductBatch a, int rowA, ProductBatch b, int rowB) {
+            return Integer.compare(a.getProductId(rowA), b.getProductId(rowB));
+        }
+    },
+    
+    /** Orders rows by final price, comparing prices by value, so 10.0 and 10.00 are equal */
+    PRICE("price") {
+        @Override
+        public int compare(ProductBatch a, int rowA, ProductBatch b, int rowB) {
+            if (a.hasFixedPointPrice(rowA) && b.hasFixedPointPrice(rowB)) {
+                return Long.compare(a.getPriceCents(rowA), b.getPriceCents(rowB));
+            }
+            return a.getPrice(rowA).compareTo(b.getPrice(rowB));
+        }
+    },
+    
+    /** Orders rows by category, comparing categories as {@link String#compareTo(String)} does */
+    CATEGORY("category") {
+        @Override
+        public int compare(ProductBatch a, int rowA, ProductBatch b, int rowB) {
+            if (a.getCategories() == b.getCategories() && a.getCategoryCode(rowA) == b.getCategoryCode(rowB)) {
+                return 0;
+            }
+            return a.getCategory(rowA).compareTo(b.getCategory(rowB));
+        }
+    };
+    
+    /** Name of the key on the command line */
+    private final String optionName;
+    
+    /**
+     * Constructs a new SortKey.
+     * 
+     * @param optionName the name of the key on the command line
+     */
+    SortKey(String optionName) {
+        this.optionName = optionName;
+    }
+    
+    /**
+     * Compares two rows by this key.
+     * 
+     * @param a the batch holding the first row
+     * @param rowA the index of the first row
+     * @param b the batch holding the second row
+     * @param rowB the index of the second row
+     * @return a negative number, zero or a positive number as the first row sorts
+     *         before, together with or after the second
+     */
+    public abstract int compare(ProductBatch a, int rowA, ProductBatch b, int rowB);
+    
+    /**
+     * Gets the name of the key on the command line.
+     * 
+     * @return the option name, for example {@code productId}
+     */
+    public String getOptionName() {
+        return optionName;
+    }
+    
+    /**
+     * Finds the key with the given command line name.
+     * 
+     * @param optionName the option name, for example {@code price}
+     * @return the key
+     * @throws IllegalArgumentException if no key has this name
+     */
+    public static SortKey fromOptionName(String optionName) {
+        for (SortKey key : values()) {
+            if (key.optionName.equals(optionName)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sort key: " + optionName);
+    }
+}
@@ -1,9 +1,15 @@
 package org.howard.edu.lsp.assignment3;
 
+import java.util.Arrays;
+
 /**
  * Collects and manages statistics for the ETL pipeline operations.
  * This class encapsulates all counting and metrics-related functionality,
  * providing a clean interface for tracking pipeline performance.
+ * Counters are held as longs, so they do not overflow on inputs of more than
+ * {@link Integer#MAX_VALUE} rows. Skipped rows are also counted by {@link RejectReason}.
+ * A collector is meant to be updated by one thread
+ * at a time; {@link ConcurrentStatisticsCollector} can be updated by many threads at once.
  * 
  * @author Giliad Dawite
  * @version 1.0
@@ -11,17 +17,23 @@ package org.howard.edu.lsp.assignment3;
 public class StatisticsCollector {
     
     /** Number of rows read from input file (excluding header) */
-    private int rowsRead;
+    private long rowsRead;
     
     /** Number of products successfully transformed */
-    private int transformed;
+    private long transformed;
     
     /** Number of products skipped due to validation errors */
-    private int skipped;
+    private long skipped;
+    
+    /** Number of products skipped for each reject reason, indexed by ordinal */
+    private final long[] skippedByReason = new long[RejectReason.values().length];
     
     /** Whether the write operation was successful */
     private boolean writeSuccessful;
     
+    /** Timing and resource metrics of the run */
+    private final PipelineMetrics metrics = new PipelineMetrics();
+    
     /**
      * Constructs a new StatisticsCollector with all counters initialized to zero.
      */
@@ -53,6 +65,16 @@ public class StatisticsCollector {
         this.skipped++;
     }
     
+    /**
+     * Increments the skipped counter and the counter of the reason the row was rejected.
+     * 
+     * @param reason the reason the row was rejected
+     */
+    public void incrementSkipped(RejectReason reason) {
+        this.skipped++;
+        this.skippedByReason[reason.ordinal()]++;
+    }
+    
     /**
      * Sets the write operation success status.
      * 
@@ -67,7 +89,7 @@ public class StatisticsCollector {
      * 
      * @return the number of rows read
      */
-    public int getRowsRead() {
+    public long getRowsRead() {
         return rowsRead;
     }
     
@@ -76,7 +98,7 @@ public class StatisticsCollector {
      * 
      * @return the number of products transformed
      */
-    public int getTransformed() {
+    public long getTransformed() {
         return transformed;
     }
     
@@ -85,10 +107,20 @@ public class StatisticsCollector {
      * 
      * @return the number of products skipped
      */
-    public int getSkipped() {
+    public long getSkipped() {
         return skipped;
     }
     
+    /**
+     * Gets the number of products skipped for the given reason.
+     * 
+     * @param reason the reject reason
+     * @return the number of products skipped for this reason
+     */
+    public long getSkipped(RejectReason reason) {
+        return skippedByReason[reason.ordinal()];
+    }
+    
     /**
      * Gets the write operation success status.
      * 
@@ -99,13 +131,78 @@ public class StatisticsCollector {
     }
     
     /**
-     * Resets all counters to zero.
+     * Adds the counters of another collector to this one.
+     * This is used to combine per-worker statistics after a parallel phase, where each
+     * worker counts into its own collector. The write status is not affected.
+     * 
+     * @param other the collector whose counters should be added
+     */
+    public void merge(StatisticsCollector other) {
+        merge(other.snapshot());
+    }
+    
+    /**
+     * Adds the counters of a snapshot to this one, for example to carry on counting
+     * from a checkpoint of an interrupted run. The write status is not affected.
+     * 
+     * @param counts the snapshot whose counters should be added
+     */
+    public void merge(StatisticsSnapshot counts) {
+        this.rowsRead += counts.getRowsRead();
+        this.transformed += counts.getTransformed();
+        this.skipped += counts.getSkipped();
+        for (RejectReason reason : RejectReason.values()) {
+            this.skippedByReason[reason.ordinal()] += counts.getSkipped(reason);
+        }
+    }
+    
+    /**
+     * Takes an immutable copy of the counters and the write status.
+     * 
+     * @return the snapshot
+     */
+    public StatisticsSnapshot snapshot() {
+        return new StatisticsSnapshot(rowsRead, transformed, skipped, skippedByReason, writeSuccessful);
+    }
+    
+    /**
+     * Gets the timing and resource metrics of the run. The metrics are not
+     * combined by {@link #merge(StatisticsCollector)}.
+     * 
+     * @return the pipeline metrics
+     */
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Gets the number of rows read per second of wall time of the last completed run.
+     * 
+     * @return the rows per second, or 0 if the run was not timed
+     */
+    public double getRowsPerSecond() {
+        return metrics.getRowsPerSecond(getRowsRead());
+    }
+    
+    /**
+     * Returns the counters and the metrics of the run as a JSON object.
+     * 
+     * @return the JSON text
+     */
+    public String getMetricsJson() {
+        return metrics.toJson(snapshot());
+    }
+    
+    /**
+     * Resets all counters and metrics to zero.
      */
     public void reset() {
         this.rowsRead = 0;
         this.transformed = 0;
         this.skipped = 0;
+        Arrays.fill(this.skippedByReason, 0);
         this.writeSuccessful = false;
+        this.metrics.reset();
     }
     
     /**
@@ -114,7 +211,6 @@ public class StatisticsCollector {
      * @return a formatted string containing all statistics
      */
     public String getSummary() {
-        return String.format("Rows read: %d, Transformed: %d, Skipped: %d, Write successful: %b",
-                rowsRead, transformed, skipped, writeSuccessful);
+        return snapshot().getSummary();
     }
 }
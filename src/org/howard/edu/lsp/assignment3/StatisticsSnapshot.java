@@ -0,0 +1,132 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.util.Arrays;
+
+/**
+ * Holds an immutable copy of the counters of a {@link StatisticsCollector}.
+ * A snapshot can be read, logged or compared at leisure while the collector
+ * keeps being updated.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public final class StatisticsSnapshot {
+    
+    /** Number of rows read from input file (excluding header) */
+    private final long rowsRead;
+    
+    /** Number of products successfully transformed */
+    private final long transformed;
+    
+    /** Number of products skipped due to validation errors */
+    private final long skipped;
+    
+    /** Number of products skipped for each reject reason, indexed by ordinal */
+    private final long[] skippedByReason;
+    
+    /** Whether the write operation was successful */
+    private final boolean writeSuccessful;
+    
+    /**
+     * Constructs a new StatisticsSnapshot without counts by reject reason.
+     * 
+     * @param rowsRead the number of rows read
+     * @param transformed the number of products transformed
+     * @param skipped the number of products skipped
+     * @param writeSuccessful whether the write operation was successful
+     */
+    public StatisticsSnapshot(long rowsRead, long transformed, long skipped, boolean writeSuccessful) {
+        this(rowsRead, transformed, skipped, new long[RejectReason.values().length], writeSuccessful);
+    }
+    
+    /**
+     * Constructs a new StatisticsSnapshot.
+     * 
+     * @param rowsRead the number of rows read
+     * @param transformed the number of products transformed
+     * @param skipped the number of products skipped
+     * @param skippedByReason the number of products skipped for each reject reason, indexed
+     *        by ordinal, which is copied
+     * @param writeSuccessful whether the write operation was successful
+     * @throws IllegalArgumentException if there is not one count per reject reason
+     */
+    public StatisticsSnapshot(long rowsRead, long transformed, long skipped, long[] skippedByReason,
+                              boolean writeSuccessful) {
+        if (skippedByReason.length != RejectReason.values().length) {
+            throw new IllegalArgumentException("Expected one skipped count per reject reason: "
+                + Arrays.toString(skippedByReason));
+        }
+        this.rowsRead = rowsRead;
+        this.transformed = transformed;
+        this.skipped = skipped;
+        this.skippedByReason = skippedByReason.clone();
+        this.writeSuccessful = writeSuccessful;
+    }
+    
+    /**
+     * Gets the number of rows read.
+     * 
+     * @return the number of rows read
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+    
+    /**
+     * Gets the number of products transformed.
+     * 
+     * @return the number of products transformed
+     */
+    public long getTransformed() {
+        return transformed;
+    }
+    
+    /**
+     * Gets the number of products skipped.
+     * 
+     * @return the number of products skipped
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+    
+    /**
+     * Gets the number of products skipped for the given reason.
+     * 
+     * @param reason the reject reason
+     * @return the number of products skipped for this reason
+     */
+    public long getSkipped(RejectReason reason) {
+        return skippedByReason[reason.ordinal()];
+    }
+    
+    /**
+     * Gets the write operation success status.
+     * 
+     * @return true if write was successful, false otherwise
+     */
+    public boolean isWriteSuccessful() {
+        return writeSuccessful;
+    }
+    
+    /**
+     * Returns a summary of the statistics in the same format as
+     * {@link StatisticsCollector#getSummary()}.
+     * 
+     * @return a formatted string containing all statistics
+     */
+    public String getSummary() {
+        return String.format("Rows read: %d, Transformed: %d, Skipped: %d, Write successful: %b",
+                rowsRead, transformed, skipped, writeSuccessful);
+    }
+    
+    /**
+     * Returns the summary of the statistics.
+     * 
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        return getSummary();
+    }
+}
@@ -0,0 +1,381 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A business rule applied by {@link DataTransformer}: a predicate on the product and an
+ * action taken when it holds. The predicate has two optional parts, both of which must
+ * hold:
+ * <ul>
+ *   <li>a category condition, true when the category the product had before any rule ran
+ *       is one of the listed categories, ignoring case and surrounding whitespace;</li>
+ *   <li>a price condition, comparing the price as left by the previous rules with a
+ *       threshold of at most two decimal places.</li>
+ * </ul>
+ * A rule without conditions applies to every product. Rules are immutable; the
+ * {@code for}/{@code when} methods return a copy with the condition added.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public final class TransformRule {
+    
+    /**
+     * The action a rule takes on a product.
+     */
+    public enum Action {
+        
+        /** Uppercases the name with {@link Locale#ROOT} */
+        UPPERCASE_NAME("uppercase-name"),
+        
+        /** Multiplies the price by a factor, rounding to cents with HALF_UP */
+        MULTIPLY_PRICE("multiply-price"),
+        
+        /** Replaces the category */
+        SET_CATEGORY("set-category"),
+        
+        /** Sets the price range from the current price, see {@link RuleSet#getPriceBands()} */
+        PRICE_RANGE("price-range");
+        
+        /** Name of the action in rule files */
+        private final String key;
+        
+        /**
+         * Constructs a new Action.
+         * 
+         * @param key the name of the action in rule files
+         */
+        Action(String key) {
+            this.key = key;
+        }
+        
+        /**
+         * Gets the name of the action in rule files.
+         * 
+         * @return the action name
+         */
+        public String getKey() {
+            return key;
+        }
+        
+        /**
+         * Finds an action by its name in rule files.
+         * 
+         * @param key the action name
+         * @return the action
+         * @throws IllegalArgumentException if no action has this name
+         */
+        public static Action fromKey(String key) {
+            for (Action action : values()) {
+                if (action.key.equals(key)) {
+                    return action;
+                }
+            }
+            throw new IllegalArgumentException("Unknown rule action: " + key);
+        }
+    }
+    
+    /**
+     * The comparison of a price condition.
+     */
+    public enum Comparison {
+        
+        /** The price is greater than the threshold */
+        GREATER(">"),
+        
+        /** The price is greater than or equal to the threshold */
+        GREATER_OR_EQUAL(">="),
+        
+        /** The price is less than the threshold */
+        LESS("<"),
+        
+        /** The price is less than or equal to the threshold */
+        LESS_OR_EQUAL("<=");
+        
+        /** Symbol of the comparison in rule files */
+        private final String symbol;
+        
+        /**
+         * Constructs a new Comparison.
+         * 
+         * @param symbol the symbol of the comparison in rule files
+         */
+        Comparison(String symbol) {
+            this.symbol = symbol;
+        }
+        
+        /**
+         * Gets the symbol of the comparison in rule files.
+         * 
+         * @return the comparison symbol
+         */
+        public String getSymbol() {
+            return symbol;
+        }
+        
+        /**
+         * Checks the result of comparing a price with the threshold.
+         * 
+         * @param comparison the sign of the price minus the threshold, as returned by compareTo
+         * @return true if the condition holds
+         */
+        public boolean test(int comparison) {
+            switch (this) {
+                case GREATER:
+                    return comparison > 0;
+                case GREATER_OR_EQUAL:
+                    return comparison >= 0;
+                case LESS:
+                    return comparison < 0;
+                default:
+                    return comparison <= 0;
+            }
+        }
+        
+        /**
+         * Finds a comparison by its symbol in rule files.
+         * 
+         * @param symbol the comparison symbol
+         * @return the comparison
+         * @throws IllegalArgumentException if no comparison has this symbol
+         */
+        public static Comparison fromSymbol(String symbol) {
+            for (Comparison comparison : values()) {
+                if (comparison.symbol.equals(symbol)) {
+                    return comparison;
+                }
+            }
+            throw new IllegalArgumentException("Unknown price comparison: " + symbol);
+        }
+    }
+    
+    /** Name of the rule, used in rule files and error messages */
+    private final String name;
+    
+    /** Action taken when the predicate holds */
+    private final Action action;
+    
+    /** Factor of a {@link Action#MULTIPLY_PRICE} rule, otherwise null */
+    private final BigDecimal factor;
+    
+    /** Target category of a {@link Action#SET_CATEGORY} rule, otherwise null */
+    private final String targetCategory;
+    
+    /** Categories the rule applies to, empty for every category */
+    private final List<String> categories;
+    
+    /** Comparison of the price condition, or null for every price */
+    private final Comparison priceComparison;
+    
+    /** Threshold of the price condition, or null for every price */
+    private final BigDecimal priceThreshold;
+    
+    /**
+     * Constructs a new TransformRule.
+     * 
+     * @param name the name of the rule
+     * @param action the action taken when the predicate holds
+     * @param factor the factor of a price multiplication, or null
+     * @param targetCategory the target category of a recategorization, or null
+     * @param categories the categories the rule applies to, empty for every category
+     * @param priceComparison the comparison of the price condition, or null
+     * @param priceThreshold the threshold of the price condition, or null
+     */
+    private TransformRule(String name, Action action, BigDecimal factor, String targetCategory,
+                          List<String> categories, Comparison priceComparison, BigDecimal priceThreshold) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.action = action;
+        this.factor = factor;
+        this.targetCategory = targetCategory;
+        this.categories = categories;
+        this.priceComparison = priceComparison;
+        this.priceThreshold = priceThreshold;
+    }
+    
+    /**
+     * Creates a rule that uppercases product names.
+     * 
+     * @param name the name of the rule
+     * @return the rule, applying to every product
+     */
+    public static TransformRule uppercaseName(String name) {
+        return new TransformRule(name, Action.UPPERCASE_NAME, null, null, Collections.<String>emptyList(), null, null);
+    }
+    
+    /**
+     * Creates a rule that multiplies prices by a factor, rounding to cents with HALF_UP.
+     * 
+     * @param name the name of the rule
+     * @param factor the factor, for example 0.90 for a 10% discount
+     * @return the rule, applying to every product
+     */
+    public static TransformRule multiplyPrice(String name, BigDecimal factor) {
+        return new TransformRule(name, Action.MULTIPLY_PRICE, Objects.requireNonNull(factor, "factor"), null,
+            Collections.<String>emptyList(), null, null);
+    }
+    
+    /**
+     * Creates a rule that replaces the category.
+     * 
+     * @param name the name of the rule
+     * @param category the new category
+     * @return the rule, applying to every product
+     */
+    public static TransformRule setCategory(String name, String category) {
+        return new TransformRule(name, Action.SET_CATEGORY, null, Objects.requireNonNull(category, "category"),
+            Collections.<String>emptyList(), null, null);
+    }
+    
+    /**
+     * Creates a rule that sets the price range from the current price.
+     * 
+     * @param name the name of the rule
+     * @return the rule, applying to every product
+     */
+    public static TransformRule priceRange(String name) {
+        return new TransformRule(name, Action.PRICE_RANGE, null, null, Collections.<String>emptyList(), null, null);
+    }
+    
+    /**
+     * Returns a copy of this rule that only applies to products of the given categories.
+     * 
+     * @param categories the categories, compared ignoring case and surrounding whitespace
+     * @return the restricted rule
+     * @throws IllegalArgumentException if no category is given
+     */
+    public TransformRule forCategories(String... categories) {
+        if (categories.length == 0) {
+            throw new IllegalArgumentException("Rule " + name + " needs at least one category");
+        }
+        List<String> list = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(categories)));
+        return new TransformRule(name, action, factor, targetCategory, list, priceComparison, priceThreshold);
+    }
+    
+    /**
+     * Returns a copy of this rule that only applies when the price compares to a threshold
+     * as given.
+     * 
+     * @param comparison the comparison
+     * @param threshold the threshold, with at most two decimal places
+     * @return the restricted rule
+     * @throws IllegalArgumentException if the threshold is not representable in cents
+     */
+    public TransformRule whenPrice(Comparison comparison, BigDecimal threshold) {
+        if (FixedPointPrice.fromBigDecimal(threshold) == FixedPointPrice.NOT_REPRESENTABLE) {
+            throw new IllegalArgumentException("Rule " + name + " has a price threshold that is not whole cents: "
+                + threshold);
+        }
+        return new TransformRule(name, action, factor, targetCategory, categories,
+            Objects.requireNonNull(comparison, "comparison"), threshold);
+    }
+    
+    /**
+     * Checks whether the category condition of the rule holds for a category.
+     * 
+     * @param category the category the product had before any rule ran
+     * @return true if the rule has no category condition or lists this category
+     */
+    public boolean matchesCategory(String category) {
+        if (categories.isEmpty()) {
+            return true;
+        }
+        for (String candidate : categories) {
+            if (ProductValidator.equalsIgnoreCaseTrim(category, candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Gets the name of the rule.
+     * 
+     * @return the rule name
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Gets the action taken when the predicate holds.
+     * 
+     * @return the action
+     */
+    public Action getAction() {
+        return action;
+    }
+    
+    /**
+     * Gets the factor of a {@link Action#MULTIPLY_PRICE} rule.
+     * 
+     * @return the factor, or null for other actions
+     */
+    public BigDecimal getFactor() {
+        return factor;
+    }
+    
+    /**
+     * Gets the target category of a {@link Action#SET_CATEGORY} rule.
+     * 
+     * @return the target category, or null for other actions
+     */
+    public String getTargetCategory() {
+        return targetCategory;
+    }
+    
+    /**
+     * Gets the categories the rule applies to.
+     * 
+     * @return the categories, empty if the rule applies to every category
+     */
+    public List<String> getCategories() {
+        return categories;
+    }
+    
+    /**
+     * Gets the comparison of the price condition.
+     * 
+     * @return the comparison, or null if the rule applies to every price
+     */
+    public Comparison getPriceComparison() {
+        return priceComparison;
+    }
+    
+    /**
+     * Gets the threshold of the price condition.
+     * 
+     * @return the threshold, or null if the rule applies to every price
+     */
+    public BigDecimal getPriceThreshold() {
+        return priceThreshold;
+    }
+    
+    /**
+     * Returns a description of the rule holding everything that affects its result.
+     * 
+     * @return a string representation of the rule
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(name).append(": ").append(action.getKey());
+        if (factor != null) {
+            builder.append(' ').append(factor);
+        }
+        if (targetCategory != null) {
+            builder.append(' ').append(targetCategory);
+        }
+        if (!categories.isEmpty()) {
+            builder.append(" for ").append(categories);
+        }
+        if (priceComparison != null) {
+            builder.append(" when price ").append(priceComparison.getSymbol()).append(' ').append(priceThreshold);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.util.Objects;
+
+/**
+ * Holds the outcome of parsing one data row: either the parsed product or the reason
+ * the row was rejected. Rejections carry no other state, so there is a single shared
+ * instance per reason and rejecting a row allocates nothing.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public final class ValidationResult {
+    
+    /** Shared rejection of each reason, indexed by ordinal */
+    private static final ValidationResult[] REJECTIONS = new ValidationResult[RejectReason.values().length];
+    
+    static {
+        for (RejectReason reason : RejectReason.values()) {
+            REJECTIONS[reason.ordinal()] = new ValidationResult(null, reason);
+        }
+    }
+    
+    /** The parsed product, or null if the row was rejected */
+    private final Product product;
+    
+    /** The reason the row was rejected, or null if it is valid */
+    private final RejectReason reason;
+    
+    /**
+     * Constructs a new ValidationResult.
+     * 
+     * @param product the parsed product, or null
+     * @param reason the reason the row was rejected, or null
+     */
+    private ValidationResult(Product product, RejectReason reason) {
+        this.product = product;
+        this.reason = reason;
+    }
+    
+    /**
+     * Creates the result of a valid row.
+     * 
+     * @param product the parsed product
+     * @return the result
+     */
+    public static ValidationResult valid(Product product) {
+        return new ValidationResult(Objects.requireNonNull(product, "product"), null);
+    }
+    
+    /**
+     * Gets the result of a row rejected for the given reason.
+     * 
+     * @param reason the reason the row was rejected
+     * @return the shared result for this reason
+     */
+    public static ValidationResult rejected(RejectReason reason) {
+        return REJECTIONS[reason.ordinal()];
+    }
+    
+    /**
+     * Checks whether the row is valid.
+     * 
+     * @return true if the row was parsed into a product, false if it was rejected
+     */
+    public boolean isValid() {
+        return product != null;
+    }
+    
+    /**
+     * Gets the parsed product.
+     * 
+     * @return the product, or null if the row was rejected
+     */
+    public Product getProduct() {
+        return product;
+    }
+    
+    /**
+     * Gets the reason the row was rejected.
+     * 
+     * @return the reason, or null if the row is valid
+     */
+    public RejectReason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,92 @@
+package org.howard.edu.lsp.assignment3.benchmark;
+
+/**
+ * Holds the measurements of one benchmark: its throughput in operations and rows per
+ * second, and the memory it allocated and the garbage collections it caused per operation.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class BenchmarkResult {
+    
+    /** Value reported when allocation is not measured by the JVM */
+    public static final long UNAVAILABLE = -1;
+    
+    /** Name of the benchmark */
+    private final String name;
+    
+    /** Mean number of operations per second over the measured iterations */
+    private final double opsPerSecond;
+    
+    /** Mean number of rows processed per second over the measured iterations */
+    private final double rowsPerSecond;
+    
+    /** Mean number of bytes allocated per operation, or {@link #UNAVAILABLE} */
+    private final long allocatedBytesPerOp;
+    
+    /** Mean number of garbage collections per operation */
+    private final double gcCountPerOp;
+    
+    /**
+     * Constructs a new BenchmarkResult.
+     * 
+     * @param name the name of the benchmark
+     * @param opsPerSecond the mean number of operations per second
+     * @param rowsPerSecond the mean number of rows processed per second
+     * @param allocatedBytesPerOp the mean number of bytes allocated per operation, or {@link #UNAVAILABLE}
+     * @param gcCountPerOp the mean number of garbage collections per operation
+     */
+    public BenchmarkResult(String name, double opsPerSecond, double rowsPerSecond,
+                           long allocatedBytesPerOp, double gcCountPerOp) {
+        this.name = name;
+        this.opsPerSecond = opsPerSecond;
+        this.rowsPerSecond = rowsPerSecond;
+        this.allocatedBytesPerOp = allocatedBytesPerOp;
+        this.gcCountPerOp = gcCountPerOp;
+    }
+    
+    /**
+     * Gets the name of the benchmark.
+     * 
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Gets the mean number of operations per second.
+     * 
+     * @return the operations per second
+     */
+    public double getOpsPerSecond() {
+        return opsPerSecond;
+    }
+    
+    /**
+     * Gets the mean number of rows processed per second.
+     * 
+     * @return the rows per second
+     */
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+    
+    /**
+     * Gets the mean number of bytes allocated per operation by the benchmark thread.
+     * 
+     * @return the allocated bytes per operation, or {@link #UNAVAILABLE} if the JVM does not report them
+     */
+    public long getAllocatedBytesPerOp() {
+        return allocatedBytesPerOp;
+    }
+    
+    /**
+     * Gets the mean number of garbage collections per operation.
+     * 
+     * @return the collections per operation
+     */
+    public double getGcCountPerOp() {
+        return gcCountPerOp;
+    }
+}
@@ -0,0 +1,254 @@
+package org.howard.edu.lsp.assignment3.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Runs benchmarks with warmup and measured iterations and compares them to a saved baseline.
+ * Each benchmark is a {@link Workload} that performs one operation per call. For every
+ * measured iteration the runner records the elapsed time, the bytes allocated by the
+ * calling thread and the garbage collections, and reports their means, much as the
+ * JMH garbage collection profiler does. Results can be saved as a properties file and
+ * later runs compared to it, so that throughput and allocation can be tracked across commits.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class BenchmarkRunner {
+    
+    /**
+     * One benchmark operation.
+     */
+    @FunctionalInterface
+    public interface Workload {
+        
+        /**
+         * Performs the operation once.
+         * 
+         * @return a value computed by the operation, consumed so that it cannot be optimized away
+         * @throws Exception if the operation fails
+         */
+        Object run() throws Exception;
+    }
+    
+    /** Number of untimed iterations run before measuring */
+    private final int warmupIterations;
+    
+    /** Number of timed iterations */
+    private final int measuredIterations;
+    
+    /** Results of the benchmarks run so far, in run order */
+    private final List<BenchmarkResult> results = new ArrayList<>();
+    
+    /** Consumes workload results so that the JIT cannot discard the work */
+    private volatile int sink;
+    
+    /**
+     * Constructs a new BenchmarkRunner.
+     * 
+     * @param warmupIterations the number of untimed iterations, at least 0
+     * @param measuredIterations the number of timed iterations, at least 1
+     * @throws IllegalArgumentException if an iteration count is out of range
+     */
+    public BenchmarkRunner(int warmupIterations, int measuredIterations) {
+        if (warmupIterations < 0 || measuredIterations < 1) {
+            throw new IllegalArgumentException("Iterations must be at least 1 and warmup iterations at least 0");
+        }
+        this.warmupIterations = warmupIterations;
+        this.measuredIterations = measuredIterations;
+    }
+    
+    /**
+     * Runs a benchmark and records its result.
+     * 
+     * @param name the name of the benchmark
+     * @param rowsPerOp the number of rows processed by one operation
+     * @param workload the operation to measure
+     * @return the result
+     * @throws Exception if the workload fails
+     */
+    public BenchmarkResult run(String name, long rowsPerOp, Workload workload) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            consume(workload.run());
+        }
+        
+        long totalNanos = 0;
+        long totalAllocated = 0;
+        long totalGcCount = 0;
+        boolean allocationMeasured = true;
+        for (int i = 0; i < measuredIterations; i++) {
+            long gcBefore = sampleGcCount();
+            long allocatedBefore = sampleAllocatedBytes();
+            long start = System.nanoTime();
+            consume(workload.run());
+            totalNanos += System.nanoTime() - start;
+            long allocatedAfter = sampleAllocatedBytes();
+            totalGcCount += sampleGcCount() - gcBefore;
+            if (allocatedBefore == BenchmarkResult.UNAVAILABLE || allocatedAfter == BenchmarkResult.UNAVAILABLE) {
+                allocationMeasured = false;
+            } else {
+                totalAllocated += allocatedAfter - allocatedBefore;
+            }
+        }
+        
+        double seconds = Math.max(totalNanos, 1) / 1e9;
+        BenchmarkResult result = new BenchmarkResult(name,
+            measuredIterations / seconds,
+            rowsPerOp * measuredIterations / seconds,
+            allocationMeasured ? totalAllocated / measuredIterations : BenchmarkResult.UNAVAILABLE,
+            (double) totalGcCount / measuredIterations);
+        results.add(result);
+        return result;
+    }
+    
+    /**
+     * Gets the results of the benchmarks run so far.
+     * 
+     * @return an unmodifiable list of results in run order
+     */
+    public List<BenchmarkResult> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+    
+    /**
+     * Formats a result as a row of the report printed by the benchmarks.
+     * 
+     * @param result the result to format
+     * @return the formatted row
+     */
+    public static String formatResult(BenchmarkResult result) {
+        String allocated = result.getAllocatedBytesPerOp() == BenchmarkResult.UNAVAILABLE
+            ? "n/a" : String.valueOf(result.getAllocatedBytesPerOp());
+        return String.format(Locale.ROOT, "%-20s %12.2f %16.0f %16s %8.2f",
+            result.getName(), result.getOpsPerSecond(), result.getRowsPerSecond(), allocated, result.getGcCountPerOp());
+    }
+    
+    /**
+     * Gets the header of the report printed by the benchmarks.
+     * 
+     * @return the header row
+     */
+    public static String getReportHeader() {
+        return String.format(Locale.ROOT, "%-20s %12s %16s %16s %8s", "Benchmark", "Ops/sec", "Rows/sec", "Alloc B/op", "GC/op");
+    }
+    
+    /**
+     * Saves the results as a baseline properties file.
+     * 
+     * @param path the path of the baseline file, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void saveBaseline(Path path) throws IOException {
+        Properties baseline = new Properties();
+        for (BenchmarkResult result : results) {
+            baseline.setProperty(result.getName() + ".opsPerSecond", Double.toString(result.getOpsPerSecond()));
+            baseline.setProperty(result.getName() + ".allocatedBytesPerOp", Long.toString(result.getAllocatedBytesPerOp()));
+        }
+        try (OutputStream out = Files.newOutputStream(path)) {
+            baseline.store(out, "ETL pipeline benchmark baseline");
+        }
+    }
+    
+    /**
+     * Compares the results to a baseline file and prints the change of each benchmark.
+     * A benchmark regresses when its throughput drops, or its allocation grows, by more
+     * than the tolerance. Benchmarks missing from the baseline are reported as new.
+     * 
+     * @param path the path of the baseline file
+     * @param tolerancePercent the allowed change in percent
+     * @return the number of regressed benchmarks
+     * @throws IOException if the file cannot be read
+     */
+    public int compareToBaseline(Path path, double tolerancePercent) throws IOException {
+        Properties baseline = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            baseline.load(in);
+        }
+        
+        System.out.println(String.format(Locale.ROOT, "%-20s %12s %12s %8s", "Benchmark", "Ops/sec", "Alloc B/op", "Status"));
+        int regressions = 0;
+        for (BenchmarkResult result : results) {
+            String ops = baseline.getProperty(result.getName() + ".opsPerSecond");
+            if (ops == null) {
+                System.out.println(String.format(Locale.ROOT, "%-20s %12s %12s %8s", result.getName(), "", "", "new"));
+                continue;
+            }
+            double opsChange = percentChange(Double.parseDouble(ops), result.getOpsPerSecond());
+            long baseAllocated = Long.parseLong(baseline.getProperty(result.getName() + ".allocatedBytesPerOp",
+                Long.toString(BenchmarkResult.UNAVAILABLE)));
+            boolean allocationCompared = baseAllocated != BenchmarkResult.UNAVAILABLE
+                && result.getAllocatedBytesPerOp() != BenchmarkResult.UNAVAILABLE;
+            double allocatedChange = allocationCompared
+                ? percentChange(baseAllocated, result.getAllocatedBytesPerOp()) : 0;
+            
+            boolean regressed = opsChange < -tolerancePercent || allocatedChange > tolerancePercent;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format(Locale.ROOT, "%-20s %+11.1f%% %12s %8s", result.getName(), opsChange,
+                allocationCompared ? String.format(Locale.ROOT, "%+.1f%%", allocatedChange) : "n/a",
+                regressed ? "REGRESSED" : "ok"));
+        }
+        return regressions;
+    }
+    
+    /**
+     * Computes the change from a baseline value in percent.
+     * 
+     * @param base the baseline value
+     * @param current the current value
+     * @return the change in percent, or 0 if the baseline value is 0
+     */
+    private static double percentChange(double base, double current) {
+        return base == 0 ? 0 : (current - base) * 100 / base;
+    }
+    
+    /**
+     * Consumes a workload result.
+     * 
+     * @param value the result
+     */
+    private void consume(Object value) {
+        sink += System.identityHashCode(value);
+    }
+    
+    /**
+     * Sums the collection counts of all garbage collectors.
+     * 
+     * @return the number of collections
+     */
+    private static long sampleGcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(collector.getCollectionCount(), 0);
+        }
+        return total;
+    }
+    
+    /**
+     * Gets the number of bytes allocated so far by the calling thread.
+     * 
+     * @return the allocated bytes, or {@link BenchmarkResult#UNAVAILABLE} if the JVM does not report them
+     */
+    private static long sampleAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+            if (allocation.isThreadAllocatedMemorySupported() && allocation.isThreadAllocatedMemoryEnabled()) {
+                return allocation.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return BenchmarkResult.UNAVAILABLE;
+    }
+}
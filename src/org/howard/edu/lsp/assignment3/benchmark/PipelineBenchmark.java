@@ -0,0 +1,228 @@
+package org.howard.edu.lsp.assignment3.benchmark;
+
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.howard.edu.lsp.assignment3.DataExtractor;
+import org.howard.edu.lsp.assignment3.DataLoader;
+import org.howard.edu.lsp.assignment3.DataTransformer;
+import org.howard.edu.lsp.assignment3.ETLPipeline;
+import org.howard.edu.lsp.assignment3.MappedDataExtractor;
+import org.howard.edu.lsp.assignment3.PipelineOptions;
+import org.howard.edu.lsp.assignment3.PriceBands;
+import org.howard.edu.lsp.assignment3.PriceRangeCalculator;
+import org.howard.edu.lsp.assignment3.Product;
+import org.howard.edu.lsp.assignment3.StatisticsCollector;
+
+/**
+ * Benchmarks each phase of the ETL pipeline and the end-to-end {@link ETLPipeline#execute()}
+ * on a synthetic input file, reporting operations and rows per second, bytes allocated per
+ * operation and garbage collections per operation. Results can be saved as a baseline and
+ * later runs compared to it, which fails the run when a benchmark regresses.
+ * 
+ * <p>Usage: {@code PipelineBenchmark [--rows <n>] [--categories <mix>] [--seed <n>]
+ * [--warmup <n>] [--iterations <n>] [--save <file>] [--baseline <file>] [--tolerance <percent>]},
+ * where the category mix is written as {@code Electronics=3,Books=1}.</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class PipelineBenchmark {
+    
+    /** Default number of generated products */
+    private static final int DEFAULT_ROWS = 200_000;
+    
+    /** Default number of untimed iterations per benchmark */
+    private static final int DEFAULT_WARMUP = 3;
+    
+    /** Default number of timed iterations per benchmark */
+    private static final int DEFAULT_ITERATIONS = 5;
+    
+    /** Default allowed change from the baseline in percent */
+    private static final double DEFAULT_TOLERANCE = 10;
+    
+    /** Price bands with more bands than the default ones */
+    private static final String REGIONAL_BANDS = "Budget <= 5.00, Low <= 10.00, Value <= 50.00, Medium <= 100.00, "
+        + "Upper <= 250.00, High <= 500.00, Luxury <= 1000.00, Premium";
+    
+    /**
+     * Runs the benchmarks.
+     * 
+     * @param args the options described in the class documentation
+     * @throws Exception if a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        int rows = DEFAULT_ROWS;
+        String[] categoryMix = SyntheticProducts.getDefaultCategoryMix();
+        long seed = 42L;
+        int warmup = DEFAULT_WARMUP;
+        int iterations = DEFAULT_ITERATIONS;
+        Path save = null;
+        Path baseline = null;
+        double tolerance = DEFAULT_TOLERANCE;
+        
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for option: " + arg);
+            }
+            String value = args[++i];
+            if ("--rows".equals(arg)) {
+                rows = Integer.parseInt(value);
+            } else if ("--categories".equals(arg)) {
+                categoryMix = SyntheticProducts.parseCategoryMix(value);
+            } else if ("--seed".equals(arg)) {
+                seed = Long.parseLong(value);
+            } else if ("--warmup".equals(arg)) {
+                warmup = Integer.parseInt(value);
+            } else if ("--iterations".equals(arg)) {
+                iterations = Integer.parseInt(value);
+            } else if ("--save".equals(arg)) {
+                save = Paths.get(value);
+            } else if ("--baseline".equals(arg)) {
+                baseline = Paths.get(value);
+            } else if ("--tolerance".equals(arg)) {
+                tolerance = Double.parseDouble(value);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations);
+        int regressions = 0;
+        Path directory = Files.createTempDirectory("etl-benchmark");
+        try {
+            Path input = directory.resolve("products.csv");
+            Path output = directory.resolve("transformed_products.csv");
+            SyntheticProducts.writeCsv(SyntheticProducts.generate(rows, seed, categoryMix), input);
+            
+            System.out.println("---- Pipeline Benchmarks ----");
+            System.out.println("Rows: " + rows + ", warmup: " + warmup + ", iterations: " + iterations);
+            System.out.println(BenchmarkRunner.getReportHeader());
+            runPhases(runner, input, output, rows);
+            runPipeline(runner, input, output, rows);
+            
+            if (save != null) {
+                runner.saveBaseline(save);
+                System.out.println("Baseline saved to " + save);
+            }
+            if (baseline != null) {
+                System.out.println("---- Comparison with " + baseline + " ----");
+                regressions = runner.compareToBaseline(baseline, tolerance);
+            }
+        } finally {
+            Files.deleteIfExists(directory.resolve("products.csv"));
+            Files.deleteIfExists(directory.resolve("transformed_products.csv"));
+            Files.deleteIfExists(directory);
+        }
+        
+        if (regressions > 0) {
+            System.err.println(regressions + " benchmark(s) regressed by more than " + tolerance + "%");
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Runs the benchmarks of the individual phases.
+     * 
+     * @param runner the runner that measures the benchmarks
+     * @param input the synthetic input file
+     * @param output the file written by the load benchmark
+     * @param rows the number of rows in the input file
+     * @throws Exception if a benchmark fails
+     */
+    private static void runPhases(BenchmarkRunner runner, Path input, Path output, int rows) throws Exception {
+        DataExtractor extractor = new DataExtractor();
+        report(runner.run("extract", rows, () -> extractor.extract(input, new StatisticsCollector())));
+        
+        MappedDataExtractor mappedExtractor = new MappedDataExtractor();
+        mappedExtractor.setFixedPointPrices(true);
+        report(runner.run("extract.mmap", rows, () -> mappedExtractor.extract(input, new StatisticsCollector())));
+        
+        List<Product> products = extractor.extract(input, new StatisticsCollector());
+        DataTransformer transformer = new DataTransformer(extractor.getCategories());
+        report(runner.run("transform", rows, () -> transformer.transform(products, new StatisticsCollector())));
+        
+        List<Product> transformed = transformer.transform(products, new StatisticsCollector());
+        report(runner.run("priceRange", rows, () -> {
+            int ranges = 0;
+            for (Product product : transformed) {
+                ranges += PriceRangeCalculator.calculatePriceRange(product.getPrice()).length();
+            }
+            return ranges;
+        }));
+        
+        long[] cents = new long[transformed.size()];
+        for (int i = 0; i < cents.length; i++) {
+            cents[i] = transformed.get(i).getPrice().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+        }
+        report(runner.run("priceRange.cents", rows, () -> {
+            int ranges = 0;
+            for (long priceCents : cents) {
+                ranges += PriceRangeCalculator.calculatePriceRangeIndex(priceCents);
+            }
+            return ranges;
+        }));
+        
+        PriceBands bands = PriceRangeCalculator.getBands();
+        report(runner.run("priceRange.bands", rows, () -> {
+            int ranges = 0;
+            for (Product product : transformed) {
+                ranges += bands.classify(product.getPrice()).length();
+            }
+            return ranges;
+        }));
+        report(runner.run("priceRange.bands.cents", rows, () -> {
+            int ranges = 0;
+            for (long priceCents : cents) {
+                ranges += bands.indexOf(priceCents);
+            }
+            return ranges;
+        }));
+        
+        PriceBands regionalBands = PriceBands.parse(REGIONAL_BANDS);
+        report(runner.run("priceRange.bands8.cents", rows, () -> {
+            int ranges = 0;
+            for (long priceCents : cents) {
+                ranges += regionalBands.indexOf(priceCents);
+            }
+            return ranges;
+        }));
+        
+        DataLoader loader = new DataLoader();
+        report(runner.run("load", rows, () -> loader.load(transformed, output, new StatisticsCollector())));
+    }
+    
+    /**
+     * Runs the end-to-end benchmark of {@link ETLPipeline#execute()} on the synthetic input
+     * file. The pipeline's own summary is not printed.
+     * 
+     * @param runner the runner that measures the benchmark
+     * @param input the synthetic input file
+     * @param output the output file to write
+     * @param rows the number of rows in the input file
+     * @throws Exception if the benchmark fails
+     */
+    private static void runPipeline(BenchmarkRunner runner, Path input, Path output, int rows) throws Exception {
+        report(runner.run("pipeline", rows, () -> {
+            ETLPipeline pipeline = new ETLPipeline(new PipelineOptions(), input, output);
+            pipeline.setPrintSummary(false);
+            if (!pipeline.execute()) {
+                throw new IllegalStateException("Pipeline run failed on " + input);
+            }
+            return pipeline;
+        }));
+    }
+    
+    /**
+     * Prints a benchmark result.
+     * 
+     * @param result the result to print
+     */
+    private static void report(BenchmarkResult result) {
+        System.out.println(BenchmarkRunner.formatResult(result));
+    }
+}
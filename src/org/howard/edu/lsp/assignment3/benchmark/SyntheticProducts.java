@@ -0,0 +1,142 @@
+package org.howard.edu.lsp.assignment3.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.howard.edu.lsp.assignment3.Product;
+
+/**
+ * Generates synthetic product data for the performance benchmarks.
+ * The generator is seeded, so every run of a benchmark works on the same data.
+ * The category mix can be configured, and products can be written as an input CSV
+ * file for the extract phase and end-to-end benchmarks.
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class SyntheticProducts {
+    
+    /** Product names used by the generator */
+    private static final String[] NAMES = {
+        "Laptop", "Wireless Mouse", "Desk Chair", "Coffee Mug", "Notebook", "Headphones", "Monitor", "Stapler"
+    };
+    
+    /** Categories used by the generator, Electronics appearing most often */
+    private static final String[] CATEGORIES = {
+        "Electronics", "Electronics", "Office Supplies", "Furniture", "Kitchen", "Books"
+    };
+    
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private SyntheticProducts() {
+    }
+    
+    /**
+     * Generates a list of untransformed products with prices between 0.00 and 1999.99.
+     * 
+     * @param count the number of products to generate
+     * @param seed the random seed
+     * @return the generated products
+     */
+    public static List<Product> generate(int count, long seed) {
+        return generate(count, seed, CATEGORIES);
+    }
+    
+    /**
+     * Generates a list of untransformed products with prices between 0.00 and 1999.99
+     * and categories drawn from the given mix.
+     * 
+     * @param count the number of products to generate
+     * @param seed the random seed
+     * @param categoryMix the categories to draw from, a category listed n times being drawn n times as often
+     * @return the generated products
+     * @throws IllegalArgumentException if categoryMix is empty
+     */
+    public static List<Product> generate(int count, long seed, String[] categoryMix) {
+        if (categoryMix.length == 0) {
+            throw new IllegalArgumentException("Category mix must not be empty");
+        }
+        Random random = new Random(seed);
+        List<Product> products = new ArrayList<>(count);
+        
+        for (int i = 0; i < count; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)];
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(200_000), 2);
+            String category = categoryMix[random.nextInt(categoryMix.length)];
+            products.add(new Product(i + 1, name, price, category));
+        }
+        
+        return products;
+    }
+    
+    /**
+     * Parses a category mix such as {@code Electronics=3,Books=1} into the form taken by
+     * {@link #generate(int, long, String[])}. A category without a weight has weight 1.
+     * 
+     * @param spec the comma-separated categories with optional weights
+     * @return the categories, each repeated by its weight
+     * @throws IllegalArgumentException if a weight is not a positive integer or no category is given
+     */
+    public static String[] parseCategoryMix(String spec) {
+        List<String> mix = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            if (entry.trim().isEmpty()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf('=');
+            String category = (separator < 0 ? entry : entry.substring(0, separator)).trim();
+            int weight;
+            try {
+                weight = separator < 0 ? 1 : Integer.parseInt(entry.substring(separator + 1).trim());
+            } catch (NumberFormatException e) {
+                weight = 0;
+            }
+            if (weight < 1 || category.isEmpty()) {
+                throw new IllegalArgumentException("Invalid category mix entry: " + entry);
+            }
+            for (int i = 0; i < weight; i++) {
+                mix.add(category);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Category mix must not be empty");
+        }
+        return mix.toArray(new String[0]);
+    }
+    
+    /**
+     * Gets the default category mix.
+     * 
+     * @return a copy of the default categories, Electronics appearing most often
+     */
+    public static String[] getDefaultCategoryMix() {
+        return CATEGORIES.clone();
+    }
+    
+    /**
+     * Writes products as an input CSV file in the format read by the extractors.
+     * 
+     * @param products the products to write
+     * @param path the path of the file to write, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeCsv(List<Product> products, Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("ProductID,Name,Price,Category");
+            writer.newLine();
+            for (Product product : products) {
+                writer.write(product.getProductId() + "," + product.getName() + ","
+                    + product.getPrice().toPlainString() + "," + product.getCategory());
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.howard.edu.lsp.assignment3.benchmark;
+
+import java.util.List;
+
+import org.howard.edu.lsp.assignment3.DataTransformer;
+import org.howard.edu.lsp.assignment3.ParallelTransformEngine;
+import org.howard.edu.lsp.assignment3.Product;
+import org.howard.edu.lsp.assignment3.StatisticsCollector;
+
+/**
+ * Measures how the throughput of the transform phase scales with the number of threads.
+ * The same synthetic product list is transformed with 1 to N threads, and for each
+ * thread count the best of several timed iterations is reported as rows per second
+ * and as speedup over the single-threaded {@link DataTransformer}.
+ * 
+ * <p>Usage: {@code TransformScalingBenchmark [rows] [maxThreads] [iterations]}</p>
+ * 
+ * @author Giliad Dawite
+ * @version 1.0
+ */
+public class TransformScalingBenchmark {
+    
+    /** Default number of generated products */
+    private static final int DEFAULT_ROWS = 1_000_000;
+    
+    /** Default number of timed iterations per thread count */
+    private static final int DEFAULT_ITERATIONS = 5;
+    
+    /** Number of untimed iterations run before measuring */
+    private static final int WARMUP_ITERATIONS = 3;
+    
+    /**
+     * Runs the scaling benchmark.
+     * 
+     * @param args optional row count, maximum thread count and iteration count
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ITERATIONS;
+        
+        List<Product> products = SyntheticProducts.generate(rows, 42L);
+        DataTransformer transformer = new DataTransformer();
+        
+        System.out.println("---- Transform Scaling ----");
+        System.out.println("Rows: " + rows + ", iterations: " + iterations);
+        System.out.println(String.format("%-8s %12s %16s %8s", "Threads", "Best ms", "Rows/sec", "Speedup"));
+        
+        double baselineNanos = 0;
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            long bestNanos = Long.MAX_VALUE;
+            
+            try (ParallelTransformEngine engine = new ParallelTransformEngine(transformer, threads)) {
+                for (int i = 0; i < WARMUP_ITERATIONS + iterations; i++) {
+                    StatisticsCollector statistics = new StatisticsCollector();
+                    long start = System.nanoTime();
+                    List<Product> transformed = threads == 1
+                        ? transformer.transform(products, statistics)
+                        : engine.transform(products, statistics);
+                    long elapsed = System.nanoTime() - start;
+                    
+                    if (transformed.size() != rows || statistics.getTransformed() != rows) {
+                        throw new IllegalStateException("Transformed count mismatch with " + threads + " threads");
+                    }
+                    if (i >= WARMUP_ITERATIONS) {
+                        bestNanos = Math.min(bestNanos, elapsed);
+                    }
+                }
+            }
+            
+            if (threads == 1) {
+                baselineNanos = bestNanos;
+            }
+            System.out.println(String.format("%-8d %12.1f %16.0f %7.2fx",
+                threads, bestNanos / 1e6, rows / (bestNanos / 1e9), baselineNanos / bestNanos));
+        }
+    }
+}